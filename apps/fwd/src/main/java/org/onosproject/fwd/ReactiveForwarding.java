@@ -99,6 +99,12 @@ public class ReactiveForwarding {
     private static final int DEFAULT_TIMEOUT = 10;
     private static final int DEFAULT_PRIORITY = 10;
 
+    // Packets offered to the packet processor; the ones it requests
+    private static final Set<TrafficSelector> FORWARDED_PACKETS = ImmutableSet.of(
+            DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_IPV4).build(),
+            DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_ARP).build(),
+            DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_IPV6).build());
+
     private final Logger log = getLogger(getClass());
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -215,7 +221,7 @@ public class ReactiveForwarding {
         cfgService.registerProperties(getClass());
         appId = coreService.registerApplication("org.onosproject.fwd");
 
-        packetService.addProcessor(processor, PacketProcessor.director(2));
+        packetService.addProcessor(processor, PacketProcessor.director(2), FORWARDED_PACKETS);
         topologyService.addListener(topologyListener);
         readComponentConfiguration(context);
         requestIntercepts();
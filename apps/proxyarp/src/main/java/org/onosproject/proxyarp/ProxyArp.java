@@ -15,6 +15,7 @@
  */
 package org.onosproject.proxyarp;
 
+import com.google.common.collect.ImmutableSet;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -40,6 +41,7 @@ import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
 import java.util.Dictionary;
+import java.util.Set;
 
 import static org.onlab.packet.Ethernet.TYPE_ARP;
 import static org.onlab.packet.Ethernet.TYPE_IPV6;
@@ -58,6 +60,12 @@ import static org.slf4j.LoggerFactory.getLogger;
 @Component(enabled = false)
 public class ProxyArp {
 
+    // Packets offered to the packet processor; ARP and IPv6 neighbor discovery
+    private static final Set<TrafficSelector> PROXIED_PACKETS = ImmutableSet.of(
+            DefaultTrafficSelector.builder().matchEthType(TYPE_ARP).build(),
+            DefaultTrafficSelector.builder().matchEthType(TYPE_IPV6)
+                    .matchIPProtocol(PROTOCOL_ICMP6).build());
+
     private final Logger log = getLogger(getClass());
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -85,7 +93,7 @@ public class ProxyArp {
         cfgService.registerProperties(getClass());
         appId = coreService.registerApplication("org.onosproject.proxyarp");
 
-        packetService.addProcessor(processor, PacketProcessor.director(1));
+        packetService.addProcessor(processor, PacketProcessor.director(1), PROXIED_PACKETS);
         readComponentConfiguration(context);
         requestPackets();
 
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cli.net;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.apache.karaf.shell.commands.Command;
+import org.onosproject.cli.AbstractShellCommand;
+import org.onosproject.net.packet.PacketInStatistics;
+import org.onosproject.net.packet.PacketService;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Lists the inbound packets admitted and dropped per connect point.
+ */
+@Command(scope = "onos", name = "packet-in-stats",
+        description = "Lists the inbound packets admitted and dropped per connect point")
+public class PacketInStatisticsCommand extends AbstractShellCommand {
+
+    private static final String FMT = "device=%s, port=%s, admitted=%d, dropped=%d";
+
+    @Override
+    protected void execute() {
+        PacketService service = get(PacketService.class);
+        List<PacketInStatistics> stats = service.getPacketInStatistics().stream()
+                .sorted(Comparator.comparing((PacketInStatistics s) -> s.connectPoint().deviceId().toString())
+                                .thenComparing(s -> s.connectPoint().port().toLong()))
+                .collect(toList());
+        if (outputJson()) {
+            print("%s", json(stats));
+        } else {
+            stats.forEach(this::print);
+        }
+    }
+
+    private JsonNode json(List<PacketInStatistics> stats) {
+        ObjectMapper mapper = new ObjectMapper();
+        ArrayNode result = mapper.createArrayNode();
+
+        for (PacketInStatistics s : stats) {
+            result.add(mapper.createObjectNode()
+                    .put("device", s.connectPoint().deviceId().toString())
+                    .put("port", s.connectPoint().port().toString())
+                    .put("admitted", s.admitted())
+                    .put("dropped", s.dropped()));
+        }
+
+        return result;
+    }
+
+    private void print(PacketInStatistics s) {
+        print(FMT, s.connectPoint().deviceId(), s.connectPoint().port(),
+              s.admitted(), s.dropped());
+    }
+
+}
@@ -51,6 +51,29 @@ public interface FlowRuleProviderService extends ProviderService<FlowRuleProvide
      */
     void pushFlowMetricsWithoutFlowMissing(DeviceId deviceId, Iterable<FlowEntry> flowEntries);
 
+    /**
+     * Pushes a part of the collection of flow entries currently applied on
+     * the given device, allowing providers to hand over large collections
+     * as they are received.
+     * <p>
+     * The parts of a collection are pushed in order, the first one starting
+     * a new collection; once the last one has been pushed, the flow entries
+     * absent from all the parts are processed as missing.
+     *
+     * @param deviceId device identifier
+     * @param flowEntries part of the collection of flow rules
+     * @param first true if this is the first part of the collection
+     * @param last true if this is the last part of the collection
+     */
+    default void pushFlowMetricsPart(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
+                                     boolean first, boolean last) {
+        if (first && last) {
+            pushFlowMetrics(deviceId, flowEntries);
+        } else {
+            pushFlowMetricsWithoutFlowMissing(deviceId, flowEntries);
+        }
+    }
+
     /**
      * Pushes the collection of table statistics entries currently extracted
      * from the given device.
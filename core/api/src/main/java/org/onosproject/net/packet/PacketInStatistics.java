@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet;
+
+import com.google.common.base.MoreObjects;
+import org.onosproject.net.ConnectPoint;
+
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Counters of the inbound packets admitted to, or dropped before, the
+ * packet processors for a given connect point.
+ */
+public final class PacketInStatistics {
+
+    private final ConnectPoint connectPoint;
+    private final long admitted;
+    private final long dropped;
+
+    /**
+     * Creates new inbound packet statistics.
+     *
+     * @param connectPoint connect point the packets were received from
+     * @param admitted     number of packets admitted
+     * @param dropped      number of packets dropped
+     */
+    public PacketInStatistics(ConnectPoint connectPoint, long admitted, long dropped) {
+        this.connectPoint = checkNotNull(connectPoint, "Connect point cannot be null");
+        this.admitted = admitted;
+        this.dropped = dropped;
+    }
+
+    /**
+     * Returns the connect point the packets were received from.
+     *
+     * @return connect point
+     */
+    public ConnectPoint connectPoint() {
+        return connectPoint;
+    }
+
+    /**
+     * Returns the number of packets handed to the packet processors.
+     *
+     * @return number of admitted packets
+     */
+    public long admitted() {
+        return admitted;
+    }
+
+    /**
+     * Returns the number of packets dropped by rate limiting or because the
+     * dispatch queue was full.
+     *
+     * @return number of dropped packets
+     */
+    public long dropped() {
+        return dropped;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(connectPoint, admitted, dropped);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final PacketInStatistics other = (PacketInStatistics) obj;
+        return Objects.equals(this.connectPoint, other.connectPoint)
+                && this.admitted == other.admitted
+                && this.dropped == other.dropped;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("connectPoint", connectPoint)
+                .add("admitted", admitted)
+                .add("dropped", dropped)
+                .toString();
+    }
+}
@@ -15,6 +15,12 @@
  */
 package org.onosproject.net.packet;
 
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.TrafficSelector;
+
+import java.util.Set;
+
 /**
  * Packet processor entry tracking the processor, its priority and
  * time consumption.
@@ -35,6 +41,17 @@ public interface PacketProcessorEntry {
      */
     int priority();
 
+    /**
+     * Returns the selectors of the packets the processor is invoked for;
+     * a packet is processed if it matches any of them.
+     *
+     * @return packet selectors; the empty selector if the processor sees
+     * all packets
+     */
+    default Set<TrafficSelector> selectors() {
+        return ImmutableSet.of(DefaultTrafficSelector.emptySelector());
+    }
+
     /**
      * Returns the number of invocations.
      *
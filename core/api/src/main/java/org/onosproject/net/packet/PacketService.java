@@ -15,12 +15,14 @@
  */
 package org.onosproject.net.packet;
 
+import com.google.common.collect.ImmutableList;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.flow.TrafficSelector;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service for intercepting data plane packets and for emitting synthetic
@@ -42,7 +44,27 @@ public interface PacketService {
      */
     void addProcessor(PacketProcessor processor, int priority);
 
-    // TODO allow processors to register for particular types of packets
+    /**
+     * Adds the specified processor to the list of packet processors, to be
+     * invoked only for the packets matching any of the given selectors.
+     * It will be added into the list in the order of priority. The higher
+     * numbers will be processing the packets after the lower numbers.
+     * <p>
+     * The selectors filter packets before the processor sees them, on the
+     * criteria the packet service is able to evaluate, such as the ingress
+     * port, ethernet type and addresses; other criteria are ignored, so a
+     * processor may still be invoked for packets it must skip itself.
+     *
+     * @param processor processor to be added
+     * @param priority  priority in the reverse natural order
+     * @param selectors selectors of the packets to process
+     * @throws java.lang.IllegalArgumentException if a processor with the
+     *                                            given priority already exists
+     */
+    default void addProcessor(PacketProcessor processor, int priority,
+                              Set<TrafficSelector> selectors) {
+        addProcessor(processor, priority);
+    }
 
     /**
      * Removes the specified processor from the processing pipeline.
@@ -58,6 +80,16 @@ public interface PacketService {
      */
     List<PacketProcessorEntry> getProcessors();
 
+    /**
+     * Returns the counters of inbound packets admitted to, or dropped
+     * before, the packet processors, per connect point.
+     *
+     * @return list of inbound packet statistics
+     */
+    default List<PacketInStatistics> getPacketInStatistics() {
+        return ImmutableList.of();
+    }
+
     /**
      * Requests that packets matching the given selector are punted from the
      * dataplane to the controller.
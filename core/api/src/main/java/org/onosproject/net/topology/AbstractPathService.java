@@ -58,7 +58,10 @@ public abstract class AbstractPathService
     private static final ProviderId PID = new ProviderId("core", "org.onosproject.core");
     private static final PortNumber P0 = PortNumber.portNumber(0);
 
-    protected static final LinkWeigher DEFAULT_WEIGHER =
+    /**
+     * Link weigher counting hops, used when no weigher is specified.
+     */
+    public static final LinkWeigher DEFAULT_WEIGHER =
             adapt(new HopCountLinkWeight());
 
     protected TopologyService topologyService;
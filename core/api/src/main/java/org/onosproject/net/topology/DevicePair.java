@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.topology;
+
+import com.google.common.base.MoreObjects;
+import org.onosproject.net.DeviceId;
+
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable pair of source and destination devices, for which paths are
+ * computed in bulk.
+ */
+public final class DevicePair {
+
+    private final DeviceId src;
+    private final DeviceId dst;
+
+    /**
+     * Creates a device pair with source and destination devices.
+     *
+     * @param src source device
+     * @param dst destination device
+     */
+    private DevicePair(DeviceId src, DeviceId dst) {
+        this.src = checkNotNull(src);
+        this.dst = checkNotNull(dst);
+    }
+
+    /**
+     * Returns the source device.
+     *
+     * @return source device
+     */
+    public DeviceId src() {
+        return src;
+    }
+
+    /**
+     * Returns the destination device.
+     *
+     * @return destination device
+     */
+    public DeviceId dst() {
+        return dst;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(src, dst);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof DevicePair) {
+            final DevicePair other = (DevicePair) obj;
+            return Objects.equals(this.src, other.src) &&
+                    Objects.equals(this.dst, other.dst);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("src", src)
+                .add("dst", dst)
+                .toString();
+    }
+
+    /**
+     * Creates a device pair with source and destination devices.
+     *
+     * @param src source device
+     * @param dst destination device
+     * @return a device pair
+     */
+    public static DevicePair devicePair(DeviceId src, DeviceId dst) {
+        return new DevicePair(src, dst);
+    }
+}
@@ -25,8 +25,10 @@ import org.onosproject.net.DisjointPath;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.store.Store;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 import java.util.Map;
 
@@ -169,6 +171,26 @@ public interface TopologyStore extends Store<TopologyEvent, TopologyStoreDelegat
         return getPaths(topology, src, dst, weigher).stream();
     }
 
+    /**
+     * Computes and returns the k-shortest paths between the source and destination
+     * devices of every given pair. The pairs are evaluated independently,
+     * possibly in parallel, and the result of each pair is completed as soon
+     * as it is available.
+     *
+     * @param topology topology descriptor
+     * @param pairs    source and destination device pairs
+     * @param weigher  edge-weight entity
+     * @param maxPaths maximum number of paths (k) per pair
+     * @return future sets of k-shortest paths, keyed by device pair
+     */
+    default Map<DevicePair, CompletableFuture<Set<Path>>> getKShortestPaths(
+            Topology topology, Set<DevicePair> pairs, LinkWeigher weigher, int maxPaths) {
+        Map<DevicePair, CompletableFuture<Set<Path>>> results = new HashMap<>();
+        pairs.forEach(pair -> results.put(pair, CompletableFuture.completedFuture(
+                getKShortestPaths(topology, pair.src(), pair.dst(), weigher, maxPaths))));
+        return results;
+    }
+
     /**
      * Computes and returns the set of disjoint shortest path pairs
      * between src and dst.
@@ -198,6 +220,25 @@ public interface TopologyStore extends Store<TopologyEvent, TopologyStoreDelegat
     Set<DisjointPath> getDisjointPaths(Topology topology, DeviceId src, DeviceId dst,
                                        LinkWeigher weigher);
 
+    /**
+     * Computes and returns the set of disjoint shortest path pairs between the source
+     * and destination devices of every given pair. The pairs are evaluated
+     * independently, possibly in parallel, and the result of each pair is
+     * completed as soon as it is available.
+     *
+     * @param topology topology descriptor
+     * @param pairs    source and destination device pairs
+     * @param weigher  edge-weight entity
+     * @return future sets of disjoint shortest path pairs, keyed by device pair
+     */
+    default Map<DevicePair, CompletableFuture<Set<DisjointPath>>> getDisjointPaths(
+            Topology topology, Set<DevicePair> pairs, LinkWeigher weigher) {
+        Map<DevicePair, CompletableFuture<Set<DisjointPath>>> results = new HashMap<>();
+        pairs.forEach(pair -> results.put(pair, CompletableFuture.completedFuture(
+                getDisjointPaths(topology, pair.src(), pair.dst(), weigher))));
+        return results;
+    }
+
     /**
      * Computes and returns the set of disjoint shortest path pairs
      * between src and dst.
@@ -15,6 +15,7 @@
  */
 package org.onosproject.store.cluster.messaging;
 
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
@@ -77,6 +78,21 @@ public interface MessagingService {
      */
     void registerHandler(String type, BiFunction<Endpoint, byte[], CompletableFuture<byte[]>> handler);
 
+    /**
+     * Registers a new message handler for message type that consumes the
+     * message payload from a buffer rather than a byte array, which
+     * implementations may take from a pooled allocator.
+     * The buffer is only valid until the handler returns; handlers must
+     * not retain it or hand it to another thread.
+     * @param type message type.
+     * @param handler message handler
+     * @param executor executor to use for running message handler logic.
+     */
+    default void registerBufferHandler(String type, BiConsumer<Endpoint, ByteBuffer> handler, Executor executor) {
+        BiConsumer<Endpoint, byte[]> copyingHandler = (ep, payload) -> handler.accept(ep, ByteBuffer.wrap(payload));
+        registerHandler(type, copyingHandler, executor);
+    }
+
     /**
      * Unregister current handler, if one exists for message type.
      * @param type message type
@@ -183,6 +183,26 @@ public class DefaultConsistentMap<K, V> extends Synchronous<AsyncConsistentMap<K
         return complete(asyncMap.replace(key, oldVersion, newValue));
     }
 
+    @Override
+    public Map<K, Versioned<V>> getAll(Set<K> keys) {
+        return complete(asyncMap.getAll(keys));
+    }
+
+    @Override
+    public void putAll(Map<K, V> entries) {
+        complete(asyncMap.putAll(entries));
+    }
+
+    @Override
+    public void removeAll(Set<K> keys) {
+        complete(asyncMap.removeAll(keys));
+    }
+
+    @Override
+    public Map<K, Boolean> replaceAll(Map<K, Versioned<V>> entries) {
+        return complete(asyncMap.replaceAll(entries));
+    }
+
     @Override
     public void addListener(MapEventListener<K, V> listener, Executor executor) {
         complete(asyncMap.addListener(listener, executor));
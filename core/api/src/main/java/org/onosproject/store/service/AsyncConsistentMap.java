@@ -17,6 +17,7 @@
 package org.onosproject.store.service;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
@@ -26,6 +27,7 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.MoreExecutors;
 import org.onosproject.store.primitives.DefaultConsistentMap;
 import org.onosproject.store.primitives.MapUpdate;
@@ -316,6 +318,86 @@ public interface AsyncConsistentMap<K, V> extends DistributedPrimitive, Transact
      */
     CompletableFuture<Boolean> replace(K key, long oldVersion, V newValue);
 
+    /**
+     * Returns the values (and associated versions) to which the specified keys are mapped.
+     * <p>
+     * Implementations should override this method to fetch the values in as few
+     * operations as possible; by default each key is looked up individually.
+     *
+     * @param keys keys whose associated values are to be returned
+     * @return map of the specified keys that are present in this map to their values
+     */
+    default CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        Map<K, CompletableFuture<Versioned<V>>> futures = Maps.newHashMap();
+        keys.forEach(key -> futures.put(key, get(key)));
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[futures.size()]))
+                .thenApply(v -> {
+                    Map<K, Versioned<V>> values = Maps.newHashMap();
+                    futures.forEach((key, future) -> {
+                        Versioned<V> value = future.join();
+                        if (value != null) {
+                            values.put(key, value);
+                        }
+                    });
+                    return values;
+                });
+    }
+
+    /**
+     * Associates each of the specified keys with its specified value.
+     * <p>
+     * Implementations should override this method to apply the updates in as few
+     * operations as possible; by default each entry is put individually. The updates
+     * are not applied atomically: if the returned future completes exceptionally,
+     * some of the entries may have been put.
+     *
+     * @param entries entries to put into this map
+     * @return future that will be completed when the operation finishes
+     */
+    default CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return CompletableFuture.allOf(entries.entrySet()
+                                              .stream()
+                                              .map(entry -> put(entry.getKey(), entry.getValue()))
+                                              .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Removes the mappings for the specified keys.
+     * <p>
+     * Implementations should override this method to apply the updates in as few
+     * operations as possible; by default each key is removed individually. The updates
+     * are not applied atomically: if the returned future completes exceptionally,
+     * some of the keys may have been removed.
+     *
+     * @param keys keys whose mappings are to be removed
+     * @return future that will be completed when the operation finishes
+     */
+    default CompletableFuture<Void> removeAll(Set<K> keys) {
+        return CompletableFuture.allOf(keys.stream()
+                                           .map(this::remove)
+                                           .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Replaces the entries for the specified keys whose current version is equal to
+     * the version of the respective specified value.
+     * <p>
+     * Each replacement is conditioned on its own key only, so some of the entries may
+     * be replaced while others are not. Implementations should override this method
+     * to apply the updates in as few operations as possible; by default each entry
+     * is replaced individually.
+     *
+     * @param entries new values of the keys, each along with the version expected to
+     *                be currently associated with the key
+     * @return map of the specified keys to whether their value was replaced
+     */
+    default CompletableFuture<Map<K, Boolean>> replaceAll(Map<K, Versioned<V>> entries) {
+        Map<K, CompletableFuture<Boolean>> futures = Maps.newHashMap();
+        entries.forEach((key, value) -> futures.put(key, replace(key, value.version(), value.value())));
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[futures.size()]))
+                .thenApply(v -> Maps.newHashMap(Maps.transformValues(futures, CompletableFuture::join)));
+    }
+
     /**
      * Registers the specified listener to be notified whenever the map is updated.
      *
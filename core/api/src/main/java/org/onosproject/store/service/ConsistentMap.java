@@ -25,6 +25,7 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.MoreExecutors;
 
 /**
@@ -282,6 +283,57 @@ public interface ConsistentMap<K, V> extends DistributedPrimitive {
      */
     boolean replace(K key, long oldVersion, V newValue);
 
+    /**
+     * Returns the values (and associated versions) to which the specified keys are mapped.
+     *
+     * @param keys keys whose associated values are to be returned
+     * @return map of the specified keys that are present in this map to their values
+     */
+    default Map<K, Versioned<V>> getAll(Set<K> keys) {
+        Map<K, Versioned<V>> values = Maps.newHashMap();
+        keys.forEach(key -> {
+            Versioned<V> value = get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        });
+        return values;
+    }
+
+    /**
+     * Associates each of the specified keys with its specified value.
+     * The updates are not applied atomically.
+     *
+     * @param entries entries to put into this map
+     */
+    default void putAll(Map<K, V> entries) {
+        entries.forEach(this::put);
+    }
+
+    /**
+     * Removes the mappings for the specified keys.
+     * The updates are not applied atomically.
+     *
+     * @param keys keys whose mappings are to be removed
+     */
+    default void removeAll(Set<K> keys) {
+        keys.forEach(this::remove);
+    }
+
+    /**
+     * Replaces the entries for the specified keys whose current version is equal to
+     * the version of the respective specified value.
+     *
+     * @param entries new values of the keys, each along with the version expected to
+     *                be currently associated with the key
+     * @return map of the specified keys to whether their value was replaced
+     */
+    default Map<K, Boolean> replaceAll(Map<K, Versioned<V>> entries) {
+        Map<K, Boolean> replaced = Maps.newHashMap();
+        entries.forEach((key, value) -> replaced.put(key, replace(key, value.version(), value.value())));
+        return replaced;
+    }
+
     /**
      * Registers the specified listener to be notified whenever the map is updated.
      *
@@ -17,6 +17,8 @@ package org.onosproject.store.service;
 
 import org.onosproject.store.primitives.DistributedPrimitiveBuilder;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * Builder for {@link ConsistentMap} instances.
  *
@@ -27,6 +29,7 @@ public abstract class ConsistentMapBuilder<K, V>
     extends DistributedPrimitiveBuilder<ConsistentMapBuilder<K, V>, ConsistentMap<K, V>> {
 
     private boolean purgeOnUninstall = false;
+    private int cacheSize = 0;
 
     public ConsistentMapBuilder() {
         super(DistributedPrimitive.Type.CONSISTENT_MAP);
@@ -50,6 +53,31 @@ public abstract class ConsistentMapBuilder<K, V>
         return purgeOnUninstall;
     }
 
+    /**
+     * Enables a read-through cache of map entries on the local node.
+     * <p>
+     * Cached entries are invalidated as updates to the map are detected,
+     * either locally or remotely; reads served from the cache may therefore
+     * briefly lag behind updates made on other nodes.
+     *
+     * @param cacheSize maximum number of entries to cache
+     * @return this builder
+     */
+    public ConsistentMapBuilder<K, V> withCacheSize(int cacheSize) {
+        checkArgument(cacheSize > 0, "cacheSize must be positive");
+        this.cacheSize = cacheSize;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of entries cached on the local node.
+     *
+     * @return cache size; 0 if no cache size was configured
+     */
+    public int cacheSize() {
+        return cacheSize;
+    }
+
     /**
      * Builds an async consistent map based on the configuration options
      * supplied to this builder.
@@ -32,8 +32,6 @@ import org.onlab.graph.LazyKShortestPathsSearch;
 import org.onlab.graph.ScalarWeight;
 import org.onlab.graph.SrlgGraphSearch;
 import org.onlab.graph.SuurballeGraphSearch;
-import org.onlab.graph.TarjanGraphSearch;
-import org.onlab.graph.TarjanGraphSearch.SccResult;
 import org.onlab.graph.Weight;
 import org.onlab.util.GuavaCollectors;
 import org.onosproject.net.AbstractModel;
@@ -49,6 +47,7 @@ import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.topology.ClusterId;
 import org.onosproject.net.topology.DefaultTopologyCluster;
 import org.onosproject.net.topology.DefaultTopologyVertex;
+import org.onosproject.net.topology.DevicePair;
 import org.onosproject.net.topology.GraphDescription;
 import org.onosproject.net.topology.HopCountLinkWeight;
 import org.onosproject.net.topology.LinkWeigher;
@@ -64,6 +63,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -86,8 +87,6 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     private static final DijkstraGraphSearch<TopologyVertex, TopologyEdge> DIJKSTRA =
             new DijkstraGraphSearch<>();
-    private static final TarjanGraphSearch<TopologyVertex, TopologyEdge> TARJAN =
-            new TarjanGraphSearch<>();
     private static final SuurballeGraphSearch<TopologyVertex, TopologyEdge> SUURBALLE =
             new SuurballeGraphSearch<>();
     private static final KShortestPathsSearch<TopologyVertex, TopologyEdge> KSHORTEST =
@@ -107,7 +106,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     private final LinkWeigher hopCountWeigher;
 
-    private final Supplier<SccResult<TopologyVertex, TopologyEdge>> clusterResults;
+    private final Supplier<TopologyClusters> clusterResults;
     private final Supplier<ImmutableMap<ClusterId, TopologyCluster>> clusters;
     private final Supplier<ImmutableSet<ConnectPoint>> infrastructurePoints;
     private final Supplier<ImmutableSetMultimap<ClusterId, ConnectPoint>> broadcastSets;
@@ -150,6 +149,29 @@ public class DefaultTopology extends AbstractModel implements Topology {
         maxpathss = maxPath;
     }
 
+    /**
+     * Indicates whether paths are weighed by hop count by default, as they
+     * are unless a default link weigher has been set.
+     *
+     * @return true if the builtin hop count link weigher is the default
+     */
+    public static boolean hasHopCountLinkWeigher() {
+        return defaultLinkWeigher == null;
+    }
+
+    /**
+     * Indicates whether the default graph path search finds the shortest
+     * paths to all destinations with a single search from the source, as the
+     * builtin Dijkstra search does.
+     *
+     * @return true if {@link #getPathsFrom} yields the paths of
+     * {@link #getPaths} for every destination
+     */
+    public static boolean hasSingleSourcePathSearch() {
+        return defaultGraphPathSearch == null ||
+                defaultGraphPathSearch.getClass() == DijkstraGraphSearch.class;
+    }
+
     /**
      * Creates a topology descriptor attributed to the specified provider.
      *
@@ -159,6 +181,24 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public DefaultTopology(ProviderId providerId, GraphDescription description,
                            Function<ConnectPoint, Boolean> broadcastFunction) {
+        this(providerId, description, broadcastFunction, null);
+    }
+
+    /**
+     * Creates a topology descriptor attributed to the specified provider,
+     * deriving its clusters and broadcast sets from those of the previous
+     * topology, so that only the clusters affected by the changes since the
+     * previous topology are computed again.
+     *
+     * @param providerId        identity of the provider
+     * @param description       data describing the new topology
+     * @param broadcastFunction broadcast point function
+     * @param previous          previous topology; null to compute the
+     *                          topology from scratch
+     */
+    public DefaultTopology(ProviderId providerId, GraphDescription description,
+                           Function<ConnectPoint, Boolean> broadcastFunction,
+                           DefaultTopology previous) {
         super(providerId);
         this.broadcastFunction = broadcastFunction;
         this.time = description.timestamp();
@@ -168,14 +208,23 @@ public class DefaultTopology extends AbstractModel implements Topology {
         this.graph = new DefaultTopologyGraph(description.vertexes(),
                 description.edges());
 
-        this.clusterResults = Suppliers.memoize(this::searchForClusters);
         this.clusters = Suppliers.memoize(this::buildTopologyClusters);
 
         this.clusterIndexes = Suppliers.memoize(this::buildIndexes);
 
         this.hopCountWeigher = adapt(new HopCountLinkWeight(graph.getVertexes().size()));
-        this.broadcastSets = Suppliers.memoize(this::buildBroadcastSets);
         this.infrastructurePoints = Suppliers.memoize(this::findInfrastructurePoints);
+
+        if (previous == null) {
+            this.clusterResults = Suppliers.memoize(this::searchForClusters);
+            this.broadcastSets = Suppliers.memoize(this::buildBroadcastSets);
+        } else {
+            // Derive eagerly, so the previous topology is not retained
+            this.clusterResults = Suppliers.ofInstance(
+                    TopologyClusters.update(previous.clusterResults.get(), previous.graph,
+                                            graph, new NoIndirectLinksWeigher()));
+            this.broadcastSets = Suppliers.ofInstance(buildBroadcastSets(previous));
+        }
         this.computeCost = Math.max(0, System.nanoTime() - time);
     }
 
@@ -407,6 +456,54 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return builder.build();
     }
 
+    /**
+     * Computes on-demand the sets of shortest paths from the source device
+     * to every device it reaches, using the default link weight function.
+     * A single search yields the paths to all destinations, which is cheaper
+     * than one search per destination when most of them are needed.
+     *
+     * @param src source device
+     * @return sets of shortest paths, keyed by destination device
+     */
+    public Map<DeviceId, Set<Path>> getPathsFrom(DeviceId src) {
+        return getPathsFrom(src, linkWeight());
+    }
+
+    /**
+     * Computes on-demand the sets of shortest paths from the source device
+     * to every device it reaches. No more than the configured maximum number
+     * of paths is returned for any destination.
+     *
+     * @param src     source device
+     * @param weigher link weight function
+     * @return sets of shortest paths, keyed by destination device
+     */
+    public Map<DeviceId, Set<Path>> getPathsFrom(DeviceId src, LinkWeigher weigher) {
+        DefaultTopologyVertex srcV = new DefaultTopologyVertex(src);
+        if (!graph.getVertexes().contains(srcV)) {
+            // src not part of the current graph
+            return ImmutableMap.of();
+        }
+
+        // The path limit of a search applies to all destinations together,
+        // so it is applied to every destination here instead
+        GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
+                graphPathSearch().search(graph, srcV, null, weigher, ALL_PATHS);
+        Map<DeviceId, ImmutableSet.Builder<Path>> builders = new HashMap<>();
+        Map<DeviceId, Integer> counts = new HashMap<>();
+        for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
+            DeviceId dst = path.dst().deviceId();
+            int count = counts.merge(dst, 1, Integer::sum);
+            if (maxpathss == ALL_PATHS || count <= maxpathss) {
+                builders.computeIfAbsent(dst, d -> ImmutableSet.builder())
+                        .add(networkPath(path));
+            }
+        }
+        ImmutableMap.Builder<DeviceId, Set<Path>> paths = ImmutableMap.builder();
+        builders.forEach((dst, builder) -> paths.put(dst, builder.build()));
+        return paths.build();
+    }
+
     /**
      * Computes on-demand the k-shortest paths between source and
      * destination devices.
@@ -452,6 +549,25 @@ public class DefaultTopology extends AbstractModel implements Topology {
                     .collect(GuavaCollectors.toImmutableSet());
     }
 
+    /**
+     * Computes on-demand the k-shortest paths between the source and
+     * destination devices of every given pair. Each pair is searched as a
+     * separate task of the given executor, typically a fork-join pool, and
+     * its result is completed as soon as its search ends.
+     *
+     * @param pairs    source and destination device pairs
+     * @param weigher  link weight function
+     * @param maxPaths maximum number of paths (k) per pair
+     * @param executor executor running the searches
+     * @return future sets of k-shortest paths, keyed by device pair
+     */
+    public Map<DevicePair, CompletableFuture<Set<Path>>> getKShortestPaths(
+            Set<DevicePair> pairs, LinkWeigher weigher, int maxPaths, Executor executor) {
+        return searchAll(pairs, pair -> getKShortestPaths(pair.src(), pair.dst(),
+                                                          weigher, maxPaths),
+                         executor);
+    }
+
     /**
      * Lazily computes on-demand the k-shortest paths between source and
      * destination devices.
@@ -533,6 +649,33 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return builder.build();
     }
 
+    /**
+     * Computes on-demand the set of disjoint shortest path pairs between the
+     * source and destination devices of every given pair. Each pair is
+     * searched as a separate task of the given executor, typically a
+     * fork-join pool, and its result is completed as soon as its search ends.
+     *
+     * @param pairs    source and destination device pairs
+     * @param weigher  link weight function
+     * @param executor executor running the searches
+     * @return future sets of disjoint shortest path pairs, keyed by device pair
+     */
+    public Map<DevicePair, CompletableFuture<Set<DisjointPath>>> getDisjointPaths(
+            Set<DevicePair> pairs, LinkWeigher weigher, Executor executor) {
+        return searchAll(pairs, pair -> getDisjointPaths(pair.src(), pair.dst(), weigher),
+                         executor);
+    }
+
+    // Runs the search of every pair as a separate task; the graph and the
+    // path searches are immutable, so the tasks share them freely
+    private static <T> Map<DevicePair, CompletableFuture<T>> searchAll(
+            Set<DevicePair> pairs, Function<DevicePair, T> search, Executor executor) {
+        ImmutableMap.Builder<DevicePair, CompletableFuture<T>> results = ImmutableMap.builder();
+        pairs.forEach(pair -> results.put(pair, CompletableFuture.supplyAsync(
+                () -> search.apply(pair), executor)));
+        return results.build();
+    }
+
     /**
      * Computes on-demand the set of shortest disjoint risk groups path pairs
      * between source and destination devices.
@@ -643,15 +786,15 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     // Searches for SCC clusters in the network topology graph using Tarjan
     // algorithm.
-    private SccResult<TopologyVertex, TopologyEdge> searchForClusters() {
-        return TARJAN.search(graph, new NoIndirectLinksWeigher());
+    private TopologyClusters searchForClusters() {
+        return TopologyClusters.search(graph, new NoIndirectLinksWeigher());
     }
 
     // Builds the topology clusters and returns the id-cluster bindings.
     private ImmutableMap<ClusterId, TopologyCluster> buildTopologyClusters() {
         ImmutableMap.Builder<ClusterId, TopologyCluster> clusterBuilder =
                 ImmutableMap.builder();
-        SccResult<TopologyVertex, TopologyEdge> results = clusterResults.get();
+        TopologyClusters results = clusterResults.get();
 
         // Extract both vertexes and edges from the results; the lists form
         // pairs along the same index.
@@ -695,6 +838,22 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return builder.build();
     }
 
+    // Processes a map of broadcast sets for each cluster, reusing those of
+    // the clusters carried over unchanged from the previous topology.
+    private ImmutableSetMultimap<ClusterId, ConnectPoint> buildBroadcastSets(DefaultTopology previous) {
+        Builder<ClusterId, ConnectPoint> builder = ImmutableSetMultimap.builder();
+        for (TopologyCluster cluster : clusters.get().values()) {
+            int index = clusterResults.get().previousIndex(cluster.id().index());
+            if (index == TopologyClusters.NONE) {
+                addClusterBroadcastSet(cluster, builder);
+            } else {
+                builder.putAll(cluster.id(), previous.broadcastSets.get()
+                        .get(ClusterId.clusterId(index)));
+            }
+        }
+        return builder.build();
+    }
+
     // Finds all broadcast points for the cluster. These are those connection
     // points which lie along the shortest paths between the cluster root and
     // all other devices within the cluster.
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.common;
+
+import org.onlab.graph.TarjanGraphSearch;
+import org.onlab.graph.TarjanGraphSearch.SccResult;
+import org.onosproject.net.Link;
+import org.onosproject.net.topology.LinkWeigher;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyGraph;
+import org.onosproject.net.topology.TopologyVertex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Strongly connected clusters of a topology graph.
+ * <p>
+ * Clusters can be derived from the clusters of a previous graph: only the
+ * clusters which may have been split, by the removal of vertexes or edges,
+ * or merged, by the addition of edges, are searched again; the others are
+ * carried over.
+ */
+final class TopologyClusters {
+
+    private static final TarjanGraphSearch<TopologyVertex, TopologyEdge> TARJAN =
+            new TarjanGraphSearch<>();
+
+    static final int NONE = -1;
+
+    private final List<Set<TopologyVertex>> clusterVertexes;
+    private final List<Set<TopologyEdge>> clusterEdges;
+    private final int[] previousIndexes;
+
+    private TopologyClusters(List<Set<TopologyVertex>> clusterVertexes,
+                             List<Set<TopologyEdge>> clusterEdges,
+                             int[] previousIndexes) {
+        this.clusterVertexes = clusterVertexes;
+        this.clusterEdges = clusterEdges;
+        this.previousIndexes = previousIndexes;
+    }
+
+    /**
+     * Searches for the clusters of the given graph.
+     *
+     * @param graph   topology graph
+     * @param weigher link weigher; edges which are not viable are not traversed
+     * @return topology clusters
+     */
+    static TopologyClusters search(TopologyGraph graph, LinkWeigher weigher) {
+        SccResult<TopologyVertex, TopologyEdge> result = TARJAN.search(graph, weigher);
+        int[] previousIndexes = new int[result.clusterCount()];
+        Arrays.fill(previousIndexes, NONE);
+        return new TopologyClusters(result.clusterVertexes(), result.clusterEdges(),
+                                    previousIndexes);
+    }
+
+    /**
+     * Derives the clusters of the given graph from the clusters of the
+     * previous graph.
+     *
+     * @param previous      clusters of the previous graph
+     * @param previousGraph previous topology graph
+     * @param graph         topology graph
+     * @param weigher       link weigher; edges which are not viable are not
+     *                      traversed
+     * @return topology clusters
+     */
+    static TopologyClusters update(TopologyClusters previous, TopologyGraph previousGraph,
+                                   TopologyGraph graph, LinkWeigher weigher) {
+        Map<TopologyVertex, Integer> previousClusters = new HashMap<>();
+        for (int i = 0; i < previous.clusterCount(); i++) {
+            for (TopologyVertex vertex : previous.clusterVertexes.get(i)) {
+                previousClusters.put(vertex, i);
+            }
+        }
+
+        // Edges whose link was modified are both removed and added
+        Map<TopologyEdge, TopologyEdge> previousEdges = new HashMap<>();
+        previousGraph.getEdges().forEach(edge -> previousEdges.put(edge, edge));
+        List<TopologyEdge> addedEdges = new ArrayList<>();
+        List<TopologyEdge> removedEdges = new ArrayList<>();
+        for (TopologyEdge edge : graph.getEdges()) {
+            TopologyEdge previousEdge = previousEdges.remove(edge);
+            if (previousEdge == null) {
+                addedEdges.add(edge);
+            } else if (!sameLink(previousEdge.link(), edge.link())) {
+                removedEdges.add(previousEdge);
+                addedEdges.add(edge);
+            }
+        }
+        removedEdges.addAll(previousEdges.values());
+
+        // Clusters to search again, and clusters whose edges changed
+        Set<Integer> dirty = new HashSet<>();
+        Set<Integer> touched = new HashSet<>();
+        previousClusters.forEach((vertex, cluster) -> {
+            if (!graph.getVertexes().contains(vertex)) {
+                dirty.add(cluster);
+            }
+        });
+
+        // A cluster remains strongly connected without an edge as long as
+        // the edge source still reaches its destination within the cluster
+        for (TopologyEdge edge : removedEdges) {
+            Integer cluster = previousClusters.get(edge.src());
+            if (cluster == null || !cluster.equals(previousClusters.get(edge.dst()))) {
+                continue;
+            }
+            touched.add(cluster);
+            if (!dirty.contains(cluster) && isViable(edge, weigher) &&
+                    !reaches(graph, weigher, edge.src(), edge.dst(),
+                             previous.clusterVertexes.get(cluster))) {
+                dirty.add(cluster);
+            }
+        }
+
+        // An edge between clusters merges all the clusters on the cycles it
+        // closes, if any
+        for (TopologyEdge edge : addedEdges) {
+            Integer cluster = previousClusters.get(edge.src());
+            if (cluster != null && cluster.equals(previousClusters.get(edge.dst()))) {
+                touched.add(cluster);
+            } else if (isViable(edge, weigher)) {
+                Set<TopologyVertex> forward = reachable(graph, weigher, edge.dst(), true);
+                if (forward.contains(edge.src())) {
+                    for (TopologyVertex vertex : reachable(graph, weigher, edge.src(), false)) {
+                        Integer merged = previousClusters.get(vertex);
+                        if (merged != null && forward.contains(vertex)) {
+                            dirty.add(merged);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Search again the vertexes of the dirty clusters and the new ones
+        Set<TopologyVertex> vertexes = new HashSet<>();
+        for (TopologyVertex vertex : graph.getVertexes()) {
+            Integer cluster = previousClusters.get(vertex);
+            if (cluster == null || dirty.contains(cluster)) {
+                vertexes.add(vertex);
+            }
+        }
+        if (vertexes.size() == graph.getVertexes().size()) {
+            return search(graph, weigher);
+        }
+
+        List<Set<TopologyVertex>> clusterVertexes = new ArrayList<>();
+        List<Set<TopologyEdge>> clusterEdges = new ArrayList<>();
+        List<Integer> previousIndexes = new ArrayList<>();
+        for (int i = 0; i < previous.clusterCount(); i++) {
+            if (dirty.contains(i)) {
+                continue;
+            }
+            Set<TopologyVertex> cluster = previous.clusterVertexes.get(i);
+            clusterVertexes.add(cluster);
+            if (touched.contains(i)) {
+                clusterEdges.add(clusterEdges(graph, cluster));
+                previousIndexes.add(NONE);
+            } else {
+                clusterEdges.add(previous.clusterEdges.get(i));
+                previousIndexes.add(i);
+            }
+        }
+        if (!vertexes.isEmpty()) {
+            SccResult<TopologyVertex, TopologyEdge> result =
+                    TARJAN.search(subgraph(graph, vertexes), weigher);
+            clusterVertexes.addAll(result.clusterVertexes());
+            clusterEdges.addAll(result.clusterEdges());
+            result.clusterVertexes().forEach(c -> previousIndexes.add(NONE));
+        }
+        return new TopologyClusters(Collections.unmodifiableList(clusterVertexes),
+                                    Collections.unmodifiableList(clusterEdges),
+                                    previousIndexes.stream().mapToInt(i -> i).toArray());
+    }
+
+    /**
+     * Returns the number of clusters.
+     *
+     * @return number of clusters
+     */
+    int clusterCount() {
+        return clusterVertexes.size();
+    }
+
+    /**
+     * Returns the vertexes of every cluster.
+     *
+     * @return list of vertex sets, indexed by cluster
+     */
+    List<Set<TopologyVertex>> clusterVertexes() {
+        return clusterVertexes;
+    }
+
+    /**
+     * Returns the edges within every cluster.
+     *
+     * @return list of edge sets, indexed by cluster
+     */
+    List<Set<TopologyEdge>> clusterEdges() {
+        return clusterEdges;
+    }
+
+    /**
+     * Returns the index of the previous cluster the given cluster was
+     * carried over from, with the same vertexes and edges.
+     *
+     * @param index cluster index
+     * @return previous cluster index, or NONE if the cluster changed
+     */
+    int previousIndex(int index) {
+        return previousIndexes[index];
+    }
+
+    // Indicates whether the links are the same, including their state
+    private static boolean sameLink(Link previous, Link link) {
+        return previous.state() == link.state() &&
+                Objects.equals(previous.annotations(), link.annotations());
+    }
+
+    private static boolean isViable(TopologyEdge edge, LinkWeigher weigher) {
+        return weigher.weight(edge).isViable();
+    }
+
+    // Indicates whether the destination is reachable from the source using
+    // only the given vertexes
+    private static boolean reaches(TopologyGraph graph, LinkWeigher weigher,
+                                   TopologyVertex src, TopologyVertex dst,
+                                   Set<TopologyVertex> within) {
+        Set<TopologyVertex> seen = new HashSet<>();
+        Deque<TopologyVertex> queue = new ArrayDeque<>();
+        seen.add(src);
+        queue.add(src);
+        while (!queue.isEmpty()) {
+            for (TopologyEdge edge : graph.getEdgesFrom(queue.remove())) {
+                TopologyVertex next = edge.dst();
+                if (!within.contains(next) || !isViable(edge, weigher)) {
+                    continue;
+                }
+                if (next.equals(dst)) {
+                    return true;
+                }
+                if (seen.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return false;
+    }
+
+    // Finds the vertexes reachable from, or reaching, the given vertex
+    private static Set<TopologyVertex> reachable(TopologyGraph graph, LinkWeigher weigher,
+                                                 TopologyVertex vertex, boolean forward) {
+        Set<TopologyVertex> seen = new HashSet<>();
+        Deque<TopologyVertex> queue = new ArrayDeque<>();
+        seen.add(vertex);
+        queue.add(vertex);
+        while (!queue.isEmpty()) {
+            TopologyVertex current = queue.remove();
+            Set<TopologyEdge> edges = forward ? graph.getEdgesFrom(current) :
+                    graph.getEdgesTo(current);
+            for (TopologyEdge edge : edges) {
+                TopologyVertex next = forward ? edge.dst() : edge.src();
+                if (isViable(edge, weigher) && seen.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return seen;
+    }
+
+    private static Set<TopologyEdge> clusterEdges(TopologyGraph graph,
+                                                  Set<TopologyVertex> vertexes) {
+        Set<TopologyEdge> edges = new HashSet<>();
+        for (TopologyVertex vertex : vertexes) {
+            for (TopologyEdge edge : graph.getEdgesFrom(vertex)) {
+                if (vertexes.contains(edge.dst())) {
+                    edges.add(edge);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(edges);
+    }
+
+    private static TopologyGraph subgraph(TopologyGraph graph, Set<TopologyVertex> vertexes) {
+        Set<TopologyEdge> edges = new HashSet<>();
+        for (TopologyVertex vertex : vertexes) {
+            for (TopologyEdge edge : graph.getEdgesFrom(vertex)) {
+                if (vertexes.contains(edge.dst())) {
+                    edges.add(edge);
+                }
+            }
+        }
+        return new DefaultTopologyGraph(vertexes, edges);
+    }
+}
@@ -16,6 +16,7 @@
 package org.onosproject.utils;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Timer;
 import com.google.common.collect.Maps;
 import org.onlab.metrics.MetricsComponent;
@@ -89,6 +90,21 @@ public class MeteringAgent {
         return new Context(currTimer.time(), op);
     }
 
+    /**
+     * Registers a gauge for the metered object, replacing any gauge
+     * previously registered under the same name.
+     *
+     * @param name  gauge name
+     * @param gauge gauge reporting the measured value
+     */
+    public void registerGauge(String name, Gauge<?> gauge) {
+        if (!activated) {
+            return;
+        }
+        metricsService.removeMetric(metricsComponent, metricsFeature, name);
+        metricsService.registerMetric(metricsComponent, metricsFeature, name, gauge);
+    }
+
     /**
      * Timer.Context with a specific operation.
      */
@@ -26,6 +26,7 @@ import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.DefaultLink;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.DisjointPath;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
 import org.onosproject.net.PortNumber;
@@ -33,17 +34,22 @@ import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.topology.ClusterId;
 import org.onosproject.net.topology.DefaultGraphDescription;
 import org.onosproject.net.topology.DefaultTopologyVertex;
+import org.onosproject.net.topology.DevicePair;
 import org.onosproject.net.topology.GraphDescription;
 import org.onosproject.net.topology.LinkWeigher;
 import org.onosproject.net.topology.TopologyCluster;
 import org.onosproject.net.topology.TopologyEdge;
 import org.onosproject.net.topology.TopologyVertex;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import static com.google.common.collect.ImmutableSet.of;
 import static org.junit.Assert.*;
 import static org.onosproject.net.DeviceId.deviceId;
 import static org.onosproject.net.PortNumber.portNumber;
+import static org.onosproject.net.topology.DevicePair.devicePair;
 
 /**
  * Test of the default topology implementation.
@@ -128,6 +134,45 @@ public class DefaultTopologyTest {
 
     }
 
+    @Test
+    public void singleSourcePaths() {
+        Map<DeviceId, Set<Path>> paths = dt.getPathsFrom(D1);
+        assertEquals("incorrect destinations", of(D2, D3, D4), paths.keySet());
+        for (DeviceId dst : paths.keySet()) {
+            assertEquals("incorrect paths", dt.getPaths(D1, dst), paths.get(dst));
+        }
+        assertEquals("incorrect paths", dt.getPaths(D1, D3, WEIGHER),
+                     dt.getPathsFrom(D1, WEIGHER).get(D3));
+        assertTrue("no paths expected", dt.getPathsFrom(D5).isEmpty());
+        assertTrue("no paths expected", dt.getPathsFrom(did("6")).isEmpty());
+    }
+
+    @Test
+    public void bulkPaths() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Set<DevicePair> pairs = of(devicePair(D1, D2), devicePair(D1, D3),
+                                       devicePair(D2, D4), devicePair(D1, D5));
+            Map<DevicePair, CompletableFuture<Set<Path>>> paths =
+                    dt.getKShortestPaths(pairs, WEIGHER, 3, pool);
+            Map<DevicePair, CompletableFuture<Set<DisjointPath>>> disjointPaths =
+                    dt.getDisjointPaths(pairs, WEIGHER, pool);
+            assertEquals("incorrect pairs", pairs, paths.keySet());
+            assertEquals("incorrect pairs", pairs, disjointPaths.keySet());
+            for (DevicePair pair : pairs) {
+                assertEquals("incorrect paths",
+                             dt.getKShortestPaths(pair.src(), pair.dst(), WEIGHER, 3),
+                             paths.get(pair).join());
+                assertEquals("incorrect disjoint paths",
+                             dt.getDisjointPaths(pair.src(), pair.dst(), WEIGHER),
+                             disjointPaths.get(pair).join());
+            }
+            assertTrue("no paths expected", paths.get(devicePair(D1, D5)).join().isEmpty());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     @Test
     public void pointRelated() {
         assertTrue("should be infrastructure point",
@@ -148,6 +193,92 @@ public class DefaultTopologyTest {
         assertFalse("cluster should not contain D5", devs.contains(D5));
     }
 
+    @Test
+    public void incrementalNoChange() {
+        assertIncremental(of(device("1"), device("2"), device("3"),
+                             device("4"), device("5")),
+                          of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                             link("3", 2, "2", 2), link("2", 2, "3", 2),
+                             link("1", 3, "4", 3), link("4", 3, "1", 3),
+                             link("3", 4, "4", 4), link("4", 4, "3", 4)), 2);
+    }
+
+    @Test
+    public void incrementalLinkRemoval() {
+        // Cluster survives the loss of one of its links
+        assertIncremental(of(device("1"), device("2"), device("3"),
+                             device("4"), device("5")),
+                          of(link("3", 2, "2", 2), link("2", 2, "3", 2),
+                             link("1", 3, "4", 3), link("4", 3, "1", 3),
+                             link("3", 4, "4", 4), link("4", 4, "3", 4)), 2);
+
+        // Cluster split by the loss of the links of a device
+        assertIncremental(of(device("1"), device("2"), device("3"),
+                             device("4"), device("5")),
+                          of(link("1", 3, "4", 3), link("4", 3, "1", 3),
+                             link("3", 4, "4", 4), link("4", 4, "3", 4)), 3);
+    }
+
+    @Test
+    public void incrementalLinkAddition() {
+        // Isolated device merged into the cluster
+        assertIncremental(of(device("1"), device("2"), device("3"),
+                             device("4"), device("5")),
+                          of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                             link("3", 2, "2", 2), link("2", 2, "3", 2),
+                             link("1", 3, "4", 3), link("4", 3, "1", 3),
+                             link("3", 4, "4", 4), link("4", 4, "3", 4),
+                             link("4", 5, "5", 5), link("5", 5, "4", 5)), 1);
+
+        // Unidirectional link does not merge clusters
+        assertIncremental(of(device("1"), device("2"), device("3"),
+                             device("4"), device("5")),
+                          of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                             link("3", 2, "2", 2), link("2", 2, "3", 2),
+                             link("1", 3, "4", 3), link("4", 3, "1", 3),
+                             link("3", 4, "4", 4), link("4", 4, "3", 4),
+                             link("4", 5, "5", 5)), 2);
+    }
+
+    @Test
+    public void incrementalDeviceChange() {
+        // Device removed and new device attached
+        assertIncremental(of(device("1"), device("2"), device("3"),
+                             device("4"), device("6")),
+                          of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                             link("3", 2, "2", 2), link("2", 2, "3", 2),
+                             link("1", 3, "4", 3), link("4", 3, "1", 3),
+                             link("3", 4, "4", 4), link("4", 4, "3", 4),
+                             link("3", 6, "6", 6), link("6", 6, "3", 6)), 1);
+    }
+
+    // Checks that the topology derived from the one set up matches the
+    // topology computed from scratch.
+    private void assertIncremental(Set<Device> devices, Set<Link> links, int clusterCount) {
+        GraphDescription graphDescription =
+                new DefaultGraphDescription(System.nanoTime(), System.currentTimeMillis(),
+                                            devices, links);
+        DefaultTopology expected = new DefaultTopology(PID, graphDescription);
+        DefaultTopology actual = new DefaultTopology(PID, graphDescription, null, dt);
+
+        assertEquals("incorrect cluster count", clusterCount, actual.clusterCount());
+        assertEquals("incorrect cluster count", expected.clusterCount(), actual.clusterCount());
+        for (Device device : devices) {
+            TopologyCluster expectedCluster = expected.getCluster(device.id());
+            TopologyCluster actualCluster = actual.getCluster(device.id());
+            assertEquals("incorrect cluster devices",
+                         expected.getClusterDevices(expectedCluster),
+                         actual.getClusterDevices(actualCluster));
+            assertEquals("incorrect cluster links",
+                         expected.getClusterLinks(expectedCluster),
+                         actual.getClusterLinks(actualCluster));
+            assertEquals("incorrect root node", expectedCluster.root(), actualCluster.root());
+            assertEquals("incorrect broadcast set size",
+                         expected.broadcastSetSize(expectedCluster.id()),
+                         actual.broadcastSetSize(actualCluster.id()));
+        }
+    }
+
     // Short-hand for creating a link.
     public static Link link(String src, int sp, String dst, int dp) {
         return DefaultLink.builder().providerId(PID)
@@ -15,6 +15,8 @@
  */
 package org.onosproject.net.flow.impl;
 
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.Timer.Context;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -29,11 +31,15 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsService;
+import org.onlab.util.PredictableExecutor;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.core.IdGenerator;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.mastership.MastershipService;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
@@ -66,11 +72,14 @@ import org.onosproject.net.provider.ProviderId;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Dictionary;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -79,6 +88,10 @@ import java.util.concurrent.Executors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
+import static org.onlab.util.PredictableExecutor.picky;
 import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_ADD_REQUESTED;
@@ -98,12 +111,16 @@ import static org.slf4j.LoggerFactory.getLogger;
 public class FlowRuleManager
         extends AbstractListenerProviderRegistry<FlowRuleEvent, FlowRuleListener,
                                                  FlowRuleProvider, FlowRuleProviderService>
-        implements FlowRuleService, FlowRuleProviderRegistry {
+        implements FlowRuleService, FlowRuleProviderRegistry, MetricsHelper {
 
     private final Logger log = getLogger(getClass());
 
     public static final String FLOW_RULE_NULL = "FlowRule cannot be null";
     private static final boolean ALLOW_EXTRANEOUS_RULES = false;
+    private static final Comparator<FlowEntry> FLOW_ID_ORDER = Comparator.comparingLong(f -> f.id().value());
+    private static final String METRICS_COMPONENT = "FlowRule";
+    private static final String RECONCILIATION_TIME = "reconciliationTime";
+    private static final long PARTIAL_RECONCILIATION_TIMEOUT_MILLIS = 60_000;
 
     @Property(name = "allowExtraneousRules", boolValue = ALLOW_EXTRANEOUS_RULES,
             label = "Allow flow rules in switch not installed by ONOS")
@@ -118,13 +135,21 @@ public class FlowRuleManager
             label = "Frequency (in seconds) for polling flow statistics via fallback provider")
     private int fallbackFlowPollFrequency = DEFAULT_POLL_FREQUENCY;
 
+    @Property(name = "suppressUnchangedFlowEvents", boolValue = false,
+            label = "Do not post flow rule updates for polled entries whose state and counters did not change")
+    private boolean suppressUnchangedFlowEvents = false;
+
     private final FlowRuleStoreDelegate delegate = new InternalStoreDelegate();
     private final DeviceListener deviceListener = new InternalDeviceListener();
 
     private final FlowRuleDriverProvider driverProvider = new FlowRuleDriverProvider();
 
+    // tasks of a given device run in submission order on the lane the device hashes to
     protected ExecutorService deviceInstallers =
-            Executors.newFixedThreadPool(32, groupedThreads("onos/flowservice", "device-installer-%d", log));
+            new PredictableExecutor(32, groupedThreads("onos/flowservice", "device-installer-%d", log));
+
+    protected ExecutorService deviceEventHandlers =
+            new PredictableExecutor(groupedThreads("onos/flowservice", "device-events-%d", log));
 
     protected ExecutorService operationsService =
             Executors.newFixedThreadPool(32, groupedThreads("onos/flowservice", "operations-%d", log));
@@ -133,6 +158,16 @@ public class FlowRuleManager
 
     private final Map<Long, FlowOperationsProcessor> pendingFlowOperations = new ConcurrentHashMap<>();
 
+    private final Map<DeviceId, Timer> reconciliationTimers = new ConcurrentHashMap<>();
+
+    // Reconciliations of the flow entries pushed in parts, per device,
+    // awaiting their last part
+    private final Map<DeviceId, InternalFlowRuleProviderService.FlowReconciliation>
+            partialReconciliations = new ConcurrentHashMap<>();
+
+    // a partial reconciliation older than this is dropped by the next part
+    protected long partialReconciliationTimeout = PARTIAL_RECONCILIATION_TIMEOUT_MILLIS;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected FlowRuleStore store;
 
@@ -148,6 +183,9 @@ public class FlowRuleManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ComponentConfigService cfgService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     @Activate
     public void activate(ComponentContext context) {
         modified(context);
@@ -164,6 +202,7 @@ public class FlowRuleManager
         deviceService.removeListener(deviceListener);
         cfgService.unregisterProperties(getClass(), false);
         deviceInstallers.shutdownNow();
+        deviceEventHandlers.shutdownNow();
         operationsService.shutdownNow();
         store.unsetDelegate(delegate);
         eventDispatcher.removeSink(FlowRuleEvent.class);
@@ -213,6 +252,16 @@ public class FlowRuleManager
                     purgeOnDisconnection ? "enabled" : "disabled");
         }
 
+        flag = Tools.isPropertyEnabled(properties, "suppressUnchangedFlowEvents");
+        if (flag == null) {
+            log.info("SuppressUnchangedFlowEvents is not configured, " +
+                    "using current value of {}", suppressUnchangedFlowEvents);
+        } else {
+            suppressUnchangedFlowEvents = flag;
+            log.info("Configured. SuppressUnchangedFlowEvents is {}",
+                    suppressUnchangedFlowEvents ? "enabled" : "disabled");
+        }
+
         String s = get(properties, "fallbackFlowPollFrequency");
         try {
             fallbackFlowPollFrequency = isNullOrEmpty(s) ? DEFAULT_POLL_FREQUENCY : Integer.parseInt(s);
@@ -221,6 +270,35 @@ public class FlowRuleManager
         }
     }
 
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
+    /**
+     * Executes a task on the device event lane of the given device, which
+     * keeps the tasks of a device ordered without serializing all devices.
+     *
+     * @param deviceId device the task relates to
+     * @param task     task to execute
+     */
+    private void executeForDevice(DeviceId deviceId, Runnable task) {
+        deviceEventHandlers.execute(picky(task, Objects.hashCode(deviceId)));
+    }
+
+    private Timer reconciliationTimer(DeviceId deviceId) {
+        return reconciliationTimers.computeIfAbsent(deviceId,
+                id -> createTimer(METRICS_COMPONENT, id.toString(), RECONCILIATION_TIME));
+    }
+
+    private void removeReconciliationTimer(DeviceId deviceId) {
+        if (reconciliationTimers.remove(deviceId) != null && metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+            metricsService.removeMetric(component, component.registerFeature(deviceId.toString()),
+                                        RECONCILIATION_TIME);
+        }
+    }
+
     @Override
     public int getFlowRuleCount() {
         checkPermission(FLOWRULE_READ);
@@ -353,7 +431,6 @@ public class FlowRuleManager
         final Map<FlowEntry, Long> firstSeen = Maps.newConcurrentMap();
         final Map<FlowEntry, Long> lastSeen = Maps.newConcurrentMap();
 
-
         protected InternalFlowRuleProviderService(FlowRuleProvider provider) {
             super(provider);
         }
@@ -362,6 +439,10 @@ public class FlowRuleManager
         public void flowRemoved(FlowEntry flowEntry) {
             checkNotNull(flowEntry, FLOW_RULE_NULL);
             checkValidity();
+            executeForDevice(flowEntry.deviceId(), () -> flowRemovedInternal(flowEntry));
+        }
+
+        private void flowRemovedInternal(FlowEntry flowEntry) {
             lastSeen.remove(flowEntry);
             firstSeen.remove(flowEntry);
             FlowEntry stored = store.getFlowEntry(flowEntry);
@@ -436,14 +517,19 @@ public class FlowRuleManager
             log.debug("Flow {} is on switch but not in store.", flowRule);
         }
 
-        private void flowAdded(FlowEntry flowEntry) {
+        private void flowAdded(FlowEntry flowEntry, FlowEntry storedRule) {
             checkNotNull(flowEntry, FLOW_RULE_NULL);
             checkValidity();
 
-            if (checkRuleLiveness(flowEntry, store.getFlowEntry(flowEntry))) {
+            if (checkRuleLiveness(flowEntry, storedRule)) {
+                boolean changed = storedRule.state() != FlowEntry.FlowEntryState.ADDED
+                        || storedRule.packets() != flowEntry.packets()
+                        || storedRule.bytes() != flowEntry.bytes();
                 FlowRuleEvent event = store.addOrUpdateFlowRule(flowEntry);
                 if (event == null) {
                     log.debug("No flow store event generated.");
+                } else if (!changed && suppressUnchangedFlowEvents) {
+                    log.trace("Flow {} unchanged", flowEntry);
                 } else {
                     log.trace("Flow {} {}", flowEntry, event.type());
                     post(event);
@@ -497,63 +583,237 @@ public class FlowRuleManager
 
         @Override
         public void pushFlowMetrics(DeviceId deviceId, Iterable<FlowEntry> flowEntries) {
-            pushFlowMetricsInternal(deviceId, flowEntries, true);
+            executeForDevice(deviceId, () -> pushFlowMetricsInternal(deviceId, flowEntries, true));
         }
 
         @Override
         public void pushFlowMetricsWithoutFlowMissing(DeviceId deviceId, Iterable<FlowEntry> flowEntries) {
-            pushFlowMetricsInternal(deviceId, flowEntries, false);
+            executeForDevice(deviceId, () -> pushFlowMetricsInternal(deviceId, flowEntries, false));
+        }
+
+        @Override
+        public void pushFlowMetricsPart(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
+                                        boolean first, boolean last) {
+            executeForDevice(deviceId, () -> pushFlowMetricsPartInternal(deviceId, flowEntries,
+                                                                         first, last));
         }
 
         private void pushFlowMetricsInternal(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
                                              boolean useMissingFlow) {
-            Map<FlowEntry, FlowEntry> storedRules = Maps.newHashMap();
-            store.getFlowEntries(deviceId).forEach(f -> storedRules.put(f, f));
+            final Context timer = startTimer(reconciliationTimer(deviceId));
+            try {
+                FlowReconciliation reconciliation =
+                        new FlowReconciliation(deviceId, useMissingFlow);
+                reconciliation.merge(flowEntries);
+                reconciliation.complete();
+            } finally {
+                stopTimer(timer);
+            }
+        }
+
+        private void pushFlowMetricsPartInternal(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
+                                                 boolean first, boolean last) {
+            final Context timer = startTimer(reconciliationTimer(deviceId));
+            try {
+                FlowReconciliation reconciliation = first ? null : partialReconciliations.get(deviceId);
+                if (reconciliation != null && reconciliation.isExpired()) {
+                    log.debug("Dropping stale flow entries pushed in parts for {}", deviceId);
+                    reconciliation = null;
+                }
+                if (reconciliation == null) {
+                    // Without the first part, flows absent from the parts
+                    // may well be on the device
+                    reconciliation = new FlowReconciliation(deviceId, first);
+                    partialReconciliations.put(deviceId, reconciliation);
+                }
+                reconciliation.merge(flowEntries);
+                if (last) {
+                    partialReconciliations.remove(deviceId);
+                    reconciliation.complete();
+                }
+            } finally {
+                stopTimer(timer);
+            }
+        }
+
+        /**
+         * Reconciliation of the flow entries reported by a device with the
+         * stored ones, possibly reported in several parts.
+         * Both sides are sorted by flow ID and merged; only the reported
+         * entries whose flow ID has no equal stored entry fall back to a
+         * lookup by flow rule equality, once all parts have been merged.
+         */
+        private final class FlowReconciliation {
+            private final FlowEntry[] storedRules;
+            private final boolean[] matched;
+            private final boolean useMissingFlow;
+            private final long created = System.currentTimeMillis();
+            private List<FlowEntry> unmatchedRules;
+
+            private FlowReconciliation(DeviceId deviceId, boolean useMissingFlow) {
+                this.storedRules = sortedById(store.getFlowEntries(deviceId));
+                this.matched = new boolean[storedRules.length];
+                this.useMissingFlow = useMissingFlow;
+            }
+
+            // Indicates whether the remaining parts are overdue
+            private boolean isExpired() {
+                return System.currentTimeMillis() - created >= partialReconciliationTimeout;
+            }
 
-            for (FlowEntry rule : flowEntries) {
-                try {
-                    FlowEntry storedRule = storedRules.remove(rule);
+            /**
+             * Reconciles a part of the reported flow entries with the
+             * stored ones.
+             *
+             * @param flowEntries reported flow entries
+             */
+            private void merge(Iterable<FlowEntry> flowEntries) {
+                FlowEntry[] reportedRules = sortedById(flowEntries);
+                if (reportedRules.length == 0) {
+                    return;
+                }
+
+                int next = lowerBound(reportedRules[0].id().value());
+                for (FlowEntry reportedRule : reportedRules) {
+                    long id = reportedRule.id().value();
+                    while (next < storedRules.length && storedRules[next].id().value() < id) {
+                        next++;
+                    }
+                    FlowEntry rule;
+                    try {
+                        rule = plainEntry(reportedRule);
+                    } catch (Exception e) {
+                        log.debug("Can't decode reported rule {}", e.getMessage());
+                        continue;
+                    }
+                    FlowEntry storedRule = matchStoredRule(next, rule);
                     if (storedRule != null) {
-                        if (storedRule.exactMatch(rule)) {
-                            // we both have the rule, let's update some info then.
-                            flowAdded(rule);
-                        } else {
-                            // the two rules are not an exact match - remove the
-                            // switch's rule and install our rule
-                            extraneousFlow(rule);
-                            flowMissing(storedRule);
-                        }
+                        reconcileFlowEntry(rule, storedRule);
                     } else {
-                        // the device has a rule the store does not have
-                        if (!allowExtraneousRules) {
-                            extraneousFlow(rule);
+                        if (unmatchedRules == null) {
+                            unmatchedRules = Lists.newArrayList();
                         }
+                        unmatchedRules.add(rule);
                     }
-                } catch (Exception e) {
-                    log.debug("Can't process added or extra rule {}", e.getMessage());
                 }
             }
 
-            // DO NOT reinstall
-            if (useMissingFlow) {
-                for (FlowEntry rule : storedRules.keySet()) {
-                    try {
-                        // there are rules in the store that aren't on the switch
-                        log.debug("Adding rule in store, but not on switch {}", rule);
-                        flowMissing(rule);
-                    } catch (Exception e) {
-                        log.debug("Can't add missing flow rule:", e);
+            // Marks and returns the stored entry equal to the reported one, if any
+            private FlowEntry matchStoredRule(int from, FlowEntry rule) {
+                long id = rule.id().value();
+                for (int i = from; i < storedRules.length && storedRules[i].id().value() == id; i++) {
+                    if (!matched[i] && storedRules[i].equals(rule)) {
+                        matched[i] = true;
+                        return storedRules[i];
                     }
                 }
+                return null;
+            }
+
+            /**
+             * Completes the reconciliation once all reported flow entries
+             * have been merged, processing the stored entries which have not
+             * been reported as missing if requested.
+             */
+            private void complete() {
+                Map<FlowEntry, FlowEntry> remainingRules = Maps.newHashMap();
+                if (useMissingFlow || unmatchedRules != null) {
+                    for (int i = 0; i < storedRules.length; i++) {
+                        if (!matched[i]) {
+                            remainingRules.put(storedRules[i], storedRules[i]);
+                        }
+                    }
+                }
+
+                if (unmatchedRules != null) {
+                    for (FlowEntry rule : unmatchedRules) {
+                        FlowEntry storedRule;
+                        try {
+                            storedRule = remainingRules.remove(rule);
+                            if (storedRule == null) {
+                                // stored after the reconciliation started?
+                                storedRule = store.getFlowEntry(rule);
+                            }
+                        } catch (Exception e) {
+                            log.debug("Can't match reported rule {}", e.getMessage());
+                            continue;
+                        }
+                        reconcileFlowEntry(rule, storedRule);
+                    }
+                }
+
+                // DO NOT reinstall
+                if (useMissingFlow) {
+                    for (FlowEntry rule : remainingRules.keySet()) {
+                        try {
+                            // there are rules in the store that aren't on the switch
+                            log.debug("Adding rule in store, but not on switch {}", rule);
+                            flowMissing(rule);
+                        } catch (Exception e) {
+                            log.debug("Can't add missing flow rule:", e);
+                        }
+                    }
+                }
+            }
+
+            // Index of the first stored entry whose flow ID is not lower than the given one
+            private int lowerBound(long id) {
+                int low = 0;
+                int high = storedRules.length;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (storedRules[mid].id().value() < id) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                return low;
+            }
+        }
+
+        // Plain copy of the reported entry, which providers may decode lazily;
+        // only plain entries are compared, stored and published
+        private FlowEntry plainEntry(FlowEntry rule) {
+            return new DefaultFlowEntry(rule, rule.state(), rule.life(NANOSECONDS), NANOSECONDS,
+                                        rule.liveType(), rule.packets(), rule.bytes());
+        }
+
+        private void reconcileFlowEntry(FlowEntry rule, FlowEntry storedRule) {
+            try {
+                if (storedRule != null) {
+                    if (storedRule.exactMatch(rule)) {
+                        // we both have the rule, let's update some info then.
+                        flowAdded(rule, storedRule);
+                    } else {
+                        // the two rules are not an exact match - remove the
+                        // switch's rule and install our rule
+                        extraneousFlow(rule);
+                        flowMissing(storedRule);
+                    }
+                } else {
+                    // the device has a rule the store does not have
+                    if (!allowExtraneousRules) {
+                        extraneousFlow(rule);
+                    }
+                }
+            } catch (Exception e) {
+                log.debug("Can't process added or extra rule {}", e.getMessage());
             }
         }
 
+        private FlowEntry[] sortedById(Iterable<FlowEntry> flowEntries) {
+            FlowEntry[] sorted = Iterables.toArray(flowEntries, FlowEntry.class);
+            Arrays.sort(sorted, FLOW_ID_ORDER);
+            return sorted;
+        }
+
         @Override
         public void batchOperationCompleted(long batchId, CompletedBatchOperation operation) {
-            store.batchOperationComplete(FlowRuleBatchEvent.completed(
+            executeForDevice(operation.deviceId(), () -> store.batchOperationComplete(FlowRuleBatchEvent.completed(
                     new FlowRuleBatchRequest(batchId, Collections.emptySet()),
                     operation
-            ));
+            )));
         }
 
         @Override
@@ -673,7 +933,7 @@ public class FlowRuleManager
                 final FlowRuleBatchOperation b = new FlowRuleBatchOperation(perDeviceBatches.get(deviceId),
                                                deviceId, id);
                 pendingFlowOperations.put(id, this);
-                deviceInstallers.execute(() -> store.storeBatch(b));
+                deviceInstallers.execute(picky(() -> store.storeBatch(b), deviceId.hashCode()));
             }
         }
 
@@ -707,6 +967,11 @@ public class FlowRuleManager
     private class InternalDeviceListener implements DeviceListener {
         @Override
         public void event(DeviceEvent event) {
+            if (event.type() == DeviceEvent.Type.DEVICE_REMOVED) {
+                DeviceId deviceId = event.subject().id();
+                removeReconciliationTimer(deviceId);
+                executeForDevice(deviceId, () -> partialReconciliations.remove(deviceId));
+            }
             switch (event.type()) {
                 case DEVICE_REMOVED:
                 case DEVICE_AVAILABILITY_CHANGED:
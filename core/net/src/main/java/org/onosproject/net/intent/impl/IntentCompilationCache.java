@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl;
+
+import com.google.common.collect.ImmutableList;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Host;
+import org.onosproject.net.HostId;
+import org.onosproject.net.Link;
+import org.onosproject.net.NetworkResource;
+import org.onosproject.net.Port;
+import org.onosproject.net.device.DeviceService;
+import org.onosproject.net.host.HostService;
+import org.onosproject.net.intent.Intent;
+import org.onosproject.net.intent.Key;
+import org.onosproject.net.link.LinkService;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.onosproject.net.intent.constraint.PartialFailureConstraint.intentAllowsPartialFailure;
+
+/**
+ * Cache of the installable intents compiled for each intent, along with the
+ * state of the network elements the compilation depended on.
+ * <p>
+ * Intents are recompiled whenever a link, device or host they depend on
+ * changes, yet many such changes, like device or link updates, leave the
+ * previous result valid. As long as the intent itself, its installables and
+ * the state of every element they depend on are unchanged, the previous
+ * installables are reused rather than compiled again.
+ */
+class IntentCompilationCache {
+
+    // State of the elements whose state is not tracked
+    private static final Object UNTRACKED = new Object();
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LinkService linkService;
+    private final DeviceService deviceService;
+    private final HostService hostService;
+
+    /**
+     * Creates a compilation cache, tracking the state of the network
+     * elements through the given services.
+     *
+     * @param linkService   link service
+     * @param deviceService device service
+     * @param hostService   host service
+     */
+    IntentCompilationCache(LinkService linkService, DeviceService deviceService,
+                           HostService hostService) {
+        this.linkService = linkService;
+        this.deviceService = deviceService;
+        this.hostService = hostService;
+    }
+
+    /**
+     * Returns the installables previously compiled for the intent, if they
+     * are still valid.
+     *
+     * @param intent               intent to compile
+     * @param previousInstallables installables of the intent in the store
+     * @return previous installables; null if the intent has to be compiled
+     */
+    List<Intent> get(Intent intent, List<Intent> previousInstallables) {
+        Entry entry = entries.get(intent.key());
+        if (entry == null || previousInstallables == null ||
+                !entry.intent.equals(intent) ||
+                !entry.installables.equals(previousInstallables)) {
+            return null;
+        }
+        for (Map.Entry<NetworkResource, Object> dependency : entry.states.entrySet()) {
+            if (!Objects.equals(dependency.getValue(), state(dependency.getKey()))) {
+                entries.remove(intent.key(), entry);
+                return null;
+            }
+        }
+        return entry.installables;
+    }
+
+    /**
+     * Caches the installables compiled for the intent, along with the
+     * current state of the elements they depend on.
+     *
+     * @param intent       compiled intent
+     * @param installables installables compiled for the intent
+     */
+    void put(Intent intent, List<Intent> installables) {
+        // Intents allowing partial failure are recompiled to recover
+        if (installables.isEmpty() || intentAllowsPartialFailure(intent)) {
+            entries.remove(intent.key());
+            return;
+        }
+
+        Map<NetworkResource, Object> states = new HashMap<>();
+        for (NetworkResource resource : intent.resources()) {
+            states.put(resource, state(resource));
+        }
+        for (Intent installable : installables) {
+            for (NetworkResource resource : installable.resources()) {
+                states.put(resource, state(resource));
+            }
+        }
+        if (states.containsValue(UNTRACKED)) {
+            entries.remove(intent.key());
+        } else {
+            entries.put(intent.key(), new Entry(intent, installables, states));
+        }
+    }
+
+    /**
+     * Discards the installables cached for the intent with the given key.
+     *
+     * @param key intent key
+     */
+    void remove(Key key) {
+        entries.remove(key);
+    }
+
+    // Returns the state of the element that compilation results depend on
+    private Object state(NetworkResource resource) {
+        if (resource instanceof Link) {
+            Link link = (Link) resource;
+            if (!(link.src().elementId() instanceof DeviceId)) {
+                return portEnabled(link.dst());
+            } else if (!(link.dst().elementId() instanceof DeviceId)) {
+                return portEnabled(link.src());
+            }
+            // Constraints may weigh links by their type and annotations
+            Link current = linkService.getLink(link.src(), link.dst());
+            return current != null ?
+                    Arrays.asList(current.state(), current.type(), current.annotations()) : null;
+        } else if (resource instanceof DeviceId) {
+            return deviceService.isAvailable((DeviceId) resource);
+        } else if (resource instanceof HostId) {
+            Host host = hostService.getHost((HostId) resource);
+            return host != null ? host.location() : null;
+        }
+        return UNTRACKED;
+    }
+
+    private Boolean portEnabled(ConnectPoint connectPoint) {
+        Port port = deviceService.getPort(connectPoint.deviceId(), connectPoint.port());
+        return port != null ? port.isEnabled() : null;
+    }
+
+    private static final class Entry {
+        private final Intent intent;
+        private final List<Intent> installables;
+        private final Map<NetworkResource, Object> states;
+
+        private Entry(Intent intent, List<Intent> installables,
+                      Map<NetworkResource, Object> states) {
+            this.intent = intent;
+            this.installables = ImmutableList.copyOf(installables);
+            this.states = states;
+        }
+    }
+}
@@ -30,11 +30,13 @@ import org.onosproject.core.IdGenerator;
 import org.onosproject.event.AbstractListenerManager;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.config.NetworkConfigService;
+import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.domain.DomainIntentService;
 import org.onosproject.net.flow.FlowRuleService;
 import org.onosproject.net.flowobjective.FlowObjectiveService;
 import org.onosproject.net.group.GroupKey;
 import org.onosproject.net.group.GroupService;
+import org.onosproject.net.host.HostService;
 import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentBatchDelegate;
 import org.onosproject.net.intent.IntentCompiler;
@@ -55,6 +57,7 @@ import org.onosproject.net.intent.impl.compiler.PointToPointIntentCompiler;
 import org.onosproject.net.intent.impl.phase.FinalIntentProcessPhase;
 import org.onosproject.net.intent.impl.phase.IntentProcessPhase;
 import org.onosproject.net.intent.impl.phase.Skipped;
+import org.onosproject.net.link.LinkService;
 import org.onosproject.net.resource.ResourceConsumer;
 import org.onosproject.net.resource.ResourceService;
 import org.osgi.service.component.ComponentContext;
@@ -101,6 +104,8 @@ public class IntentManager
             = EnumSet.of(INSTALL_REQ, FAILED, WITHDRAW_REQ);
     private static final EnumSet<IntentState> WITHDRAW
             = EnumSet.of(WITHDRAW_REQ, WITHDRAWING, WITHDRAWN);
+    private static final EnumSet<IntentState> UNCACHED
+            = EnumSet.of(WITHDRAW_REQ, WITHDRAWING, WITHDRAWN, FAILED, CORRUPT, PURGE_REQ);
 
     private static final boolean DEFAULT_SKIP_RELEASE_RESOURCES_ON_WITHDRAWAL = false;
     @Property(name = "skipReleaseResourcesOnWithdrawal",
@@ -144,6 +149,15 @@ public class IntentManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     private NetworkConfigService networkConfigService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected LinkService linkService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected DeviceService deviceService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected HostService hostService;
+
     private ExecutorService batchExecutor;
     private ExecutorService workerExecutor;
 
@@ -155,6 +169,7 @@ public class IntentManager
     private final TopologyChangeDelegate topoDelegate = new InternalTopoChangeDelegate();
     private final IntentBatchDelegate batchDelegate = new InternalBatchDelegate();
     private InstallCoordinator installCoordinator;
+    private IntentCompilationCache compilationCache;
     private IdGenerator idGenerator;
 
     private final IntentAccumulator accumulator = new IntentAccumulator(batchDelegate);
@@ -175,6 +190,7 @@ public class IntentManager
         Intent.unbindIdGenerator(idGenerator);
         Intent.bindIdGenerator(idGenerator);
         installCoordinator = new InstallCoordinator(installerRegistry, store);
+        compilationCache = new IntentCompilationCache(linkService, deviceService, hostService);
         log.info("Started");
     }
 
@@ -397,6 +413,9 @@ public class IntentManager
         @Override
         public void onUpdate(IntentData intentData) {
             trackerService.trackIntent(intentData);
+            if (UNCACHED.contains(intentData.state())) {
+                compilationCache.remove(intentData.key());
+            }
         }
 
         private void releaseResources(Intent intent) {
@@ -448,6 +467,9 @@ public class IntentManager
         @Override
         public void onUpdate(IntentData data) {
             trackerService.trackIntent(data);
+            if (UNCACHED.contains(data.state())) {
+                compilationCache.remove(data.key());
+            }
         }
 
         @Override
@@ -568,7 +590,14 @@ public class IntentManager
     private class InternalIntentProcessor implements IntentProcessor {
         @Override
         public List<Intent> compile(Intent intent, List<Intent> previousInstallables) {
-            return compilerRegistry.compile(intent, previousInstallables);
+            List<Intent> cached = compilationCache.get(intent, previousInstallables);
+            if (cached != null) {
+                log.debug("Reusing installables of {}", intent.key());
+                return cached;
+            }
+            List<Intent> compiled = compilerRegistry.compile(intent, previousInstallables);
+            compilationCache.put(intent, compiled);
+            return compiled;
         }
 
         @Override
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet.impl;
+
+import org.onlab.packet.Ethernet;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.packet.InboundPacket;
+import org.onosproject.net.packet.PacketInStatistics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.onlab.util.GuavaCollectors.toImmutableList;
+
+/**
+ * Admission stage protecting the packet processors from inbound packet
+ * floods.
+ * <p>
+ * Packets are admitted against token buckets kept per ingress connect point
+ * and class of ethernet type, so a flood of one kind of traffic on one port
+ * does not starve the others, and optionally against a bucket shared by all
+ * ports of a device. Admitted and dropped packets are counted per connect
+ * point whether or not rate limiting is enabled.
+ */
+final class PacketAdmissionControl {
+
+    /**
+     * Classes of ethernet types rate limited separately.
+     */
+    enum EthTypeClass {
+        ARP, DISCOVERY, IPV4, IPV6, OTHER;
+
+        static EthTypeClass of(InboundPacket packet) {
+            Ethernet eth = packet.parsed();
+            if (eth == null) {
+                return OTHER;
+            }
+            short ethType = eth.getEtherType();
+            if (ethType == Ethernet.TYPE_ARP) {
+                return ARP;
+            } else if (ethType == Ethernet.TYPE_LLDP || ethType == Ethernet.TYPE_BSN) {
+                return DISCOVERY;
+            } else if (ethType == Ethernet.TYPE_IPV4) {
+                return IPV4;
+            } else if (ethType == Ethernet.TYPE_IPV6) {
+                return IPV6;
+            }
+            return OTHER;
+        }
+    }
+
+    private final Map<ClassKey, TokenBucket> portBuckets = new ConcurrentHashMap<>();
+    private final Map<DeviceId, TokenBucket> deviceBuckets = new ConcurrentHashMap<>();
+    private final Map<ConnectPoint, Counters> counters = new ConcurrentHashMap<>();
+
+    private volatile int portRate;
+    private volatile int deviceRate;
+    private volatile int burstSize;
+
+    /**
+     * Sets the admission rates, discarding the current buckets.
+     *
+     * @param portRate   packets per second admitted per connect point and
+     *                   ethernet type class; 0 for no limit
+     * @param deviceRate packets per second admitted per device; 0 for no limit
+     * @param burstSize  maximum number of packets admitted in a burst
+     */
+    void configure(int portRate, int deviceRate, int burstSize) {
+        this.portRate = portRate;
+        this.deviceRate = deviceRate;
+        this.burstSize = burstSize;
+        portBuckets.clear();
+        deviceBuckets.clear();
+    }
+
+    /**
+     * Indicates whether the packet may be handed to the packet processors,
+     * counting it as admitted or dropped accordingly.
+     *
+     * @param packet inbound packet
+     * @return true if the packet is admitted
+     */
+    boolean admit(InboundPacket packet) {
+        ConnectPoint cp = packet.receivedFrom();
+        Counters c = counters(cp);
+        if (!tryAcquire(packet, cp)) {
+            c.dropped.increment();
+            return false;
+        }
+        c.admitted.increment();
+        return true;
+    }
+
+    /**
+     * Records a previously admitted packet as dropped, for instance because
+     * its dispatch queue was full.
+     *
+     * @param packet inbound packet
+     */
+    void dropped(InboundPacket packet) {
+        Counters c = counters(packet.receivedFrom());
+        c.admitted.decrement();
+        c.dropped.increment();
+    }
+
+    /**
+     * Discards the buckets and counters of the given device.
+     *
+     * @param deviceId device identifier
+     */
+    void purge(DeviceId deviceId) {
+        portBuckets.keySet().removeIf(k -> k.connectPoint.deviceId().equals(deviceId));
+        deviceBuckets.remove(deviceId);
+        counters.keySet().removeIf(cp -> cp.deviceId().equals(deviceId));
+    }
+
+    /**
+     * Returns a snapshot of the counters of all connect points.
+     *
+     * @return inbound packet statistics
+     */
+    List<PacketInStatistics> statistics() {
+        return counters.entrySet().stream()
+                .map(e -> new PacketInStatistics(e.getKey(),
+                                                 e.getValue().admitted.sum(),
+                                                 e.getValue().dropped.sum()))
+                .collect(toImmutableList());
+    }
+
+    private boolean tryAcquire(InboundPacket packet, ConnectPoint cp) {
+        long now = System.nanoTime();
+        int portLimit = portRate;
+        int deviceLimit = deviceRate;
+        int burst = burstSize;
+        if (portLimit > 0) {
+            TokenBucket bucket = portBuckets.computeIfAbsent(
+                    new ClassKey(cp, EthTypeClass.of(packet)),
+                    k -> new TokenBucket(portLimit, burst, now));
+            if (!bucket.tryAcquire(now)) {
+                return false;
+            }
+        }
+        if (deviceLimit > 0) {
+            TokenBucket bucket = deviceBuckets.computeIfAbsent(
+                    cp.deviceId(), k -> new TokenBucket(deviceLimit, burst, now));
+            return bucket.tryAcquire(now);
+        }
+        return true;
+    }
+
+    private Counters counters(ConnectPoint cp) {
+        Counters c = counters.get(cp);
+        return c != null ? c : counters.computeIfAbsent(cp, k -> new Counters());
+    }
+
+    private static final class Counters {
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+    }
+
+    private static final class ClassKey {
+        private final ConnectPoint connectPoint;
+        private final EthTypeClass ethTypeClass;
+
+        private ClassKey(ConnectPoint connectPoint, EthTypeClass ethTypeClass) {
+            this.connectPoint = connectPoint;
+            this.ethTypeClass = ethTypeClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(connectPoint, ethTypeClass);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ClassKey)) {
+                return false;
+            }
+            ClassKey other = (ClassKey) obj;
+            return ethTypeClass == other.ethTypeClass
+                    && connectPoint.equals(other.connectPoint);
+        }
+    }
+
+    /**
+     * Token bucket refilled continuously at a fixed rate.
+     */
+    static final class TokenBucket {
+        private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        /**
+         * Creates a full token bucket.
+         *
+         * @param rate      tokens added per second
+         * @param burstSize maximum number of tokens held
+         * @param now       current time in nanoseconds
+         */
+        TokenBucket(int rate, int burstSize, long now) {
+            this.tokensPerNano = rate / NANOS_PER_SECOND;
+            this.capacity = Math.max(1, burstSize);
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        /**
+         * Takes a token from the bucket, if one is available.
+         *
+         * @param now current time in nanoseconds
+         * @return true if a token was taken
+         */
+        synchronized boolean tryAcquire(long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+                lastRefill = now;
+            }
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
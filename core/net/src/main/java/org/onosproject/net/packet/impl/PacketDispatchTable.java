@@ -0,0 +1,191 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.IPv6;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.criteria.Criterion;
+import org.onosproject.net.flow.criteria.EthCriterion;
+import org.onosproject.net.flow.criteria.EthTypeCriterion;
+import org.onosproject.net.flow.criteria.IPProtocolCriterion;
+import org.onosproject.net.flow.criteria.PortCriterion;
+import org.onosproject.net.flow.criteria.VlanIdCriterion;
+import org.onosproject.net.packet.InboundPacket;
+import org.onosproject.net.packet.PacketProcessorEntry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.onlab.util.GuavaCollectors.toImmutableList;
+
+/**
+ * Immutable table dispatching inbound packets to the packet processors
+ * whose selectors may match them.
+ * <p>
+ * Processors are indexed by the ethernet types of their selectors, so a
+ * packet is only offered to the processors registered for its ethernet type
+ * and to those registered for any, in priority order. The remaining criteria
+ * are evaluated per packet; criteria which cannot be evaluated on the packet
+ * alone are considered matching.
+ *
+ * @param <E> type of processor entries
+ */
+final class PacketDispatchTable<E extends PacketProcessorEntry> {
+
+    private final List<E> entries;
+    private final List<E> anyEthType;
+    private final Map<Short, List<E>> byEthType;
+
+    /**
+     * Creates a dispatch table for the given processor entries.
+     *
+     * @param entries processor entries, in priority order
+     */
+    PacketDispatchTable(List<E> entries) {
+        this.entries = ImmutableList.copyOf(entries);
+        this.anyEthType = entries.stream()
+                .filter(e -> ethTypes(e) == null)
+                .collect(toImmutableList());
+        Set<Short> ethTypes = entries.stream()
+                .map(PacketDispatchTable::ethTypes)
+                .filter(t -> t != null)
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet());
+        ImmutableMap.Builder<Short, List<E>> builder = ImmutableMap.builder();
+        for (Short ethType : ethTypes) {
+            builder.put(ethType, entries.stream()
+                    .filter(e -> ethTypes(e) == null || ethTypes(e).contains(ethType))
+                    .collect(toImmutableList()));
+        }
+        this.byEthType = builder.build();
+    }
+
+    /**
+     * Returns all processor entries, in priority order.
+     *
+     * @return processor entries
+     */
+    List<E> entries() {
+        return entries;
+    }
+
+    /**
+     * Returns the processor entries which may be interested in the given
+     * packet, in priority order; their selectors still have to be matched
+     * against the packet.
+     *
+     * @param packet inbound packet
+     * @return candidate processor entries
+     */
+    List<E> candidates(InboundPacket packet) {
+        Ethernet eth = packet.parsed();
+        if (eth == null || byEthType.isEmpty()) {
+            return anyEthType;
+        }
+        return byEthType.getOrDefault(eth.getEtherType(), anyEthType);
+    }
+
+    /**
+     * Indicates whether any selector of the given entry matches the packet.
+     *
+     * @param entry  processor entry
+     * @param packet inbound packet
+     * @return true if the packet matches, or may match, a selector
+     */
+    static boolean matches(PacketProcessorEntry entry, InboundPacket packet) {
+        for (TrafficSelector selector : entry.selectors()) {
+            if (matches(selector, packet)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(TrafficSelector selector, InboundPacket packet) {
+        for (Criterion criterion : selector.criteria()) {
+            if (!matches(criterion, packet)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(Criterion criterion, InboundPacket packet) {
+        Ethernet eth = packet.parsed();
+        switch (criterion.type()) {
+            case IN_PORT:
+                return ((PortCriterion) criterion).port()
+                        .equals(packet.receivedFrom().port());
+            case ETH_TYPE:
+                return eth != null && eth.getEtherType() ==
+                        ((EthTypeCriterion) criterion).ethType().toShort();
+            case ETH_SRC:
+            case ETH_DST:
+                EthCriterion ethCriterion = (EthCriterion) criterion;
+                if (ethCriterion.mask() != null) {
+                    return true;
+                }
+                return eth != null && ethCriterion.mac().equals(
+                        criterion.type() == Criterion.Type.ETH_SRC ?
+                                eth.getSourceMAC() : eth.getDestinationMAC());
+            case VLAN_VID:
+                VlanId vlanId = ((VlanIdCriterion) criterion).vlanId();
+                if (eth == null) {
+                    return false;
+                }
+                if (vlanId.equals(VlanId.ANY)) {
+                    return eth.getVlanID() != Ethernet.VLAN_UNTAGGED;
+                }
+                return eth.getVlanID() == vlanId.toShort();
+            case IP_PROTO:
+                short protocol = ((IPProtocolCriterion) criterion).protocol();
+                if (eth == null) {
+                    return false;
+                }
+                if (eth.getPayload() instanceof IPv4) {
+                    return ((IPv4) eth.getPayload()).getProtocol() == (byte) protocol;
+                }
+                if (eth.getPayload() instanceof IPv6) {
+                    return ((IPv6) eth.getPayload()).getNextHeader() == (byte) protocol;
+                }
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    // Returns the ethernet types selected by the entry, or null if one of
+    // its selectors does not restrict the ethernet type
+    private static Set<Short> ethTypes(PacketProcessorEntry entry) {
+        Set<Short> ethTypes = Sets.newHashSet();
+        for (TrafficSelector selector : entry.selectors()) {
+            Criterion criterion = selector.getCriterion(Criterion.Type.ETH_TYPE);
+            if (criterion == null) {
+                return null;
+            }
+            ethTypes.add(((EthTypeCriterion) criterion).ethType().toShort());
+        }
+        return ethTypes;
+    }
+}
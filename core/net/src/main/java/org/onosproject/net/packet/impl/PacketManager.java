@@ -21,9 +21,13 @@ import com.google.common.collect.Lists;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.core.ApplicationId;
@@ -33,6 +37,7 @@ import org.onosproject.net.DeviceId;
 import org.onosproject.net.device.DeviceEvent;
 import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceService;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
 import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
@@ -46,6 +51,7 @@ import org.onosproject.net.packet.DefaultPacketRequest;
 import org.onosproject.net.packet.OutboundPacket;
 import org.onosproject.net.packet.PacketContext;
 import org.onosproject.net.packet.PacketEvent;
+import org.onosproject.net.packet.PacketInStatistics;
 import org.onosproject.net.packet.PacketPriority;
 import org.onosproject.net.packet.PacketProcessor;
 import org.onosproject.net.packet.PacketProcessorEntry;
@@ -58,14 +64,22 @@ import org.onosproject.net.packet.PacketStore;
 import org.onosproject.net.packet.PacketStoreDelegate;
 import org.onosproject.net.provider.AbstractProviderRegistry;
 import org.onosproject.net.provider.AbstractProviderService;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.Dictionary;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
@@ -87,9 +101,41 @@ public class PacketManager
 
     private static final String ERROR_NULL_PROCESSOR = "Processor cannot be null";
     private static final String ERROR_NULL_SELECTOR = "Selector cannot be null";
+    private static final String ERROR_NO_SELECTORS = "Selectors cannot be empty";
     private static final String ERROR_NULL_APP_ID = "Application ID cannot be null";
     private static final String ERROR_NULL_DEVICE_ID = "Device ID cannot be null";
 
+    private static final int DEFAULT_DISPATCH_THREADS = 0;
+    private static final int DEFAULT_DISPATCH_QUEUE_SIZE = 1024;
+    private static final int DEFAULT_PACKET_IN_RATE_LIMIT = 0;
+    private static final int DEFAULT_PACKET_IN_DEVICE_RATE_LIMIT = 0;
+    private static final int DEFAULT_PACKET_IN_BURST_SIZE = 100;
+
+    @Property(name = "packetDispatchThreads", intValue = DEFAULT_DISPATCH_THREADS,
+            label = "Number of threads processing inbound packets, each serving " +
+                    "a shard of the devices; 0 processes them on the provider thread")
+    private int packetDispatchThreads = DEFAULT_DISPATCH_THREADS;
+
+    @Property(name = "packetDispatchQueueSize", intValue = DEFAULT_DISPATCH_QUEUE_SIZE,
+            label = "Number of inbound packets queued per dispatch thread, " +
+                    "beyond which packets are dropped")
+    private int packetDispatchQueueSize = DEFAULT_DISPATCH_QUEUE_SIZE;
+
+    @Property(name = "packetInRateLimit", intValue = DEFAULT_PACKET_IN_RATE_LIMIT,
+            label = "Inbound packets per second admitted per port and class of " +
+                    "ethernet type; 0 disables the limit")
+    private int packetInRateLimit = DEFAULT_PACKET_IN_RATE_LIMIT;
+
+    @Property(name = "packetInDeviceRateLimit", intValue = DEFAULT_PACKET_IN_DEVICE_RATE_LIMIT,
+            label = "Inbound packets per second admitted per device; " +
+                    "0 disables the limit")
+    private int packetInDeviceRateLimit = DEFAULT_PACKET_IN_DEVICE_RATE_LIMIT;
+
+    @Property(name = "packetInBurstSize", intValue = DEFAULT_PACKET_IN_BURST_SIZE,
+            label = "Number of inbound packets admitted in a burst by the " +
+                    "packet-in rate limits")
+    private int packetInBurstSize = DEFAULT_PACKET_IN_BURST_SIZE;
+
     private final PacketStoreDelegate delegate = new InternalStoreDelegate();
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -107,11 +153,24 @@ public class PacketManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected FlowObjectiveService objectiveService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
     private ExecutorService eventHandlingExecutor;
 
     private final DeviceListener deviceListener = new InternalDeviceListener();
 
-    private final List<ProcessorEntry> processors = Lists.newCopyOnWriteArrayList();
+    // Processors in priority order, indexed for dispatch; replaced as a
+    // whole on every registration change
+    private volatile PacketDispatchTable<ProcessorEntry> processors =
+            new PacketDispatchTable<>(ImmutableList.of());
+
+    // Per-device shards of bounded dispatch workers; null when packets are
+    // processed on the provider thread
+    private volatile ExecutorService[] dispatchWorkers;
+    private final AtomicLong droppedPackets = new AtomicLong();
+
+    private final PacketAdmissionControl admission = new PacketAdmissionControl();
 
     private final  PacketDriverProvider defaultProvider = new PacketDriverProvider();
 
@@ -119,7 +178,9 @@ public class PacketManager
     private NodeId localNodeId;
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        cfgService.registerProperties(getClass());
+        modified(context);
         eventHandlingExecutor = Executors.newSingleThreadExecutor(
                 groupedThreads("onos/net/packet", "event-handler", log));
         localNodeId = clusterService.getLocalNode().id();
@@ -133,12 +194,107 @@ public class PacketManager
 
     @Deactivate
     public void deactivate() {
+        cfgService.unregisterProperties(getClass(), false);
         store.unsetDelegate(delegate);
         deviceService.removeListener(deviceListener);
         eventHandlingExecutor.shutdown();
+        shutdownDispatchWorkers(dispatchWorkers);
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context != null) {
+            readComponentConfiguration(context);
+        }
+        ExecutorService[] oldWorkers = dispatchWorkers;
+        dispatchWorkers = createDispatchWorkers(packetDispatchThreads,
+                                                packetDispatchQueueSize);
+        shutdownDispatchWorkers(oldWorkers);
+        admission.configure(packetInRateLimit, packetInDeviceRateLimit,
+                            packetInBurstSize);
+    }
+
+    private void readComponentConfiguration(ComponentContext context) {
+        Dictionary<?, ?> properties = context.getProperties();
+
+        Integer threads = Tools.getIntegerProperty(properties, "packetDispatchThreads");
+        if (threads == null || threads < 0) {
+            log.info("PacketDispatchThreads is not configured, " +
+                    "using current value of {}", packetDispatchThreads);
+        } else {
+            packetDispatchThreads = threads;
+            log.info("Configured. PacketDispatchThreads is {}", packetDispatchThreads);
+        }
+
+        Integer queueSize = Tools.getIntegerProperty(properties, "packetDispatchQueueSize");
+        if (queueSize == null || queueSize <= 0) {
+            log.info("PacketDispatchQueueSize is not configured, " +
+                    "using current value of {}", packetDispatchQueueSize);
+        } else {
+            packetDispatchQueueSize = queueSize;
+            log.info("Configured. PacketDispatchQueueSize is {}", packetDispatchQueueSize);
+        }
+
+        Integer rateLimit = Tools.getIntegerProperty(properties, "packetInRateLimit");
+        if (rateLimit == null || rateLimit < 0) {
+            log.info("PacketInRateLimit is not configured, " +
+                    "using current value of {}", packetInRateLimit);
+        } else {
+            packetInRateLimit = rateLimit;
+            log.info("Configured. PacketInRateLimit is {}", packetInRateLimit);
+        }
+
+        Integer deviceRateLimit = Tools.getIntegerProperty(properties, "packetInDeviceRateLimit");
+        if (deviceRateLimit == null || deviceRateLimit < 0) {
+            log.info("PacketInDeviceRateLimit is not configured, " +
+                    "using current value of {}", packetInDeviceRateLimit);
+        } else {
+            packetInDeviceRateLimit = deviceRateLimit;
+            log.info("Configured. PacketInDeviceRateLimit is {}", packetInDeviceRateLimit);
+        }
+
+        Integer burstSize = Tools.getIntegerProperty(properties, "packetInBurstSize");
+        if (burstSize == null || burstSize <= 0) {
+            log.info("PacketInBurstSize is not configured, " +
+                    "using current value of {}", packetInBurstSize);
+        } else {
+            packetInBurstSize = burstSize;
+            log.info("Configured. PacketInBurstSize is {}", packetInBurstSize);
+        }
+    }
+
+    private ExecutorService[] createDispatchWorkers(int threads, int queueSize) {
+        if (threads == 0) {
+            return null;
+        }
+        ExecutorService[] workers = new ExecutorService[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueSize),
+                    groupedThreads("onos/net/packet", "dispatch-" + i, log));
+        }
+        return workers;
+    }
+
+    private void shutdownDispatchWorkers(ExecutorService[] workers) {
+        if (workers != null) {
+            for (ExecutorService worker : workers) {
+                worker.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of inbound packets dropped because the dispatch
+     * queue of their device was full.
+     *
+     * @return number of dropped packets
+     */
+    long droppedPackets() {
+        return droppedPackets.get();
+    }
+
     @Override
     protected PacketProvider defaultProvider() {
         return defaultProvider;
@@ -146,29 +302,43 @@ public class PacketManager
 
     @Override
     public void addProcessor(PacketProcessor processor, int priority) {
+        addProcessor(processor, priority,
+                     ImmutableSet.of(DefaultTrafficSelector.emptySelector()));
+    }
+
+    @Override
+    public synchronized void addProcessor(PacketProcessor processor, int priority,
+                                          Set<TrafficSelector> selectors) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
-        ProcessorEntry entry = new ProcessorEntry(processor, priority);
+        checkNotNull(selectors, ERROR_NULL_SELECTOR);
+        checkArgument(!selectors.isEmpty(), ERROR_NO_SELECTORS);
+        ProcessorEntry entry = new ProcessorEntry(processor, priority,
+                                                  ImmutableSet.copyOf(selectors));
+        List<ProcessorEntry> entries = Lists.newArrayList(processors.entries());
 
         // Insert the new processor according to its priority.
         int i = 0;
-        for (; i < processors.size(); i++) {
-            if (priority < processors.get(i).priority()) {
+        for (; i < entries.size(); i++) {
+            if (priority < entries.get(i).priority()) {
                 break;
             }
         }
-        processors.add(i, entry);
+        entries.add(i, entry);
+        processors = new PacketDispatchTable<>(entries);
     }
 
     @Override
-    public void removeProcessor(PacketProcessor processor) {
+    public synchronized void removeProcessor(PacketProcessor processor) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
+        List<ProcessorEntry> entries = Lists.newArrayList(processors.entries());
 
         // Remove the processor entry.
-        for (int i = 0; i < processors.size(); i++) {
-            if (processors.get(i).processor() == processor) {
-                processors.remove(i);
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).processor() == processor) {
+                entries.remove(i);
+                processors = new PacketDispatchTable<>(entries);
                 break;
             }
         }
@@ -177,7 +347,13 @@ public class PacketManager
     @Override
     public List<PacketProcessorEntry> getProcessors() {
         checkPermission(PACKET_READ);
-        return ImmutableList.copyOf(processors);
+        return ImmutableList.copyOf(processors.entries());
+    }
+
+    @Override
+    public List<PacketInStatistics> getPacketInStatistics() {
+        checkPermission(PACKET_READ);
+        return admission.statistics();
     }
 
     @Override
@@ -382,20 +558,50 @@ public class PacketManager
 
         @Override
         public void processPacket(PacketContext context) {
-            // TODO filter packets sent to processors based on registrations
-            for (ProcessorEntry entry : processors) {
-                try {
-                    long start = System.nanoTime();
-                    entry.processor().process(context);
-                    entry.addNanos(System.nanoTime() - start);
-                } catch (Exception e) {
-                    log.warn("Packet processor {} threw an exception", entry.processor(), e);
+            if (!admission.admit(context.inPacket())) {
+                return;
+            }
+            ExecutorService[] workers = dispatchWorkers;
+            if (workers == null) {
+                dispatchPacket(context);
+                return;
+            }
+            // Packets of a device are all processed by the same worker, in order
+            int shard = Math.floorMod(context.inPacket().receivedFrom().deviceId().hashCode(),
+                                      workers.length);
+            try {
+                workers[shard].execute(() -> dispatchPacket(context));
+            } catch (RejectedExecutionException e) {
+                admission.dropped(context.inPacket());
+                if (droppedPackets.getAndIncrement() == 0) {
+                    log.warn("Packet dispatch queue full; dropping inbound packets");
                 }
             }
         }
 
     }
 
+    /**
+     * Offers the packet to the processors whose selectors match it, in
+     * priority order.
+     *
+     * @param context packet context
+     */
+    private void dispatchPacket(PacketContext context) {
+        for (ProcessorEntry entry : processors.candidates(context.inPacket())) {
+            if (!PacketDispatchTable.matches(entry, context.inPacket())) {
+                continue;
+            }
+            try {
+                long start = System.nanoTime();
+                entry.processor().process(context);
+                entry.addNanos(System.nanoTime() - start);
+            } catch (Exception e) {
+                log.warn("Packet processor {} threw an exception", entry.processor(), e);
+            }
+        }
+    }
+
 
     /**
      * Internal callback from the packet store.
@@ -445,6 +651,9 @@ public class PacketManager
                                 pushRulesToDevice(device);
                             }
                             break;
+                        case DEVICE_REMOVED:
+                            admission.purge(device.id());
+                            break;
                         default:
                             break;
                     }
@@ -458,15 +667,18 @@ public class PacketManager
     /**
      * Entity for tracking stats for a packet processor.
      */
-    private class ProcessorEntry implements PacketProcessorEntry {
+    private static class ProcessorEntry implements PacketProcessorEntry {
         private final PacketProcessor processor;
         private final int priority;
-        private long invocations = 0;
-        private long nanos = 0;
+        private final Set<TrafficSelector> selectors;
+        private final AtomicLong invocations = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
 
-        public ProcessorEntry(PacketProcessor processor, int priority) {
+        public ProcessorEntry(PacketProcessor processor, int priority,
+                              Set<TrafficSelector> selectors) {
             this.processor = processor;
             this.priority = priority;
+            this.selectors = selectors;
         }
 
         @Override
@@ -479,24 +691,30 @@ public class PacketManager
             return priority;
         }
 
+        @Override
+        public Set<TrafficSelector> selectors() {
+            return selectors;
+        }
+
         @Override
         public long invocations() {
-            return invocations;
+            return invocations.get();
         }
 
         @Override
         public long totalNanos() {
-            return nanos;
+            return nanos.get();
         }
 
         @Override
         public long averageNanos() {
-            return invocations > 0 ? nanos / invocations : 0;
+            long count = invocations.get();
+            return count > 0 ? nanos.get() / count : 0;
         }
 
         void addNanos(long nanos) {
-            this.nanos += nanos;
-            this.invocations++;
+            this.nanos.addAndGet(nanos);
+            this.invocations.incrementAndGet();
         }
     }
 }
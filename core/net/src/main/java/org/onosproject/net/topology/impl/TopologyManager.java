@@ -30,6 +30,7 @@ import org.onosproject.net.Link;
 import org.onosproject.net.Path;
 import org.onosproject.net.provider.AbstractProviderService;
 import org.onosproject.net.topology.ClusterId;
+import org.onosproject.net.topology.DevicePair;
 import org.onosproject.net.topology.GraphDescription;
 import org.onosproject.net.topology.LinkWeigher;
 import org.onosproject.net.topology.LinkWeight;
@@ -48,6 +49,7 @@ import org.slf4j.Logger;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 import java.util.Map;
 
@@ -74,6 +76,7 @@ public class TopologyManager
     private static final String CLUSTER_NULL = "Topology cluster cannot be null";
     private static final String CONNECTION_POINT_NULL = "Connection point cannot be null";
     private static final String LINK_WEIGHT_NULL = "Link weight cannot be null";
+    private static final String DEVICE_PAIRS_NULL = "Device pairs cannot be null";
 
     private final Logger log = getLogger(getClass());
 
@@ -201,6 +204,17 @@ public class TopologyManager
         return store.getKShortestPaths(topology, src, dst, weigher);
     }
 
+    @Override
+    public Map<DevicePair, CompletableFuture<Set<Path>>> getKShortestPaths(
+            Topology topology, Set<DevicePair> pairs, LinkWeigher weigher, int maxPaths) {
+        checkPermission(TOPOLOGY_READ);
+
+        checkNotNull(topology, TOPOLOGY_NULL);
+        checkNotNull(pairs, DEVICE_PAIRS_NULL);
+        checkNotNull(weigher, LINK_WEIGHT_NULL);
+        return store.getKShortestPaths(topology, pairs, weigher, maxPaths);
+    }
+
     @Override
     public Set<DisjointPath> getDisjointPaths(Topology topology, DeviceId src,
                                               DeviceId dst) {
@@ -230,6 +244,16 @@ public class TopologyManager
         return store.getDisjointPaths(topology, src, dst, weigher);
     }
 
+    @Override
+    public Map<DevicePair, CompletableFuture<Set<DisjointPath>>> getDisjointPaths(
+            Topology topology, Set<DevicePair> pairs, LinkWeigher weigher) {
+        checkPermission(TOPOLOGY_READ);
+        checkNotNull(topology, TOPOLOGY_NULL);
+        checkNotNull(pairs, DEVICE_PAIRS_NULL);
+        checkNotNull(weigher, LINK_WEIGHT_NULL);
+        return store.getDisjointPaths(topology, pairs, weigher);
+    }
+
     @Override
     public Set<DisjointPath> getDisjointPaths(Topology topology, DeviceId src,
                                               DeviceId dst,
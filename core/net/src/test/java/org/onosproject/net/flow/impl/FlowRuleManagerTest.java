@@ -25,6 +25,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.junit.TestTools;
+import org.onlab.metrics.MetricsManager;
+import org.onlab.osgi.ComponentContextAdapter;
 import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.ApplicationId;
@@ -39,6 +41,9 @@ import org.onosproject.net.Device;
 import org.onosproject.net.Device.Type;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.MastershipRole;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.driver.AbstractHandlerBehaviour;
 import org.onosproject.net.driver.DefaultDriver;
@@ -48,6 +53,8 @@ import org.onosproject.net.driver.impl.DriverRegistryManager;
 import org.onosproject.net.flow.CompletedBatchOperation;
 import org.onosproject.net.flow.DefaultFlowEntry;
 import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
 import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowEntry.FlowEntryState;
 import org.onosproject.net.flow.FlowRule;
@@ -71,10 +78,13 @@ import org.onosproject.net.provider.ProviderId;
 import org.onosproject.store.trivial.SimpleFlowRuleStore;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -119,17 +129,20 @@ public class FlowRuleManagerTest {
     private ApplicationId appId;
 
     private TestDriverManager driverService;
+    private TestDeviceService deviceService;
 
     @Before
     public void setUp() {
         mgr = new FlowRuleManager();
         mgr.store = new SimpleFlowRuleStore();
         injectEventDispatcher(mgr, new TestEventDispatcher());
-        mgr.deviceService = new TestDeviceService();
+        deviceService = new TestDeviceService();
+        mgr.deviceService = deviceService;
         mgr.mastershipService = new TestMastershipService();
         mgr.coreService = new TestCoreService();
         mgr.operationsService = MoreExecutors.newDirectExecutorService();
         mgr.deviceInstallers = MoreExecutors.newDirectExecutorService();
+        mgr.deviceEventHandlers = MoreExecutors.newDirectExecutorService();
         mgr.cfgService = new ComponentConfigAdapter();
         service = mgr;
         registry = mgr;
@@ -231,6 +244,22 @@ public class FlowRuleManagerTest {
         validateEvents(RULE_UPDATED, RULE_UPDATED);
     }
 
+    /*
+     * Tests that the reconciliation timer of a device goes away with the device.
+     */
+    @Test
+    public void reconciliationTimerRemovedWithDevice() {
+        MetricsManager metrics = new MetricsManager();
+        mgr.metricsService = metrics;
+        FlowRule f1 = addFlowRule(1);
+        providerService.pushFlowMetrics(DID, ImmutableList.of(new DefaultFlowEntry(f1)));
+        String timerName = "FlowRule." + DID + ".reconciliationTime";
+        assertTrue(metrics.getMetricRegistry().getTimers().containsKey(timerName));
+
+        deviceService.listener.event(new DeviceEvent(DeviceEvent.Type.DEVICE_REMOVED, DEV));
+        assertFalse(metrics.getMetricRegistry().getTimers().containsKey(timerName));
+    }
+
     private boolean validateState(Map<FlowRule, FlowEntryState> expected) {
         Map<FlowRule, FlowEntryState> expectedToCheck = new HashMap<>(expected);
         Iterable<FlowEntry> rules = service.getFlowEntries(DID);
@@ -243,6 +272,171 @@ public class FlowRuleManagerTest {
         return true;
     }
 
+    @Test
+    public void pushFlowMetricsInParts() {
+        FlowRule f1 = addFlowRule(1);
+        FlowRule f2 = addFlowRule(2);
+        FlowRule f3 = addFlowRule(3);
+        FlowEntry fe1 = new DefaultFlowEntry(f1);
+        FlowEntry fe2 = new DefaultFlowEntry(f2);
+        FlowEntry fe3 = new DefaultFlowEntry(f3);
+        providerService.pushFlowMetrics(DID, ImmutableList.of(fe1, fe2, fe3));
+        validateEvents(RULE_ADD_REQUESTED, RULE_ADD_REQUESTED, RULE_ADD_REQUESTED,
+                       RULE_ADDED, RULE_ADDED, RULE_ADDED);
+
+        // flows absent from the first part are not missing yet
+        providerService.pushFlowMetricsPart(DID, ImmutableList.of(fe2), true, false);
+        assertTrue("Entries should be added.",
+                   validateState(ImmutableMap.of(
+                           f1, FlowEntryState.ADDED,
+                           f2, FlowEntryState.ADDED,
+                           f3, FlowEntryState.ADDED)));
+
+        providerService.pushFlowMetricsPart(DID, ImmutableList.of(fe1), false, true);
+        assertTrue("Entry absent from all parts should be pending add.",
+                   validateState(ImmutableMap.of(
+                           f1, FlowEntryState.ADDED,
+                           f2, FlowEntryState.ADDED,
+                           f3, FlowEntryState.PENDING_ADD)));
+    }
+
+    /*
+     * Tests that flow entries pushed in parts before the device was removed
+     * are dropped with the device.
+     */
+    @Test
+    public void pushFlowMetricsInPartsDroppedWithDevice() {
+        List<FlowEntry> entries = pushedFlowEntries(1, 2, 3);
+
+        providerService.pushFlowMetricsPart(DID, ImmutableList.of(entries.get(1)), true, false);
+        deviceService.listener.event(new DeviceEvent(DeviceEvent.Type.DEVICE_REMOVED, DEV));
+
+        // without the first part, the entry absent from the others is not missing
+        providerService.pushFlowMetricsPart(DID, ImmutableList.of(entries.get(0)), false, true);
+        assertTrue("Entries should be added.",
+                   validateState(ImmutableMap.of(
+                           entries.get(0), FlowEntryState.ADDED,
+                           entries.get(1), FlowEntryState.ADDED,
+                           entries.get(2), FlowEntryState.ADDED)));
+    }
+
+    /*
+     * Tests that flow entries pushed in parts are dropped once their
+     * remaining parts are overdue.
+     */
+    @Test
+    public void pushFlowMetricsInPartsExpired() {
+        List<FlowEntry> entries = pushedFlowEntries(1, 2, 3);
+
+        mgr.partialReconciliationTimeout = 0;
+        providerService.pushFlowMetricsPart(DID, ImmutableList.of(entries.get(1)), true, false);
+        providerService.pushFlowMetricsPart(DID, ImmutableList.of(entries.get(0)), false, true);
+        assertTrue("Entries should be added.",
+                   validateState(ImmutableMap.of(
+                           entries.get(0), FlowEntryState.ADDED,
+                           entries.get(1), FlowEntryState.ADDED,
+                           entries.get(2), FlowEntryState.ADDED)));
+    }
+
+    // Adds flow rules and reports them as installed on the device
+    private List<FlowEntry> pushedFlowEntries(int... hvals) {
+        List<FlowEntry> entries = Lists.newArrayList();
+        for (int hval : hvals) {
+            entries.add(new DefaultFlowEntry(addFlowRule(hval)));
+        }
+        providerService.pushFlowMetrics(DID, entries);
+        listener.events.clear();
+        return entries;
+    }
+
+    // Flow rule whose flow ID is unique to the given in port
+    private FlowRule inPortFlowRule(long port) {
+        return DefaultFlowRule.builder()
+                .forDevice(DID)
+                .withSelector(DefaultTrafficSelector.builder()
+                                      .matchInPort(PortNumber.portNumber(port)).build())
+                .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                .withPriority(10)
+                .fromApp(appId)
+                .makeTemporary(TIMEOUT)
+                .build();
+    }
+
+    /*
+     * Tests that only plain copies of the reported entries are stored and
+     * published.
+     */
+    @Test
+    public void reportedFlowEntriesCopied() {
+        FlowRule f1 = inPortFlowRule(1);
+        FlowRule f2 = inPortFlowRule(2);
+        mgr.applyFlowRules(f1, f2);
+        listener.events.clear();
+
+        providerService.pushFlowMetrics(DID, Lists.newArrayList(new ReportedFlowEntry(f1),
+                                                                new ReportedFlowEntry(f2)));
+
+        assertEquals("Entries should be added", 2, listener.events.size());
+        for (FlowRuleEvent event : listener.events) {
+            assertEquals("Plain entry should be published",
+                         DefaultFlowEntry.class, event.subject().getClass());
+        }
+        validateEvents(RULE_ADDED, RULE_ADDED);
+        for (FlowEntry entry : service.getFlowEntries(DID)) {
+            assertEquals("Plain entry should be stored",
+                         DefaultFlowEntry.class, entry.getClass());
+        }
+    }
+
+    /*
+     * Tests that reported entries matching no stored rule are removed from
+     * the device as plain copies.
+     */
+    @Test
+    public void reportedExtraneousFlowEntryCopied() {
+        FlowRule f1 = inPortFlowRule(1);
+        FlowRule f2 = inPortFlowRule(2);
+        mgr.applyFlowRules(f1);
+
+        providerService.pushFlowMetrics(DID, Lists.newArrayList(new DefaultFlowEntry(f1),
+                                                                new ReportedFlowEntry(f2)));
+
+        assertEquals("Entry should be removed", 1, provider.removedRules.size());
+        FlowRule removed = provider.removedRules.get(0);
+        assertEquals("Plain entry should be removed", DefaultFlowEntry.class, removed.getClass());
+        assertTrue("Entry should be removed", f2.exactMatch(removed));
+        for (FlowEntry entry : service.getFlowEntries(DID)) {
+            assertEquals("Plain entry should be stored",
+                         DefaultFlowEntry.class, entry.getClass());
+        }
+    }
+
+    /*
+     * Tests that a reported entry with the flow ID of a stored rule, but
+     * other instructions, is replaced by the stored rule.
+     */
+    @Test
+    public void reportedFlowEntryTreatmentChanged() {
+        FlowRule f1 = inPortFlowRule(1);
+        FlowRule other = DefaultFlowRule.builder()
+                .fromApp(appId)
+                .forDevice(DID)
+                .withSelector(f1.selector())
+                .withTreatment(DefaultTrafficTreatment.builder().setOutput(PortNumber.portNumber(2)).build())
+                .withPriority(f1.priority())
+                .makeTemporary(TIMEOUT)
+                .build();
+        assertEquals("Flow IDs should be equal", f1.id(), other.id());
+        mgr.applyFlowRules(f1);
+
+        providerService.pushFlowMetrics(DID, Lists.newArrayList(new ReportedFlowEntry(other)));
+
+        assertEquals("Entry should be removed", 1, provider.removedRules.size());
+        assertTrue("Entry should be removed", other.exactMatch(provider.removedRules.get(0)));
+        assertEquals("Rule should be installed", 1, provider.appliedRules.size());
+        assertTrue("Rule should be installed", f1.exactMatch(provider.appliedRules.get(0)));
+    }
+
     @Test
     public void applyFlowRules() {
 
@@ -384,6 +578,38 @@ public class FlowRuleManagerTest {
 
     }
 
+    /*
+     * Tests that rules whose state and counters did not change between polls
+     * do not generate events when suppression of unchanged updates is enabled.
+     */
+    @Test
+    public void unchangedFlowMetrics() {
+        mgr.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("suppressUnchangedFlowEvents", "true");
+                return props;
+            }
+        });
+        FlowRule f1 = flowRule(1, 1);
+        FlowRule f2 = flowRule(2, 2);
+        mgr.applyFlowRules(f1, f2);
+
+        providerService.pushFlowMetrics(DID, Lists.newArrayList(new DefaultFlowEntry(f2),
+                                                                new DefaultFlowEntry(f1)));
+        validateEvents(RULE_ADD_REQUESTED, RULE_ADD_REQUESTED, RULE_ADDED, RULE_ADDED);
+
+        providerService.pushFlowMetrics(DID, Lists.newArrayList(new DefaultFlowEntry(f1),
+                                                                new DefaultFlowEntry(f2)));
+        validateEvents();
+
+        providerService.pushFlowMetrics(DID, Lists.newArrayList(
+                new DefaultFlowEntry(f1, FlowEntryState.ADDED, 1, 10, 1000),
+                new DefaultFlowEntry(f2)));
+        validateEvents(RULE_UPDATED);
+    }
+
     /*
      * Tests whether a rule that was marked for removal but no flowRemoved was received
      * is indeed removed at the next stats update.
@@ -491,6 +717,13 @@ public class FlowRuleManagerTest {
     }
 
     private static class TestDeviceService extends DeviceServiceAdapter {
+        private DeviceListener listener;
+
+        @Override
+        public void addListener(DeviceListener listener) {
+            this.listener = listener;
+        }
+
         @Override
         public int getDeviceCount() {
             return 2;
@@ -514,16 +747,21 @@ public class FlowRuleManagerTest {
 
     private class TestProvider extends AbstractProvider implements FlowRuleProvider {
 
+        private final List<FlowRule> appliedRules = new ArrayList<>();
+        private final List<FlowRule> removedRules = new ArrayList<>();
+
         protected TestProvider(ProviderId id) {
             super(PID);
         }
 
         @Override
         public void applyFlowRule(FlowRule... flowRules) {
+            appliedRules.addAll(Arrays.asList(flowRules));
         }
 
         @Override
         public void removeFlowRule(FlowRule... flowRules) {
+            removedRules.addAll(Arrays.asList(flowRules));
         }
 
         @Override
@@ -576,6 +814,13 @@ public class FlowRuleManagerTest {
 
     }
 
+    // Flow entry of a provider type, such as a lazily decoded one
+    private static class ReportedFlowEntry extends DefaultFlowEntry {
+        public ReportedFlowEntry(FlowRule rule) {
+            super(rule);
+        }
+    }
+
     private class TestSelector implements TrafficSelector {
 
         //for controlling hashcode uniqueness;
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultAnnotations;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Host;
+import org.onosproject.net.HostId;
+import org.onosproject.net.Link;
+import org.onosproject.net.device.DeviceServiceAdapter;
+import org.onosproject.net.host.HostServiceAdapter;
+import org.onosproject.net.intent.AbstractIntentTest;
+import org.onosproject.net.intent.FlowRuleIntent;
+import org.onosproject.net.intent.HostToHostIntent;
+import org.onosproject.net.intent.Intent;
+import org.onosproject.net.link.LinkServiceAdapter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.onosproject.net.NetTestTools.APP_ID;
+import static org.onosproject.net.NetTestTools.PID;
+import static org.onosproject.net.NetTestTools.did;
+import static org.onosproject.net.NetTestTools.host;
+import static org.onosproject.net.NetTestTools.link;
+
+/**
+ * Unit tests for the intent compilation cache.
+ */
+public class IntentCompilationCacheTest extends AbstractIntentTest {
+
+    private static final Link LINK = link("1", 1, "2", 1);
+
+    private final Map<ConnectPoint, Link> links = new HashMap<>();
+    private final Set<DeviceId> unavailable = new HashSet<>();
+    private final Map<HostId, Host> hosts = new HashMap<>();
+
+    private IntentCompilationCache cache;
+    private Intent intent;
+    private List<Intent> installables;
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        links.put(LINK.src(), LINK);
+        Host one = host("00:00:00:00:00:01/-1", "1");
+        Host two = host("00:00:00:00:00:02/-1", "2");
+        hosts.put(one.id(), one);
+        hosts.put(two.id(), two);
+
+        cache = new IntentCompilationCache(new TestLinkService(), new TestDeviceService(),
+                                           new TestHostService());
+        intent = HostToHostIntent.builder()
+                .appId(APP_ID)
+                .one(one.id())
+                .two(two.id())
+                .build();
+        installables = ImmutableList.of(
+                new FlowRuleIntent(APP_ID, Collections.emptyList(),
+                                   ImmutableSet.of(LINK, did("1"), did("2"))));
+        cache.put(intent, installables);
+    }
+
+    @Test
+    public void reused() {
+        assertEquals("installables should be reused", installables,
+                     cache.get(intent, installables));
+
+        // Unrelated changes do not matter
+        unavailable.add(did("3"));
+        links.remove(link("2", 2, "3", 2).src());
+        assertEquals("installables should be reused", installables,
+                     cache.get(intent, installables));
+    }
+
+    @Test
+    public void changedIntent() {
+        Intent other = HostToHostIntent.builder()
+                .appId(APP_ID)
+                .key(intent.key())
+                .one(((HostToHostIntent) intent).one())
+                .two(((HostToHostIntent) intent).two())
+                .build();
+        assertNull("changed intent should be compiled", cache.get(other, installables));
+        assertNull("missing installables should be compiled", cache.get(intent, null));
+    }
+
+    @Test
+    public void inactiveLink() {
+        links.put(LINK.src(), DefaultLink.builder().providerId(PID)
+                .src(LINK.src()).dst(LINK.dst()).type(LINK.type())
+                .state(Link.State.INACTIVE).build());
+        assertNull("intent should be compiled", cache.get(intent, installables));
+
+        // The entry is discarded for good
+        links.put(LINK.src(), LINK);
+        assertNull("intent should be compiled", cache.get(intent, installables));
+    }
+
+    @Test
+    public void changedLinkType() {
+        links.put(LINK.src(), DefaultLink.builder().providerId(PID)
+                .src(LINK.src()).dst(LINK.dst()).type(Link.Type.INDIRECT)
+                .state(LINK.state()).build());
+        assertNull("intent should be compiled", cache.get(intent, installables));
+    }
+
+    @Test
+    public void changedLinkAnnotations() {
+        links.put(LINK.src(), DefaultLink.builder().providerId(PID)
+                .src(LINK.src()).dst(LINK.dst()).type(LINK.type())
+                .state(LINK.state())
+                .annotations(DefaultAnnotations.builder()
+                                     .set(AnnotationKeys.LATENCY, "10").build())
+                .build());
+        assertNull("intent should be compiled", cache.get(intent, installables));
+    }
+
+    @Test
+    public void unavailableDevice() {
+        unavailable.add(did("2"));
+        assertNull("intent should be compiled", cache.get(intent, installables));
+    }
+
+    @Test
+    public void movedHost() {
+        Host moved = host("00:00:00:00:00:02/-1", "3");
+        hosts.put(moved.id(), moved);
+        assertNull("intent should be compiled", cache.get(intent, installables));
+    }
+
+    @Test
+    public void removed() {
+        cache.remove(intent.key());
+        assertNull("intent should be compiled", cache.get(intent, installables));
+    }
+
+    private class TestLinkService extends LinkServiceAdapter {
+        @Override
+        public Link getLink(ConnectPoint src, ConnectPoint dst) {
+            Link link = links.get(src);
+            return link != null && link.dst().equals(dst) ? link : null;
+        }
+    }
+
+    private class TestDeviceService extends DeviceServiceAdapter {
+        @Override
+        public boolean isAvailable(DeviceId deviceId) {
+            return !unavailable.contains(deviceId);
+        }
+    }
+
+    private class TestHostService extends HostServiceAdapter {
+        @Override
+        public Host getHost(HostId hostId) {
+            return hosts.get(hostId);
+        }
+    }
+}
@@ -33,9 +33,11 @@ import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.impl.TestCoreManager;
 import org.onosproject.net.NetworkResource;
+import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.flow.FlowRuleOperations;
 import org.onosproject.net.flow.FlowRuleOperationsContext;
 import org.onosproject.net.flow.FlowRuleService;
+import org.onosproject.net.host.HostServiceAdapter;
 import org.onosproject.net.intent.FlowRuleIntent;
 import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentCompilationException;
@@ -52,6 +54,7 @@ import org.onosproject.net.intent.IntentOperationContext;
 import org.onosproject.net.intent.IntentService;
 import org.onosproject.net.intent.IntentState;
 import org.onosproject.net.intent.Key;
+import org.onosproject.net.link.LinkServiceAdapter;
 import org.onosproject.store.trivial.SimpleIntentStore;
 
 import java.util.Collection;
@@ -290,6 +293,9 @@ public class IntentManagerTest {
         manager.flowRuleService = flowRuleService;
         manager.coreService = new TestCoreManager();
         manager.configService = mock(ComponentConfigService.class);
+        manager.linkService = new LinkServiceAdapter();
+        manager.deviceService = new DeviceServiceAdapter();
+        manager.hostService = new HostServiceAdapter();
         service = manager;
         extensionService = manager;
         intentInstallCoordinator = manager;
@@ -18,14 +18,21 @@ package org.onosproject.net.packet.impl;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.osgi.ComponentContextAdapter;
+import org.onlab.packet.ARP;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPv4;
+import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.cluster.ClusterServiceAdapter;
 import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.CoreServiceAdapter;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.event.TestListener;
 import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
 import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.Device;
@@ -36,19 +43,37 @@ import org.onosproject.net.driver.DefaultDriver;
 import org.onosproject.net.driver.DriverRegistry;
 import org.onosproject.net.driver.impl.DriverManager;
 import org.onosproject.net.driver.impl.DriverRegistryManager;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.packet.DefaultInboundPacket;
 import org.onosproject.net.packet.DefaultOutboundPacket;
+import org.onosproject.net.packet.DefaultPacketContext;
 import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.net.packet.PacketContext;
+import org.onosproject.net.packet.PacketInStatistics;
+import org.onosproject.net.packet.PacketProcessor;
 import org.onosproject.net.packet.PacketProgrammable;
+import org.onosproject.net.packet.PacketProvider;
 import org.onosproject.net.packet.PacketProviderRegistry;
+import org.onosproject.net.packet.PacketProviderService;
+import org.onosproject.net.provider.AbstractProvider;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.provider.TestProvider;
 import org.onosproject.store.trivial.SimplePacketStore;
 
 import java.nio.ByteBuffer;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.onosproject.net.NetTestTools.injectEventDispatcher;
 
 /**
@@ -84,8 +109,9 @@ public class PacketManagerTest {
         mgr.deviceService = new TestDeviceService();
         mgr.deviceService = new TestDeviceService();
         mgr.coreService = new TestCoreService();
+        mgr.cfgService = new ComponentConfigAdapter();
         providerRegistry = mgr;
-        mgr.activate();
+        mgr.activate(null);
 
         DriverRegistryManager driverRegistry = new DriverRegistryManager();
         driverService = new TestDriverManager(driverRegistry);
@@ -106,6 +132,136 @@ public class PacketManagerTest {
         assertEquals("Packet not emitted correctly", packet, emittedPacket);
     }
 
+    private PacketContext packetContext(short ethType) {
+        Ethernet eth = new Ethernet();
+        eth.setEtherType(ethType);
+        eth.setPayload(ethType == Ethernet.TYPE_ARP ? new ARP() : new IPv4());
+        return new DefaultPacketContext(0, new DefaultInboundPacket(
+                new ConnectPoint(FOO_DID, PortNumber.portNumber(1)), eth, ByteBuffer.allocate(0)),
+                                        null, false) {
+            @Override
+            public void send() {
+            }
+        };
+    }
+
+    private TrafficSelector ethType(short ethType) {
+        return DefaultTrafficSelector.builder().matchEthType(ethType).build();
+    }
+
+    /**
+     * Tests that packets are only dispatched to the processors whose
+     * selectors match them, in priority order.
+     */
+    @Test
+    public void processorSelectors() {
+        List<String> invoked = new CopyOnWriteArrayList<>();
+        mgr.addProcessor(context -> invoked.add("ipv4"), PacketProcessor.director(1),
+                         ImmutableSet.of(ethType(Ethernet.TYPE_IPV4)));
+        mgr.addProcessor(context -> invoked.add("any"), PacketProcessor.director(2));
+        mgr.addProcessor(context -> invoked.add("arp"), PacketProcessor.director(3),
+                         ImmutableSet.of(ethType(Ethernet.TYPE_ARP)));
+        mgr.addProcessor(context -> invoked.add("port2"), PacketProcessor.director(4),
+                         ImmutableSet.of(DefaultTrafficSelector.builder()
+                                                 .matchInPort(PortNumber.portNumber(2)).build()));
+        mgr.addProcessor(context -> invoked.add("arp+lldp"), PacketProcessor.director(5),
+                         ImmutableSet.of(ethType(Ethernet.TYPE_ARP), ethType(Ethernet.TYPE_LLDP)));
+        PacketProviderService providerService = mgr.register(new TestPacketProvider());
+
+        providerService.processPacket(packetContext(Ethernet.TYPE_ARP));
+        assertEquals(ImmutableList.of("any", "arp", "arp+lldp"), invoked);
+
+        invoked.clear();
+        providerService.processPacket(packetContext(Ethernet.TYPE_IPV4));
+        assertEquals(ImmutableList.of("ipv4", "any"), invoked);
+
+        invoked.clear();
+        providerService.processPacket(packetContext(Ethernet.TYPE_LLDP));
+        assertEquals(ImmutableList.of("any", "arp+lldp"), invoked);
+        assertEquals(5, mgr.getProcessors().size());
+    }
+
+    /**
+     * Tests that packets are processed by bounded dispatch workers, dropping
+     * those exceeding their queue.
+     */
+    @Test
+    public void dispatchWorkers() throws InterruptedException {
+        mgr.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("packetDispatchThreads", "1");
+                props.put("packetDispatchQueueSize", "1");
+                return props;
+            }
+        });
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch processed = new CountDownLatch(2);
+        mgr.addProcessor(context -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            processed.countDown();
+        }, PacketProcessor.director(1));
+        PacketProviderService providerService = mgr.register(new TestPacketProvider());
+
+        providerService.processPacket(packetContext(Ethernet.TYPE_ARP));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        providerService.processPacket(packetContext(Ethernet.TYPE_ARP));
+        providerService.processPacket(packetContext(Ethernet.TYPE_ARP));
+        release.countDown();
+
+        assertTrue(processed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, mgr.droppedPackets());
+        mgr.deactivate();
+    }
+
+    /**
+     * Tests that packets exceeding the per-port rate limit of their class of
+     * ethernet type are dropped before dispatch, and counted.
+     */
+    @Test
+    public void packetInRateLimit() {
+        mgr.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("packetInRateLimit", "1");
+                props.put("packetInBurstSize", "2");
+                return props;
+            }
+        });
+        List<String> invoked = new CopyOnWriteArrayList<>();
+        mgr.addProcessor(context -> invoked.add("any"), PacketProcessor.director(1));
+        PacketProviderService providerService = mgr.register(new TestPacketProvider());
+
+        for (int i = 0; i < 5; i++) {
+            providerService.processPacket(packetContext(Ethernet.TYPE_ARP));
+        }
+        // A flood of ARP does not starve the other classes
+        providerService.processPacket(packetContext(Ethernet.TYPE_IPV4));
+        assertEquals(3, invoked.size());
+
+        List<PacketInStatistics> stats = mgr.getPacketInStatistics();
+        assertEquals(ImmutableList.of(new PacketInStatistics(
+                new ConnectPoint(FOO_DID, PortNumber.portNumber(1)), 3, 3)), stats);
+    }
+
+    private static class TestPacketProvider extends AbstractProvider implements PacketProvider {
+        TestPacketProvider() {
+            super(FOO_PID);
+        }
+
+        @Override
+        public void emit(OutboundPacket packet) {
+        }
+    }
+
     private static class TestDeviceService extends DeviceServiceAdapter {
         @Override
         public int getDeviceCount() {
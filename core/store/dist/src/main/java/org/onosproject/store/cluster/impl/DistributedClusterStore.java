@@ -49,6 +49,7 @@ import org.onosproject.store.serializers.StoreSerializer;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -156,8 +157,8 @@ public class DistributedClusterStore
     public void activate() {
         localNode = clusterMetadataService.getLocalNode();
 
-        messagingService.registerHandler(HEARTBEAT_MESSAGE,
-                                         new HeartbeatMessageHandler(), heartBeatMessageHandler);
+        messagingService.registerBufferHandler(HEARTBEAT_MESSAGE,
+                                               new HeartbeatMessageHandler(), heartBeatMessageHandler);
 
         failureDetector = new PhiAccrualFailureDetector();
 
@@ -308,9 +309,9 @@ public class DistributedClusterStore
         });
     }
 
-    private class HeartbeatMessageHandler implements BiConsumer<Endpoint, byte[]> {
+    private class HeartbeatMessageHandler implements BiConsumer<Endpoint, ByteBuffer> {
         @Override
-        public void accept(Endpoint sender, byte[] message) {
+        public void accept(Endpoint sender, ByteBuffer message) {
             HeartbeatMessage hb = SERIALIZER.decode(message);
             if (clusterMetadataService.getClusterMetadata().getNodes().contains(hb.source())) {
                 failureDetector.report(hb.source().id());
@@ -17,10 +17,13 @@ package org.onosproject.store.cluster.messaging.impl;
 
 import com.google.common.base.MoreObjects;
 
+import io.netty.buffer.ByteBuf;
 import org.onlab.util.ByteArraySizeHashPrinter;
 import org.onosproject.core.HybridLogicalTime;
 import org.onosproject.store.cluster.messaging.Endpoint;
 
+import java.nio.ByteBuffer;
+
 /**
  * Internal message representation with additional attributes
  * for supporting, synchronous request/reply behavior.
@@ -96,8 +99,9 @@ public final class InternalMessage {
     private final long id;
     private final Endpoint sender;
     private final String type;
-    private final byte[] payload;
     private final Status status;
+    private byte[] payload;
+    private ByteBuf payloadBuffer;
 
     public InternalMessage(int preamble,
                            HybridLogicalTime time,
@@ -124,6 +128,35 @@ public final class InternalMessage {
         this.status = status;
     }
 
+    /**
+     * Creates a message whose payload is a view of a reference counted buffer.
+     * The buffer is released once the payload is copied out with
+     * {@link #payload()} or the message is {@link #release() released}.
+     *
+     * @param preamble      cluster preamble
+     * @param time          logical time of the message
+     * @param id            message identifier
+     * @param sender        sender end point
+     * @param type          message type
+     * @param payloadBuffer payload buffer, ownership of which passes to the message
+     * @param status        message status
+     */
+    public InternalMessage(int preamble,
+                           HybridLogicalTime time,
+                           long id,
+                           Endpoint sender,
+                           String type,
+                           ByteBuf payloadBuffer,
+                           Status status) {
+        this.preamble = preamble;
+        this.time = time;
+        this.id = id;
+        this.sender = sender;
+        this.type = type;
+        this.payloadBuffer = payloadBuffer;
+        this.status = status;
+    }
+
     public HybridLogicalTime time() {
         return time;
     }
@@ -145,9 +178,35 @@ public final class InternalMessage {
     }
 
     public byte[] payload() {
+        if (payload == null && payloadBuffer != null) {
+            payload = new byte[payloadBuffer.readableBytes()];
+            payloadBuffer.getBytes(payloadBuffer.readerIndex(), payload);
+            release();
+        }
         return payload;
     }
 
+    /**
+     * Returns a view of the payload that avoids allocating a byte array for
+     * it when the message was decoded into a buffer. The view is only valid
+     * until the message is released.
+     *
+     * @return payload buffer
+     */
+    public ByteBuffer payloadBuffer() {
+        return payloadBuffer != null ? payloadBuffer.nioBuffer() : ByteBuffer.wrap(payload());
+    }
+
+    /**
+     * Releases the payload buffer, if the message holds one.
+     */
+    public void release() {
+        if (payloadBuffer != null) {
+            payloadBuffer.release();
+            payloadBuffer = null;
+        }
+    }
+
     public Status status() {
         return status;
     }
@@ -160,7 +219,8 @@ public final class InternalMessage {
                 .add("type", type)
                 .add("sender", sender)
                 .add("status", status)
-                .add("payload", ByteArraySizeHashPrinter.of(payload))
+                .add("payload", payloadBuffer != null ?
+                        payloadBuffer.readableBytes() + " bytes (buffered)" : ByteArraySizeHashPrinter.of(payload))
                 .toString();
     }
 }
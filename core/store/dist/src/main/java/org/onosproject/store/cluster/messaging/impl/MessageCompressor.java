@@ -0,0 +1,256 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.cluster.messaging.impl;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableSet;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.store.cluster.messaging.Endpoint;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Compresses and decompresses the payload of large inter-node messages and
+ * keeps track of the achieved compression ratio and the time spent on it.
+ * <p>
+ * Compressed messages are flagged in the status field of the wire format;
+ * their content is the uncompressed payload length followed by the deflated
+ * payload. Nodes running an older release do not understand the flag, so a
+ * node with compression enabled only compresses messages sent to peers that
+ * {@link #acceptPeer(Endpoint) confirmed} they can decompress them.
+ */
+public class MessageCompressor {
+
+    /**
+     * Bit of the status field flagging a compressed payload.
+     */
+    public static final int COMPRESSED_FLAG = 0x40000000;
+
+    /**
+     * Largest payload a compressed message may inflate to.
+     */
+    public static final int MAX_UNCOMPRESSED_LENGTH = 64 * 1024 * 1024;
+
+    // Deflate cannot compress better than about 1032:1
+    private static final int MAX_DEFLATE_RATIO = 1032;
+
+    private static final String COMPRESSION_FEATURE = "compression";
+
+    private static final ThreadLocal<Deflater> DEFLATERS =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    private final boolean enabled;
+    private final int threshold;
+    private final Set<String> messageTypes;
+    private final Map<Endpoint, Boolean> peers = new ConcurrentHashMap<>();
+
+    private Counter compressedMessages = new Counter();
+    private Counter uncompressedBytes = new Counter();
+    private Counter compressedBytes = new Counter();
+    private Timer compressionTimer = new Timer();
+    private Timer decompressionTimer = new Timer();
+
+    /**
+     * Creates a compressor that only decompresses inbound messages.
+     */
+    public MessageCompressor() {
+        this(false, Integer.MAX_VALUE, ImmutableSet.of());
+    }
+
+    /**
+     * Creates a compressor.
+     *
+     * @param enabled      whether outbound messages may be compressed
+     * @param threshold    minimum payload size in bytes for compression
+     * @param messageTypes message types to compress; all types when empty
+     */
+    public MessageCompressor(boolean enabled, int threshold, Set<String> messageTypes) {
+        checkArgument(threshold >= 0, "threshold must not be negative");
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.messageTypes = ImmutableSet.copyOf(messageTypes);
+    }
+
+    /**
+     * Registers the compression counters and timers with the metrics service.
+     *
+     * @param metricsService metrics service
+     * @param component      metrics component to register under
+     */
+    public void registerMetrics(MetricsService metricsService, MetricsComponent component) {
+        MetricsFeature feature = component.registerFeature(COMPRESSION_FEATURE);
+        compressedMessages = metricsService.createCounter(component, feature, "messages");
+        uncompressedBytes = metricsService.createCounter(component, feature, "uncompressedBytes");
+        compressedBytes = metricsService.createCounter(component, feature, "compressedBytes");
+        compressionTimer = metricsService.createTimer(component, feature, "compressTime");
+        decompressionTimer = metricsService.createTimer(component, feature, "decompressTime");
+    }
+
+    /**
+     * Returns whether outbound messages may be compressed.
+     *
+     * @return true if compression is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts tracking the compression capability of the given peer.
+     *
+     * @param peer peer end point
+     * @return true if the peer was unknown and its capability should be probed
+     */
+    public boolean startProbe(Endpoint peer) {
+        return peers.putIfAbsent(peer, Boolean.FALSE) == null;
+    }
+
+    /**
+     * Records that the given peer is able to decompress messages.
+     *
+     * @param peer peer end point
+     */
+    public void acceptPeer(Endpoint peer) {
+        peers.put(peer, Boolean.TRUE);
+    }
+
+    /**
+     * Forgets the compression capability of the given peer, so that it is
+     * probed again before any message sent to it is compressed.
+     *
+     * @param peer peer end point
+     */
+    public void forgetPeer(Endpoint peer) {
+        peers.remove(peer);
+    }
+
+    /**
+     * Returns whether the payload of an outbound message should be compressed.
+     * Payloads larger than {@link #MAX_UNCOMPRESSED_LENGTH} are sent
+     * uncompressed, as peers would refuse to inflate them.
+     *
+     * @param peer          peer the message is sent to; null if unknown
+     * @param type          message type
+     * @param payloadLength payload length in bytes
+     * @return true if compression should be attempted
+     */
+    public boolean shouldCompress(Endpoint peer, String type, int payloadLength) {
+        return enabled && payloadLength >= threshold
+                && payloadLength <= MAX_UNCOMPRESSED_LENGTH
+                && (messageTypes.isEmpty() || messageTypes.contains(type))
+                && peer != null && peers.getOrDefault(peer, Boolean.FALSE);
+    }
+
+    /**
+     * Deflates the given payload.
+     *
+     * @param payload uncompressed payload
+     * @param output  buffer receiving the compressed payload; should be
+     *                smaller than the payload for compression to pay off
+     * @return number of bytes written to output, or -1 if the compressed
+     * payload does not fit into the output buffer
+     */
+    public int compress(byte[] payload, byte[] output) {
+        Timer.Context timer = compressionTimer.time();
+        Deflater deflater = DEFLATERS.get();
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished() && length < output.length) {
+                length += deflater.deflate(output, length, output.length - length);
+            }
+            if (!deflater.finished()) {
+                return -1;
+            }
+            compressedMessages.inc();
+            uncompressedBytes.inc(payload.length);
+            compressedBytes.inc(length);
+            return length;
+        } finally {
+            deflater.reset();
+            timer.stop();
+        }
+    }
+
+    /**
+     * Inflates a compressed payload.
+     *
+     * @param compressed       compressed payload
+     * @param offset           offset of the compressed bytes
+     * @param length           number of compressed bytes
+     * @param uncompressedLength length of the original payload
+     * @return uncompressed payload
+     * @throws DataFormatException if the payload is corrupt or the uncompressed
+     * length is out of bounds
+     */
+    public byte[] decompress(byte[] compressed, int offset, int length, int uncompressedLength)
+            throws DataFormatException {
+        if (uncompressedLength < 0 || uncompressedLength > MAX_UNCOMPRESSED_LENGTH
+                || uncompressedLength > (long) length * MAX_DEFLATE_RATIO) {
+            throw new DataFormatException("Invalid uncompressed length " + uncompressedLength);
+        }
+        Timer.Context timer = decompressionTimer.time();
+        Inflater inflater = INFLATERS.get();
+        try {
+            inflater.setInput(compressed, offset, length);
+            byte[] payload = new byte[uncompressedLength];
+            int inflated = 0;
+            while (inflated < uncompressedLength) {
+                int n = inflater.inflate(payload, inflated, uncompressedLength - inflated);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated compressed payload");
+                }
+                inflated += n;
+            }
+            return payload;
+        } finally {
+            inflater.reset();
+            timer.stop();
+        }
+    }
+
+    /**
+     * Returns the number of messages sent compressed.
+     *
+     * @return number of compressed messages
+     */
+    public long compressedMessageCount() {
+        return compressedMessages.getCount();
+    }
+
+    /**
+     * Returns the ratio of uncompressed to compressed bytes of the messages
+     * sent compressed so far.
+     *
+     * @return compression ratio; 1 if nothing was compressed yet
+     */
+    public double compressionRatio() {
+        long compressed = compressedBytes.getCount();
+        return compressed == 0 ? 1.0 : (double) uncompressedBytes.getCount() / compressed;
+    }
+}
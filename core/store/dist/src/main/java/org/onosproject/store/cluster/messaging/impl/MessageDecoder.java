@@ -30,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 import static com.google.common.base.Preconditions.checkState;
 
@@ -50,10 +51,27 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
     private int messageTypeLength;
     private String messageType;
     private Status status;
+    private boolean compressed;
     private int contentLength;
+    private final Predicate<String> bufferedTypes;
+    private final MessageCompressor compressor;
 
     public MessageDecoder() {
+        this(type -> false, new MessageCompressor());
+    }
+
+    /**
+     * Creates a decoder that hands out the payload of the given message types
+     * in buffers from the channel allocator rather than in byte arrays. The
+     * payload is still copied once, out of the cumulation buffer.
+     *
+     * @param bufferedTypes predicate selecting message types whose payload is buffered
+     * @param compressor    compressor used to inflate compressed payloads
+     */
+    public MessageDecoder(Predicate<String> bufferedTypes, MessageCompressor compressor) {
         super(DecoderState.READ_MESSAGE_PREAMBLE);
+        this.bufferedTypes = bufferedTypes;
+        this.compressor = compressor;
     }
 
     @Override
@@ -96,14 +114,37 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
             messageType = new String(messageTypeBytes, Charsets.UTF_8);
             checkpoint(DecoderState.READ_MESSAGE_STATUS);
         case READ_MESSAGE_STATUS:
-            status = Status.forId(buffer.readInt());
+            int statusId = buffer.readInt();
+            compressed = (statusId & MessageCompressor.COMPRESSED_FLAG) != 0;
+            status = Status.forId(statusId & ~MessageCompressor.COMPRESSED_FLAG);
             checkpoint(DecoderState.READ_CONTENT_LENGTH);
         case READ_CONTENT_LENGTH:
             contentLength = buffer.readInt();
             checkpoint(DecoderState.READ_CONTENT);
         case READ_CONTENT:
+            if (contentLength > 0 && !compressed && bufferedTypes.test(messageType)) {
+                out.add(new InternalMessage(preamble,
+                                            new HybridLogicalTime(logicalTime, logicalCounter),
+                                            messageId,
+                                            new Endpoint(senderIp, senderPort),
+                                            messageType,
+                                            // Copy out instead of slicing so that a queued message
+                                            // does not pin the whole cumulation buffer.
+                                            buffer.readBytes(contentLength),
+                                            status));
+                checkpoint(DecoderState.READ_MESSAGE_PREAMBLE);
+                break;
+            }
             byte[] payload;
-            if (contentLength > 0) {
+            if (compressed) {
+                checkState(contentLength >= Integer.BYTES, "Invalid compressed content length");
+                byte[] content = new byte[contentLength];
+                buffer.readBytes(content);
+                int uncompressedLength = ((content[0] & 0xff) << 24) | ((content[1] & 0xff) << 16)
+                        | ((content[2] & 0xff) << 8) | (content[3] & 0xff);
+                payload = compressor.decompress(content, Integer.BYTES, contentLength - Integer.BYTES,
+                                                uncompressedLength);
+            } else if (contentLength > 0) {
                 //TODO Perform a sanity check on the size before allocating
                 payload = new byte[contentLength];
                 buffer.readBytes(payload);
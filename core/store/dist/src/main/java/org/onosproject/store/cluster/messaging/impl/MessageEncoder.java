@@ -20,6 +20,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.AttributeKey;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpAddress.Version;
 import org.onosproject.store.cluster.messaging.Endpoint;
@@ -36,13 +37,24 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
 // Effectively MessageToByteEncoder<InternalMessage>,
 // had to specify <Object> to avoid Class Loader not being able to find some classes.
 
+    /**
+     * Channel attribute holding the peer end point of outbound connections.
+     */
+    public static final AttributeKey<Endpoint> PEER = AttributeKey.valueOf("onosMessagingPeer");
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final int preamble;
+    private final MessageCompressor compressor;
 
     public MessageEncoder(int preamble) {
+        this(preamble, new MessageCompressor());
+    }
+
+    public MessageEncoder(int preamble, MessageCompressor compressor) {
         super();
         this.preamble = preamble;
+        this.compressor = compressor;
     }
 
 
@@ -84,11 +96,27 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
         // write message type bytes
         out.writeBytes(messageTypeBytes);
 
+        byte[] payload = message.payload();
+
+        Endpoint peer = context.channel().attr(PEER).get();
+        if (compressor.shouldCompress(peer, message.type(), payload.length)) {
+            byte[] compressed = new byte[payload.length - 1];
+            int compressedLength = compressor.compress(payload, compressed);
+            if (compressedLength >= 0) {
+                // write flagged message status value
+                out.writeInt(message.status().id() | MessageCompressor.COMPRESSED_FLAG);
+
+                // write content length, uncompressed payload length and compressed payload
+                out.writeInt(Integer.BYTES + compressedLength);
+                out.writeInt(payload.length);
+                out.writeBytes(compressed, 0, compressedLength);
+                return;
+            }
+        }
+
         // write message status value
         out.writeInt(message.status().id());
 
-        byte[] payload = message.payload();
-
         // write payload length
         out.writeInt(payload.length);
 
@@ -15,11 +15,16 @@
  */
 package org.onosproject.store.cluster.messaging.impl;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import io.netty.bootstrap.Bootstrap;
@@ -50,6 +55,9 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.Tools;
 import org.onosproject.cluster.ClusterMetadataService;
 import org.onosproject.cluster.ControllerNode;
@@ -68,9 +76,11 @@ import javax.net.ssl.TrustManagerFactory;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.security.KeyStore;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
@@ -78,6 +88,7 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -100,6 +111,20 @@ public class NettyMessagingManager implements MessagingService {
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private static final String REPLY_MESSAGE_TYPE = "NETTY_MESSAGING_REQUEST_REPLY";
+    private static final String COMPRESSION_PROBE_MESSAGE_TYPE = "NETTY_MESSAGING_COMPRESSION_PROBE";
+
+    private static final boolean WRITE_COALESCING_DISABLED = false;
+    private static final long DEFAULT_COALESCING_MAX_DELAY_MICROS = 100;
+    private static final int DEFAULT_COALESCING_MAX_BATCH_SIZE = 64;
+
+    private static final String METRICS_COMPONENT = "NettyMessaging";
+    private static final String COALESCING_FEATURE = "writeCoalescing";
+    private static final String FLUSHES_METRIC = "flushes";
+    private static final String MESSAGES_METRIC = "messages";
+    private static final String BATCH_SIZE_METRIC = "batchSize";
+
+    private static final boolean COMPRESSION_DISABLED = false;
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 64 * 1024;
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected HybridLogicalClockService clockService;
@@ -108,6 +133,7 @@ public class NettyMessagingManager implements MessagingService {
     private int preamble;
     private final AtomicBoolean started = new AtomicBoolean(false);
     private final Map<String, Consumer<InternalMessage>> handlers = new ConcurrentHashMap<>();
+    private final Set<String> bufferHandlerTypes = ConcurrentHashMap.newKeySet();
     private final AtomicLong messageIdGenerator = new AtomicLong(0);
     private final Cache<Long, Callback> callbacks = CacheBuilder.newBuilder()
             .expireAfterWrite(REPLY_TIME_OUT_MILLIS, TimeUnit.MILLISECONDS)
@@ -137,13 +163,29 @@ public class NettyMessagingManager implements MessagingService {
     protected char[] ksPwd;
     protected char[] tsPwd;
 
+    protected MessageCompressor compressor = new MessageCompressor();
+
+    protected boolean enableWriteCoalescing = WRITE_COALESCING_DISABLED;
+    protected long coalescingMaxDelayMicros = DEFAULT_COALESCING_MAX_DELAY_MICROS;
+    protected int coalescingMaxBatchSize = DEFAULT_COALESCING_MAX_BATCH_SIZE;
+
+    private Counter coalescedFlushes;
+    private Counter coalescedMessages;
+    private Histogram coalescedBatchSizes;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ClusterMetadataService clusterMetadataService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     @Activate
     public void activate() throws Exception {
         ControllerNode localNode = clusterMetadataService.getLocalNode();
         getTlsParameters();
+        getWriteCoalescingParameters();
+        getCompressionParameters();
+        registerMetrics();
 
         if (started.get()) {
             log.warn("Already running at local endpoint: {}", localEp);
@@ -151,6 +193,8 @@ public class NettyMessagingManager implements MessagingService {
         }
         this.preamble = clusterMetadataService.getClusterMetadata().getName().hashCode();
         this.localEp = new Endpoint(localNode.ip(), localNode.tcpPort());
+        // Every node can decompress messages, whether or not it compresses its own
+        handlers.put(COMPRESSION_PROBE_MESSAGE_TYPE, message -> sendReply(message, Status.OK, Optional.empty()));
         channels.setLifo(true);
         channels.setTestOnBorrow(true);
         channels.setTestOnReturn(true);
@@ -201,6 +245,73 @@ public class NettyMessagingManager implements MessagingService {
             }
         }
     }
+
+    private void getWriteCoalescingParameters() {
+        String tempString = System.getProperty("enableNettyWriteCoalescing");
+        enableWriteCoalescing = Strings.isNullOrEmpty(tempString) ?
+                WRITE_COALESCING_DISABLED : Boolean.parseBoolean(tempString);
+        if (enableWriteCoalescing) {
+            try {
+                tempString = System.getProperty("nettyWriteCoalescingMaxDelayMicros");
+                coalescingMaxDelayMicros = Strings.isNullOrEmpty(tempString) ?
+                        DEFAULT_COALESCING_MAX_DELAY_MICROS : Long.parseLong(tempString.trim());
+                tempString = System.getProperty("nettyWriteCoalescingMaxBatchSize");
+                coalescingMaxBatchSize = Strings.isNullOrEmpty(tempString) ?
+                        DEFAULT_COALESCING_MAX_BATCH_SIZE : Integer.parseInt(tempString.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid write coalescing parameters; using defaults", e);
+                coalescingMaxDelayMicros = DEFAULT_COALESCING_MAX_DELAY_MICROS;
+                coalescingMaxBatchSize = DEFAULT_COALESCING_MAX_BATCH_SIZE;
+            }
+        }
+        log.info("enableNettyWriteCoalescing = {}, maxDelayMicros = {}, maxBatchSize = {}",
+                 enableWriteCoalescing, coalescingMaxDelayMicros, coalescingMaxBatchSize);
+    }
+
+    private void getCompressionParameters() {
+        String tempString = System.getProperty("enableNettyCompression");
+        boolean enableCompression = Strings.isNullOrEmpty(tempString) ?
+                COMPRESSION_DISABLED : Boolean.parseBoolean(tempString);
+        int threshold = DEFAULT_COMPRESSION_THRESHOLD;
+        Set<String> messageTypes = ImmutableSet.of();
+        if (enableCompression) {
+            try {
+                tempString = System.getProperty("nettyCompressionThreshold");
+                threshold = Strings.isNullOrEmpty(tempString) ?
+                        DEFAULT_COMPRESSION_THRESHOLD : Integer.parseInt(tempString.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid compression threshold; using default", e);
+            }
+            tempString = System.getProperty("nettyCompressedMessageTypes");
+            if (!Strings.isNullOrEmpty(tempString)) {
+                messageTypes = ImmutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings()
+                                                           .split(tempString));
+            }
+        }
+        compressor = new MessageCompressor(enableCompression, threshold, messageTypes);
+        log.info("enableNettyCompression = {}, threshold = {}, messageTypes = {}",
+                 enableCompression, threshold, messageTypes.isEmpty() ? "all" : messageTypes);
+    }
+
+    /**
+     * Returns the compressor applied to messages exchanged with peers,
+     * which also tracks the compression ratio and time.
+     *
+     * @return message compressor
+     */
+    public MessageCompressor compressor() {
+        return compressor;
+    }
+
+    private void registerMetrics() {
+        MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+        MetricsFeature coalescing = component.registerFeature(COALESCING_FEATURE);
+        coalescedFlushes = metricsService.createCounter(component, coalescing, FLUSHES_METRIC);
+        coalescedMessages = metricsService.createCounter(component, coalescing, MESSAGES_METRIC);
+        coalescedBatchSizes = metricsService.createHistogram(component, coalescing, BATCH_SIZE_METRIC);
+        compressor.registerMetrics(metricsService, component);
+    }
+
     private void initEventLoopGroup() {
         // try Epoll first and if that does work, use nio.
         try {
@@ -242,6 +353,9 @@ public class NettyMessagingManager implements MessagingService {
             return CompletableFuture.completedFuture(null);
         }
 
+        if (compressor.isEnabled()) {
+            probeCompression(ep);
+        }
         CompletableFuture<Void> future = new CompletableFuture<>();
         try {
             Connection connection = null;
@@ -259,6 +373,28 @@ public class NettyMessagingManager implements MessagingService {
         return future;
     }
 
+    /**
+     * Asks a peer whether it can decompress messages, unless that is known
+     * or being asked already. Messages to the peer are sent uncompressed
+     * until it answers, and for good if it runs a release without support.
+     *
+     * @param ep peer end point
+     */
+    private void probeCompression(Endpoint ep) {
+        if (!compressor.startProbe(ep)) {
+            return;
+        }
+        sendAndReceive(ep, COMPRESSION_PROBE_MESSAGE_TYPE, new byte[0]).whenComplete((result, error) -> {
+            if (error == null) {
+                compressor.acceptPeer(ep);
+            } else if (Throwables.getRootCause(error) instanceof MessagingException.NoRemoteHandler) {
+                log.info("{} does not support compressed messages", ep);
+            } else {
+                compressor.forgetPeer(ep);
+            }
+        });
+    }
+
     @Override
     public CompletableFuture<byte[]> sendAndReceive(Endpoint ep, String type, byte[] payload) {
         checkPermission(CLUSTER_WRITE);
@@ -291,12 +427,34 @@ public class NettyMessagingManager implements MessagingService {
     @Override
     public void registerHandler(String type, BiConsumer<Endpoint, byte[]> handler, Executor executor) {
         checkPermission(CLUSTER_WRITE);
+        bufferHandlerTypes.remove(type);
         handlers.put(type, message -> executor.execute(() -> handler.accept(message.sender(), message.payload())));
     }
 
+    @Override
+    public void registerBufferHandler(String type, BiConsumer<Endpoint, ByteBuffer> handler, Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        handlers.put(type, message -> {
+            try {
+                executor.execute(() -> {
+                    try {
+                        handler.accept(message.sender(), message.payloadBuffer());
+                    } finally {
+                        message.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                message.release();
+                throw e;
+            }
+        });
+        bufferHandlerTypes.add(type);
+    }
+
     @Override
     public void registerHandler(String type, BiFunction<Endpoint, byte[], byte[]> handler, Executor executor) {
         checkPermission(CLUSTER_WRITE);
+        bufferHandlerTypes.remove(type);
         handlers.put(type, message -> executor.execute(() -> {
             byte[] responsePayload = null;
             Status status = Status.OK;
@@ -312,6 +470,7 @@ public class NettyMessagingManager implements MessagingService {
     @Override
     public void registerHandler(String type, BiFunction<Endpoint, byte[], CompletableFuture<byte[]>> handler) {
         checkPermission(CLUSTER_WRITE);
+        bufferHandlerTypes.remove(type);
         handlers.put(type, message -> {
             handler.apply(message.sender(), message.payload()).whenComplete((result, error) -> {
                 Status status = error == null ? Status.OK : Status.ERROR_HANDLER_EXCEPTION;
@@ -324,6 +483,7 @@ public class NettyMessagingManager implements MessagingService {
     public void unregisterHandler(String type) {
         checkPermission(CLUSTER_WRITE);
         handlers.remove(type);
+        bufferHandlerTypes.remove(type);
     }
 
     private void startAcceptingConnections() throws InterruptedException {
@@ -366,6 +526,8 @@ public class NettyMessagingManager implements MessagingService {
             log.debug("Closing connection {} to {}", connection, ep);
             //Is this the right way to destroy?
             connection.destroy();
+            // The peer may come back running a different release
+            compressor.forgetPeer(ep);
         }
 
         @Override
@@ -381,6 +543,7 @@ public class NettyMessagingManager implements MessagingService {
             // http://normanmaurer.me/presentations/2014-facebook-eng-netty/slides.html#37.0
             bootstrap.channel(clientChannelClass);
             bootstrap.option(ChannelOption.SO_KEEPALIVE, true);
+            bootstrap.attr(MessageEncoder.PEER, ep);
             if (enableNettyTls) {
                 bootstrap.handler(new SslClientCommunicationChannelInitializer());
             } else {
@@ -415,7 +578,7 @@ public class NettyMessagingManager implements MessagingService {
     private class SslServerCommunicationChannelInitializer extends ChannelInitializer<SocketChannel> {
 
         private final ChannelHandler dispatcher = new InboundMessageDispatcher();
-        private final ChannelHandler encoder = new MessageEncoder(preamble);
+        private final ChannelHandler encoder = new MessageEncoder(preamble, compressor);
 
         @Override
         protected void initChannel(SocketChannel channel) throws Exception {
@@ -442,7 +605,7 @@ public class NettyMessagingManager implements MessagingService {
 
             channel.pipeline().addLast("ssl", new io.netty.handler.ssl.SslHandler(serverSslEngine))
                     .addLast("encoder", encoder)
-                    .addLast("decoder", new MessageDecoder())
+                    .addLast("decoder", new MessageDecoder(bufferHandlerTypes::contains, compressor))
                     .addLast("handler", dispatcher);
         }
     }
@@ -450,7 +613,7 @@ public class NettyMessagingManager implements MessagingService {
     private class SslClientCommunicationChannelInitializer extends ChannelInitializer<SocketChannel> {
 
         private final ChannelHandler dispatcher = new InboundMessageDispatcher();
-        private final ChannelHandler encoder = new MessageEncoder(preamble);
+        private final ChannelHandler encoder = new MessageEncoder(preamble, compressor);
 
         @Override
         protected void initChannel(SocketChannel channel) throws Exception {
@@ -476,7 +639,7 @@ public class NettyMessagingManager implements MessagingService {
 
             channel.pipeline().addLast("ssl", new io.netty.handler.ssl.SslHandler(clientSslEngine))
                     .addLast("encoder", encoder)
-                    .addLast("decoder", new MessageDecoder())
+                    .addLast("decoder", new MessageDecoder(bufferHandlerTypes::contains, compressor))
                     .addLast("handler", dispatcher);
         }
     }
@@ -484,13 +647,13 @@ public class NettyMessagingManager implements MessagingService {
     private class OnosCommunicationChannelInitializer extends ChannelInitializer<SocketChannel> {
 
         private final ChannelHandler dispatcher = new InboundMessageDispatcher();
-        private final ChannelHandler encoder = new MessageEncoder(preamble);
+        private final ChannelHandler encoder = new MessageEncoder(preamble, compressor);
 
         @Override
         protected void initChannel(SocketChannel channel) throws Exception {
             channel.pipeline()
                     .addLast("encoder", encoder)
-                    .addLast("decoder", new MessageDecoder())
+                    .addLast("decoder", new MessageDecoder(bufferHandlerTypes::contains, compressor))
                     .addLast("handler", dispatcher);
         }
     }
@@ -507,6 +670,7 @@ public class NettyMessagingManager implements MessagingService {
                 dispatchLocally(message);
             } catch (RejectedExecutionException e) {
                 log.warn("Unable to dispatch message due to {}", e.getMessage());
+                message.release();
             }
         }
 
@@ -566,6 +730,7 @@ public class NettyMessagingManager implements MessagingService {
             handler.accept(message);
         } else {
             log.debug("No handler for message type {} from {}", message.type(), message.sender());
+            message.release();
             sendReply(message, Status.ERROR_NO_HANDLER, Optional.empty());
         }
     }
@@ -604,6 +769,8 @@ public class NettyMessagingManager implements MessagingService {
     }
     private final class Connection {
         private final CompletableFuture<Channel> internalFuture;
+        private final AtomicInteger pendingWrites = new AtomicInteger();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
 
         public Connection(CompletableFuture<Channel> internalFuture) {
             this.internalFuture = internalFuture;
@@ -619,19 +786,51 @@ public class NettyMessagingManager implements MessagingService {
         public void send(Object message, CompletableFuture<Void> future) {
             internalFuture.whenComplete((channel, throwable) -> {
                 if (throwable == null) {
-                    channel.writeAndFlush(message).addListener(channelFuture -> {
+                    ChannelFuture writeFuture = enableWriteCoalescing ?
+                            channel.write(message) : channel.writeAndFlush(message);
+                    writeFuture.addListener(channelFuture -> {
                         if (!channelFuture.isSuccess()) {
                             future.completeExceptionally(channelFuture.cause());
                         } else {
                             future.complete(null);
                         }
                     });
+                    if (enableWriteCoalescing) {
+                        scheduleFlush(channel);
+                    }
                 } else {
                     future.completeExceptionally(throwable);
                 }
             });
         }
 
+        /**
+         * Schedules a flush of the messages written to the channel so far.
+         * Messages are flushed once the batch is full or the maximum
+         * coalescing delay has elapsed, whichever comes first.
+         * @param channel channel the message was written to
+         */
+        private void scheduleFlush(Channel channel) {
+            if (pendingWrites.incrementAndGet() >= coalescingMaxBatchSize) {
+                flushPending(channel);
+            } else if (flushScheduled.compareAndSet(false, true)) {
+                channel.eventLoop().schedule(() -> flushPending(channel),
+                                             coalescingMaxDelayMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+
+        private void flushPending(Channel channel) {
+            flushScheduled.set(false);
+            int batchSize = pendingWrites.getAndSet(0);
+            if (batchSize > 0) {
+                // queued behind the writes of the batch, which may not have reached the channel yet
+                channel.eventLoop().execute(channel::flush);
+                coalescedFlushes.inc();
+                coalescedMessages.inc(batchSize);
+                coalescedBatchSizes.update(batchSize);
+            }
+        }
+
         /**
          * Destroys a channel by closing its channel (if it exists) and
          * cancelling its future.
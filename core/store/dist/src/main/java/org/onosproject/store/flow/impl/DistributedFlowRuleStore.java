@@ -22,6 +22,8 @@ package org.onosproject.store.flow.impl;
  import java.util.Map;
  import java.util.Objects;
  import java.util.Set;
+ import java.util.concurrent.CompletableFuture;
+ import java.util.concurrent.ConcurrentHashMap;
  import java.util.concurrent.ExecutorService;
  import java.util.concurrent.Executors;
  import java.util.concurrent.ScheduledExecutorService;
@@ -29,6 +31,10 @@ package org.onosproject.store.flow.impl;
  import java.util.concurrent.TimeUnit;
  import java.util.concurrent.atomic.AtomicInteger;
  import java.util.concurrent.atomic.AtomicReference;
+ import java.util.concurrent.locks.ReadWriteLock;
+ import java.util.concurrent.locks.ReentrantReadWriteLock;
+ import java.util.function.Function;
+ import java.util.function.Supplier;
  import java.util.stream.Collectors;
 
  import org.apache.felix.scr.annotations.Activate;
@@ -40,6 +46,7 @@ package org.onosproject.store.flow.impl;
  import org.apache.felix.scr.annotations.ReferenceCardinality;
  import org.apache.felix.scr.annotations.Service;
  import org.onlab.util.KryoNamespace;
+ import org.onlab.util.PredictableExecutor;
  import org.onlab.util.Tools;
  import org.onosproject.cfg.ComponentConfigService;
  import org.onosproject.cluster.ClusterService;
@@ -120,6 +127,7 @@ public class DistributedFlowRuleStore
     private static final boolean DEFAULT_BACKUP_ENABLED = true;
     private static final int DEFAULT_MAX_BACKUP_COUNT = 2;
     private static final boolean DEFAULT_PERSISTENCE_ENABLED = false;
+    private static final boolean DEFAULT_LONG_KEYED_FLOW_TABLES = false;
     private static final int DEFAULT_BACKUP_PERIOD_MILLIS = 2000;
     private static final long FLOW_RULE_STORE_TIMEOUT_MILLIS = 5000;
     // number of devices whose flow entries will be backed up in one communication round
@@ -144,6 +152,10 @@ public class DistributedFlowRuleStore
             label = "Max number of backup copies for each device")
     private volatile int backupCount = DEFAULT_MAX_BACKUP_COUNT;
 
+    @Property(name = "longKeyedFlowTables", boolValue = DEFAULT_LONG_KEYED_FLOW_TABLES,
+            label = "Indicates whether device flow tables are indexed by primitive flow IDs")
+    private volatile boolean longKeyedFlowTables = DEFAULT_LONG_KEYED_FLOW_TABLES;
+
     private InternalFlowTable flowTable = new InternalFlowTable();
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -172,6 +184,7 @@ public class DistributedFlowRuleStore
 
     private Map<Long, NodeId> pendingResponses = Maps.newConcurrentMap();
     private ExecutorService messageHandlingExecutor;
+    private PredictableExecutor deviceEventExecutor;
     private ExecutorService eventHandler;
 
     private ScheduledFuture<?> backupTask;
@@ -191,6 +204,7 @@ public class DistributedFlowRuleStore
             .register(KryoNamespaces.API)
             .register(MastershipBasedTimestamp.class);
 
+    protected final Serializer backupSerializer = Serializer.using(KryoNamespaces.API, FlowTableDelta.class);
 
     private IdGenerator idGenerator;
     private NodeId local;
@@ -207,6 +221,8 @@ public class DistributedFlowRuleStore
                 groupedThreads("onos/flow", "event-handler", log));
         messageHandlingExecutor = Executors.newFixedThreadPool(
                 msgHandlerPoolSize, groupedThreads("onos/store/flow", "message-handlers", log));
+        deviceEventExecutor = new PredictableExecutor(
+                groupedThreads("onos/store/flow", "device-events-%d", log));
 
         registerMessageHandlers(messageHandlingExecutor);
 
@@ -243,6 +259,7 @@ public class DistributedFlowRuleStore
         deviceTableStats.destroy();
         eventHandler.shutdownNow();
         messageHandlingExecutor.shutdownNow();
+        deviceEventExecutor.shutdownNow();
         backupSenderExecutor.shutdownNow();
         log.info("Stopped");
     }
@@ -261,6 +278,7 @@ public class DistributedFlowRuleStore
         boolean newBackupEnabled;
         int newBackupPeriod;
         int newBackupCount;
+        boolean newLongKeyedFlowTables;
         try {
             String s = get(properties, "msgHandlerPoolSize");
             newPoolSize = isNullOrEmpty(s) ? msgHandlerPoolSize : Integer.parseInt(s.trim());
@@ -273,11 +291,15 @@ public class DistributedFlowRuleStore
 
             s = get(properties, "backupCount");
             newBackupCount = isNullOrEmpty(s) ? backupCount : Integer.parseInt(s.trim());
+
+            s = get(properties, "longKeyedFlowTables");
+            newLongKeyedFlowTables = isNullOrEmpty(s) ? longKeyedFlowTables : Boolean.parseBoolean(s.trim());
         } catch (NumberFormatException | ClassCastException e) {
             newPoolSize = MESSAGE_HANDLER_THREAD_POOL_SIZE;
             newBackupEnabled = DEFAULT_BACKUP_ENABLED;
             newBackupPeriod = DEFAULT_BACKUP_PERIOD_MILLIS;
             newBackupCount = DEFAULT_MAX_BACKUP_COUNT;
+            newLongKeyedFlowTables = DEFAULT_LONG_KEYED_FLOW_TABLES;
         }
 
         boolean restartBackupTask = false;
@@ -289,6 +311,7 @@ public class DistributedFlowRuleStore
                     backupTask.cancel(false);
                     backupTask = null;
                 }
+                flowTable.clearChangeLogs();
             } else {
                 replicaInfoManager.addListener(flowTable);
             }
@@ -322,22 +345,46 @@ public class DistributedFlowRuleStore
         if (backupCount != newBackupCount) {
             backupCount = newBackupCount;
         }
+        if (longKeyedFlowTables != newLongKeyedFlowTables) {
+            longKeyedFlowTables = newLongKeyedFlowTables;
+            flowTable.rebuildFlowTables();
+        }
         logConfig("Reconfigured");
     }
 
     private void registerMessageHandlers(ExecutorService executor) {
 
+        // messages changing the flow table of a device are decoded on the message handlers
+        // and then handled on the lane of that device
         clusterCommunicator.addSubscriber(APPLY_BATCH_FLOWS, new OnStoreBatch(), executor);
         clusterCommunicator.<FlowRuleBatchEvent>addSubscriber(
-                REMOTE_APPLY_COMPLETED, serializer::decode, this::notifyDelegate, executor);
+                REMOTE_APPLY_COMPLETED, serializer::decode,
+                event -> deviceEventExecutor.execute(() -> notifyDelegate(event), event.deviceId().hashCode()),
+                executor);
         clusterCommunicator.addSubscriber(
                 GET_FLOW_ENTRY, serializer::decode, flowTable::getFlowEntry, serializer::encode, executor);
         clusterCommunicator.addSubscriber(
                 GET_DEVICE_FLOW_ENTRIES, serializer::decode, flowTable::getFlowEntries, serializer::encode, executor);
+        clusterCommunicator.<byte[], FlowRuleEvent>addSubscriber(
+                REMOVE_FLOW_ENTRY, Function.identity(),
+                bytes -> CompletableFuture.supplyAsync(() -> serializer.<FlowEntry>decode(bytes), executor)
+                        .thenCompose(rule -> supplyForDevice(rule.deviceId(), () -> removeFlowRuleInternal(rule))),
+                serializer::encode);
         clusterCommunicator.addSubscriber(
-                REMOVE_FLOW_ENTRY, serializer::decode, this::removeFlowRuleInternal, serializer::encode, executor);
-        clusterCommunicator.addSubscriber(
-                FLOW_TABLE_BACKUP, serializer::decode, flowTable::onBackupReceipt, serializer::encode, executor);
+                FLOW_TABLE_BACKUP, backupSerializer::decode, flowTable::onBackupReceipt, backupSerializer::encode,
+                executor);
+    }
+
+    private <T> CompletableFuture<T> supplyForDevice(DeviceId deviceId, Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        deviceEventExecutor.execute(() -> {
+            try {
+                future.complete(supplier.get());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }, deviceId.hashCode());
+        return future;
     }
 
     private void unregisterMessageHandlers() {
@@ -350,8 +397,9 @@ public class DistributedFlowRuleStore
     }
 
     private void logConfig(String prefix) {
-        log.info("{} with msgHandlerPoolSize = {}; backupEnabled = {}, backupPeriod = {}, backupCount = {}",
-                 prefix, msgHandlerPoolSize, backupEnabled, backupPeriod, backupCount);
+        log.info("{} with msgHandlerPoolSize = {}; backupEnabled = {}, backupPeriod = {}, backupCount = {}, "
+                         + "longKeyedFlowTables = {}",
+                 prefix, msgHandlerPoolSize, backupEnabled, backupPeriod, backupCount, longKeyedFlowTables);
     }
 
     // This is not a efficient operation on a distributed sharded
@@ -509,6 +557,7 @@ public class DistributedFlowRuleStore
                             if (entry != null) {
                                 //FIXME modification of "stored" flow entry outside of flow table
                                 entry.setState(FlowEntryState.PENDING_REMOVE);
+                                flowTable.recordChange(entry);
                                 log.debug("Setting state of rule to pending remove: {}", entry);
                                 return op;
                             }
@@ -541,6 +590,7 @@ public class DistributedFlowRuleStore
             if (stored != null &&
                     stored.state() != FlowEntryState.PENDING_ADD) {
                 stored.setState(FlowEntryState.PENDING_ADD);
+                flowTable.recordChange(stored);
                 return new FlowRuleEvent(Type.RULE_UPDATED, rule);
             }
         }
@@ -563,6 +613,7 @@ public class DistributedFlowRuleStore
         // check if this new rule is an update to an existing entry
         StoredFlowEntry stored = flowTable.getFlowEntry(rule);
         if (stored != null) {
+            boolean countersChanged = stored.bytes() != rule.bytes() || stored.packets() != rule.packets();
             //FIXME modification of "stored" flow entry outside of flow table
             stored.setBytes(rule.bytes());
             stored.setLife(rule.life(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
@@ -571,8 +622,12 @@ public class DistributedFlowRuleStore
             stored.setLastSeen();
             if (stored.state() == FlowEntryState.PENDING_ADD) {
                 stored.setState(FlowEntryState.ADDED);
+                flowTable.recordChange(stored);
                 return new FlowRuleEvent(Type.RULE_ADDED, rule);
             }
+            if (countersChanged) {
+                flowTable.recordChange(stored);
+            }
             return new FlowRuleEvent(Type.RULE_UPDATED, rule);
         }
 
@@ -664,7 +719,7 @@ public class DistributedFlowRuleStore
             }
 
             pendingResponses.put(operation.id(), message.sender());
-            storeBatchInternal(operation);
+            deviceEventExecutor.execute(() -> storeBatchInternal(operation), deviceId.hashCode());
         }
     }
 
@@ -700,8 +755,12 @@ public class DistributedFlowRuleStore
         private final Map<DeviceId, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>
                 flowEntries = Maps.newConcurrentMap();
 
-        private final Map<BackupOperation, Long> lastBackupTimes = Maps.newConcurrentMap();
-        private final Map<DeviceId, Long> lastUpdateTimes = Maps.newConcurrentMap();
+        // version of the device flow table last acknowledged by each backup node
+        private final Map<BackupOperation, Long> lastBackupVersions = Maps.newConcurrentMap();
+        private final Map<DeviceId, FlowTableChangeLog> changeLogs = Maps.newConcurrentMap();
+
+        // held for reading by flow table updates, and for writing while the tables are rebuilt
+        private final ReadWriteLock tableSwapLock = new ReentrantReadWriteLock();
 
         @Override
         public void event(ReplicaInfoEvent event) {
@@ -714,7 +773,8 @@ public class DistributedFlowRuleStore
                 return;
             }
             if (event.type() == MASTER_CHANGED) {
-                lastUpdateTimes.put(deviceId, System.currentTimeMillis());
+                // state of the backups is unknown to the new master; force a full resync
+                lastBackupVersions.keySet().removeIf(op -> op.deviceId.equals(deviceId));
             }
             backupSenderExecutor.schedule(this::backup, 0, TimeUnit.SECONDS);
         }
@@ -730,34 +790,61 @@ public class DistributedFlowRuleStore
                 return;
             }
             log.debug("Sending flowEntries for devices {} to {} for backup.", deviceIds, nodeId);
-            Map<DeviceId, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>
-                    deviceFlowEntries = Maps.newConcurrentMap();
-            deviceIds.forEach(id -> deviceFlowEntries.put(id, getFlowTableCopy(id)));
-            clusterCommunicator.<Map<DeviceId,
-                                 Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>,
-                                 Set<DeviceId>>
-                    sendAndReceive(deviceFlowEntries,
+            Map<DeviceId, FlowTableDelta> deltas = Maps.newHashMap();
+            deviceIds.forEach(id -> deltas.put(id, getFlowTableDelta(nodeId, id)));
+            clusterCommunicator.<Map<DeviceId, FlowTableDelta>, Map<DeviceId, Long>>
+                    sendAndReceive(deltas,
                                    FLOW_TABLE_BACKUP,
-                                   serializer::encode,
-                                   serializer::decode,
+                                   backupSerializer::encode,
+                                   backupSerializer::decode,
                                    nodeId)
-                    .whenComplete((backedupDevices, error) -> {
-                        Set<DeviceId> devicesNotBackedup = error != null ?
-                            deviceFlowEntries.keySet() :
-                            Sets.difference(deviceFlowEntries.keySet(), backedupDevices);
+                    .whenComplete((backedupVersions, error) -> {
+                        Set<DeviceId> devicesNotBackedup = Sets.newHashSet();
+                        deltas.forEach((id, delta) -> {
+                            BackupOperation op = new BackupOperation(nodeId, id);
+                            Long version = backedupVersions != null ? backedupVersions.get(id) : null;
+                            if (version == null) {
+                                devicesNotBackedup.add(id);
+                            } else if (version == delta.version()) {
+                                lastBackupVersions.put(op, version);
+                            } else {
+                                log.debug("Backup of {} on {} is out of sync; scheduling full resync", id, nodeId);
+                                lastBackupVersions.remove(op);
+                            }
+                        });
                         if (devicesNotBackedup.size() > 0) {
                             log.warn("Failed to backup devices: {}. Reason: {}, Node: {}",
                                      devicesNotBackedup, error != null ? error.getMessage() : "none",
                                      nodeId);
                         }
-                        if (backedupDevices != null) {
-                            backedupDevices.forEach(id -> {
-                                lastBackupTimes.put(new BackupOperation(nodeId, id), System.currentTimeMillis());
-                            });
-                        }
                     });
         }
 
+        /**
+         * Returns the changes a backup node needs to bring its copy of the
+         * device flow table up to date. Falls back to the full flow table
+         * when the node's version is unknown or no longer covered by the log.
+         *
+         * @param nodeId   backup node
+         * @param deviceId identifier of the device
+         * @return flow table delta for the backup node
+         */
+        private FlowTableDelta getFlowTableDelta(NodeId nodeId, DeviceId deviceId) {
+            FlowTableChangeLog changeLog = getChangeLog(deviceId);
+            long ackedVersion = lastBackupVersions.getOrDefault(new BackupOperation(nodeId, deviceId),
+                                                                FlowTableChangeLog.NO_VERSION);
+            if (changeLog.canDelta(ackedVersion)) {
+                return changeLog.delta(ackedVersion, flowId -> getFlowBucketCopy(deviceId, flowId));
+            }
+            // entries changed after the version is read are sent again with the next delta
+            long version = changeLog.version();
+            return FlowTableDelta.full(version, getFlowTableCopy(deviceId));
+        }
+
+        private FlowTableChangeLog getChangeLog(DeviceId deviceId) {
+            return changeLogs.computeIfAbsent(deviceId, id -> new FlowTableChangeLog());
+        }
+
         /**
          * Returns the flow table for specified device.
          *
@@ -782,7 +869,32 @@ public class DistributedFlowRuleStore
                         })
                         .build());
             } else {
-                return flowEntries.computeIfAbsent(deviceId, id -> Maps.newConcurrentMap());
+                return flowEntries.computeIfAbsent(deviceId, id -> newFlowTable());
+            }
+        }
+
+        private Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> newFlowTable() {
+            return longKeyedFlowTables ? new LongKeyedFlowTable() : Maps.newConcurrentMap();
+        }
+
+        /**
+         * Moves the in-memory device flow tables to the currently configured
+         * table implementation.
+         */
+        private void rebuildFlowTables() {
+            if (persistenceEnabled) {
+                return;
+            }
+            // no flow table may change while its entries are being copied
+            tableSwapLock.writeLock().lock();
+            try {
+                flowEntries.replaceAll((deviceId, table) -> {
+                    Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> rebuilt = newFlowTable();
+                    table.forEach((flowId, bucket) -> rebuilt.put(flowId, new ConcurrentHashMap<>(bucket)));
+                    return rebuilt;
+                });
+            } finally {
+                tableSwapLock.writeLock().unlock();
             }
         }
 
@@ -805,13 +917,18 @@ public class DistributedFlowRuleStore
                         })
                         .build());
             } else {
-                flowEntries.computeIfAbsent(deviceId, id -> Maps.newConcurrentMap()).forEach((k, v) -> {
+                flowEntries.computeIfAbsent(deviceId, id -> newFlowTable()).forEach((k, v) -> {
                     copy.put(k, Maps.newHashMap(v));
                 });
                 return copy;
             }
         }
 
+        private Map<StoredFlowEntry, StoredFlowEntry> getFlowBucketCopy(DeviceId deviceId, FlowId flowId) {
+            Map<StoredFlowEntry, StoredFlowEntry> bucket = getFlowTable(deviceId).get(flowId);
+            return bucket == null ? Maps.newHashMap() : Maps.newHashMap(bucket);
+        }
+
         private Map<StoredFlowEntry, StoredFlowEntry> getFlowEntriesInternal(DeviceId deviceId, FlowId flowId) {
             return getFlowTable(deviceId).computeIfAbsent(flowId, id -> Maps.newConcurrentMap());
         }
@@ -821,9 +938,9 @@ public class DistributedFlowRuleStore
         }
 
         private Set<FlowEntry> getFlowEntriesInternal(DeviceId deviceId) {
-            return getFlowTable(deviceId).values().stream()
-                        .flatMap(m -> m.values().stream())
-                        .collect(Collectors.toSet());
+            Set<FlowEntry> entries = Sets.newHashSet();
+            getFlowTable(deviceId).forEach((flowId, bucket) -> entries.addAll(bucket.values()));
+            return entries;
         }
 
         public StoredFlowEntry getFlowEntry(FlowRule rule) {
@@ -835,37 +952,69 @@ public class DistributedFlowRuleStore
         }
 
         public void add(FlowEntry rule) {
-            getFlowEntriesInternal(rule.deviceId(), rule.id())
-                    .compute((StoredFlowEntry) rule, (k, stored) -> {
-                        //TODO compare stored and rule timestamps
-                        //TODO the key is not updated
-                        return (StoredFlowEntry) rule;
-                    });
-            lastUpdateTimes.put(rule.deviceId(), System.currentTimeMillis());
+            tableSwapLock.readLock().lock();
+            try {
+                getFlowEntriesInternal(rule.deviceId(), rule.id())
+                        .compute((StoredFlowEntry) rule, (k, stored) -> {
+                            //TODO compare stored and rule timestamps
+                            //TODO the key is not updated
+                            return (StoredFlowEntry) rule;
+                        });
+            } finally {
+                tableSwapLock.readLock().unlock();
+            }
+            recordChange(rule);
+        }
+
+        /**
+         * Records a change of the given flow entry, so that it is included
+         * in the next backup round. Nothing is recorded while backups are
+         * disabled, as the log is only compacted by backup rounds.
+         *
+         * @param rule changed flow entry
+         */
+        public void recordChange(FlowEntry rule) {
+            if (backupEnabled) {
+                getChangeLog(rule.deviceId()).record(rule.id());
+            }
+        }
+
+        /**
+         * Discards the change logs along with the versions acknowledged by
+         * the backups, which get the full flow tables once backups resume.
+         */
+        private void clearChangeLogs() {
+            changeLogs.clear();
+            lastBackupVersions.clear();
         }
 
         public FlowEntry remove(DeviceId deviceId, FlowEntry rule) {
             final AtomicReference<FlowEntry> removedRule = new AtomicReference<>();
-            getFlowEntriesInternal(rule.deviceId(), rule.id())
-                .computeIfPresent((StoredFlowEntry) rule, (k, stored) -> {
-                    if (rule instanceof DefaultFlowEntry) {
-                        DefaultFlowEntry toRemove = (DefaultFlowEntry) rule;
-                        if (stored instanceof DefaultFlowEntry) {
-                            DefaultFlowEntry storedEntry = (DefaultFlowEntry) stored;
-                            if (toRemove.created() < storedEntry.created()) {
-                                log.debug("Trying to remove more recent flow entry {} (stored: {})",
-                                          toRemove, stored);
-                                // the key is not updated, removedRule remains null
-                                return stored;
+            tableSwapLock.readLock().lock();
+            try {
+                getFlowEntriesInternal(rule.deviceId(), rule.id())
+                    .computeIfPresent((StoredFlowEntry) rule, (k, stored) -> {
+                        if (rule instanceof DefaultFlowEntry) {
+                            DefaultFlowEntry toRemove = (DefaultFlowEntry) rule;
+                            if (stored instanceof DefaultFlowEntry) {
+                                DefaultFlowEntry storedEntry = (DefaultFlowEntry) stored;
+                                if (toRemove.created() < storedEntry.created()) {
+                                    log.debug("Trying to remove more recent flow entry {} (stored: {})",
+                                              toRemove, stored);
+                                    // the key is not updated, removedRule remains null
+                                    return stored;
+                                }
                             }
                         }
-                    }
-                    removedRule.set(stored);
-                    return null;
-                });
+                        removedRule.set(stored);
+                        return null;
+                    });
+            } finally {
+                tableSwapLock.readLock().unlock();
+            }
 
             if (removedRule.get() != null) {
-                lastUpdateTimes.put(deviceId, System.currentTimeMillis());
+                recordChange(rule);
                 return removedRule.get();
             } else {
                 return null;
@@ -874,10 +1023,14 @@ public class DistributedFlowRuleStore
 
         public void purgeFlowRule(DeviceId deviceId) {
             flowEntries.remove(deviceId);
+            changeLogs.remove(deviceId);
+            lastBackupVersions.keySet().removeIf(op -> op.deviceId.equals(deviceId));
         }
 
         public void purgeFlowRules() {
             flowEntries.clear();
+            changeLogs.clear();
+            lastBackupVersions.clear();
         }
 
         private List<NodeId> getBackupNodes(DeviceId deviceId) {
@@ -896,13 +1049,23 @@ public class DistributedFlowRuleStore
                 Map<NodeId, Set<DeviceId>> devicesToBackupByNode = Maps.newHashMap();
                 flowEntries.keySet().forEach(deviceId -> {
                     List<NodeId> backupNodes = getBackupNodes(deviceId);
-                    backupNodes.forEach(backupNode -> {
-                            if (lastBackupTimes.getOrDefault(new BackupOperation(backupNode, deviceId), 0L)
-                                    < lastUpdateTimes.getOrDefault(deviceId, 0L)) {
-                                devicesToBackupByNode.computeIfAbsent(backupNode,
-                                                                      nodeId -> Sets.newHashSet()).add(deviceId);
-                            }
-                    });
+                    FlowTableChangeLog changeLog = getChangeLog(deviceId);
+                    long version = changeLog.version();
+                    long minAckedVersion = version;
+                    for (NodeId backupNode : backupNodes) {
+                        long ackedVersion = lastBackupVersions.getOrDefault(
+                                new BackupOperation(backupNode, deviceId), FlowTableChangeLog.NO_VERSION);
+                        if (ackedVersion < version) {
+                            devicesToBackupByNode.computeIfAbsent(backupNode,
+                                                                  nodeId -> Sets.newHashSet()).add(deviceId);
+                        }
+                        if (ackedVersion != FlowTableChangeLog.NO_VERSION) {
+                            minAckedVersion = Math.min(minAckedVersion, ackedVersion);
+                        }
+                    }
+                    // changes seen by all backups are no longer needed;
+                    // backups with unknown state get a full copy anyway
+                    changeLog.compact(minAckedVersion);
                 });
                 // send the device flow entries to their respective backup nodes
                 devicesToBackupByNode.forEach(this::sendBackups);
@@ -911,25 +1074,53 @@ public class DistributedFlowRuleStore
             }
         }
 
-        private Set<DeviceId> onBackupReceipt(Map<DeviceId,
-                Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>> flowTables) {
-            log.debug("Received flowEntries for {} to backup", flowTables.keySet());
-            Set<DeviceId> backedupDevices = Sets.newHashSet();
+        private Map<DeviceId, Long> onBackupReceipt(Map<DeviceId, FlowTableDelta> deltas) {
+            log.debug("Received flowEntries for {} to backup", deltas.keySet());
+            Map<DeviceId, Long> backedupVersions = Maps.newHashMap();
             try {
-                flowTables.forEach((deviceId, deviceFlowTable) -> {
+                deltas.forEach((deviceId, delta) -> {
                     // Only process those devices are that not managed by the local node.
                     if (!Objects.equals(local, mastershipService.getMasterFor(deviceId))) {
-                        Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> backupFlowTable =
-                                getFlowTable(deviceId);
-                        backupFlowTable.clear();
-                        backupFlowTable.putAll(deviceFlowTable);
-                        backedupDevices.add(deviceId);
+                        backedupVersions.put(deviceId, applyBackup(deviceId, delta));
                     }
                 });
             } catch (Exception e) {
                 log.warn("Failure processing backup request", e);
             }
-            return backedupDevices;
+            return backedupVersions;
+        }
+
+        private long applyBackup(DeviceId deviceId, FlowTableDelta delta) {
+            tableSwapLock.readLock().lock();
+            try {
+                return applyBackup(deviceId, getFlowTable(deviceId), delta);
+            } finally {
+                tableSwapLock.readLock().unlock();
+            }
+        }
+
+        private long applyBackup(DeviceId deviceId, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> backupFlowTable,
+                                 FlowTableDelta delta) {
+            FlowTableChangeLog changeLog = getChangeLog(deviceId);
+            synchronized (changeLog) {
+                if (delta.isFull()) {
+                    backupFlowTable.clear();
+                    backupFlowTable.putAll(delta.buckets());
+                } else if (changeLog.version() == delta.baseVersion()) {
+                    delta.buckets().forEach((flowId, bucket) -> {
+                        if (bucket.isEmpty()) {
+                            backupFlowTable.remove(flowId);
+                        } else {
+                            backupFlowTable.put(flowId, bucket);
+                        }
+                    });
+                } else {
+                    // missed an earlier delta; ask the master for the full table
+                    return FlowTableChangeLog.NO_VERSION;
+                }
+                changeLog.reset(delta.version());
+                return delta.version();
+            }
         }
     }
 
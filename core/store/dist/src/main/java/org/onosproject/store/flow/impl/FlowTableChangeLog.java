@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Versioned log of the flow IDs changed in the flow table of a single device.
+ * <p>
+ * Every mutation of the flow table bumps the version of the log and records
+ * the version at which the affected flow ID was last changed. Changes already
+ * acknowledged by every backup node can be compacted away; a backup whose
+ * acknowledged version precedes the compacted range must be resynchronized
+ * with the full flow table.
+ */
+final class FlowTableChangeLog {
+
+    /**
+     * Version denoting that nothing is known about the state of a flow table.
+     */
+    static final long NO_VERSION = -1L;
+
+    private final Map<FlowId, Long> changes = Maps.newHashMap();
+    private long version = 0L;
+    private long floor = 0L;
+
+    /**
+     * Returns the current version of the flow table.
+     *
+     * @return flow table version
+     */
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Records a change of the entries with the given flow ID.
+     *
+     * @param flowId flow ID of the changed entries
+     * @return new version of the flow table
+     */
+    synchronized long record(FlowId flowId) {
+        changes.put(flowId, ++version);
+        return version;
+    }
+
+    /**
+     * Discards all recorded changes and moves the log to the given version.
+     * Used once the flow table has been replaced as a whole.
+     *
+     * @param newVersion version of the replaced flow table
+     */
+    synchronized void reset(long newVersion) {
+        changes.clear();
+        version = newVersion;
+        floor = newVersion;
+    }
+
+    /**
+     * Returns whether a backup holding the given version can be brought
+     * up to date incrementally.
+     *
+     * @param ackedVersion version acknowledged by the backup
+     * @return true if the changes since that version are still in the log
+     */
+    synchronized boolean canDelta(long ackedVersion) {
+        return ackedVersion != NO_VERSION && ackedVersion >= floor && ackedVersion <= version;
+    }
+
+    /**
+     * Builds an incremental delta holding the buckets changed after the
+     * given version.
+     *
+     * @param ackedVersion version acknowledged by the backup
+     * @param bucketCopier function returning a copy of the bucket for a flow ID
+     * @return incremental flow table delta
+     */
+    synchronized FlowTableDelta delta(long ackedVersion,
+                                      Function<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> bucketCopier) {
+        Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> buckets = Maps.newHashMap();
+        changes.forEach((flowId, changedAt) -> {
+            if (changedAt > ackedVersion) {
+                buckets.put(flowId, bucketCopier.apply(flowId));
+            }
+        });
+        return FlowTableDelta.incremental(ackedVersion, version, buckets);
+    }
+
+    /**
+     * Discards the changes acknowledged by all backups.
+     *
+     * @param ackedVersion lowest version acknowledged by the backups
+     */
+    synchronized void compact(long ackedVersion) {
+        if (ackedVersion <= floor || ackedVersion > version) {
+            return;
+        }
+        changes.values().removeIf(changedAt -> changedAt <= ackedVersion);
+        floor = ackedVersion;
+    }
+
+    /**
+     * Returns the number of changes currently held in the log.
+     *
+     * @return number of changed flow IDs
+     */
+    synchronized int size() {
+        return changes.size();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Map;
+
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import com.google.common.collect.ImmutableMap;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Versioned change set of a single device flow table, exchanged between the
+ * master of a device and its backup nodes.
+ * <p>
+ * A full delta replaces the backup copy of the flow table. An incremental
+ * delta carries only the flow buckets that changed after {@code baseVersion}
+ * and may only be applied by a backup holding exactly that version; an empty
+ * bucket denotes that all entries with that flow ID were removed.
+ */
+public final class FlowTableDelta {
+
+    private final boolean full;
+    private final long baseVersion;
+    private final long version;
+    private final Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> buckets;
+
+    private FlowTableDelta(boolean full, long baseVersion, long version,
+                           Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> buckets) {
+        this.full = full;
+        this.baseVersion = baseVersion;
+        this.version = version;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Creates a delta carrying the complete flow table of a device.
+     *
+     * @param version version of the flow table
+     * @param buckets all flow buckets of the device
+     * @return full flow table delta
+     */
+    public static FlowTableDelta full(long version,
+                                      Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> buckets) {
+        return new FlowTableDelta(true, FlowTableChangeLog.NO_VERSION, version, buckets);
+    }
+
+    /**
+     * Creates a delta carrying the flow buckets changed since the given version.
+     *
+     * @param baseVersion version the receiver must hold to apply the delta
+     * @param version     version of the flow table after the delta is applied
+     * @param buckets     changed flow buckets; empty buckets denote removals
+     * @return incremental flow table delta
+     */
+    public static FlowTableDelta incremental(long baseVersion, long version,
+                                             Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> buckets) {
+        return new FlowTableDelta(false, baseVersion, version, buckets);
+    }
+
+    /**
+     * Returns whether this delta carries the complete flow table.
+     *
+     * @return true for a full delta
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Returns the version a backup must hold to apply an incremental delta.
+     *
+     * @return base version
+     */
+    public long baseVersion() {
+        return baseVersion;
+    }
+
+    /**
+     * Returns the version of the flow table once this delta is applied.
+     *
+     * @return target version
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Returns the flow buckets carried by this delta.
+     *
+     * @return flow buckets keyed by flow ID
+     */
+    public Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> buckets() {
+        return buckets == null ? ImmutableMap.of() : buckets;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("full", full)
+                .add("baseVersion", baseVersion)
+                .add("version", version)
+                .add("buckets", buckets().size())
+                .toString();
+    }
+}
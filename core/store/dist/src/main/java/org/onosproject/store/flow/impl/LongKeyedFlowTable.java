@@ -0,0 +1,315 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import io.netty.util.collection.LongObjectHashMap;
+import io.netty.util.collection.LongObjectMap;
+
+/**
+ * Flow table of a single device indexed by the primitive value of the flow ID.
+ * <p>
+ * Avoids the boxed {@link FlowId} keys, the per-entry nodes of a hash map of
+ * objects and the per-flow ID bucket maps, which dominate the heap footprint
+ * of large flow tables. The table holds the flow entries themselves: a single
+ * entry per flow ID, or an array of entries sharing a flow ID. The buckets it
+ * returns are views of those entries, and buckets handed to the table are
+ * copied into it; a flow ID without entries is absent from the table.
+ * <p>
+ * All operations, including those of the bucket views, are serialized on the
+ * table. Like {@link java.util.Collections#synchronizedMap(Map)}, iterating
+ * over the collection views requires holding the table's monitor;
+ * {@link #forEach(BiConsumer)} does so on its own.
+ */
+final class LongKeyedFlowTable extends AbstractMap<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> {
+
+    private static final StoredFlowEntry[] NO_ENTRIES = new StoredFlowEntry[0];
+
+    // holds a StoredFlowEntry or, for colliding flow IDs, a StoredFlowEntry[]
+    private final LongObjectMap<Object> slots = new LongObjectHashMap<>();
+    private final Set<Entry<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>> entrySet = new EntrySet();
+
+    @Override
+    public synchronized Map<StoredFlowEntry, StoredFlowEntry> get(Object key) {
+        return key instanceof FlowId && slots.containsKey(((FlowId) key).value())
+                ? new Bucket(((FlowId) key).value()) : null;
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return key instanceof FlowId && slots.containsKey(((FlowId) key).value());
+    }
+
+    @Override
+    public synchronized Map<StoredFlowEntry, StoredFlowEntry> put(FlowId key,
+                                                                  Map<StoredFlowEntry, StoredFlowEntry> value) {
+        StoredFlowEntry[] previous = entries(slots.remove(key.value()));
+        value.values().forEach(entry -> add(key.value(), entry));
+        return previous.length == 0 ? null : copyOf(previous);
+    }
+
+    @Override
+    public synchronized Map<StoredFlowEntry, StoredFlowEntry> remove(Object key) {
+        if (!(key instanceof FlowId)) {
+            return null;
+        }
+        StoredFlowEntry[] removed = entries(slots.remove(((FlowId) key).value()));
+        return removed.length == 0 ? null : copyOf(removed);
+    }
+
+    /**
+     * Returns the bucket of the given flow ID. Unlike other maps, the bucket
+     * is a view that exists whether or not the flow ID has entries; the
+     * entries of a computed bucket are copied into the table.
+     */
+    @Override
+    public synchronized Map<StoredFlowEntry, StoredFlowEntry> computeIfAbsent(
+            FlowId key,
+            Function<? super FlowId, ? extends Map<StoredFlowEntry, StoredFlowEntry>> mappingFunction) {
+        if (!slots.containsKey(key.value())) {
+            Map<StoredFlowEntry, StoredFlowEntry> computed = mappingFunction.apply(key);
+            if (computed != null) {
+                computed.values().forEach(entry -> add(key.value(), entry));
+            }
+        }
+        return new Bucket(key.value());
+    }
+
+    @Override
+    public synchronized void forEach(
+            BiConsumer<? super FlowId, ? super Map<StoredFlowEntry, StoredFlowEntry>> action) {
+        for (LongObjectMap.PrimitiveEntry<Object> slot : slots.entries()) {
+            action.accept(FlowId.valueOf(slot.key()), new Bucket(slot.key()));
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        slots.clear();
+    }
+
+    @Override
+    public Set<Entry<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>> entrySet() {
+        return entrySet;
+    }
+
+    // Returns the entries held by a slot
+    private static StoredFlowEntry[] entries(Object slot) {
+        if (slot == null) {
+            return NO_ENTRIES;
+        }
+        return slot instanceof StoredFlowEntry ? new StoredFlowEntry[]{(StoredFlowEntry) slot}
+                : (StoredFlowEntry[]) slot;
+    }
+
+    private static Map<StoredFlowEntry, StoredFlowEntry> copyOf(StoredFlowEntry[] entries) {
+        Map<StoredFlowEntry, StoredFlowEntry> copy = Maps.newHashMap();
+        for (StoredFlowEntry entry : entries) {
+            copy.put(entry, entry);
+        }
+        return copy;
+    }
+
+    // Returns the index of the entry equal to the given one, or -1
+    private static int indexOf(StoredFlowEntry[] entries, Object entry) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].equals(entry)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Adds the entry to the slot of the flow ID, replacing an equal one
+    private StoredFlowEntry add(long flowId, StoredFlowEntry entry) {
+        Object slot = slots.get(flowId);
+        if (slot == null) {
+            slots.put(flowId, entry);
+            return null;
+        }
+        StoredFlowEntry[] entries = entries(slot);
+        int index = indexOf(entries, entry);
+        if (index >= 0) {
+            StoredFlowEntry previous = entries[index];
+            if (slot instanceof StoredFlowEntry) {
+                slots.put(flowId, entry);
+            } else {
+                entries[index] = entry;
+            }
+            return previous;
+        }
+        StoredFlowEntry[] grown = Arrays.copyOf(entries, entries.length + 1);
+        grown[entries.length] = entry;
+        slots.put(flowId, grown);
+        return null;
+    }
+
+    // Removes the entry equal to the given one from the slot of the flow ID
+    private StoredFlowEntry remove(long flowId, Object entry) {
+        StoredFlowEntry[] entries = entries(slots.get(flowId));
+        int index = indexOf(entries, entry);
+        if (index < 0) {
+            return null;
+        }
+        if (entries.length == 1) {
+            slots.remove(flowId);
+        } else if (entries.length == 2) {
+            slots.put(flowId, entries[1 - index]);
+        } else {
+            StoredFlowEntry[] shrunk = new StoredFlowEntry[entries.length - 1];
+            System.arraycopy(entries, 0, shrunk, 0, index);
+            System.arraycopy(entries, index + 1, shrunk, index, entries.length - index - 1);
+            slots.put(flowId, shrunk);
+        }
+        return entries[index];
+    }
+
+    /**
+     * Entry set backed by the primitive map; must be iterated while holding
+     * the table's monitor.
+     */
+    private final class EntrySet extends AbstractSet<Entry<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>> {
+        @Override
+        public Iterator<Entry<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>> iterator() {
+            Iterator<LongObjectMap.PrimitiveEntry<Object>> slotIterator = slots.entries().iterator();
+            return new Iterator<Entry<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>() {
+                @Override
+                public boolean hasNext() {
+                    return slotIterator.hasNext();
+                }
+
+                @Override
+                public Entry<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> next() {
+                    LongObjectMap.PrimitiveEntry<Object> slot = slotIterator.next();
+                    return Maps.immutableEntry(FlowId.valueOf(slot.key()), new Bucket(slot.key()));
+                }
+
+                @Override
+                public void remove() {
+                    slotIterator.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return LongKeyedFlowTable.this.size();
+        }
+    }
+
+    /**
+     * View of the entries sharing a flow ID.
+     */
+    private final class Bucket extends AbstractMap<StoredFlowEntry, StoredFlowEntry> {
+        private final long flowId;
+
+        private Bucket(long flowId) {
+            this.flowId = flowId;
+        }
+
+        @Override
+        public StoredFlowEntry get(Object key) {
+            synchronized (LongKeyedFlowTable.this) {
+                StoredFlowEntry[] entries = entries(slots.get(flowId));
+                int index = indexOf(entries, key);
+                return index < 0 ? null : entries[index];
+            }
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public StoredFlowEntry put(StoredFlowEntry key, StoredFlowEntry value) {
+            synchronized (LongKeyedFlowTable.this) {
+                return add(flowId, value);
+            }
+        }
+
+        @Override
+        public StoredFlowEntry remove(Object key) {
+            synchronized (LongKeyedFlowTable.this) {
+                return LongKeyedFlowTable.this.remove(flowId, key);
+            }
+        }
+
+        @Override
+        public StoredFlowEntry compute(StoredFlowEntry key,
+                                       BiFunction<? super StoredFlowEntry, ? super StoredFlowEntry,
+                                               ? extends StoredFlowEntry> remappingFunction) {
+            synchronized (LongKeyedFlowTable.this) {
+                StoredFlowEntry value = remappingFunction.apply(key, get(key));
+                if (value == null) {
+                    LongKeyedFlowTable.this.remove(flowId, key);
+                } else {
+                    add(flowId, value);
+                }
+                return value;
+            }
+        }
+
+        @Override
+        public StoredFlowEntry computeIfPresent(StoredFlowEntry key,
+                                                BiFunction<? super StoredFlowEntry, ? super StoredFlowEntry,
+                                                        ? extends StoredFlowEntry> remappingFunction) {
+            synchronized (LongKeyedFlowTable.this) {
+                StoredFlowEntry stored = get(key);
+                return stored == null ? null : compute(key, (k, v) -> remappingFunction.apply(k, stored));
+            }
+        }
+
+        @Override
+        public int size() {
+            synchronized (LongKeyedFlowTable.this) {
+                return entries(slots.get(flowId)).length;
+            }
+        }
+
+        @Override
+        public Set<Entry<StoredFlowEntry, StoredFlowEntry>> entrySet() {
+            // buckets hold a handful of entries at most, so a snapshot is cheap
+            synchronized (LongKeyedFlowTable.this) {
+                ImmutableMap.Builder<StoredFlowEntry, StoredFlowEntry> snapshot = ImmutableMap.builder();
+                for (StoredFlowEntry entry : entries(slots.get(flowId))) {
+                    snapshot.put(entry, entry);
+                }
+                return snapshot.build().entrySet();
+            }
+        }
+    }
+}
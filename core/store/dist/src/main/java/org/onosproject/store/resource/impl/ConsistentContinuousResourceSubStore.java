@@ -31,6 +31,7 @@ import org.onosproject.store.service.Versioned;
 
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -131,14 +132,17 @@ class ConsistentContinuousResourceSubStore implements ConsistentResourceSubStore
             return Stream.of();
         }
 
-        return children.stream()
+        Set<ContinuousResource> candidates = children.stream()
                 .filter(x -> x.id().equals(parent.child(cls)))
-                // we don't use cascading simple predicates like follows to reduce accesses to consistent map
-                // .filter(x -> continuousConsumers.containsKey(x.id()))
-                // .filter(x -> continuousConsumers.get(x.id()) != null)
-                // .filter(x -> !continuousConsumers.get(x.id()).value().allocations().isEmpty());
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        // look up the allocations of all candidates at once to reduce accesses to consistent map
+        Map<ContinuousResourceId, Versioned<ContinuousResourceAllocation>> allocations =
+                consumers.getAll(candidates.stream()
+                        .map(ContinuousResource::id)
+                        .collect(Collectors.toSet()));
+        return candidates.stream()
                 .filter(resource -> {
-                    Versioned<ContinuousResourceAllocation> allocation = consumers.get(resource.id());
+                    Versioned<ContinuousResourceAllocation> allocation = allocations.get(resource.id());
                     if (allocation == null) {
                         return false;
                     }
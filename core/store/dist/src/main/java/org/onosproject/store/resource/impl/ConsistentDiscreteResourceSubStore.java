@@ -28,9 +28,11 @@ import org.onosproject.store.service.StorageService;
 import org.onosproject.store.service.TransactionContext;
 import org.onosproject.store.service.Versioned;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.onosproject.store.resource.impl.ConsistentResourceStore.SERIALIZER;
@@ -106,9 +108,15 @@ class ConsistentDiscreteResourceSubStore implements ConsistentResourceSubStore
             return Stream.of();
         }
 
-        return children.stream()
+        Set<DiscreteResource> candidates = children.stream()
                 .filter(x -> x.isTypeOf(cls))
-                .filter(x -> consumers.containsKey(x.id()));
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        // look up the consumers of all candidates at once rather than one by one
+        Map<DiscreteResourceId, Versioned<ResourceConsumerId>> allocations = consumers.getAll(candidates.stream()
+                .map(DiscreteResource::id)
+                .collect(Collectors.toSet()));
+        return candidates.stream()
+                .filter(x -> allocations.containsKey(x.id()));
     }
 
     @Override
@@ -15,6 +15,9 @@
  */
 package org.onosproject.store.topology.impl;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -24,6 +27,9 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.graph.GraphPathSearch;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.common.DefaultTopology;
@@ -38,6 +44,7 @@ import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.topology.ClusterId;
 import org.onosproject.net.topology.DefaultGraphDescription;
+import org.onosproject.net.topology.DevicePair;
 import org.onosproject.net.topology.GeoDistanceLinkWeight;
 import org.onosproject.net.topology.GraphDescription;
 import org.onosproject.net.topology.LinkWeigher;
@@ -68,11 +75,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.onlab.util.Tools.get;
+import static org.onlab.util.Tools.getIntegerProperty;
 import static org.onlab.util.Tools.isNullOrEmpty;
 import static org.onosproject.net.topology.AdapterLinkWeigher.adapt;
 import static org.onosproject.net.topology.TopologyEvent.Type.TOPOLOGY_CHANGED;
@@ -93,7 +105,14 @@ public class DistributedTopologyStore
 
     private final Logger log = getLogger(getClass());
 
-    private static final String FORMAT = "Settings: linkWeightFunction={}";
+    private static final String FORMAT = "Settings: linkWeightFunction={}, pathCacheSize={}";
+
+    private static final String METRICS_COMPONENT = "Topology";
+    private static final String METRICS_FEATURE = "pathCache";
+    private static final String HITS_METRIC = "hits";
+    private static final String MISSES_METRIC = "misses";
+    private static final String HIT_RATIO_METRIC = "hitRatio";
+    private static final String COMPUTE_TIME_METRIC = "computeTime";
 
     private volatile DefaultTopology current =
             new DefaultTopology(ProviderId.NONE,
@@ -116,6 +135,9 @@ public class DistributedTopologyStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private static final String HOP_COUNT = "hopCount";
     private static final String LINK_METRIC = "linkMetric";
     private static final String GEO_DISTANCE = "geoDistance";
@@ -125,6 +147,21 @@ public class DistributedTopologyStore
             label = "Default link-weight function: hopCount, linkMetric, geoDistance")
     private String linkWeightFunction = DEFAULT_LINK_WEIGHT_FUNCTION;
 
+    private static final int DEFAULT_PATH_CACHE_SIZE = 10000;
+    @Property(name = "pathCacheSize", intValue = DEFAULT_PATH_CACHE_SIZE,
+            label = "Maximum number of device pairs whose shortest paths are " +
+                    "cached for the current topology; 0 to disable caching")
+    private int pathCacheSize = DEFAULT_PATH_CACHE_SIZE;
+
+    // Shortest paths of the current topology; replaced along with it
+    private volatile PathCache pathCache;
+    private Counter pathCacheHits = new Counter();
+    private Counter pathCacheMisses = new Counter();
+    private Timer pathCacheTimer;
+
+    // Runs the searches of bulk path requests
+    private ForkJoinPool pathSearchPool;
+
     // Cluster root to broadcast points bindings to allow convergence to
     // a shared broadcast tree; node that is the master of the cluster root
     // is the primary.
@@ -145,6 +182,10 @@ public class DistributedTopologyStore
                 .withTimestampProvider((k, v) -> clockService.getTimestamp())
                 .build();
         broadcastPoints.addListener(listener);
+        registerPathCacheMetrics();
+        resetPathCache();
+        pathSearchPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+                                          this::newPathSearchThread, null, false);
         log.info("Started");
     }
 
@@ -153,6 +194,10 @@ public class DistributedTopologyStore
         configService.unregisterProperties(getClass(), false);
         broadcastPoints.removeListener(listener);
         broadcastPoints.destroy();
+        unregisterPathCacheMetrics();
+        pathCache = null;
+        // Searches already submitted still complete their futures
+        pathSearchPool.shutdown();
         log.info("Stopped");
     }
 
@@ -170,7 +215,14 @@ public class DistributedTopologyStore
                             new GeoDistanceLinkWeight(deviceService) : null;
             setDefaultLinkWeight(weight);
         }
-        log.info(FORMAT, linkWeightFunction);
+
+        Integer newPathCacheSize = getIntegerProperty(properties, "pathCacheSize");
+        if (newPathCacheSize != null && newPathCacheSize >= 0 &&
+                newPathCacheSize != pathCacheSize) {
+            pathCacheSize = newPathCacheSize;
+            resetPathCache();
+        }
+        log.info(FORMAT, linkWeightFunction, pathCacheSize);
     }
 
     @Override
@@ -211,7 +263,9 @@ public class DistributedTopologyStore
 
     @Override
     public Set<Path> getPaths(Topology topology, DeviceId src, DeviceId dst) {
-        return defaultTopology(topology).getPaths(src, dst);
+        PathCache cache = pathCache(topology);
+        return cache != null ? cache.getPaths(src, dst, null) :
+                defaultTopology(topology).getPaths(src, dst);
     }
 
     @Override
@@ -223,7 +277,9 @@ public class DistributedTopologyStore
     @Override
     public Set<Path> getPaths(Topology topology, DeviceId src,
                               DeviceId dst, LinkWeigher weigher) {
-        return defaultTopology(topology).getPaths(src, dst, weigher);
+        PathCache cache = pathCache(topology);
+        return cache != null ? cache.getPaths(src, dst, weigher) :
+                defaultTopology(topology).getPaths(src, dst, weigher);
     }
 
     @Override
@@ -242,6 +298,13 @@ public class DistributedTopologyStore
         return defaultTopology(topology).getKShortestPaths(src, dst, weigher);
     }
 
+    @Override
+    public Map<DevicePair, CompletableFuture<Set<Path>>> getKShortestPaths(
+            Topology topology, Set<DevicePair> pairs, LinkWeigher weigher, int maxPaths) {
+        return defaultTopology(topology).getKShortestPaths(pairs, weigher, maxPaths,
+                                                           this::executePathSearch);
+    }
+
     @Override
     public Set<DisjointPath> getDisjointPaths(Topology topology, DeviceId src, DeviceId dst) {
         return defaultTopology(topology).getDisjointPaths(src, dst);
@@ -259,6 +322,12 @@ public class DistributedTopologyStore
         return defaultTopology(topology).getDisjointPaths(src, dst, weigher);
     }
 
+    @Override
+    public Map<DevicePair, CompletableFuture<Set<DisjointPath>>> getDisjointPaths(
+            Topology topology, Set<DevicePair> pairs, LinkWeigher weigher) {
+        return defaultTopology(topology).getDisjointPaths(pairs, weigher, this::executePathSearch);
+    }
+
     @Override
     public Set<DisjointPath> getDisjointPaths(Topology topology, DeviceId src, DeviceId dst,
                                               Map<Link, Object> riskProfile) {
@@ -308,9 +377,10 @@ public class DistributedTopologyStore
     public TopologyEvent updateTopology(ProviderId providerId,
                                         GraphDescription graphDescription,
                                         List<Event> reasons) {
-        // Have the default topology construct self from the description data.
+        // Have the default topology construct self from the description data,
+        // recomputing only what changed since the current topology.
         DefaultTopology newTopology =
-                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint);
+                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint, current);
         updateBroadcastPoints(newTopology);
 
         // Promote the new topology to current and return a ready-to-send event.
@@ -321,6 +391,7 @@ public class DistributedTopologyStore
                 return null;
             }
             current = newTopology;
+            resetPathCache();
             return new TopologyEvent(TOPOLOGY_CHANGED, current, reasons);
         }
     }
@@ -343,6 +414,58 @@ public class DistributedTopologyStore
         toRemove.forEach(broadcastPoints::remove);
     }
 
+    // Returns the path cache of the specified topology, if it is cached
+    private PathCache pathCache(Topology topology) {
+        PathCache cache = pathCache;
+        return cache != null && cache.topology() == topology ? cache : null;
+    }
+
+    // Replaces the path cache with an empty one for the current topology
+    private synchronized void resetPathCache() {
+        pathCache = pathCacheSize > 0 ?
+                new PathCache(current, pathCacheSize, pathCacheHits,
+                              pathCacheMisses, pathCacheTimer) : null;
+    }
+
+    private void registerPathCacheMetrics() {
+        MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+        MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+        pathCacheHits = metricsService.createCounter(component, feature, HITS_METRIC);
+        pathCacheMisses = metricsService.createCounter(component, feature, MISSES_METRIC);
+        pathCacheTimer = metricsService.createTimer(component, feature, COMPUTE_TIME_METRIC);
+        metricsService.registerMetric(component, feature, HIT_RATIO_METRIC,
+                                      (Gauge<Double>) () -> {
+            long lookups = pathCacheHits.getCount() + pathCacheMisses.getCount();
+            return lookups == 0 ? 0 : (double) pathCacheHits.getCount() / lookups;
+        });
+    }
+
+    private void unregisterPathCacheMetrics() {
+        MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+        MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+        metricsService.removeMetric(component, feature, HITS_METRIC);
+        metricsService.removeMetric(component, feature, MISSES_METRIC);
+        metricsService.removeMetric(component, feature, HIT_RATIO_METRIC);
+        metricsService.removeMetric(component, feature, COMPUTE_TIME_METRIC);
+    }
+
+    // Runs the path search on the pool or, once the pool is shut down, on
+    // the calling thread
+    private void executePathSearch(Runnable search) {
+        try {
+            pathSearchPool.execute(search);
+        } catch (RejectedExecutionException e) {
+            search.run();
+        }
+    }
+
+    private ForkJoinWorkerThread newPathSearchThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread =
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("onos-topology-paths-" + thread.getPoolIndex());
+        return thread;
+    }
+
     // Validates the specified topology and returns it as a default
     private DefaultTopology defaultTopology(Topology topology) {
         checkArgument(topology instanceof DefaultTopology,
@@ -353,16 +476,19 @@ public class DistributedTopologyStore
     @Override
     public void setDefaultLinkWeight(LinkWeight linkWeight) {
         DefaultTopology.setDefaultLinkWeigher(adapt(linkWeight));
+        resetPathCache();
     }
 
     @Override
     public void setDefaultLinkWeigher(LinkWeigher linkWeigher) {
         DefaultTopology.setDefaultLinkWeigher(linkWeigher);
+        resetPathCache();
     }
 
     @Override
     public void setDefaultGraphPathSearch(GraphPathSearch<TopologyVertex, TopologyEdge> graphPathSearch) {
         DefaultTopology.setDefaultGraphPathSearch(graphPathSearch);
+        resetPathCache();
     }
 
     private class InternalBroadcastPointListener
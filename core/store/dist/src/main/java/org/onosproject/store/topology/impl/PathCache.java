@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.topology.impl;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.Timer.Context;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.common.DefaultTopology;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Path;
+import org.onosproject.net.topology.AbstractPathService;
+import org.onosproject.net.topology.DevicePair;
+import org.onosproject.net.topology.LinkWeigher;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
+import static org.onosproject.net.topology.DevicePair.devicePair;
+
+/**
+ * Bounded cache of the shortest paths computed on a topology snapshot.
+ * <p>
+ * Only the paths weighed with the default link weigher of the topology are
+ * cached, by source and destination; other weighers are typically built for
+ * a single computation and their paths are computed on demand. A topology
+ * is immutable, so the cache never has to be invalidated and is simply
+ * dropped along with its topology. A miss computes the shortest paths from
+ * the source to all destinations in a single search and caches them all,
+ * since the paths from one source are typically requested for many
+ * destinations.
+ */
+final class PathCache {
+
+    private final DefaultTopology topology;
+    private final Cache<DevicePair, Set<Path>> paths;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer computeTimer;
+
+    /**
+     * Creates a path cache for the given topology.
+     *
+     * @param topology     topology snapshot
+     * @param maxSize      maximum number of device pairs whose paths are cached
+     * @param hits         counter of the lookups served from the cache
+     * @param misses       counter of the lookups computing paths
+     * @param computeTimer timer of the path computations; may be null
+     */
+    PathCache(DefaultTopology topology, int maxSize,
+              Counter hits, Counter misses, Timer computeTimer) {
+        this.topology = topology;
+        this.paths = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        this.hits = hits;
+        this.misses = misses;
+        this.computeTimer = computeTimer;
+    }
+
+    /**
+     * Returns the topology whose paths are cached.
+     *
+     * @return topology snapshot
+     */
+    DefaultTopology topology() {
+        return topology;
+    }
+
+    /**
+     * Returns the set of shortest paths between the source and destination
+     * devices, computing them on a miss.
+     *
+     * @param src     source device
+     * @param dst     destination device
+     * @param weigher link weight function; null for the default one
+     * @return set of shortest paths
+     */
+    Set<Path> getPaths(DeviceId src, DeviceId dst, LinkWeigher weigher) {
+        if (weigher == AbstractPathService.DEFAULT_WEIGHER &&
+                DefaultTopology.hasHopCountLinkWeigher()) {
+            // The hop count weigher of the path service is the default one
+            weigher = null;
+        }
+        if (weigher != null) {
+            return topology.getPaths(src, dst, weigher);
+        }
+        if (!DefaultTopology.hasSingleSourcePathSearch()) {
+            // Paths searched with a custom algorithm are not cached
+            return topology.getPaths(src, dst);
+        }
+
+        DevicePair key = devicePair(src, dst);
+        Set<Path> result = paths.getIfPresent(key);
+        if (result != null) {
+            hits.inc();
+            return result;
+        }
+
+        misses.inc();
+        Context context = startTimer(computeTimer);
+        try {
+            Map<DeviceId, Set<Path>> tree = topology.getPathsFrom(src);
+            tree.forEach((d, p) -> paths.put(devicePair(src, d), p));
+            result = tree.getOrDefault(dst, ImmutableSet.of());
+            paths.put(key, result);
+            return result;
+        } finally {
+            stopTimer(context);
+        }
+    }
+
+    /**
+     * Returns the number of device pairs whose paths are cached.
+     *
+     * @return cache size
+     */
+    long size() {
+        return paths.size();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.cluster.messaging.impl;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onosproject.store.cluster.messaging.Endpoint;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for MessageCompressor.
+ */
+public class MessageCompressorTest {
+
+    private static final Endpoint PEER = new Endpoint(IpAddress.valueOf("10.0.0.1"), 9876);
+
+    @Test
+    public void testShouldCompress() {
+        MessageCompressor all = new MessageCompressor(true, 100, ImmutableSet.of());
+        all.acceptPeer(PEER);
+        assertTrue(all.shouldCompress(PEER, "foo", 100));
+        assertFalse(all.shouldCompress(PEER, "foo", 99));
+        assertTrue(all.shouldCompress(PEER, "foo", MessageCompressor.MAX_UNCOMPRESSED_LENGTH));
+        assertFalse(all.shouldCompress(PEER, "foo", MessageCompressor.MAX_UNCOMPRESSED_LENGTH + 1));
+
+        MessageCompressor some = new MessageCompressor(true, 100, ImmutableSet.of("foo"));
+        some.acceptPeer(PEER);
+        assertTrue(some.shouldCompress(PEER, "foo", 1000));
+        assertFalse(some.shouldCompress(PEER, "bar", 1000));
+
+        MessageCompressor disabled = new MessageCompressor();
+        disabled.acceptPeer(PEER);
+        assertFalse(disabled.shouldCompress(PEER, "foo", Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testPeerCapability() {
+        MessageCompressor compressor = new MessageCompressor(true, 0, ImmutableSet.of());
+        assertFalse(compressor.shouldCompress(null, "foo", 1000));
+        assertFalse(compressor.shouldCompress(PEER, "foo", 1000));
+
+        assertTrue(compressor.startProbe(PEER));
+        assertFalse(compressor.startProbe(PEER));
+        assertFalse(compressor.shouldCompress(PEER, "foo", 1000));
+
+        compressor.acceptPeer(PEER);
+        assertTrue(compressor.shouldCompress(PEER, "foo", 1000));
+
+        compressor.forgetPeer(PEER);
+        assertFalse(compressor.shouldCompress(PEER, "foo", 1000));
+        assertTrue(compressor.startProbe(PEER));
+    }
+
+    @Test
+    public void testRoundTrip() throws DataFormatException {
+        MessageCompressor compressor = new MessageCompressor(true, 0, ImmutableSet.of());
+        byte[] payload = new byte[10000];
+        Arrays.fill(payload, (byte) 'a');
+
+        byte[] compressed = new byte[payload.length - 1];
+        int length = compressor.compress(payload, compressed);
+        assertTrue(length > 0 && length < payload.length);
+        assertEquals(1, compressor.compressedMessageCount());
+        assertTrue(compressor.compressionRatio() > 1.0);
+
+        assertArrayEquals(payload, compressor.decompress(compressed, 0, length, payload.length));
+    }
+
+    @Test
+    public void testIncompressible() {
+        MessageCompressor compressor = new MessageCompressor(true, 0, ImmutableSet.of());
+        byte[] payload = new byte[1000];
+        new Random(0).nextBytes(payload);
+
+        assertEquals(-1, compressor.compress(payload, new byte[payload.length - 1]));
+        assertEquals(0, compressor.compressedMessageCount());
+    }
+
+    @Test(expected = DataFormatException.class)
+    public void testTruncated() throws DataFormatException {
+        MessageCompressor compressor = new MessageCompressor(true, 0, ImmutableSet.of());
+        byte[] payload = new byte[10000];
+        byte[] compressed = new byte[payload.length - 1];
+        int length = compressor.compress(payload, compressed);
+
+        compressor.decompress(compressed, 0, length / 2, payload.length);
+    }
+
+    @Test(expected = DataFormatException.class)
+    public void testUncompressedLengthBeyondDeflateRatio() throws DataFormatException {
+        MessageCompressor compressor = new MessageCompressor(true, 0, ImmutableSet.of());
+        compressor.decompress(new byte[16], 0, 16, Integer.MAX_VALUE);
+    }
+
+    @Test(expected = DataFormatException.class)
+    public void testUncompressedLengthBeyondMaximum() throws DataFormatException {
+        MessageCompressor compressor = new MessageCompressor(true, 0, ImmutableSet.of());
+        byte[] compressed = new byte[1024 * 1024];
+        compressor.decompress(compressed, 0, compressed.length, MessageCompressor.MAX_UNCOMPRESSED_LENGTH + 1);
+    }
+}
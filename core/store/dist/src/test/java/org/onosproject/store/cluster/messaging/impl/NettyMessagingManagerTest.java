@@ -15,6 +15,8 @@
  */
 package org.onosproject.store.cluster.messaging.impl;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.Uninterruptibles;
@@ -22,6 +24,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
 import org.onlab.packet.IpAddress;
 import org.onosproject.cluster.ClusterMetadata;
 import org.onosproject.cluster.ClusterMetadataEventListener;
@@ -34,15 +37,21 @@ import org.onosproject.net.provider.ProviderId;
 import org.onosproject.store.cluster.messaging.Endpoint;
 
 import java.net.ConnectException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 
 import static org.junit.Assert.assertEquals;
@@ -85,12 +94,14 @@ public class NettyMessagingManagerTest {
         netty1 = new NettyMessagingManager();
         netty1.clusterMetadataService = dummyMetadataService(DUMMY_NAME, IP_STRING, ep1);
         netty1.clockService = testClockService;
+        netty1.metricsService = new MetricsManager();
         netty1.activate();
 
         ep2 = new Endpoint(IpAddress.valueOf("127.0.0.1"), findAvailablePort(5003));
         netty2 = new NettyMessagingManager();
         netty2.clusterMetadataService = dummyMetadataService(DUMMY_NAME, IP_STRING, ep2);
         netty2.clockService = testClockService;
+        netty2.metricsService = new MetricsManager();
         netty2.activate();
     }
 
@@ -134,6 +145,138 @@ public class NettyMessagingManagerTest {
         Uninterruptibles.awaitUninterruptibly(latch2);
     }
 
+    @Test
+    public void testSendAsyncToBufferHandler() throws Exception {
+        String subject = nextSubject();
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<byte[]> received = new AtomicReference<>();
+        netty2.registerBufferHandler(subject, (ep, buffer) -> {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            received.set(bytes);
+            latch.countDown();
+        }, MoreExecutors.directExecutor());
+
+        netty1.sendAsync(ep2, subject, "hello world".getBytes()).join();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(Arrays.equals("hello world".getBytes(), received.get()));
+    }
+
+    private NettyMessagingManager compressingMessagingManager() throws Exception {
+        NettyMessagingManager netty3 = new NettyMessagingManager();
+        Endpoint ep3 = new Endpoint(IpAddress.valueOf(IP_STRING), findAvailablePort(5007));
+        netty3.clusterMetadataService = dummyMetadataService(DUMMY_NAME, IP_STRING, ep3);
+        netty3.clockService = testClockService;
+        netty3.metricsService = new MetricsManager();
+        System.setProperty("enableNettyCompression", "true");
+        System.setProperty("nettyCompressionThreshold", "1024");
+        try {
+            netty3.activate();
+        } finally {
+            System.clearProperty("enableNettyCompression");
+            System.clearProperty("nettyCompressionThreshold");
+        }
+        return netty3;
+    }
+
+    @Test
+    public void testSendAsyncWithCompression() throws Exception {
+        NettyMessagingManager netty3 = compressingMessagingManager();
+        try {
+            String subject = nextSubject();
+            byte[] payload = new byte[64 * 1024];
+            Arrays.fill(payload, (byte) 'x');
+            BlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+            BiConsumer<Endpoint, byte[]> handler = (ep, data) -> received.add(data);
+            netty2.registerHandler(subject, handler, MoreExecutors.directExecutor());
+
+            // The first message goes out uncompressed while netty2 is probed
+            netty3.sendAsync(ep2, subject, payload).join();
+            assertTrue(Arrays.equals(payload, received.poll(5, TimeUnit.SECONDS)));
+            assertEquals(0, netty3.compressor().compressedMessageCount());
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!netty3.compressor().shouldCompress(ep2, subject, payload.length)
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            netty3.sendAsync(ep2, subject, payload).join();
+            assertTrue(Arrays.equals(payload, received.poll(5, TimeUnit.SECONDS)));
+            assertEquals(1, netty3.compressor().compressedMessageCount());
+            assertTrue(netty3.compressor().compressionRatio() > 1.0);
+
+            MetricRegistry metrics = netty3.metricsService.getMetricRegistry();
+            assertEquals(1, metrics.counter("NettyMessaging.compression.messages").getCount());
+            assertEquals(payload.length, metrics.counter("NettyMessaging.compression.uncompressedBytes").getCount());
+        } finally {
+            netty3.deactivate();
+        }
+    }
+
+    @Test
+    public void testNoCompressionToPeerWithoutSupport() throws Exception {
+        // Peers running an older release have no handler for the probe
+        netty2.unregisterHandler("NETTY_MESSAGING_COMPRESSION_PROBE");
+        NettyMessagingManager netty3 = compressingMessagingManager();
+        try {
+            String subject = nextSubject();
+            byte[] payload = new byte[64 * 1024];
+            Arrays.fill(payload, (byte) 'x');
+            BlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+            BiConsumer<Endpoint, byte[]> handler = (ep, data) -> received.add(data);
+            netty2.registerHandler(subject, handler, MoreExecutors.directExecutor());
+
+            for (int i = 0; i < 5; i++) {
+                netty3.sendAsync(ep2, subject, payload).join();
+                assertTrue(Arrays.equals(payload, received.poll(5, TimeUnit.SECONDS)));
+                Thread.sleep(50);
+            }
+            assertEquals(0, netty3.compressor().compressedMessageCount());
+        } finally {
+            netty3.deactivate();
+        }
+    }
+
+    @Test
+    public void testSendAsyncWithWriteCoalescing() throws Exception {
+        NettyMessagingManager netty3 = new NettyMessagingManager();
+        Endpoint ep3 = new Endpoint(IpAddress.valueOf(IP_STRING), findAvailablePort(5005));
+        netty3.clusterMetadataService = dummyMetadataService(DUMMY_NAME, IP_STRING, ep3);
+        netty3.clockService = testClockService;
+        netty3.metricsService = new MetricsManager();
+        System.setProperty("enableNettyWriteCoalescing", "true");
+        System.setProperty("nettyWriteCoalescingMaxBatchSize", "4");
+        try {
+            netty3.activate();
+        } finally {
+            System.clearProperty("enableNettyWriteCoalescing");
+            System.clearProperty("nettyWriteCoalescingMaxBatchSize");
+        }
+
+        try {
+            String subject = nextSubject();
+            int messageCount = 200;
+            CountDownLatch latch = new CountDownLatch(messageCount);
+            BiConsumer<Endpoint, byte[]> handler = (ep, data) -> latch.countDown();
+            netty2.registerHandler(subject, handler, MoreExecutors.directExecutor());
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < messageCount; i++) {
+                futures.add(netty3.sendAsync(ep2, subject, "hello world".getBytes()));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+            MetricRegistry metrics = netty3.metricsService.getMetricRegistry();
+            assertEquals(messageCount, metrics.counter("NettyMessaging.writeCoalescing.messages").getCount());
+            Snapshot batchSizes = metrics.histogram("NettyMessaging.writeCoalescing.batchSize").getSnapshot();
+            assertTrue("messages should be coalesced", batchSizes.getMax() > 1);
+            assertTrue(metrics.counter("NettyMessaging.writeCoalescing.flushes").getCount() < messageCount);
+        } finally {
+            netty3.deactivate();
+        }
+    }
+
     @Test
     @Ignore // FIXME disabled on 9/29/16 due to random failures
     public void testSendAndReceive() {
@@ -16,6 +16,7 @@
 package org.onosproject.store.flow.impl;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import org.junit.After;
 import org.junit.Before;
@@ -39,11 +40,25 @@ import org.onosproject.net.flow.DefaultFlowRule;
 import org.onosproject.net.flow.FlowRuleBatchOperation;
 import org.onosproject.net.intent.IntentTestsMocks;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
+import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.flow.ReplicaInfo;
+import org.onosproject.store.flow.ReplicaInfoEvent;
+import org.onosproject.store.flow.ReplicaInfoEventListener;
+import org.onosproject.store.flow.ReplicaInfoService;
 import org.onosproject.store.persistence.PersistenceServiceAdapter;
 import org.onosproject.store.service.TestStorageService;
 
 import org.onlab.packet.Ip4Address;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import org.osgi.service.component.ComponentContext;
 
 import static org.easymock.EasyMock.createMock;
@@ -51,11 +66,16 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.store.flow.impl.FlowStoreMessageSubjects.FLOW_TABLE_BACKUP;
 import static org.onosproject.net.NetTestTools.APP_ID;
 import static org.onosproject.net.NetTestTools.did;
+import static org.onosproject.store.flow.ReplicaInfoEvent.Type.BACKUPS_CHANGED;
 
 /**
  * Test class for DistributedFlowRuleStore.
@@ -262,4 +282,187 @@ public class DistributedFlowRuleStoreTest {
         }
         assertThat(sum3, is(0));
     }
+
+    /**
+     * Tests that backup nodes receive incremental deltas, and are resynchronized
+     * with the full flow table after missing one.
+     */
+    @Test
+    public void testBackups() throws Exception {
+        NodeId backupId = new NodeId("2");
+        BackupCommunicator masterCommunicator = new BackupCommunicator();
+        BackupCommunicator backupCommunicator = new BackupCommunicator();
+        MovableMaster backupMastership = new MovableMaster(nodeId);
+        TestReplicaInfoService masterReplicaInfo = new TestReplicaInfoService(backupId);
+        DistributedFlowRuleStore master = newStore(nodeId, new MasterOfAll(), masterCommunicator,
+                                                   masterReplicaInfo);
+        DistributedFlowRuleStore backup = newStore(backupId, backupMastership, backupCommunicator,
+                                                   new TestReplicaInfoService());
+        masterCommunicator.peer = backupCommunicator;
+        try {
+            master.addOrUpdateFlowRule(new DefaultFlowEntry(flowRule));
+            FlowTableDelta delta = masterCommunicator.nextBackup(masterReplicaInfo, deviceId).deltas.get(deviceId);
+            assertTrue("first backup should be full", delta.isFull());
+            assertThat(delta.buckets().size(), is(1));
+
+            master.addOrUpdateFlowRule(new DefaultFlowEntry(flowRule1));
+            FlowTableDelta next = masterCommunicator.nextBackup(masterReplicaInfo, deviceId).deltas.get(deviceId);
+            assertFalse("backup should be incremental", next.isFull());
+            assertThat(next.baseVersion(), is(delta.version()));
+            assertThat(next.buckets().keySet(), contains(flowRule1.id()));
+
+            // the backup applies the removal, but its acknowledgement is lost
+            masterCommunicator.dropReplies = 1;
+            master.removeFlowRule(new DefaultFlowEntry(flowRule));
+            FlowTableDelta lost = masterCommunicator.nextBackup(masterReplicaInfo, deviceId).deltas.get(deviceId);
+            assertFalse("backup should be incremental", lost.isFull());
+
+            // the delta is sent again, rejected and followed by a full resync
+            Backup stale = masterCommunicator.nextBackup(masterReplicaInfo, deviceId);
+            assertFalse("backup should be incremental", stale.deltas.get(deviceId).isFull());
+            assertThat(stale.deltas.get(deviceId).baseVersion(), is(lost.baseVersion()));
+            assertThat(stale.versions.get(deviceId), is(FlowTableChangeLog.NO_VERSION));
+            Backup resync = masterCommunicator.nextBackup(masterReplicaInfo, deviceId);
+            assertTrue("backup should be resynchronized", resync.deltas.get(deviceId).isFull());
+            assertThat(resync.versions.get(deviceId), is(resync.deltas.get(deviceId).version()));
+
+            // once mastership moves, the backup copy is served
+            backupMastership.master = backupId;
+            assertThat(backup.getFlowEntries(deviceId), contains(new DefaultFlowEntry(flowRule1)));
+        } finally {
+            master.deactivate(context);
+            backup.deactivate(context);
+        }
+    }
+
+    // Creates an activated store with the given identity and services
+    private DistributedFlowRuleStore newStore(NodeId id, MastershipServiceAdapter mastership,
+                                              BackupCommunicator communicator,
+                                              ReplicaInfoService replicaInfo) {
+        DistributedFlowRuleStore store = new DistributedFlowRuleStore();
+        store.storageService = new TestStorageService();
+        store.replicaInfoManager = replicaInfo;
+        ClusterService cluster = createMock(ClusterService.class);
+        expect(cluster.getLocalNode()).andReturn(new MockControllerNode(id)).anyTimes();
+        replay(cluster);
+        store.clusterService = cluster;
+        store.clusterCommunicator = communicator;
+        store.mastershipService = mastership;
+        store.deviceService = new DeviceServiceAdapter();
+        store.coreService = new CoreServiceAdapter();
+        store.configService = new ComponentConfigAdapter();
+        store.persistenceService = new PersistenceServiceAdapter();
+        store.activate(context);
+        return store;
+    }
+
+    private static class MovableMaster extends MastershipServiceAdapter {
+        volatile NodeId master;
+
+        MovableMaster(NodeId master) {
+            this.master = master;
+        }
+
+        @Override
+        public NodeId getMasterFor(DeviceId deviceId) {
+            return master;
+        }
+    }
+
+    private static class TestReplicaInfoService implements ReplicaInfoService {
+        private final List<NodeId> backups;
+        private final List<ReplicaInfoEventListener> listeners = new CopyOnWriteArrayList<>();
+
+        TestReplicaInfoService(NodeId... backups) {
+            this.backups = ImmutableList.copyOf(backups);
+        }
+
+        @Override
+        public ReplicaInfo getReplicaInfoFor(DeviceId deviceId) {
+            return new ReplicaInfo(new NodeId("1"), backups);
+        }
+
+        @Override
+        public void addListener(ReplicaInfoEventListener listener) {
+            listeners.add(listener);
+        }
+
+        // Notifies a change of backups, which triggers a backup round
+        void backupsChanged(DeviceId deviceId) {
+            ReplicaInfoEvent event = new ReplicaInfoEvent(BACKUPS_CHANGED, deviceId,
+                                                          getReplicaInfoFor(deviceId));
+            listeners.forEach(listener -> listener.event(event));
+        }
+
+        @Override
+        public void removeListener(ReplicaInfoEventListener listener) {
+        }
+    }
+
+    /**
+     * Delivers flow table backups straight to the backup handler of a peer,
+     * recording the deltas sent along with the versions acknowledged.
+     */
+    private static class BackupCommunicator extends ClusterCommunicationServiceAdapter {
+        private final BlockingQueue<Backup> sent = new LinkedBlockingQueue<>();
+        private volatile Function<Map<DeviceId, FlowTableDelta>, Map<DeviceId, Long>> backupHandler;
+        volatile BackupCommunicator peer;
+        volatile int dropReplies;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <M, R> void addSubscriber(MessageSubject subject,
+                                         Function<byte[], M> decoder, Function<M, R> handler,
+                                         Function<R, byte[]> encoder, Executor executor) {
+            if (subject.equals(FLOW_TABLE_BACKUP)) {
+                backupHandler = (Function<Map<DeviceId, FlowTableDelta>, Map<DeviceId, Long>>) handler;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <M, R> CompletableFuture<R> sendAndReceive(M message,
+                                                          MessageSubject subject, Function<M, byte[]> encoder,
+                                                          Function<byte[], R> decoder, NodeId toNodeId) {
+            CompletableFuture<R> future = new CompletableFuture<>();
+            if (!subject.equals(FLOW_TABLE_BACKUP) || peer == null) {
+                future.completeExceptionally(new IllegalStateException("unexpected message"));
+                return future;
+            }
+            Map<DeviceId, FlowTableDelta> deltas = (Map<DeviceId, FlowTableDelta>) message;
+            Map<DeviceId, Long> versions = peer.backupHandler.apply(deltas);
+            if (dropReplies > 0) {
+                dropReplies--;
+                future.completeExceptionally(new IllegalStateException("reply lost"));
+            } else {
+                future.complete((R) versions);
+            }
+            sent.add(new Backup(deltas, versions));
+            return future;
+        }
+
+        // Triggers backup rounds until the next backup of the given device is sent
+        Backup nextBackup(TestReplicaInfoService replicaInfo, DeviceId deviceId)
+                throws InterruptedException {
+            for (int i = 0; i < 50; i++) {
+                Backup backup = sent.poll(100, TimeUnit.MILLISECONDS);
+                if (backup == null) {
+                    replicaInfo.backupsChanged(deviceId);
+                } else if (backup.deltas.containsKey(deviceId)) {
+                    return backup;
+                }
+            }
+            throw new AssertionError("no backup sent");
+        }
+    }
+
+    private static class Backup {
+        final Map<DeviceId, FlowTableDelta> deltas;
+        final Map<DeviceId, Long> versions;
+
+        Backup(Map<DeviceId, FlowTableDelta> deltas, Map<DeviceId, Long> versions) {
+            this.deltas = deltas;
+            this.versions = versions;
+        }
+    }
 }
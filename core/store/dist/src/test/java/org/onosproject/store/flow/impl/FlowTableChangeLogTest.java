@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import org.junit.Test;
+import org.onosproject.net.flow.FlowId;
+
+import com.google.common.collect.Maps;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for FlowTableChangeLog.
+ */
+public class FlowTableChangeLogTest {
+
+    private static final FlowId FID1 = FlowId.valueOf(1);
+    private static final FlowId FID2 = FlowId.valueOf(2);
+    private static final FlowId FID3 = FlowId.valueOf(3);
+
+    @Test
+    public void testDelta() {
+        FlowTableChangeLog changeLog = new FlowTableChangeLog();
+        assertThat(changeLog.version(), is(0L));
+        changeLog.record(FID1);
+        changeLog.record(FID2);
+        long acked = changeLog.version();
+        changeLog.record(FID2);
+        changeLog.record(FID3);
+
+        assertTrue(changeLog.canDelta(acked));
+        FlowTableDelta delta = changeLog.delta(acked, flowId -> Maps.newHashMap());
+        assertFalse(delta.isFull());
+        assertThat(delta.baseVersion(), is(acked));
+        assertThat(delta.version(), is(4L));
+        assertThat(delta.buckets().keySet().size(), is(2));
+        assertTrue(delta.buckets().containsKey(FID2));
+        assertTrue(delta.buckets().containsKey(FID3));
+    }
+
+    @Test
+    public void testUnknownVersionNeedsFullResync() {
+        FlowTableChangeLog changeLog = new FlowTableChangeLog();
+        changeLog.record(FID1);
+        assertFalse(changeLog.canDelta(FlowTableChangeLog.NO_VERSION));
+        assertFalse(changeLog.canDelta(changeLog.version() + 1));
+    }
+
+    @Test
+    public void testCompact() {
+        FlowTableChangeLog changeLog = new FlowTableChangeLog();
+        changeLog.record(FID1);
+        changeLog.record(FID2);
+        changeLog.record(FID3);
+        changeLog.compact(2L);
+
+        assertThat(changeLog.size(), is(1));
+        assertFalse(changeLog.canDelta(1L));
+        assertTrue(changeLog.canDelta(2L));
+        assertThat(changeLog.delta(2L, flowId -> Maps.newHashMap()).buckets().size(), is(1));
+    }
+
+    @Test
+    public void testReset() {
+        FlowTableChangeLog changeLog = new FlowTableChangeLog();
+        changeLog.record(FID1);
+        changeLog.reset(10L);
+
+        assertThat(changeLog.version(), is(10L));
+        assertThat(changeLog.size(), is(0));
+        assertFalse(changeLog.canDelta(5L));
+        assertTrue(changeLog.canDelta(10L));
+    }
+}
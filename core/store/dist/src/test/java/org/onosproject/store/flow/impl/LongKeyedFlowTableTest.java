@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.StoredFlowEntry;
+import org.onosproject.net.intent.IntentTestsMocks;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.NetTestTools.did;
+
+/**
+ * Unit tests for LongKeyedFlowTable.
+ */
+public class LongKeyedFlowTableTest {
+
+    private static final FlowId FID1 = FlowId.valueOf(1);
+    private static final FlowId FID2 = FlowId.valueOf(0xffffffff00000001L);
+    private static final IntentTestsMocks.MockSelector SELECTOR = new IntentTestsMocks.MockSelector();
+    private static final IntentTestsMocks.MockTreatment TREATMENT = new IntentTestsMocks.MockTreatment();
+
+    // entries 1a and 1b share a flow ID
+    private final StoredFlowEntry entry1a = entry(FID1, 10);
+    private final StoredFlowEntry entry1b = entry(FID1, 20);
+    private final StoredFlowEntry entry2 = entry(FID2, 10);
+
+    @Test
+    public void testBasics() {
+        LongKeyedFlowTable table = new LongKeyedFlowTable();
+
+        // buckets are views; flow IDs without entries are absent
+        Map<StoredFlowEntry, StoredFlowEntry> bucket = table.computeIfAbsent(FID1, id -> Maps.newConcurrentMap());
+        assertTrue(bucket.isEmpty());
+        assertFalse(table.containsKey(FID1));
+        assertThat(table.get(FID1), nullValue());
+        assertThat(table.get("not a flow id"), nullValue());
+
+        bucket.compute(entry1a, (k, v) -> entry1a);
+        assertTrue(table.containsKey(FlowId.valueOf(1)));
+        assertThat(table.get(FID1).get(entry1a), sameInstance(entry1a));
+
+        table.put(FID2, ImmutableMap.of(entry2, entry2));
+        assertThat(table.size(), is(2));
+        assertThat(table.keySet().contains(FID2), is(true));
+        assertThat(table.values().size(), is(2));
+
+        assertThat(table.remove(FID2), is(ImmutableMap.of(entry2, entry2)));
+        assertThat(table.size(), is(1));
+        table.clear();
+        assertTrue(table.isEmpty());
+        assertTrue(bucket.isEmpty());
+    }
+
+    @Test
+    public void testSharedFlowId() {
+        LongKeyedFlowTable table = new LongKeyedFlowTable();
+        Map<StoredFlowEntry, StoredFlowEntry> bucket = table.computeIfAbsent(FID1, id -> Maps.newConcurrentMap());
+        bucket.compute(entry1a, (k, v) -> entry1a);
+        bucket.compute(entry1b, (k, v) -> entry1b);
+        assertThat(bucket.size(), is(2));
+        assertThat(bucket.values(), containsInAnyOrder(entry1a, entry1b));
+
+        // an equal entry replaces the stored one
+        StoredFlowEntry updated = entry(FID1, 20);
+        bucket.compute(updated, (k, v) -> updated);
+        assertThat(bucket.size(), is(2));
+        assertThat(bucket.get(entry1b), sameInstance(updated));
+
+        // removals shrink the bucket until the flow ID is absent
+        assertThat(bucket.computeIfPresent(entry1a, (k, v) -> null), nullValue());
+        assertThat(bucket.computeIfPresent(entry1a, (k, v) -> v), nullValue());
+        assertThat(bucket.size(), is(1));
+        assertThat(bucket.remove(entry1b), sameInstance(updated));
+        assertFalse(table.containsKey(FID1));
+    }
+
+    @Test
+    public void testCopy() {
+        LongKeyedFlowTable table = new LongKeyedFlowTable();
+        table.put(FID1, ImmutableMap.of(entry1a, entry1a, entry1b, entry1b));
+        table.put(FID2, ImmutableMap.of(entry2, entry2));
+
+        Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> copy = Maps.newHashMap();
+        table.forEach((flowId, bucket) -> copy.put(flowId, Maps.newHashMap(bucket)));
+        assertThat(copy.size(), is(2));
+        assertThat(copy.get(FID1).size(), is(2));
+
+        LongKeyedFlowTable rebuilt = new LongKeyedFlowTable();
+        rebuilt.putAll(copy);
+        assertThat(rebuilt, is(copy));
+    }
+
+    private static StoredFlowEntry entry(FlowId flowId, int priority) {
+        return new DefaultFlowEntry(DefaultFlowRule.builder()
+                                            .forDevice(did("device1"))
+                                            .withSelector(SELECTOR)
+                                            .withTreatment(TREATMENT)
+                                            .withPriority(priority)
+                                            .withCookie(flowId.value())
+                                            .makePermanent()
+                                            .build());
+    }
+}
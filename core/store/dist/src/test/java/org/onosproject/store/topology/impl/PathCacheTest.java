@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.topology.impl;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.ChassisId;
+import org.onosproject.common.DefaultTopology;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultDevice;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.topology.AbstractPathService;
+import org.onosproject.net.topology.DefaultGraphDescription;
+import org.onosproject.net.topology.LinkWeigher;
+
+import static com.google.common.collect.ImmutableSet.of;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.DeviceId.deviceId;
+import static org.onosproject.net.PortNumber.portNumber;
+import static org.onosproject.net.topology.AdapterLinkWeigher.adapt;
+
+/**
+ * Test of the topology path cache.
+ */
+public class PathCacheTest {
+
+    private static final ProviderId PID = new ProviderId("of", "foo.bar");
+
+    private static final DeviceId D1 = did("1");
+    private static final DeviceId D2 = did("2");
+    private static final DeviceId D3 = did("3");
+    private static final DeviceId D4 = did("4");
+
+    private DefaultTopology topology;
+    private Counter hits;
+    private Counter misses;
+    private Timer timer;
+    private PathCache cache;
+
+    @Before
+    public void setUp() {
+        topology = new DefaultTopology(PID, new DefaultGraphDescription(
+                1L, System.currentTimeMillis(),
+                of(device("1"), device("2"), device("3"), device("4")),
+                of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                   link("2", 2, "3", 2), link("3", 2, "2", 2),
+                   link("1", 3, "3", 3), link("3", 3, "1", 3))));
+        hits = new Counter();
+        misses = new Counter();
+        timer = new Timer();
+        cache = new PathCache(topology, 100, hits, misses, timer);
+    }
+
+    @Test
+    public void defaultWeigher() {
+        assertEquals("incorrect paths", topology.getPaths(D1, D2),
+                     cache.getPaths(D1, D2, null));
+        assertEquals("incorrect miss count", 1, misses.getCount());
+        assertEquals("incorrect compute count", 1, timer.getCount());
+
+        // Paths to the other destinations were computed along
+        assertEquals("incorrect paths", topology.getPaths(D1, D3),
+                     cache.getPaths(D1, D3, null));
+        assertTrue("no paths expected", cache.getPaths(D1, D4, null).isEmpty());
+        assertEquals("incorrect hit count", 1, hits.getCount());
+        assertEquals("incorrect miss count", 2, misses.getCount());
+
+        assertSame("paths should be cached", cache.getPaths(D1, D2, null),
+                   cache.getPaths(D1, D2, null));
+        assertEquals("incorrect hit count", 3, hits.getCount());
+    }
+
+    @Test
+    public void customWeigher() {
+        LinkWeigher weigher = adapt(edge -> edge.link().src().deviceId().equals(D1) &&
+                edge.link().dst().deviceId().equals(D3) ? 5.0 : 1.0);
+        assertEquals("incorrect paths", topology.getPaths(D1, D3, weigher),
+                     cache.getPaths(D1, D3, weigher));
+        assertEquals("incorrect path length", 2,
+                     cache.getPaths(D1, D3, weigher).iterator().next().links().size());
+
+        // Paths of other weighers are neither cached nor looked up
+        assertEquals("incorrect hit count", 0, hits.getCount());
+        assertEquals("incorrect miss count", 0, misses.getCount());
+        assertEquals("incorrect cache size", 0, cache.size());
+        assertEquals("incorrect path length", 1,
+                     cache.getPaths(D1, D3, null).iterator().next().links().size());
+    }
+
+    @Test
+    public void pathServiceWeigher() {
+        assertEquals("incorrect paths", topology.getPaths(D1, D2),
+                     cache.getPaths(D1, D2, AbstractPathService.DEFAULT_WEIGHER));
+        assertSame("paths should be cached", cache.getPaths(D1, D2, null),
+                   cache.getPaths(D1, D2, AbstractPathService.DEFAULT_WEIGHER));
+        assertEquals("incorrect hit count", 2, hits.getCount());
+        assertEquals("incorrect miss count", 1, misses.getCount());
+
+        // Unless hops are no longer the default weight
+        DefaultTopology.setDefaultLinkWeigher(adapt(edge -> 1.0));
+        try {
+            cache.getPaths(D1, D2, AbstractPathService.DEFAULT_WEIGHER);
+            assertEquals("incorrect hit count", 2, hits.getCount());
+        } finally {
+            DefaultTopology.setDefaultLinkWeigher(null);
+        }
+    }
+
+    @Test
+    public void bounded() {
+        PathCache small = new PathCache(topology, 2, hits, misses, timer);
+        small.getPaths(D1, D2, null);
+        small.getPaths(D2, D3, null);
+        small.getPaths(D3, D1, null);
+        assertTrue("cache should be bounded", small.size() <= 2);
+    }
+
+    // Creates a new link with the specified end-points
+    private static Link link(String src, int sp, String dst, int dp) {
+        return DefaultLink.builder().providerId(PID)
+                .src(new ConnectPoint(did(src), portNumber(sp)))
+                .dst(new ConnectPoint(did(dst), portNumber(dp)))
+                .type(Link.Type.DIRECT)
+                .state(Link.State.ACTIVE)
+                .build();
+    }
+
+    // Creates a new device with the specified id
+    private static Device device(String id) {
+        return new DefaultDevice(PID, did(id), Device.Type.SWITCH,
+                                 "mfg", "1.0", "1.1", "1234", new ChassisId());
+    }
+
+    // Short-hand for producing a device id from a string
+    private static DeviceId did(String id) {
+        return deviceId("of:" + id);
+    }
+}
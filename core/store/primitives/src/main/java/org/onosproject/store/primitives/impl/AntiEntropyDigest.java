@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
+
+import org.onosproject.cluster.NodeId;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Hash tree summary of the contents of an eventually consistent map.
+ * <p>
+ * Map entries are assigned to a fixed number of buckets by the hash of their
+ * key. The hash of a bucket is the sum of the hashes of its entries, and the
+ * root hash summarizes all bucket hashes. Peers first exchange root hashes
+ * only; bucket hashes are sent when the root hashes differ, so that only the
+ * entries of mismatched buckets need to be advertised.
+ */
+public class AntiEntropyDigest {
+
+    /**
+     * Number of buckets the map entries are hashed into.
+     */
+    public static final int BUCKETS = 256;
+
+    private final NodeId sender;
+    private final long rootHash;
+    private final long[] bucketHashes;
+
+    /**
+     * Creates a new digest.
+     *
+     * @param sender       the sender's node ID
+     * @param rootHash     hash of all bucket hashes
+     * @param bucketHashes hashes of the individual buckets; null if only the
+     *                     root hash is sent
+     */
+    public AntiEntropyDigest(NodeId sender, long rootHash, long[] bucketHashes) {
+        checkArgument(bucketHashes == null || bucketHashes.length == BUCKETS,
+                      "Expected %s bucket hashes", BUCKETS);
+        this.sender = checkNotNull(sender);
+        this.rootHash = rootHash;
+        this.bucketHashes = bucketHashes;
+    }
+
+    /**
+     * Creates a digest from the given bucket hashes.
+     *
+     * @param sender       the sender's node ID
+     * @param bucketHashes hashes of the individual buckets
+     * @return digest holding the root and the bucket hashes
+     */
+    public static AntiEntropyDigest of(NodeId sender, long[] bucketHashes) {
+        ByteBuffer bytes = ByteBuffer.allocate(Long.BYTES * bucketHashes.length);
+        for (long bucketHash : bucketHashes) {
+            bytes.putLong(bucketHash);
+        }
+        return new AntiEntropyDigest(sender, Hashing.murmur3_128().hashBytes(bytes.array()).asLong(), bucketHashes);
+    }
+
+    /**
+     * Returns the bucket a key with the given hash belongs to.
+     *
+     * @param keyHash hash of the key
+     * @return bucket index
+     */
+    public static int bucket(int keyHash) {
+        return Math.floorMod(keyHash, BUCKETS);
+    }
+
+    /**
+     * Returns the hash an entry contributes to its bucket.
+     *
+     * @param keyHash hash of the key
+     * @param digest  digest of the entry value
+     * @return entry hash
+     */
+    public static long entryHash(int keyHash, MapValue.Digest digest) {
+        return Hashing.murmur3_128().newHasher()
+                .putInt(keyHash)
+                .putInt(digest.timestamp().hashCode())
+                .putBoolean(digest.isTombstone())
+                .hash().asLong();
+    }
+
+    /**
+     * Returns the sender's node ID.
+     *
+     * @return the sender's node ID
+     */
+    public NodeId sender() {
+        return sender;
+    }
+
+    /**
+     * Returns the root hash.
+     *
+     * @return root hash
+     */
+    public long rootHash() {
+        return rootHash;
+    }
+
+    /**
+     * Returns whether this digest carries the bucket hashes.
+     *
+     * @return true if bucket hashes are present
+     */
+    public boolean hasBuckets() {
+        return bucketHashes != null;
+    }
+
+    /**
+     * Returns a copy of this digest without the bucket hashes.
+     *
+     * @return root-only digest
+     */
+    public AntiEntropyDigest rootOnly() {
+        return new AntiEntropyDigest(sender, rootHash, null);
+    }
+
+    /**
+     * Returns the buckets whose hashes differ between this and another digest.
+     * All buckets are reported when either digest lacks bucket hashes.
+     *
+     * @param other digest to compare against
+     * @return indices of mismatched buckets
+     */
+    public Set<Integer> mismatchedBuckets(AntiEntropyDigest other) {
+        ImmutableSet.Builder<Integer> mismatched = ImmutableSet.builder();
+        if (rootHash == other.rootHash) {
+            return mismatched.build();
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            if (!hasBuckets() || !other.hasBuckets() || bucketHashes[i] != other.bucketHashes[i]) {
+                mismatched.add(i);
+            }
+        }
+        return mismatched.build();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("sender", sender)
+                .add("rootHash", rootHash)
+                .add("hasBuckets", hasBuckets())
+                .toString();
+    }
+}
@@ -17,6 +17,8 @@ package org.onosproject.store.primitives.impl;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -29,7 +31,10 @@ import org.slf4j.Logger;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import static org.onosproject.store.service.DistributedPrimitive.Status.INACTIVE;
 import static org.onosproject.store.service.DistributedPrimitive.Status.SUSPENDED;
@@ -74,13 +79,14 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
         this.backingMap = backingMap;
         cache = CacheBuilder.newBuilder()
                             .maximumSize(cacheSize)
+                            .recordStats()
                             .build(CacheLoader.from(CachingAsyncConsistentMap.super::get));
         cacheUpdater = event -> {
             Versioned<V> newValue = event.newValue();
             if (newValue == null) {
                 cache.invalidate(event.key());
             } else {
-                cache.put(event.key(), CompletableFuture.completedFuture(newValue));
+                updateCache(event.key(), newValue);
             }
         };
         statusListener = status -> {
@@ -95,6 +101,33 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
         super.addStatusChangeListener(statusListener);
     }
 
+    /**
+     * Returns the hit and miss statistics of the cache.
+     *
+     * @return cache statistics
+     */
+    public CacheStats cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Caches the given value unless a more recent version is cached already,
+     * which happens when a read overtakes the event of an earlier update.
+     *
+     * @param key      key
+     * @param newValue value to cache
+     */
+    private void updateCache(K key, Versioned<V> newValue) {
+        cache.asMap().compute(key, (k, cached) -> {
+            Versioned<V> current = cached != null && cached.isDone() && !cached.isCompletedExceptionally()
+                    ? cached.join() : null;
+            if (current != null && current.version() > newValue.version()) {
+                return cached;
+            }
+            return CompletableFuture.completedFuture(newValue);
+        });
+    }
+
     @Override
     public CompletableFuture<Void> destroy() {
         super.removeStatusChangeListener(statusListener);
@@ -196,6 +229,49 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
                 });
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        Map<K, Versioned<V>> values = Maps.newHashMap();
+        Set<K> missingKeys = Sets.newHashSet();
+        keys.forEach(key -> {
+            CompletableFuture<Versioned<V>> cached = cache.getIfPresent(key);
+            if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+                Versioned<V> value = cached.join();
+                if (value != null) {
+                    values.put(key, value);
+                }
+            } else {
+                missingKeys.add(key);
+            }
+        });
+        if (missingKeys.isEmpty()) {
+            return CompletableFuture.completedFuture(values);
+        }
+        return super.getAll(missingKeys).thenApply(fetched -> {
+            fetched.forEach(this::updateCache);
+            values.putAll(fetched);
+            return values;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return super.putAll(entries)
+                .whenComplete((r, e) -> cache.invalidateAll(entries.keySet()));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K> keys) {
+        return super.removeAll(keys)
+                .whenComplete((r, e) -> cache.invalidateAll(keys));
+    }
+
+    @Override
+    public CompletableFuture<Map<K, Boolean>> replaceAll(Map<K, Versioned<V>> entries) {
+        return super.replaceAll(entries)
+                .whenComplete((r, e) -> cache.invalidateAll(entries.keySet()));
+    }
+
     @Override
     public CompletableFuture<Boolean> replace(K key, long oldVersion, V newValue) {
         return super.replace(key, oldVersion, newValue)
@@ -42,8 +42,19 @@ public class DefaultConsistentMapBuilder<K, V> extends ConsistentMapBuilder<K, V
     @Override
     public AsyncConsistentMap<K, V> buildAsyncMap() {
         AsyncConsistentMap<K, V> map = primitiveCreator.newAsyncConsistentMap(name(), serializer(), executorSupplier());
-        map = relaxedReadConsistency() ? DistributedPrimitives.newCachingMap(map) : map;
+        CachingAsyncConsistentMap<K, V> cachingMap = null;
+        if (cacheSize() > 0) {
+            cachingMap = DistributedPrimitives.newCachingMap(map, cacheSize());
+        } else if (relaxedReadConsistency()) {
+            cachingMap = DistributedPrimitives.newCachingMap(map);
+        }
+        map = cachingMap != null ? cachingMap : map;
         map = readOnly() ? DistributedPrimitives.newUnmodifiableMap(map) : map;
-        return meteringEnabled() ? DistributedPrimitives.newMeteredMap(map) : map;
+        if (!meteringEnabled()) {
+            return map;
+        }
+        return cachingMap != null
+                ? DistributedPrimitives.newMeteredMap(map, cachingMap)
+                : DistributedPrimitives.newMeteredMap(map);
     }
 }
\ No newline at end of file
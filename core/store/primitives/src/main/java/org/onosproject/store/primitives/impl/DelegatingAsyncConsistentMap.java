@@ -17,6 +17,7 @@
 package org.onosproject.store.primitives.impl;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
@@ -149,6 +150,26 @@ public class DelegatingAsyncConsistentMap<K, V>
         return delegateMap.replace(key, oldVersion, newValue);
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        return delegateMap.getAll(keys);
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return delegateMap.putAll(entries);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K> keys) {
+        return delegateMap.removeAll(keys);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, Boolean>> replaceAll(Map<K, Versioned<V>> entries) {
+        return delegateMap.replaceAll(entries);
+    }
+
     @Override
     public CompletableFuture<Void> addListener(MapEventListener<K, V> listener, Executor executor) {
         return delegateMap.addListener(listener, executor);
@@ -53,6 +53,21 @@ public final class DistributedPrimitives {
         return new MeteredAsyncConsistentMap<>(map);
     }
 
+    /**
+     * Creates an instance of {@code AsyncConsistentMap} that records metrics for all its operations
+     * as well as the hit and miss counts of a cache in front of the map.
+     *
+     * @param map map whose operations are to be metered
+     * @param cache cache whose statistics are to be reported
+     * @return metered map
+     * @param <K> map key type
+     * @param <V> map value type
+     */
+    public static <K, V> AsyncConsistentMap<K, V> newMeteredMap(AsyncConsistentMap<K, V> map,
+                                                                CachingAsyncConsistentMap<K, V> cache) {
+        return new MeteredAsyncConsistentMap<>(map, cache::cacheStats);
+    }
+
     /**
      * Creates an instance of {@code AsyncConsistentMap} that caches entries on get.
      *
@@ -61,10 +76,24 @@ public final class DistributedPrimitives {
      * @param <K> map key type
      * @param <V> map value type
      */
-    public static <K, V> AsyncConsistentMap<K, V> newCachingMap(AsyncConsistentMap<K, V> map) {
+    public static <K, V> CachingAsyncConsistentMap<K, V> newCachingMap(AsyncConsistentMap<K, V> map) {
         return new CachingAsyncConsistentMap<>(map);
     }
 
+    /**
+     * Creates an instance of {@code AsyncConsistentMap} that caches up to the given number of entries on get.
+     *
+     * @param map backing map
+     * @param cacheSize maximum number of cached entries
+     * @return caching map
+     * @param <K> map key type
+     * @param <V> map value type
+     */
+    public static <K, V> CachingAsyncConsistentMap<K, V> newCachingMap(AsyncConsistentMap<K, V> map,
+                                                                       int cacheSize) {
+        return new CachingAsyncConsistentMap<>(map, cacheSize);
+    }
+
     /**
      * Creates an instance of {@code AsyncConsistentMap} that disallows updates.
      *
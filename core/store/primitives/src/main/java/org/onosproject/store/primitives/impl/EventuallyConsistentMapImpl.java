@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 import org.apache.commons.lang3.tuple.Pair;
 import org.onlab.util.AbstractAccumulator;
 import org.onlab.util.KryoNamespace;
@@ -60,6 +61,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -79,6 +81,8 @@ public class EventuallyConsistentMapImpl<K, V>
     private static final Logger log = LoggerFactory.getLogger(EventuallyConsistentMapImpl.class);
 
     private final Map<K, MapValue<V>> items;
+    // hashes of the serialized keys of the items, computed on demand
+    private final Map<K, Integer> keyHashes = Maps.newConcurrentMap();
 
     private final ClusterService clusterService;
     private final ClusterCommunicationService clusterCommunicator;
@@ -90,6 +94,7 @@ public class EventuallyConsistentMapImpl<K, V>
 
     private final MessageSubject updateMessageSubject;
     private final MessageSubject antiEntropyAdvertisementSubject;
+    private final MessageSubject antiEntropyDigestSubject;
     private final MessageSubject updateRequestSubject;
 
     private final Set<EventuallyConsistentMapListener<K, V>> listeners
@@ -118,6 +123,10 @@ public class EventuallyConsistentMapImpl<K, V>
     private final boolean lightweightAntiEntropy;
     private final boolean tombstonesDisabled;
 
+    private static final Set<Integer> ALL_BUCKETS = IntStream.range(0, AntiEntropyDigest.BUCKETS)
+            .boxed()
+            .collect(Collectors.collectingAndThen(Collectors.toSet(), Collections::unmodifiableSet));
+
     private static final int WINDOW_SIZE = 5;
     private static final int HIGH_LOAD_THRESHOLD = 2;
     private static final int LOAD_WINDOW = 2;
@@ -242,6 +251,13 @@ public class EventuallyConsistentMapImpl<K, V>
                                           serializer::encode,
                                           this.backgroundExecutor);
 
+        antiEntropyDigestSubject = new MessageSubject("ecm-" + mapName + "-anti-entropy-digest");
+        clusterCommunicator.addSubscriber(antiEntropyDigestSubject,
+                                          serializer::decode,
+                                          this::handleAntiEntropyDigest,
+                                          serializer::encode,
+                                          this.backgroundExecutor);
+
         updateRequestSubject = new MessageSubject("ecm-" + mapName + "-update-request");
         clusterCommunicator.addSubscriber(updateRequestSubject,
                                           serializer::decode,
@@ -278,6 +294,7 @@ public class EventuallyConsistentMapImpl<K, V>
                          .register(MapValue.class)
                          .register(MapValue.Digest.class)
                          .register(UpdateRequest.class)
+                         .register(AntiEntropyDigest.class)
                          .build(name() + "-ecmap"));
     }
 
@@ -527,6 +544,7 @@ public class EventuallyConsistentMapImpl<K, V>
         clusterCommunicator.removeSubscriber(updateMessageSubject);
         clusterCommunicator.removeSubscriber(updateRequestSubject);
         clusterCommunicator.removeSubscriber(antiEntropyAdvertisementSubject);
+        clusterCommunicator.removeSubscriber(antiEntropyDigestSubject);
         return CompletableFuture.completedFuture(null);
     }
 
@@ -577,7 +595,31 @@ public class EventuallyConsistentMapImpl<K, V>
 
     private void sendAdvertisementToPeer(NodeId peer) {
         long adCreationTime = System.currentTimeMillis();
-        AntiEntropyAdvertisement<K> ad = createAdvertisement();
+        AntiEntropyDigest digest = createDigest();
+        clusterCommunicator.<AntiEntropyDigest, AntiEntropyDigest>sendAndReceive(digest.rootOnly(),
+                antiEntropyDigestSubject,
+                serializer::encode,
+                serializer::decode,
+                peer)
+                .whenCompleteAsync((peerDigest, error) -> {
+                    if (error != null) {
+                        // the peer may not support digests; fall back to a full advertisement
+                        log.debug("Failed to send anti-entropy digest to {}: {}",
+                                peer, error.getMessage());
+                        sendAdvertisementToPeer(peer, ALL_BUCKETS, adCreationTime);
+                    } else if (peerDigest != null) {
+                        Set<Integer> mismatched = digest.mismatchedBuckets(peerDigest);
+                        if (mismatched.isEmpty()) {
+                            antiEntropyTimes.put(peer, adCreationTime);
+                        } else {
+                            sendAdvertisementToPeer(peer, mismatched, adCreationTime);
+                        }
+                    }
+                }, backgroundExecutor);
+    }
+
+    private void sendAdvertisementToPeer(NodeId peer, Set<Integer> buckets, long adCreationTime) {
+        AntiEntropyAdvertisement<K> ad = createAdvertisement(buckets);
         clusterCommunicator.sendAndReceive(ad,
                 antiEntropyAdvertisementSubject,
                 serializer::encode,
@@ -607,9 +649,47 @@ public class EventuallyConsistentMapImpl<K, V>
                 });
     }
 
-    private AntiEntropyAdvertisement<K> createAdvertisement() {
-        return new AntiEntropyAdvertisement<>(localNodeId,
-                ImmutableMap.copyOf(Maps.transformValues(items, MapValue::digest)));
+    private AntiEntropyAdvertisement<K> createAdvertisement(Set<Integer> buckets) {
+        if (buckets.size() == AntiEntropyDigest.BUCKETS) {
+            return new AntiEntropyAdvertisement<>(localNodeId,
+                    ImmutableMap.copyOf(Maps.transformValues(items, MapValue::digest)));
+        }
+        Map<K, MapValue.Digest> digests = Maps.newHashMap();
+        items.forEach((key, value) -> {
+            if (buckets.contains(AntiEntropyDigest.bucket(keyHash(key)))) {
+                digests.put(key, value.digest());
+            }
+        });
+        return new AntiEntropyAdvertisement<>(localNodeId, digests, buckets);
+    }
+
+    private AntiEntropyDigest createDigest() {
+        long[] bucketHashes = new long[AntiEntropyDigest.BUCKETS];
+        items.forEach((key, value) -> {
+            int keyHash = keyHash(key);
+            bucketHashes[AntiEntropyDigest.bucket(keyHash)] += AntiEntropyDigest.entryHash(keyHash, value.digest());
+        });
+        return AntiEntropyDigest.of(localNodeId, bucketHashes);
+    }
+
+    /**
+     * Returns a hash of the key that is identical on all nodes, unlike
+     * {@link Object#hashCode()} which may be identity based.
+     *
+     * @param key map key
+     * @return hash of the serialized key
+     */
+    private int keyHash(K key) {
+        return keyHashes.computeIfAbsent(key, k -> Hashing.murmur3_32().hashBytes(serializer.encode(k)).asInt());
+    }
+
+    private AntiEntropyDigest handleAntiEntropyDigest(AntiEntropyDigest peerDigest) {
+        if (destroyed || underHighLoad()) {
+            return null;
+        }
+        AntiEntropyDigest digest = createDigest();
+        // send bucket hashes only if the peer needs to descend into the buckets
+        return digest.rootHash() == peerDigest.rootHash() ? digest.rootOnly() : digest;
     }
 
     private AntiEntropyResponse handleAntiEntropyAdvertisement(AntiEntropyAdvertisement<K> ad) {
@@ -644,6 +724,9 @@ public class EventuallyConsistentMapImpl<K, V>
         Set<K> locallyUnknown = new HashSet<>(ad.digest().keySet());
 
         items.forEach((key, localValue) -> {
+            if (!ad.coversAll() && !ad.covers(AntiEntropyDigest.bucket(keyHash(key)))) {
+                return;
+            }
             locallyUnknown.remove(key);
             MapValue.Digest remoteValueDigest = ad.digest().get(key);
             if (remoteValueDigest == null || localValue.isNewerThan(remoteValueDigest.timestamp())) {
@@ -706,7 +789,11 @@ public class EventuallyConsistentMapImpl<K, V>
                                           .filter(e -> e.getValue().creationTime() <= currentSafeTombstonePurgeTime)
                                           .collect(Collectors.toList());
         previousTombstonePurgeTime = currentSafeTombstonePurgeTime;
-        tombStonesToDelete.forEach(entry -> items.remove(entry.getKey(), entry.getValue()));
+        tombStonesToDelete.forEach(entry -> {
+            if (items.remove(entry.getKey(), entry.getValue())) {
+                keyHashes.remove(entry.getKey());
+            }
+        });
     }
 
     private void processUpdates(Collection<UpdateEntry<K, V>> updates) {
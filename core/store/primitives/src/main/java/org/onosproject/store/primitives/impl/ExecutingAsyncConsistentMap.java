@@ -141,6 +141,26 @@ public class ExecutingAsyncConsistentMap<K, V>
         return asyncFuture(delegateMap.replace(key, oldVersion, newValue));
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        return asyncFuture(delegateMap.getAll(keys));
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return asyncFuture(delegateMap.putAll(entries));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K> keys) {
+        return asyncFuture(delegateMap.removeAll(keys));
+    }
+
+    @Override
+    public CompletableFuture<Map<K, Boolean>> replaceAll(Map<K, Versioned<V>> entries) {
+        return asyncFuture(delegateMap.replaceAll(entries));
+    }
+
     @Override
     public CompletableFuture<Version> begin(TransactionId transactionId) {
         return asyncFuture(delegateMap.begin(transactionId));
@@ -25,6 +25,7 @@ import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import org.onosproject.store.primitives.MapUpdate;
 import org.onosproject.store.primitives.TransactionId;
@@ -36,6 +37,7 @@ import org.onosproject.store.service.Version;
 import org.onosproject.store.service.Versioned;
 
 import com.google.common.base.Throwables;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Maps;
 
 import org.onosproject.utils.MeteringAgent;
@@ -65,6 +67,10 @@ public class MeteredAsyncConsistentMap<K, V>  extends DelegatingAsyncConsistentM
     private static final String VALUES = "values";
     private static final String ENTRY_SET = "entrySet";
     private static final String REPLACE = "replace";
+    private static final String GET_ALL = "getAll";
+    private static final String PUT_ALL = "putAll";
+    private static final String REMOVE_ALL = "removeAll";
+    private static final String REPLACE_ALL = "replaceAll";
     private static final String COMPUTE_IF_ABSENT = "computeIfAbsent";
     private static final String BEGIN = "begin";
     private static final String PREPARE = "prepare";
@@ -74,6 +80,9 @@ public class MeteredAsyncConsistentMap<K, V>  extends DelegatingAsyncConsistentM
     private static final String ADD_LISTENER = "addListener";
     private static final String REMOVE_LISTENER = "removeListener";
     private static final String NOTIFY_LISTENER = "notifyListener";
+    private static final String CACHE_HITS = "cacheHits";
+    private static final String CACHE_MISSES = "cacheMisses";
+    private static final String CACHE_HIT_RATE = "cacheHitRate";
 
     private final Map<MapEventListener<K, V>, InternalMeteredMapEventListener> listeners =
             Maps.newIdentityHashMap();
@@ -84,6 +93,13 @@ public class MeteredAsyncConsistentMap<K, V>  extends DelegatingAsyncConsistentM
         this.monitor = new MeteringAgent(PRIMITIVE_NAME, backingMap.name(), true);
     }
 
+    public MeteredAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap, Supplier<CacheStats> cacheStats) {
+        this(backingMap);
+        monitor.registerGauge(CACHE_HITS, () -> cacheStats.get().hitCount());
+        monitor.registerGauge(CACHE_MISSES, () -> cacheStats.get().missCount());
+        monitor.registerGauge(CACHE_HIT_RATE, () -> cacheStats.get().hitRate());
+    }
+
     @Override
     public CompletableFuture<Integer> size() {
         final MeteringAgent.Context timer = monitor.startTimer(SIZE);
@@ -235,6 +251,34 @@ public class MeteredAsyncConsistentMap<K, V>  extends DelegatingAsyncConsistentM
                     .whenComplete((r, e) -> timer.stop(e));
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        final MeteringAgent.Context timer = monitor.startTimer(GET_ALL);
+        return super.getAll(keys)
+                    .whenComplete((r, e) -> timer.stop(e));
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        final MeteringAgent.Context timer = monitor.startTimer(PUT_ALL);
+        return super.putAll(entries)
+                    .whenComplete((r, e) -> timer.stop(e));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K> keys) {
+        final MeteringAgent.Context timer = monitor.startTimer(REMOVE_ALL);
+        return super.removeAll(keys)
+                    .whenComplete((r, e) -> timer.stop(e));
+    }
+
+    @Override
+    public CompletableFuture<Map<K, Boolean>> replaceAll(Map<K, Versioned<V>> entries) {
+        final MeteringAgent.Context timer = monitor.startTimer(REPLACE_ALL);
+        return super.replaceAll(entries)
+                    .whenComplete((r, e) -> timer.stop(e));
+    }
+
     @Override
     public CompletableFuture<Void> addListener(MapEventListener<K, V> listener, Executor executor) {
         final MeteringAgent.Context timer = monitor.startTimer(ADD_LISTENER);
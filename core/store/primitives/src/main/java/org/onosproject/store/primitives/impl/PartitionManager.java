@@ -20,6 +20,7 @@ import static org.onlab.util.Tools.groupedThreads;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.io.File;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -56,6 +57,7 @@ import org.onosproject.store.service.PartitionClientInfo;
 import org.onosproject.store.service.PartitionInfo;
 import org.slf4j.Logger;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 
@@ -93,6 +95,7 @@ public class PartitionManager extends AbstractListenerManager<PartitionEvent, Pa
         eventDispatcher.addSink(PartitionEvent.class, listenerRegistry);
         currentClusterMetadata.set(metadataService.getClusterMetadata());
         metadataService.addListener(metadataListener);
+        PartitionStorageConfig storageConfig = getStorageConfig();
         currentClusterMetadata.get()
                        .getPartitions()
                        .forEach(partition -> partitions.put(partition.getId(), new StoragePartition(partition,
@@ -100,7 +103,8 @@ public class PartitionManager extends AbstractListenerManager<PartitionEvent, Pa
                                clusterService,
                                CatalystSerializers.getSerializer(),
                                sharedPrimitiveExecutor,
-                               new File(System.getProperty("karaf.data") + "/partitions/" + partition.getId()))));
+                               new File(System.getProperty("karaf.data") + "/partitions/" + partition.getId()),
+                               storageConfig)));
 
         CompletableFuture<Void> openFuture = CompletableFuture.allOf(partitions.values()
                                                                                .stream()
@@ -110,6 +114,37 @@ public class PartitionManager extends AbstractListenerManager<PartitionEvent, Pa
         log.info("Started");
     }
 
+    private PartitionStorageConfig getStorageConfig() {
+        try {
+            PartitionStorageConfig storageConfig = new PartitionStorageConfig(
+                    getIntProperty("partitionMaxEntriesPerSegment",
+                                   PartitionStorageConfig.DEFAULT_MAX_ENTRIES_PER_SEGMENT),
+                    Duration.ofMillis(getIntProperty("partitionMinorCompactionIntervalMillis",
+                            (int) PartitionStorageConfig.DEFAULT_MINOR_COMPACTION_INTERVAL.toMillis())),
+                    Duration.ofMillis(getIntProperty("partitionMajorCompactionIntervalMillis",
+                            (int) PartitionStorageConfig.DEFAULT_MAJOR_COMPACTION_INTERVAL.toMillis())),
+                    getDoubleProperty("partitionCompactionThreshold",
+                                      PartitionStorageConfig.DEFAULT_COMPACTION_THRESHOLD),
+                    getIntProperty("partitionCompactionThreads",
+                                   PartitionStorageConfig.DEFAULT_COMPACTION_THREADS));
+            log.info("Partition storage settings: {}", storageConfig);
+            return storageConfig;
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid partition storage settings; using defaults", e);
+            return PartitionStorageConfig.DEFAULT;
+        }
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+        String value = System.getProperty(name);
+        return Strings.isNullOrEmpty(value) ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static double getDoubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return Strings.isNullOrEmpty(value) ? defaultValue : Double.parseDouble(value.trim());
+    }
+
     @Deactivate
     public void deactivate() {
         metadataService.removeListener(metadataListener);
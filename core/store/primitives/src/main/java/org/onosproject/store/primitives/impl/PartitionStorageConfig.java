@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.time.Duration;
+
+import com.google.common.base.MoreObjects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Log storage and compaction settings of a {@link StoragePartitionServer}.
+ * <p>
+ * Partition state machines retain the log entries backing live state and
+ * release the others, so the log is compacted segment by segment: minor
+ * compaction rewrites single segments holding released entries, whereas
+ * major compaction additionally removes tombstones and merges segments.
+ * Smaller segments and more frequent minor compactions trade a little
+ * background work for shorter compaction pauses and smaller disk writes.
+ */
+public final class PartitionStorageConfig {
+
+    public static final int DEFAULT_MAX_ENTRIES_PER_SEGMENT = 32768;
+    public static final Duration DEFAULT_MINOR_COMPACTION_INTERVAL = Duration.ofMinutes(1);
+    public static final Duration DEFAULT_MAJOR_COMPACTION_INTERVAL = Duration.ofHours(1);
+    public static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+    public static final int DEFAULT_COMPACTION_THREADS = 1;
+
+    /**
+     * Storage settings used unless configured otherwise.
+     */
+    public static final PartitionStorageConfig DEFAULT = new PartitionStorageConfig(
+            DEFAULT_MAX_ENTRIES_PER_SEGMENT,
+            DEFAULT_MINOR_COMPACTION_INTERVAL,
+            DEFAULT_MAJOR_COMPACTION_INTERVAL,
+            DEFAULT_COMPACTION_THRESHOLD,
+            DEFAULT_COMPACTION_THREADS);
+
+    private final int maxEntriesPerSegment;
+    private final Duration minorCompactionInterval;
+    private final Duration majorCompactionInterval;
+    private final double compactionThreshold;
+    private final int compactionThreads;
+
+    /**
+     * Creates new partition storage settings.
+     *
+     * @param maxEntriesPerSegment    maximum number of entries per log segment
+     * @param minorCompactionInterval interval between minor compactions
+     * @param majorCompactionInterval interval between major compactions
+     * @param compactionThreshold     fraction of released entries at which a
+     *                                segment is rewritten by minor compaction
+     * @param compactionThreads       number of threads compacting the log
+     */
+    public PartitionStorageConfig(int maxEntriesPerSegment,
+                                  Duration minorCompactionInterval,
+                                  Duration majorCompactionInterval,
+                                  double compactionThreshold,
+                                  int compactionThreads) {
+        checkArgument(maxEntriesPerSegment > 0, "maxEntriesPerSegment must be positive");
+        checkArgument(compactionThreshold > 0 && compactionThreshold <= 1,
+                      "compactionThreshold must be in (0, 1]");
+        checkArgument(compactionThreads > 0, "compactionThreads must be positive");
+        this.maxEntriesPerSegment = maxEntriesPerSegment;
+        this.minorCompactionInterval = checkNotNull(minorCompactionInterval);
+        this.majorCompactionInterval = checkNotNull(majorCompactionInterval);
+        this.compactionThreshold = compactionThreshold;
+        this.compactionThreads = compactionThreads;
+    }
+
+    /**
+     * Returns the maximum number of entries per log segment.
+     *
+     * @return maximum entries per segment
+     */
+    public int maxEntriesPerSegment() {
+        return maxEntriesPerSegment;
+    }
+
+    /**
+     * Returns the interval between minor compactions.
+     *
+     * @return minor compaction interval
+     */
+    public Duration minorCompactionInterval() {
+        return minorCompactionInterval;
+    }
+
+    /**
+     * Returns the interval between major compactions.
+     *
+     * @return major compaction interval
+     */
+    public Duration majorCompactionInterval() {
+        return majorCompactionInterval;
+    }
+
+    /**
+     * Returns the fraction of released entries at which a segment is compacted.
+     *
+     * @return compaction threshold
+     */
+    public double compactionThreshold() {
+        return compactionThreshold;
+    }
+
+    /**
+     * Returns the number of threads compacting the log.
+     *
+     * @return number of compaction threads
+     */
+    public int compactionThreads() {
+        return compactionThreads;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("maxEntriesPerSegment", maxEntriesPerSegment)
+                .add("minorCompactionInterval", minorCompactionInterval)
+                .add("majorCompactionInterval", majorCompactionInterval)
+                .add("compactionThreshold", compactionThreshold)
+                .add("compactionThreads", compactionThreads)
+                .toString();
+    }
+}
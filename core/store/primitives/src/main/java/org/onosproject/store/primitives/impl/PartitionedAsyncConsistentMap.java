@@ -41,8 +41,10 @@ import org.onosproject.store.service.Version;
 import org.onosproject.store.service.Versioned;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 /**
  * {@link AsyncConsistentMap} that has its entries partitioned horizontally across
@@ -184,6 +186,42 @@ public class PartitionedAsyncConsistentMap<K, V> implements AsyncConsistentMap<K
         return getMap(key).replace(key, oldVersion, newValue);
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        return Tools.allOf(shard(keys).entrySet()
+                                      .stream()
+                                      .map(shard -> shard.getKey().getAll(shard.getValue()))
+                                      .collect(Collectors.toList()),
+                           (m1, m2) -> ImmutableMap.<K, Versioned<V>>builder().putAll(m1).putAll(m2).build(),
+                           ImmutableMap.of());
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return CompletableFuture.allOf(shard(entries).entrySet()
+                                                     .stream()
+                                                     .map(shard -> shard.getKey().putAll(shard.getValue()))
+                                                     .toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K> keys) {
+        return CompletableFuture.allOf(shard(keys).entrySet()
+                                                  .stream()
+                                                  .map(shard -> shard.getKey().removeAll(shard.getValue()))
+                                                  .toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public CompletableFuture<Map<K, Boolean>> replaceAll(Map<K, Versioned<V>> entries) {
+        return Tools.allOf(shard(entries).entrySet()
+                                         .stream()
+                                         .map(shard -> shard.getKey().replaceAll(shard.getValue()))
+                                         .collect(Collectors.toList()),
+                           (m1, m2) -> ImmutableMap.<K, Boolean>builder().putAll(m1).putAll(m2).build(),
+                           ImmutableMap.of());
+    }
+
     @Override
     public CompletableFuture<Void> addListener(MapEventListener<K, V> listener, Executor executor) {
         return CompletableFuture.allOf(getMaps().stream()
@@ -247,6 +285,30 @@ public class PartitionedAsyncConsistentMap<K, V> implements AsyncConsistentMap<K
         return partitions.get(keyHasher.hash(key));
     }
 
+    /**
+     * Groups the specified keys by the map (partition) to which they map.
+     * @param keys keys
+     * @return keys by partition
+     */
+    private Map<AsyncConsistentMap<K, V>, Set<K>> shard(Set<K> keys) {
+        Map<AsyncConsistentMap<K, V>, Set<K>> shards = Maps.newIdentityHashMap();
+        keys.forEach(key -> shards.computeIfAbsent(getMap(key), map -> Sets.newHashSet()).add(key));
+        return shards;
+    }
+
+    /**
+     * Groups the specified entries by the map (partition) to which their keys map.
+     * @param entries entries
+     * @param <T> entry value type
+     * @return entries by partition
+     */
+    private <T> Map<AsyncConsistentMap<K, V>, Map<K, T>> shard(Map<K, T> entries) {
+        Map<AsyncConsistentMap<K, V>, Map<K, T>> shards = Maps.newIdentityHashMap();
+        entries.forEach((key, value) ->
+                shards.computeIfAbsent(getMap(key), map -> Maps.newHashMap()).put(key, value));
+        return shards;
+    }
+
     /**
      * Returns all the constituent maps.
      * @return collection of maps.
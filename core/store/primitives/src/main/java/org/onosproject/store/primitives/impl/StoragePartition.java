@@ -52,6 +52,7 @@ public class StoragePartition implements Managed<StoragePartition> {
     private final MessagingService messagingService;
     private final ClusterService clusterService;
     private final File logFolder;
+    private final PartitionStorageConfig storageConfig;
     private Partition partition;
     private NodeId localNodeId;
     private StoragePartitionServer server;
@@ -66,7 +67,8 @@ public class StoragePartition implements Managed<StoragePartition> {
             ClusterService clusterService,
             Serializer serializer,
             Executor sharedExecutor,
-            File logFolder) {
+            File logFolder,
+            PartitionStorageConfig storageConfig) {
         this.partition = partition;
         this.messagingService = messagingService;
         this.clusterService = clusterService;
@@ -74,6 +76,7 @@ public class StoragePartition implements Managed<StoragePartition> {
         this.serializer = serializer;
         this.sharedExecutor = sharedExecutor;
         this.logFolder = logFolder;
+        this.storageConfig = storageConfig;
     }
 
     /**
@@ -136,7 +139,8 @@ public class StoragePartition implements Managed<StoragePartition> {
                 this,
                 serializer,
                 () -> new CopycatTransport(partition.getId(), messagingService),
-                logFolder);
+                logFolder,
+                storageConfig);
         return server.open().thenRun(() -> this.server = server);
     }
 
@@ -153,7 +157,8 @@ public class StoragePartition implements Managed<StoragePartition> {
                 this,
                 serializer,
                 () -> new CopycatTransport(partition.getId(), messagingService),
-                logFolder);
+                logFolder,
+                storageConfig);
         return server.join(Collections2.transform(otherMembers, this::toAddress)).thenRun(() -> this.server = server);
     }
 
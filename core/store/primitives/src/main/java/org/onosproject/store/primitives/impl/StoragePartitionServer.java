@@ -26,11 +26,14 @@ import io.atomix.manager.internal.ResourceManagerState;
 import io.atomix.manager.util.ResourceManagerTypeResolver;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import org.onosproject.store.service.PartitionInfo;
+import org.onosproject.utils.MeteringAgent;
 import org.slf4j.Logger;
 
 /**
@@ -40,24 +43,30 @@ public class StoragePartitionServer implements Managed<StoragePartitionServer> {
 
     private final Logger log = getLogger(getClass());
 
-    private static final int MAX_ENTRIES_PER_LOG_SEGMENT = 32768;
+    private static final String PRIMITIVE_NAME = "partitionStorage";
+    private static final String LOG_FILE_SUFFIX = ".log";
+    private static final String SNAPSHOT_FILE_SUFFIX = ".snapshot";
+
     private final StoragePartition partition;
     private final Address localAddress;
     private final Supplier<Transport> transport;
     private final Serializer serializer;
     private final File dataFolder;
+    private final PartitionStorageConfig storageConfig;
     private CopycatServer server;
 
     public StoragePartitionServer(Address localAddress,
             StoragePartition partition,
             Serializer serializer,
             Supplier<Transport> transport,
-            File dataFolder) {
+            File dataFolder,
+            PartitionStorageConfig storageConfig) {
         this.partition = partition;
         this.localAddress = localAddress;
         this.serializer = serializer;
         this.transport = transport;
         this.dataFolder = dataFolder;
+        this.storageConfig = storageConfig;
     }
 
     @Override
@@ -97,22 +106,34 @@ public class StoragePartitionServer implements Managed<StoragePartitionServer> {
     }
 
     private CopycatServer buildServer() {
+        String name = "partition-" + partition.getId();
+        MeteringAgent monitor = new MeteringAgent(PRIMITIVE_NAME, name, true);
+        monitor.registerGauge("logSize", () -> diskUsage(f -> f.getName().endsWith(LOG_FILE_SUFFIX)));
+        monitor.registerGauge("snapshotSize", () -> diskUsage(f -> f.getName().endsWith(SNAPSHOT_FILE_SUFFIX)));
         CopycatServer server = CopycatServer.builder(localAddress)
-                .withName("partition-" + partition.getId())
+                .withName(name)
                 .withSerializer(serializer.clone())
                 .withTransport(transport.get())
                 .withStateMachine(ResourceManagerState::new)
                 .withStorage(Storage.builder()
                         .withStorageLevel(StorageLevel.DISK)
-                        .withCompactionThreads(1)
+                        .withCompactionThreads(storageConfig.compactionThreads())
                         .withDirectory(dataFolder)
-                        .withMaxEntriesPerSegment(MAX_ENTRIES_PER_LOG_SEGMENT)
+                        .withMaxEntriesPerSegment(storageConfig.maxEntriesPerSegment())
+                        .withMinorCompactionInterval(storageConfig.minorCompactionInterval())
+                        .withMajorCompactionInterval(storageConfig.majorCompactionInterval())
+                        .withCompactionThreshold(storageConfig.compactionThreshold())
                         .build())
                 .build();
         server.serializer().resolve(new ResourceManagerTypeResolver());
         return server;
     }
 
+    private long diskUsage(Predicate<File> filter) {
+        File[] files = dataFolder.listFiles();
+        return files == null ? 0 : Arrays.stream(files).filter(filter).mapToLong(File::length).sum();
+    }
+
     public CompletableFuture<Void> join(Collection<Address> otherMembers) {
         server = buildServer();
         return server.join(otherMembers).whenComplete((r, e) -> {
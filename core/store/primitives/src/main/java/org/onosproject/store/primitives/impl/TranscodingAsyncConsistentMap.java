@@ -248,6 +248,55 @@ public class TranscodingAsyncConsistentMap<K1, V1, K2, V2> implements AsyncConsi
         }
     }
 
+    @Override
+    public CompletableFuture<Map<K1, Versioned<V1>>> getAll(Set<K1> keys) {
+        try {
+            return backingMap.getAll(keys.stream().map(keyEncoder).collect(Collectors.toSet()))
+                    .thenApply(values -> values.entrySet()
+                            .stream()
+                            .collect(Collectors.toMap(e -> keyDecoder.apply(e.getKey()),
+                                                      e -> versionedValueTransform.apply(e.getValue()))));
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K1, V1> entries) {
+        try {
+            return backingMap.putAll(entries.entrySet()
+                    .stream()
+                    .collect(Collectors.toMap(e -> keyEncoder.apply(e.getKey()),
+                                              e -> valueEncoder.apply(e.getValue()))));
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K1> keys) {
+        try {
+            return backingMap.removeAll(keys.stream().map(keyEncoder).collect(Collectors.toSet()));
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Map<K1, Boolean>> replaceAll(Map<K1, Versioned<V1>> entries) {
+        try {
+            return backingMap.replaceAll(entries.entrySet()
+                    .stream()
+                    .collect(Collectors.toMap(e -> keyEncoder.apply(e.getKey()),
+                                              e -> e.getValue().map(valueEncoder))))
+                    .thenApply(replaced -> replaced.entrySet()
+                            .stream()
+                            .collect(Collectors.toMap(e -> keyDecoder.apply(e.getKey()), Map.Entry::getValue)));
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
     @Override
     public CompletableFuture<Void> addListener(MapEventListener<K1, V1> listener, Executor executor) {
         synchronized (listeners) {
@@ -16,6 +16,8 @@
 
 package org.onosproject.store.primitives.impl;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
@@ -97,4 +99,19 @@ public class UnmodifiableAsyncConsistentMap<K, V> extends DelegatingAsyncConsist
     public CompletableFuture<Boolean> replace(K key, long oldVersion, V newValue) {
         return Tools.exceptionalFuture(new UnsupportedOperationException(ERROR_MSG));
     }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return Tools.exceptionalFuture(new UnsupportedOperationException(ERROR_MSG));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K> keys) {
+        return Tools.exceptionalFuture(new UnsupportedOperationException(ERROR_MSG));
+    }
+
+    @Override
+    public CompletableFuture<Map<K, Boolean>> replaceAll(Map<K, Versioned<V>> entries) {
+        return Tools.exceptionalFuture(new UnsupportedOperationException(ERROR_MSG));
+    }
 }
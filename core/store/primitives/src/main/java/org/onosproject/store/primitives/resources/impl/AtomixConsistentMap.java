@@ -33,6 +33,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import org.onlab.util.Match;
 import org.onlab.util.Tools;
@@ -43,6 +44,7 @@ import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapComman
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.ContainsValue;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.EntrySet;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Get;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.GetAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.GetOrDefault;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.IsEmpty;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.KeySet;
@@ -54,6 +56,7 @@ import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapComman
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.TransactionPrepareAndCommit;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.TransactionRollback;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Unlisten;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.UpdateAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.UpdateAndGet;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Values;
 import org.onosproject.store.service.AsyncConsistentMap;
@@ -64,6 +67,7 @@ import org.onosproject.store.service.TransactionLog;
 import org.onosproject.store.service.Version;
 import org.onosproject.store.service.Versioned;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 
@@ -222,6 +226,59 @@ public class AtomixConsistentMap extends AbstractResource<AtomixConsistentMap>
                 .thenApply(v -> v.updated());
     }
 
+    @Override
+    public CompletableFuture<Map<String, Versioned<byte[]>>> getAll(Set<String> keys) {
+        return client.submit(new GetAll(Sets.newHashSet(keys)));
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<String, byte[]> entries) {
+        return updateAll(entries.entrySet()
+                                .stream()
+                                .map(e -> new UpdateAndGet(e.getKey(), e.getValue(), Match.any(), Match.any()))
+                                .collect(Collectors.toList()))
+                .thenApply(v -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<String> keys) {
+        return updateAll(keys.stream()
+                             .map(key -> new UpdateAndGet(key, null, Match.any(), Match.any()))
+                             .collect(Collectors.toList()))
+                .thenApply(v -> null);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Boolean>> replaceAll(Map<String, Versioned<byte[]>> entries) {
+        return updateAll(entries.entrySet()
+                                .stream()
+                                .map(e -> new UpdateAndGet(e.getKey(),
+                                                           e.getValue().value(),
+                                                           Match.any(),
+                                                           Match.ifValue(e.getValue().version())))
+                                .collect(Collectors.toList()))
+                .thenApply(results -> results.stream()
+                        .collect(Collectors.toMap(MapEntryUpdateResult::key, MapEntryUpdateResult::updated)));
+    }
+
+    /**
+     * Applies the given updates as a single command.
+     *
+     * @param updates updates to apply, at most one per key
+     * @return update results
+     */
+    private CompletableFuture<List<MapEntryUpdateResult<String, byte[]>>> updateAll(List<UpdateAndGet> updates) {
+        if (updates.isEmpty()) {
+            return CompletableFuture.completedFuture(ImmutableList.of());
+        }
+        return client.submit(new UpdateAll(updates))
+                .whenComplete((r, e) -> {
+                    if (r != null) {
+                        r.forEach(result -> throwIfLocked(result.status()));
+                    }
+                });
+    }
+
     @Override
     public CompletableFuture<Void> clear() {
         return client.submit(new Clear())
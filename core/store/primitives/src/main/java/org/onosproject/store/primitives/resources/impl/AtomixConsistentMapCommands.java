@@ -15,7 +15,10 @@
  */
 package org.onosproject.store.primitives.resources.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -469,6 +472,59 @@ public final class AtomixConsistentMapCommands {
         }
     }
 
+    /**
+     * Batch update command, applying multiple updates as a single command.
+     */
+    @SuppressWarnings("serial")
+    public static class UpdateAll extends MapCommand<List<MapEntryUpdateResult<String, byte[]>>> {
+        private List<UpdateAndGet> updates;
+
+        public UpdateAll() {
+        }
+
+        public UpdateAll(List<UpdateAndGet> updates) {
+            this.updates = Assert.notNull(updates, "updates");
+        }
+
+        /**
+         * Returns the updates.
+         * @return updates, at most one per key
+         */
+        public List<UpdateAndGet> updates() {
+            return updates;
+        }
+
+        @Override
+        public CompactionMode compaction() {
+            return updates.stream().anyMatch(update -> update.value() == null)
+                    ? CompactionMode.TOMBSTONE : CompactionMode.FULL;
+        }
+
+        @Override
+        public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+            super.writeObject(buffer, serializer);
+            buffer.writeInt(updates.size());
+            updates.forEach(update -> serializer.writeObject(update, buffer));
+        }
+
+        @Override
+        public void readObject(BufferInput<?> buffer, Serializer serializer) {
+            super.readObject(buffer, serializer);
+            int size = buffer.readInt();
+            updates = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                updates.add(serializer.readObject(buffer));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass())
+                    .add("updates", updates)
+                    .toString();
+        }
+    }
+
     /**
      * Get query.
      */
@@ -482,6 +538,53 @@ public final class AtomixConsistentMapCommands {
         }
     }
 
+    /**
+     * Batch get query.
+     */
+    @SuppressWarnings("serial")
+    public static class GetAll extends MapQuery<Map<String, Versioned<byte[]>>> {
+        private Set<String> keys;
+
+        public GetAll() {
+        }
+
+        public GetAll(Set<String> keys) {
+            this.keys = Assert.notNull(keys, "keys");
+        }
+
+        /**
+         * Returns the keys.
+         * @return keys
+         */
+        public Set<String> keys() {
+            return keys;
+        }
+
+        @Override
+        public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+            super.writeObject(buffer, serializer);
+            buffer.writeInt(keys.size());
+            keys.forEach(key -> serializer.writeObject(key, buffer));
+        }
+
+        @Override
+        public void readObject(BufferInput<?> buffer, Serializer serializer) {
+            super.readObject(buffer, serializer);
+            int size = buffer.readInt();
+            keys = new HashSet<>(size);
+            for (int i = 0; i < size; i++) {
+                keys.add(serializer.readObject(buffer));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass())
+                    .add("keys", keys)
+                    .toString();
+        }
+    }
+
     /**
      * Get or default query.
      */
@@ -627,6 +730,8 @@ public final class AtomixConsistentMapCommands {
             registry.register(TransactionRollback.class, -774);
             registry.register(TransactionPrepareAndCommit.class, -775);
             registry.register(UpdateAndGet.class, -776);
+            registry.register(GetAll.class, -779);
+            registry.register(UpdateAll.class, -780);
         }
     }
 }
@@ -47,6 +47,7 @@ import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapComman
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.ContainsValue;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.EntrySet;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Get;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.GetAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.GetOrDefault;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.IsEmpty;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.KeySet;
@@ -58,6 +59,7 @@ import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapComman
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.TransactionPrepareAndCommit;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.TransactionRollback;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Unlisten;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.UpdateAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.UpdateAndGet;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Values;
 import org.onosproject.store.service.MapEvent;
@@ -104,6 +106,7 @@ public class AtomixConsistentMapState extends ResourceStateMachine implements Se
         executor.register(ContainsValue.class, this::containsValue);
         executor.register(EntrySet.class, this::entrySet);
         executor.register(Get.class, this::get);
+        executor.register(GetAll.class, this::getAll);
         executor.register(GetOrDefault.class, this::getOrDefault);
         executor.register(IsEmpty.class, this::isEmpty);
         executor.register(KeySet.class, this::keySet);
@@ -111,6 +114,7 @@ public class AtomixConsistentMapState extends ResourceStateMachine implements Se
         executor.register(Values.class, this::values);
         // Commands
         executor.register(UpdateAndGet.class, this::updateAndGet);
+        executor.register(UpdateAll.class, this::updateAll);
         executor.register(AtomixConsistentMapCommands.Clear.class, this::clear);
         executor.register(TransactionBegin.class, this::begin);
         executor.register(TransactionPrepare.class, this::prepare);
@@ -176,6 +180,27 @@ public class AtomixConsistentMapState extends ResourceStateMachine implements Se
         }
     }
 
+    /**
+     * Handles a get all commit.
+     *
+     * @param commit getAll commit
+     * @return values mapped to the keys present in the map
+     */
+    protected Map<String, Versioned<byte[]>> getAll(Commit<? extends GetAll> commit) {
+        try {
+            Map<String, Versioned<byte[]>> values = new HashMap<>();
+            commit.operation().keys().forEach(key -> {
+                Versioned<byte[]> value = toVersioned(mapEntries.get(key));
+                if (value != null) {
+                    values.put(key, value);
+                }
+            });
+            return values;
+        } finally {
+            commit.close();
+        }
+    }
+
     /**
      * Handles a get or default commit.
      *
@@ -335,6 +360,85 @@ public class AtomixConsistentMapState extends ResourceStateMachine implements Se
         }
     }
 
+    /**
+     * Handles an update all commit.
+     * <p>
+     * Each update is validated and applied on its own, as if it had been
+     * submitted as a separate update and get commit; the updated entries share
+     * a reference to the batch commit, which is released once all of them are
+     * discarded.
+     *
+     * @param commit updateAll commit
+     * @return update results in the order of the updates
+     */
+    protected List<MapEntryUpdateResult<String, byte[]>> updateAll(Commit<? extends UpdateAll> commit) {
+        try {
+            long index = commit.index();
+            List<UpdateAndGet> updates = commit.operation().updates();
+            List<MapEntryUpdateResult.Status> statuses = updates.stream()
+                    .map(this::validate)
+                    .collect(Collectors.toList());
+            boolean retainTombstones = !activeTransactions.isEmpty();
+
+            // Count the entries that will reference the commit for garbage collection; the commit
+            // is closed right away if there are none.
+            long totalReferencesToCommit = 0;
+            for (int i = 0; i < updates.size(); i++) {
+                if (statuses.get(i) == MapEntryUpdateResult.Status.OK
+                        && (updates.get(i).value() != null || retainTombstones)) {
+                    totalReferencesToCommit++;
+                }
+            }
+            CountDownCompleter<Commit<? extends UpdateAll>> completer =
+                    new CountDownCompleter<>(commit, totalReferencesToCommit, Commit::close);
+            if (statuses.contains(MapEntryUpdateResult.Status.OK)) {
+                currentVersion = index;
+            }
+
+            List<MapEntryUpdateResult<String, byte[]>> results = Lists.newArrayListWithCapacity(updates.size());
+            List<MapEvent<String, byte[]>> eventsToPublish = Lists.newArrayList();
+            for (int i = 0; i < updates.size(); i++) {
+                UpdateAndGet update = updates.get(i);
+                MapEntryUpdateResult.Status updateStatus = statuses.get(i);
+                String key = update.key();
+                MapEntryValue previousValue = mapEntries.get(key);
+                Versioned<byte[]> oldMapValue = toVersioned(previousValue);
+
+                if (updateStatus != MapEntryUpdateResult.Status.OK) {
+                    results.add(new MapEntryUpdateResult<>(updateStatus, "", key, oldMapValue, oldMapValue));
+                    continue;
+                }
+
+                MapEntryValue newValue = null;
+                if (update.value() != null) {
+                    newValue = new TransactionalCommit(index, update.value(), completer);
+                } else if (retainTombstones) {
+                    newValue = new TombstoneCommit(index, completer);
+                }
+
+                mapEntries.remove(key);
+                if (previousValue != null) {
+                    previousValue.discard();
+                }
+                if (newValue != null) {
+                    mapEntries.put(key, newValue);
+                }
+
+                Versioned<byte[]> newMapValue = toVersioned(newValue);
+                eventsToPublish.add(new MapEvent<>("", key, newMapValue, oldMapValue));
+                results.add(new MapEntryUpdateResult<>(updateStatus, "", key, oldMapValue, newMapValue));
+            }
+
+            if (!eventsToPublish.isEmpty()) {
+                publish(eventsToPublish);
+            }
+            return results;
+        } catch (Exception e) {
+            log.error("State machine operation failed", e);
+            throw Throwables.propagate(e);
+        }
+    }
+
     /**
      * Handles a clear commit.
      *
@@ -810,7 +914,7 @@ public class AtomixConsistentMapState extends ResourceStateMachine implements Se
 
     /**
      * A {@code MapEntryValue} that is derived from updates submitted via a
-     * transaction.
+     * transaction or a batch update.
      */
     private static class TransactionalCommit extends MapEntryValue {
         private final byte[] value;
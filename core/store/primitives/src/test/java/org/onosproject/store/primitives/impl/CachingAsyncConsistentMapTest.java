@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.store.service.AsyncConsistentMapAdapter;
+import org.onosproject.store.service.MapEvent;
+import org.onosproject.store.service.MapEventListener;
+import org.onosproject.store.service.Versioned;
+
+import com.google.common.collect.Maps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for CachingAsyncConsistentMap.
+ */
+public class CachingAsyncConsistentMapTest {
+
+    private static final String KEY = "key";
+
+    private TestAsyncMap backingMap;
+    private CachingAsyncConsistentMap<String, String> cachingMap;
+
+    @Before
+    public void setUp() {
+        backingMap = new TestAsyncMap();
+        cachingMap = new CachingAsyncConsistentMap<>(backingMap, 10);
+    }
+
+    @Test
+    public void testCacheStats() {
+        backingMap.entries.put(KEY, new Versioned<>("a", 1));
+
+        assertEquals("a", cachingMap.get(KEY).join().value());
+        assertEquals("a", cachingMap.get(KEY).join().value());
+        assertNull(cachingMap.get("other").join());
+
+        assertEquals(2, backingMap.reads.get());
+        assertEquals(1, cachingMap.cacheStats().hitCount());
+        assertEquals(2, cachingMap.cacheStats().missCount());
+    }
+
+    @Test
+    public void testEventInvalidation() {
+        backingMap.entries.put(KEY, new Versioned<>("a", 1));
+        assertEquals("a", cachingMap.get(KEY).join().value());
+
+        backingMap.fireEvent(new MapEvent<>("test", KEY, new Versioned<>("b", 2), new Versioned<>("a", 1)));
+        assertEquals("b", cachingMap.get(KEY).join().value());
+
+        // an event overtaken by a read of a more recent version is ignored
+        backingMap.fireEvent(new MapEvent<>("test", KEY, new Versioned<>("stale", 1), null));
+        assertEquals("b", cachingMap.get(KEY).join().value());
+
+        backingMap.entries.remove(KEY);
+        backingMap.fireEvent(new MapEvent<>("test", KEY, null, new Versioned<>("b", 2)));
+        assertNull(cachingMap.get(KEY).join());
+        assertEquals(2, backingMap.reads.get());
+    }
+
+    /**
+     * In-memory backing map counting the reads reaching it.
+     */
+    private static class TestAsyncMap extends AsyncConsistentMapAdapter<String, String> {
+        private final Map<String, Versioned<String>> entries = Maps.newConcurrentMap();
+        private final AtomicInteger reads = new AtomicInteger();
+        private MapEventListener<String, String> listener;
+
+        @Override
+        public String name() {
+            return "test";
+        }
+
+        @Override
+        public CompletableFuture<Versioned<String>> get(String key) {
+            reads.incrementAndGet();
+            return CompletableFuture.completedFuture(entries.get(key));
+        }
+
+        @Override
+        public CompletableFuture<Void> addListener(MapEventListener<String, String> listener, Executor executor) {
+            this.listener = listener;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        void fireEvent(MapEvent<String, String> event) {
+            listener.event(event);
+        }
+    }
+}
@@ -88,6 +88,8 @@ public class EventuallyConsistentMapImplTest {
             = new MessageSubject("ecm-" + MAP_NAME + "-update");
     private static final MessageSubject ANTI_ENTROPY_MESSAGE_SUBJECT
             = new MessageSubject("ecm-" + MAP_NAME + "-anti-entropy");
+    private static final MessageSubject ANTI_ENTROPY_DIGEST_MESSAGE_SUBJECT
+            = new MessageSubject("ecm-" + MAP_NAME + "-anti-entropy-digest");
     private static final MessageSubject UPDATE_REQUEST_SUBJECT
             = new MessageSubject("ecm-" + MAP_NAME + "-update-request");
 
@@ -102,6 +104,7 @@ public class EventuallyConsistentMapImplTest {
     private Consumer<Collection<UpdateEntry<String, String>>> updateHandler;
     private Consumer<Collection<UpdateRequest<String>>> requestHandler;
     private Function<AntiEntropyAdvertisement<String>, AntiEntropyResponse> antiEntropyHandler;
+    private Function<AntiEntropyDigest, AntiEntropyDigest> antiEntropyDigestHandler;
 
     @Before
     public void setUp() throws Exception {
@@ -125,7 +128,7 @@ public class EventuallyConsistentMapImplTest {
                                                           anyObject(Function.class),
                                                           anyObject(Function.class),
                                                           anyObject(Executor.class));
-        expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
+        expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(2);
         clusterCommunicator.<Object>addSubscriber(anyObject(MessageSubject.class),
                 anyObject(Function.class), anyObject(Consumer.class), anyObject(Executor.class));
         expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
@@ -630,11 +633,38 @@ public class EventuallyConsistentMapImplTest {
         return true;
     }
 
+    @Test
+    public void testAntiEntropyDigest() throws Exception {
+        expectPeerMessage(clusterCommunicator);
+        NodeId peer = new NodeId("peer");
+
+        AntiEntropyDigest empty = AntiEntropyDigest.of(peer, new long[AntiEntropyDigest.BUCKETS]);
+        assertFalse(antiEntropyDigestHandler.apply(empty.rootOnly()).hasBuckets());
+
+        ecMap.put(KEY1, VALUE1);
+
+        // peer with different contents receives the bucket hashes
+        AntiEntropyDigest response = antiEntropyDigestHandler.apply(empty.rootOnly());
+        assertTrue(response.hasBuckets());
+        assertEquals(1, response.mismatchedBuckets(empty).size());
+
+        // peer in sync only exchanges the root hash
+        AntiEntropyDigest inSync = antiEntropyDigestHandler.apply(response.rootOnly());
+        assertFalse(inSync.hasBuckets());
+        assertEquals(response.rootHash(), inSync.rootHash());
+        assertTrue(response.mismatchedBuckets(inSync).isEmpty());
+
+        // any change moves the root hash
+        ecMap.put(KEY1, VALUE2);
+        assertTrue(antiEntropyDigestHandler.apply(response.rootOnly()).hasBuckets());
+    }
+
     @Test
     public void testDestroy() throws Exception {
         clusterCommunicator.removeSubscriber(UPDATE_MESSAGE_SUBJECT);
         clusterCommunicator.removeSubscriber(UPDATE_REQUEST_SUBJECT);
         clusterCommunicator.removeSubscriber(ANTI_ENTROPY_MESSAGE_SUBJECT);
+        clusterCommunicator.removeSubscriber(ANTI_ENTROPY_DIGEST_MESSAGE_SUBJECT);
 
         replay(clusterCommunicator);
 
@@ -793,6 +823,8 @@ public class EventuallyConsistentMapImplTest {
                 Function<byte[], M> decoder, Function<M, R> handler, Function<R, byte[]> encoder, Executor executor) {
             if (subject.equals(ANTI_ENTROPY_MESSAGE_SUBJECT)) {
                 antiEntropyHandler = (Function<AntiEntropyAdvertisement<String>, AntiEntropyResponse>) handler;
+            } else if (subject.equals(ANTI_ENTROPY_DIGEST_MESSAGE_SUBJECT)) {
+                antiEntropyDigestHandler = (Function<AntiEntropyDigest, AntiEntropyDigest>) handler;
             } else {
                 throw new RuntimeException("Unexpected message subject " + subject.toString());
             }
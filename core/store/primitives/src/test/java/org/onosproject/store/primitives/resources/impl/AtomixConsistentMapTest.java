@@ -16,6 +16,8 @@
 package org.onosproject.store.primitives.resources.impl;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import io.atomix.resource.ResourceType;
 import org.junit.AfterClass;
@@ -33,6 +35,7 @@ import org.onosproject.store.service.Versioned;
 import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletionException;
@@ -83,6 +86,14 @@ public class AtomixConsistentMapTest extends AtomixTestBase {
         mapComputeOperationTests();
     }
 
+    /**
+     * Tests batched multi-key map operations.
+     */
+    @Test
+    public void testBatchMapOperations() throws Throwable {
+        batchMapOperationTests();
+    }
+
     /**
      * Tests map event notifications.
      */
@@ -282,6 +293,32 @@ public class AtomixConsistentMapTest extends AtomixTestBase {
     }
 
 
+    protected void batchMapOperationTests() throws Throwable {
+        final byte[] value1 = Tools.getBytesUtf8("value1");
+        final byte[] value2 = Tools.getBytesUtf8("value2");
+
+        AtomixConsistentMap map = createAtomixClient().getResource("testBatchMapOperationsMap",
+                AtomixConsistentMap.class).join();
+
+        map.putAll(ImmutableMap.of("foo", value1, "bar", value1, "baz", value1)).join();
+        assertEquals(3, map.size().join().intValue());
+
+        Map<String, Versioned<byte[]>> entries = map.getAll(ImmutableSet.of("foo", "bar", "qux")).join();
+        assertEquals(ImmutableSet.of("foo", "bar"), entries.keySet());
+        assertArrayEquals(value1, entries.get("foo").value());
+
+        Map<String, Boolean> replaced = map.replaceAll(ImmutableMap.of(
+                "foo", new Versioned<>(value2, entries.get("foo").version()),
+                "bar", new Versioned<>(value2, entries.get("bar").version() - 1))).join();
+        assertTrue(replaced.get("foo"));
+        assertFalse(replaced.get("bar"));
+        assertArrayEquals(value2, map.get("foo").join().value());
+        assertArrayEquals(value1, map.get("bar").join().value());
+
+        map.removeAll(ImmutableSet.of("foo", "baz", "qux")).join();
+        assertEquals(ImmutableSet.of("bar"), map.keySet().join());
+    }
+
     protected void mapListenerTests() throws Throwable {
         final byte[] value1 = Tools.getBytesUtf8("value1");
         final byte[] value2 = Tools.getBytesUtf8("value2");
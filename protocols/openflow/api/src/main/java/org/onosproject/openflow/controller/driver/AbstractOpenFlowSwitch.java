@@ -17,7 +17,7 @@
 package org.onosproject.openflow.controller.driver;
 
 import com.google.common.collect.Lists;
-import org.jboss.netty.channel.Channel;
+import io.netty.channel.Channel;
 import org.onlab.packet.IpAddress;
 import org.onosproject.net.Device;
 import org.onosproject.net.driver.AbstractHandlerBehaviour;
@@ -48,7 +48,11 @@ import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -61,7 +65,28 @@ public abstract class AbstractOpenFlowSwitch extends AbstractHandlerBehaviour
 
     protected final Logger log = LoggerFactory.getLogger(getClass());
 
+    // Maximum number of messages coalesced into a single channel write
+    private static final int MAX_BATCH_MESSAGES = 1024;
+    // Maximum number of messages written per flush of the outbound queue,
+    // after which the rest is left to a later event loop tick
+    private static final int MAX_FLUSH_MESSAGES = 16 * MAX_BATCH_MESSAGES;
+    // Maximum number of messages held in the outbound queue, beyond which
+    // sends are dropped rather than buffered for a switch that can't keep up
+    private static final int MAX_QUEUED_MESSAGES = 16 * MAX_FLUSH_MESSAGES;
+
     private Channel channel;
+
+    // Messages sent to the switch are queued here and written by a single
+    // task on the channel's event loop, which coalesces them into a few
+    // large writes and flushes the channel once per event loop tick.
+    // Lists are queued whole, so each send stays contiguous on the wire.
+    // Draining stops while the channel is not writable and resumes when
+    // the channel handler reports it writable again.
+    private final Queue<List<OFMessage>> outboundQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger outboundQueueDepth = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicLong outboundFlushes = new AtomicLong();
+    private final AtomicLong outboundMessages = new AtomicLong();
     protected String channelId;
 
     private boolean connected;
@@ -152,14 +177,21 @@ public abstract class AbstractOpenFlowSwitch extends AbstractHandlerBehaviour
             } else {
                 // not transitioning to MASTER
                 log.warn("Dropping message for switch {} (role: {}, connected: {}): {}",
-                         dpid, role, channel.isConnected(), msgs);
+                         dpid, role, channel.isActive(), msgs);
             }
         }
     }
 
     private void sendMsgsOnChannel(List<OFMessage> msgs) {
-        if (channel.isConnected()) {
-            channel.write(msgs);
+        if (channel.isActive()) {
+            if (outboundQueueDepth.get() + msgs.size() > MAX_QUEUED_MESSAGES) {
+                log.warn("Dropping {} messages for switch {} because its outbound queue is full",
+                         msgs.size(), dpid);
+                return;
+            }
+            outboundQueue.add(msgs);
+            outboundQueueDepth.addAndGet(msgs.size());
+            scheduleFlush();
             agent.processDownstreamMessage(dpid, msgs);
         } else {
             log.warn("Dropping messages for switch {} because channel is not connected: {}",
@@ -167,6 +199,64 @@ public abstract class AbstractOpenFlowSwitch extends AbstractHandlerBehaviour
         }
     }
 
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            channel.eventLoop().execute(this::flushOutboundQueue);
+        }
+    }
+
+    private void flushOutboundQueue() {
+        flushScheduled.set(false);
+        List<OFMessage> batch = new ArrayList<>();
+        int written = 0;
+        while (written < MAX_FLUSH_MESSAGES && channel.isWritable()) {
+            List<OFMessage> msgs = outboundQueue.poll();
+            if (msgs == null) {
+                break;
+            }
+            if (!batch.isEmpty() && batch.size() + msgs.size() > MAX_BATCH_MESSAGES) {
+                channel.write(batch, channel.voidPromise());
+                batch = new ArrayList<>();
+            }
+            batch.addAll(msgs);
+            written += msgs.size();
+        }
+        if (!batch.isEmpty()) {
+            channel.write(batch, channel.voidPromise());
+        }
+        outboundQueueDepth.addAndGet(-written);
+        if (written > 0) {
+            channel.flush();
+            outboundFlushes.incrementAndGet();
+            outboundMessages.addAndGet(written);
+        }
+        if (!outboundQueue.isEmpty() && channel.isWritable()) {
+            scheduleFlush();
+        }
+    }
+
+    @Override
+    public void channelWritable() {
+        if (!outboundQueue.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    @Override
+    public int outboundQueueDepth() {
+        return outboundQueueDepth.get();
+    }
+
+    @Override
+    public long outboundFlushCount() {
+        return outboundFlushes.get();
+    }
+
+    @Override
+    public long outboundMessageCount() {
+        return outboundMessages.get();
+    }
+
     @Override
     public final void sendRoleRequest(OFMessage msg) {
         if (msg instanceof OFRoleRequest ||
@@ -199,7 +289,7 @@ public abstract class AbstractOpenFlowSwitch extends AbstractHandlerBehaviour
     @Override
     public final void setChannel(Channel channel) {
         this.channel = channel;
-        final SocketAddress address = channel.getRemoteAddress();
+        final SocketAddress address = channel.remoteAddress();
         if (address instanceof InetSocketAddress) {
             final InetSocketAddress inetAddress = (InetSocketAddress) address;
             final IpAddress ipAddress = IpAddress.valueOf(inetAddress.getAddress());
@@ -514,7 +604,7 @@ public abstract class AbstractOpenFlowSwitch extends AbstractHandlerBehaviour
     @Override
     public String toString() {
         return this.getClass().getName() + " [" + ((channel != null)
-                ? channel.getRemoteAddress() : "?")
+                ? channel.remoteAddress() : "?")
                 + " DPID[" + ((getStringId() != null) ? getStringId() : "?") + "]]";
     }
 }
@@ -15,7 +15,7 @@
  */
 package org.onosproject.openflow.controller.driver;
 
-import org.jboss.netty.channel.Channel;
+import io.netty.channel.Channel;
 import org.onosproject.net.driver.HandlerBehaviour;
 import org.onosproject.openflow.controller.Dpid;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
@@ -165,6 +165,43 @@ public interface OpenFlowSwitchDriver extends OpenFlowSwitch, HandlerBehaviour {
      */
     void setTableFull(boolean full);
 
+    /**
+     * Notifies the switch that its channel is writable again, so that
+     * outbound messages held back while it was not can be written.
+     */
+    default void channelWritable() {
+    }
+
+    /**
+     * Returns the number of messages queued for the switch but not yet
+     * written to its channel.
+     *
+     * @return number of queued outbound messages
+     */
+    default int outboundQueueDepth() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of times queued outbound messages were flushed
+     * to the switch channel.
+     *
+     * @return number of outbound flushes
+     */
+    default long outboundFlushCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of queued outbound messages written to the
+     * switch channel.
+     *
+     * @return number of flushed outbound messages
+     */
+    default long outboundMessageCount() {
+        return 0;
+    }
+
     /**
      * Sets the associated Netty channel for this switch.
      * @param channel the Netty channel
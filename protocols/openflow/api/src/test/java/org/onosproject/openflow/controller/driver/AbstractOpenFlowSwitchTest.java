@@ -0,0 +1,202 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.driver;
+
+import java.util.List;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.OpenFlowSwitch;
+import org.onosproject.openflow.controller.RoleState;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+
+import com.google.common.collect.ImmutableList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Unit tests for the outbound message queue of AbstractOpenFlowSwitch.
+ */
+public class AbstractOpenFlowSwitchTest {
+
+    private static final OFFactory FACTORY = OFFactories.getFactory(OFVersion.OF_13);
+    private static final int MAX_QUEUED_MESSAGES = 256 * 1024;
+
+    private EmbeddedChannel channel;
+    private TestSwitch sw;
+
+    @Before
+    public void setUp() {
+        channel = new EmbeddedChannel();
+        sw = new TestSwitch();
+        sw.setAgent(new TestAgent());
+        sw.setChannel(channel);
+    }
+
+    private OFMessage message(long xid) {
+        return FACTORY.buildEchoRequest().setXid(xid).build();
+    }
+
+    /**
+     * Tests that messages sent within an event loop tick are coalesced
+     * into a single write, in order.
+     */
+    @Test
+    public void testCoalescedWrite() {
+        OFMessage m1 = message(1);
+        OFMessage m2 = message(2);
+        OFMessage m3 = message(3);
+        sw.sendHandshakeMessage(m1);
+        sw.sendHandshakeMessage(m2);
+        sw.sendHandshakeMessage(m3);
+        assertThat(sw.outboundQueueDepth(), is(3));
+        assertThat(channel.readOutbound(), nullValue());
+
+        channel.runPendingTasks();
+
+        List<OFMessage> written = channel.readOutbound();
+        assertThat(written, is(ImmutableList.of(m1, m2, m3)));
+        assertThat(channel.readOutbound(), nullValue());
+        assertThat(sw.outboundQueueDepth(), is(0));
+        assertThat(sw.outboundFlushCount(), is(1L));
+        assertThat(sw.outboundMessageCount(), is(3L));
+    }
+
+    private void setWritable(boolean writable) {
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, writable);
+    }
+
+    /**
+     * Tests that queued messages are held back while the channel is not
+     * writable, and written once it becomes writable again.
+     */
+    @Test
+    public void testWriteResumesWhenWritable() {
+        OFMessage m1 = message(1);
+        OFMessage m2 = message(2);
+        setWritable(false);
+        sw.sendHandshakeMessage(m1);
+        sw.sendHandshakeMessage(m2);
+        channel.runPendingTasks();
+
+        assertThat(channel.readOutbound(), nullValue());
+        assertThat(sw.outboundQueueDepth(), is(2));
+        assertThat(sw.outboundFlushCount(), is(0L));
+
+        setWritable(true);
+        sw.channelWritable();
+        channel.runPendingTasks();
+
+        List<OFMessage> written = channel.readOutbound();
+        assertThat(written, is(ImmutableList.of(m1, m2)));
+        assertThat(sw.outboundQueueDepth(), is(0));
+    }
+
+    /**
+     * Tests that messages are dropped once the outbound queue is full.
+     */
+    @Test
+    public void testQueueCapped() {
+        OFMessage m = message(1);
+        setWritable(false);
+        for (int i = 0; i < MAX_QUEUED_MESSAGES; i++) {
+            sw.sendHandshakeMessage(m);
+        }
+        assertThat(sw.outboundQueueDepth(), is(MAX_QUEUED_MESSAGES));
+
+        sw.sendHandshakeMessage(message(2));
+        assertThat(sw.outboundQueueDepth(), is(MAX_QUEUED_MESSAGES));
+    }
+
+    /**
+     * Switch whose driver handshake never completes.
+     */
+    private static class TestSwitch extends AbstractOpenFlowSwitch {
+        @Override
+        public Boolean supportNxRole() {
+            return false;
+        }
+
+        @Override
+        public void startDriverHandshake() {
+        }
+
+        @Override
+        public boolean isDriverHandshakeComplete() {
+            return false;
+        }
+
+        @Override
+        public void processDriverHandshakeMessage(OFMessage m) {
+        }
+    }
+
+    /**
+     * Agent ignoring all switch notifications.
+     */
+    private static class TestAgent implements OpenFlowAgent {
+        @Override
+        public boolean addConnectedSwitch(Dpid dpid, OpenFlowSwitch sw) {
+            return true;
+        }
+
+        @Override
+        public boolean validActivation(Dpid dpid) {
+            return true;
+        }
+
+        @Override
+        public boolean addActivatedMasterSwitch(Dpid dpid, OpenFlowSwitch sw) {
+            return true;
+        }
+
+        @Override
+        public boolean addActivatedEqualSwitch(Dpid dpid, OpenFlowSwitch sw) {
+            return true;
+        }
+
+        @Override
+        public void transitionToMasterSwitch(Dpid dpid) {
+        }
+
+        @Override
+        public void transitionToEqualSwitch(Dpid dpid) {
+        }
+
+        @Override
+        public void removeConnectedSwitch(Dpid dpid) {
+        }
+
+        @Override
+        public void processDownstreamMessage(Dpid dpid, List<OFMessage> m) {
+        }
+
+        @Override
+        public void processMessage(Dpid dpid, OFMessage m) {
+        }
+
+        @Override
+        public void returnRoleReply(Dpid dpid, RoleState requested, RoleState response) {
+        }
+    }
+}
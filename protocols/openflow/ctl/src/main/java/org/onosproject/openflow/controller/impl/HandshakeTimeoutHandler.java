@@ -16,59 +16,51 @@
 
 package org.onosproject.openflow.controller.impl;
 
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
-import org.jboss.netty.channel.ChannelHandlerContext;
-import org.jboss.netty.channel.ChannelStateEvent;
-import org.jboss.netty.channel.Channels;
-import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
-import org.jboss.netty.util.Timeout;
-import org.jboss.netty.util.Timer;
-import org.jboss.netty.util.TimerTask;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 
 /**
  * Trigger a timeout if a switch fails to complete handshake soon enough.
  */
 public class HandshakeTimeoutHandler
-    extends SimpleChannelUpstreamHandler {
+    extends ChannelInboundHandlerAdapter {
     static final HandshakeTimeoutException EXCEPTION =
             new HandshakeTimeoutException();
 
     final OFChannelHandler channelHandler;
-    final Timer timer;
     final long timeoutNanos;
-    volatile Timeout timeout;
+    volatile ScheduledFuture<?> timeout;
 
     public HandshakeTimeoutHandler(OFChannelHandler channelHandler,
-                                   Timer timer,
                                    long timeoutSeconds) {
         super();
         this.channelHandler = channelHandler;
-        this.timer = timer;
         this.timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutSeconds);
 
     }
 
     @Override
-    public void channelOpen(ChannelHandlerContext ctx, ChannelStateEvent e)
-            throws Exception {
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
         if (timeoutNanos > 0) {
-            timeout = timer.newTimeout(new HandshakeTimeoutTask(ctx),
-                                       timeoutNanos, TimeUnit.NANOSECONDS);
+            timeout = ctx.executor().schedule(new HandshakeTimeoutTask(ctx),
+                                              timeoutNanos, TimeUnit.NANOSECONDS);
         }
-        ctx.sendUpstream(e);
+        ctx.fireChannelActive();
     }
 
     @Override
-    public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e)
-            throws Exception {
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         if (timeout != null) {
-            timeout.cancel();
+            timeout.cancel(false);
             timeout = null;
         }
+        ctx.fireChannelInactive();
     }
 
-    private final class HandshakeTimeoutTask implements TimerTask {
+    private final class HandshakeTimeoutTask implements Runnable {
 
         private final ChannelHandlerContext ctx;
 
@@ -77,16 +69,12 @@ public class HandshakeTimeoutHandler
         }
 
         @Override
-        public void run(Timeout t) throws Exception {
-            if (t.isCancelled()) {
-                return;
-            }
-
-            if (!ctx.getChannel().isOpen()) {
+        public void run() {
+            if (!ctx.channel().isOpen()) {
                 return;
             }
             if (!channelHandler.isHandshakeComplete()) {
-                Channels.fireExceptionCaught(ctx, EXCEPTION);
+                ctx.fireExceptionCaught(EXCEPTION);
             }
         }
     }
@@ -17,10 +17,13 @@
 package org.onosproject.openflow.controller.impl;
 
 
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
 import org.jboss.netty.buffer.ChannelBuffer;
-import org.jboss.netty.channel.Channel;
-import org.jboss.netty.channel.ChannelHandlerContext;
-import org.jboss.netty.handler.codec.frame.FrameDecoder;
+import org.jboss.netty.buffer.ChannelBuffers;
 import org.projectfloodlight.openflow.protocol.OFFactories;
 import org.projectfloodlight.openflow.protocol.OFMessage;
 import org.projectfloodlight.openflow.protocol.OFMessageReader;
@@ -28,28 +31,30 @@ import org.projectfloodlight.openflow.protocol.OFMessageReader;
 /**
  * Decode an openflow message from a Channel, for use in a netty pipeline.
  */
-public class OFMessageDecoder extends FrameDecoder {
+public class OFMessageDecoder extends ByteToMessageDecoder {
+
+    private static final OFMessageReader<OFMessage> READER = OFFactories.getGenericReader();
 
     @Override
-    protected Object decode(ChannelHandlerContext ctx, Channel channel,
-            ChannelBuffer buffer) throws Exception {
-        if (!channel.isConnected()) {
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in,
+                          List<Object> out) throws Exception {
+        if (!ctx.channel().isActive()) {
             // In testing, I see decode being called AFTER decode last.
             // This check avoids that from reading corrupted frames
-            return null;
+            return;
         }
 
-        // Note that a single call to decode results in reading a single
-        // OFMessage from the channel buffer, which is passed on to, and processed
-        // by, the controller (in OFChannelHandler).
-        // This is different from earlier behavior (with the original openflowj),
-        // where we parsed all the messages in the buffer, before passing on
-        // a list of the parsed messages to the controller.
-        // The performance *may or may not* not be as good as before.
-        OFMessageReader<OFMessage> reader = OFFactories.getGenericReader();
-        OFMessage message = reader.readFrom(buffer);
-
-        return message;
+        // openflowj reads from Netty 3 buffers, so the readable bytes are
+        // wrapped without copying and every complete message they hold is
+        // parsed in one go; each is then passed on to, and processed by, the
+        // controller (in OFChannelHandler). The reader leaves a trailing
+        // partial message unread, to be completed by the next read.
+        ChannelBuffer buffer = ChannelBuffers.wrappedBuffer(in.nioBuffer());
+        OFMessage message;
+        while ((message = READER.readFrom(buffer)) != null) {
+            out.add(message);
+        }
+        in.skipBytes(buffer.readerIndex());
     }
 
 }
@@ -16,44 +16,49 @@
 
 package org.onosproject.openflow.controller.impl;
 
-import java.util.List;
-
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBuffers;
-import org.jboss.netty.channel.Channel;
-import org.jboss.netty.channel.ChannelHandlerContext;
-import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
 import org.projectfloodlight.openflow.protocol.OFMessage;
 
 /**
- * Encode an openflow message for output into a ChannelBuffer, for use in a
- * netty pipeline.
+ * Encode an openflow message, or a list of them, for output into a ByteBuf,
+ * for use in a netty pipeline.
  */
-public class OFMessageEncoder extends OneToOneEncoder {
+public class OFMessageEncoder extends MessageToByteEncoder<Object> {
 
-    @Override
-    protected Object encode(ChannelHandlerContext ctx, Channel channel,
-                            Object msg) throws Exception {
-        if (!(msg instanceof List)) {
-            return msg;
-        }
+    // Scratch buffers grown beyond this are dropped rather than reused
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final int INITIAL_CAPACITY = 1024;
 
-        @SuppressWarnings("unchecked")
-        List<OFMessage> msglist = (List<OFMessage>) msg;
-        /* XXX S can't get length of OFMessage in loxigen's openflowj??
-        int size = 0;
-        for (OFMessage ofm : msglist) {
-            size += ofm.getLengthU();
-        }*/
+    // openflowj writes to Netty 3 buffers; as encoders are per channel and
+    // only run on its event loop, a single scratch buffer is reused
+    private ChannelBuffer scratch = ChannelBuffers.dynamicBuffer(INITIAL_CAPACITY);
 
-        ChannelBuffer buf = ChannelBuffers.dynamicBuffer();
+    @Override
+    public boolean acceptOutboundMessage(Object msg) throws Exception {
+        return msg instanceof Iterable || msg instanceof OFMessage;
+    }
 
-        for (OFMessage ofm : msglist) {
-            if (ofm != null) {
-                ofm.writeTo(buf);
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Object msg,
+                          ByteBuf out) throws Exception {
+        scratch.clear();
+        if (msg instanceof OFMessage) {
+            ((OFMessage) msg).writeTo(scratch);
+        } else {
+            for (Object ofm : (Iterable<?>) msg) {
+                if (ofm != null) {
+                    ((OFMessage) ofm).writeTo(scratch);
+                }
             }
         }
-        return buf;
+        out.writeBytes(scratch.toByteBuffer());
+        if (scratch.capacity() > MAX_RETAINED_CAPACITY) {
+            scratch = ChannelBuffers.dynamicBuffer(INITIAL_CAPACITY);
+        }
     }
 
 }
@@ -15,6 +15,7 @@
  */
 package org.onosproject.openflow.controller.impl;
 
+import com.codahale.metrics.Gauge;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
@@ -26,6 +27,10 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onlab.util.PredictableExecutor;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.CoreService;
 import org.onosproject.net.device.DeviceEvent;
@@ -43,6 +48,7 @@ import org.onosproject.openflow.controller.OpenFlowSwitchListener;
 import org.onosproject.openflow.controller.PacketListener;
 import org.onosproject.openflow.controller.RoleState;
 import org.onosproject.openflow.controller.driver.OpenFlowAgent;
+import org.onosproject.openflow.controller.driver.OpenFlowSwitchDriver;
 import org.osgi.service.component.ComponentContext;
 import org.projectfloodlight.openflow.protocol.OFCalientFlowStatsEntry;
 import org.projectfloodlight.openflow.protocol.OFCalientFlowStatsReply;
@@ -85,6 +91,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import static org.onlab.util.PredictableExecutor.picky;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.Device.Type.CONTROLLER;
 import static org.onosproject.net.device.DeviceEvent.Type.DEVICE_REMOVED;
@@ -97,6 +104,10 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     private static final String DEFAULT_OFPORT = "6633,6653";
     private static final int DEFAULT_WORKER_THREADS = 0;
 
+    private static final String METRICS_COMPONENT = "OpenFlowSwitch";
+    private static final String QUEUE_DEPTH_METRIC = "outboundQueueDepth";
+    private static final String FLUSH_SIZE_METRIC = "outboundFlushSize";
+
     private static final Logger log =
             LoggerFactory.getLogger(OpenFlowControllerImpl.class);
 
@@ -112,6 +123,9 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
 
     @Property(name = "openflowPorts", value = DEFAULT_OFPORT,
             label = "Port numbers (comma separated) used by OpenFlow protocol; default is 6633,6653")
@@ -121,8 +135,10 @@ public class OpenFlowControllerImpl implements OpenFlowController {
             label = "Number of controller worker threads")
     private int workerThreads = DEFAULT_WORKER_THREADS;
 
+    // Messages of a switch are handled in order, as flow statistics are
+    // streamed one multipart reply part at a time
     protected ExecutorService executorMsgs =
-        Executors.newFixedThreadPool(32, groupedThreads("onos/of", "event-stats-%d", log));
+        new PredictableExecutor(32, groupedThreads("onos/of", "event-stats-%d", log));
 
     private final ExecutorService executorBarrier =
         Executors.newFixedThreadPool(4, groupedThreads("onos/of", "event-barrier-%d", log));
@@ -156,20 +172,19 @@ public class OpenFlowControllerImpl implements OpenFlowController {
 
     protected Set<OpenFlowMessageListener> ofMessageListener = new CopyOnWriteArraySet<>();
 
-    protected Multimap<Dpid, OFFlowStatsEntry> fullFlowStats =
-            ArrayListMultimap.create();
-
-    protected Multimap<Dpid, OFTableStatsEntry> fullTableStats =
-            ArrayListMultimap.create();
+    // Parts of the multipart stats replies awaiting their last part, per
+    // switch; the replies of a switch are all received on its channel thread
+    protected ConcurrentMap<Dpid, List<OFTableStatsEntry>> fullTableStats =
+            new ConcurrentHashMap<>();
 
-    protected Multimap<Dpid, OFGroupStatsEntry> fullGroupStats =
-            ArrayListMultimap.create();
+    protected ConcurrentMap<Dpid, List<OFGroupStatsEntry>> fullGroupStats =
+            new ConcurrentHashMap<>();
 
-    protected Multimap<Dpid, OFGroupDescStatsEntry> fullGroupDescStats =
-            ArrayListMultimap.create();
+    protected ConcurrentMap<Dpid, List<OFGroupDescStatsEntry>> fullGroupDescStats =
+            new ConcurrentHashMap<>();
 
-    protected Multimap<Dpid, OFPortStatsEntry> fullPortStats =
-            ArrayListMultimap.create();
+    protected ConcurrentMap<Dpid, List<OFPortStatsEntry>> fullPortStats =
+            new ConcurrentHashMap<>();
 
     private final Controller ctrl = new Controller();
     private InternalDeviceListener listener = new InternalDeviceListener();
@@ -207,6 +222,40 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         ctrl.start(agent, driverService);
     }
 
+    /**
+     * Registers the outbound queue depth and the mean number of messages
+     * per flush of a connected switch as metrics of its dpid.
+     *
+     * @param dpid switch dpid
+     * @param sw   connected switch
+     */
+    private void registerSwitchMetrics(Dpid dpid, OpenFlowSwitch sw) {
+        if (metricsService == null || !(sw instanceof OpenFlowSwitchDriver)) {
+            return;
+        }
+        OpenFlowSwitchDriver driver = (OpenFlowSwitchDriver) sw;
+        MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+        MetricsFeature feature = component.registerFeature(dpid.toString());
+        unregisterSwitchMetrics(dpid);
+        metricsService.registerMetric(component, feature, QUEUE_DEPTH_METRIC,
+                                      (Gauge<Integer>) driver::outboundQueueDepth);
+        metricsService.registerMetric(component, feature, FLUSH_SIZE_METRIC,
+                                      (Gauge<Double>) () -> {
+            long flushes = driver.outboundFlushCount();
+            return flushes == 0 ? 0 : (double) driver.outboundMessageCount() / flushes;
+        });
+    }
+
+    private void unregisterSwitchMetrics(Dpid dpid) {
+        if (metricsService == null) {
+            return;
+        }
+        MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+        MetricsFeature feature = component.registerFeature(dpid.toString());
+        metricsService.removeMetric(component, feature, QUEUE_DEPTH_METRIC);
+        metricsService.removeMetric(component, feature, FLUSH_SIZE_METRIC);
+    }
+
     @Override
     public Iterable<OpenFlowSwitch> getSwitches() {
         return connectedSwitches.values();
@@ -299,7 +348,6 @@ public class OpenFlowControllerImpl implements OpenFlowController {
 
     @Override
     public void processPacket(Dpid dpid, OFMessage msg) {
-        Collection<OFFlowStatsEntry> flowStats;
         Collection<OFTableStatsEntry> tableStats;
         Collection<OFGroupStatsEntry> groupStats;
         Collection<OFGroupDescStatsEntry> groupDescStats;
@@ -354,14 +402,9 @@ public class OpenFlowControllerImpl implements OpenFlowController {
                     }
                     break;
                 case FLOW:
-                    flowStats = publishFlowStats(dpid, (OFFlowStatsReply) reply);
-                    if (flowStats != null) {
-                        OFFlowStatsReply.Builder rep =
-                                OFFactories.getFactory(msg.getVersion()).buildFlowStatsReply();
-                        rep.setEntries(Lists.newLinkedList(flowStats));
-                        rep.setXid(reply.getXid());
-                        executorMsgs.execute(new OFMessageHandler(dpid, rep.build()));
-                    }
+                    // Flow statistics are streamed, each part being handed
+                    // over as it arrives
+                    publishFlowStats(dpid, (OFFlowStatsReply) reply);
                     break;
                 case TABLE:
                     tableStats = publishTableStats(dpid, (OFTableStatsReply) reply);
@@ -437,14 +480,10 @@ public class OpenFlowControllerImpl implements OpenFlowController {
                             entries.add(fs);
                         }
                         fsr.setEntries(entries);
+                        fsr.setFlags(reply.getFlags());
+                        fsr.setXid(reply.getXid());
 
-                        flowStats = publishFlowStats(dpid, fsr.build());
-                        if (flowStats != null) {
-                            OFFlowStatsReply.Builder rep =
-                                    OFFactories.getFactory(msg.getVersion()).buildFlowStatsReply();
-                            rep.setEntries(Lists.newLinkedList(flowStats));
-                            executorMsgs.execute(new OFMessageHandler(dpid, rep.build()));
-                        }
+                        publishFlowStats(dpid, fsr.build());
                     } else {
                         executorMsgs.execute(new OFMessageHandler(dpid, reply));
                     }
@@ -495,53 +534,47 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         }
     }
 
-    private synchronized Collection<OFFlowStatsEntry> publishFlowStats(Dpid dpid,
-                                                                       OFFlowStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullFlowStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullFlowStats.removeAll(dpid);
-        }
-        return null;
+    private void publishFlowStats(Dpid dpid, OFFlowStatsReply reply) {
+        executorMsgs.execute(picky(new OFMessageHandler(dpid, reply), dpid.hashCode()));
     }
 
-    private synchronized Collection<OFTableStatsEntry> publishTableStats(Dpid dpid,
-                                                                       OFTableStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullTableStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullTableStats.removeAll(dpid);
-        }
-        return null;
+    private Collection<OFTableStatsEntry> publishTableStats(Dpid dpid,
+                                                            OFTableStatsReply reply) {
+        return publishStats(fullTableStats, dpid, reply, reply.getEntries());
     }
 
-    private synchronized Collection<OFGroupStatsEntry> publishGroupStats(Dpid dpid,
-                                                                      OFGroupStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullGroupStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullGroupStats.removeAll(dpid);
-        }
-        return null;
+    private Collection<OFGroupStatsEntry> publishGroupStats(Dpid dpid,
+                                                            OFGroupStatsReply reply) {
+        return publishStats(fullGroupStats, dpid, reply, reply.getEntries());
     }
 
-    private synchronized Collection<OFGroupDescStatsEntry> publishGroupDescStats(Dpid dpid,
-                                                                  OFGroupDescStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullGroupDescStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullGroupDescStats.removeAll(dpid);
-        }
-        return null;
+    private Collection<OFGroupDescStatsEntry> publishGroupDescStats(Dpid dpid,
+                                                                    OFGroupDescStatsReply reply) {
+        return publishStats(fullGroupDescStats, dpid, reply, reply.getEntries());
     }
 
-    private synchronized Collection<OFPortStatsEntry> publishPortStats(Dpid dpid,
-                                                                 OFPortStatsReply reply) {
-        fullPortStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullPortStats.removeAll(dpid);
+    private Collection<OFPortStatsEntry> publishPortStats(Dpid dpid,
+                                                          OFPortStatsReply reply) {
+        return publishStats(fullPortStats, dpid, reply, reply.getEntries());
+    }
+
+    /**
+     * Accumulates the entries of a multipart stats reply part, returning all
+     * the entries of the reply once its last part has been received.
+     */
+    private static <E> Collection<E> publishStats(ConcurrentMap<Dpid, List<E>> pending,
+                                                  Dpid dpid, OFStatsReply reply,
+                                                  List<E> entries) {
+        if (reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
+            pending.computeIfAbsent(dpid, k -> Lists.newArrayList()).addAll(entries);
+            return null;
+        }
+        List<E> parts = pending.remove(dpid);
+        if (parts == null) {
+            return entries;
         }
-        return null;
+        parts.addAll(entries);
+        return parts;
     }
 
     @Override
@@ -614,6 +647,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
             } else {
                 log.info("Added switch {}", dpid);
                 connectedSwitches.put(dpid, sw);
+                registerSwitchMetrics(dpid, sw);
                 for (OpenFlowSwitchListener l : ofSwitchListener) {
                     l.switchAdded(dpid);
                 }
@@ -723,6 +757,11 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         @Override
         public void removeConnectedSwitch(Dpid dpid) {
             connectedSwitches.remove(dpid);
+            unregisterSwitchMetrics(dpid);
+            fullTableStats.remove(dpid);
+            fullGroupStats.remove(dpid);
+            fullGroupDescStats.remove(dpid);
+            fullPortStats.remove(dpid);
             OpenFlowSwitch sw = activeMasterSwitches.remove(dpid);
             if (sw == null) {
                 log.debug("sw was null for {}", dpid);
@@ -16,15 +16,19 @@
 package org.onosproject.openflow.controller.impl;
 
 
-import org.jboss.netty.buffer.ChannelBuffer;
-import org.jboss.netty.buffer.ChannelBuffers;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
 import org.junit.Test;
-import org.onosproject.core.netty.ChannelAdapter;
-import org.onosproject.openflow.ChannelHandlerContextAdapter;
 import org.projectfloodlight.openflow.protocol.OFHello;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 
@@ -33,19 +37,15 @@ import static org.hamcrest.Matchers.nullValue;
  */
 public class OFMessageDecoderTest {
 
-    static class ConnectedChannel extends ChannelAdapter {
-        @Override
-        public boolean isConnected() {
-            return true;
-        }
-    }
+    // OFHello, OF version 1, xid of 0, total of 8 bytes
+    private static final byte[] HELLO = {0x1, 0x0, 0x0, 0x8, 0x0, 0x0, 0x0, 0x0};
 
-    private ChannelBuffer getHelloMessageBuffer() {
-        // OFHello, OF version 1, xid of 0, total of 8 bytes
-        byte[] messageData = {0x1, 0x0, 0x0, 0x8, 0x0, 0x0, 0x0, 0x0};
-        ChannelBuffer channelBuffer = ChannelBuffers.dynamicBuffer();
-        channelBuffer.writeBytes(messageData);
-        return channelBuffer;
+    private ByteBuf getHelloMessageBuffer(int count) {
+        ByteBuf buffer = Unpooled.buffer();
+        for (int i = 0; i < count; i++) {
+            buffer.writeBytes(HELLO);
+        }
+        return buffer;
     }
 
     /**
@@ -56,12 +56,12 @@ public class OFMessageDecoderTest {
     @Test
     public void testDecodeNoChannel() throws Exception {
         OFMessageDecoder decoder = new OFMessageDecoder();
-        ChannelBuffer channelBuffer = getHelloMessageBuffer();
-        Object message =
-                decoder.decode(new ChannelHandlerContextAdapter(),
-                               new ChannelAdapter(),
-                               channelBuffer);
-        assertThat(message, nullValue());
+        EmbeddedChannel channel = new EmbeddedChannel(decoder);
+        ChannelHandlerContext ctx = channel.pipeline().context(decoder);
+        channel.close();
+        List<Object> out = new ArrayList<>();
+        decoder.decode(ctx, getHelloMessageBuffer(1), out);
+        assertThat(out.isEmpty(), is(true));
     }
 
     /**
@@ -71,14 +71,30 @@ public class OFMessageDecoderTest {
      */
     @Test
     public void testDecode() throws Exception {
-        OFMessageDecoder decoder = new OFMessageDecoder();
-        ChannelBuffer channelBuffer = getHelloMessageBuffer();
-        Object message =
-                decoder.decode(new ChannelHandlerContextAdapter(),
-                               new ConnectedChannel(),
-                               channelBuffer);
+        EmbeddedChannel channel = new EmbeddedChannel(new OFMessageDecoder());
+        channel.writeInbound(getHelloMessageBuffer(1));
+        Object message = channel.readInbound();
         assertThat(message, notNullValue());
         assertThat(message, instanceOf(OFHello.class));
     }
 
+    /**
+     * Tests decoding several messages, the last one split across reads.
+     *
+     * @throws Exception when an exception is thrown from the decoder
+     */
+    @Test
+    public void testDecodeFragmented() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new OFMessageDecoder());
+        ByteBuf buffer = getHelloMessageBuffer(3);
+        channel.writeInbound(buffer.readRetainedSlice(20));
+        assertThat(channel.readInbound(), instanceOf(OFHello.class));
+        assertThat(channel.readInbound(), instanceOf(OFHello.class));
+        assertThat(channel.readInbound(), nullValue());
+
+        channel.writeInbound(buffer);
+        assertThat(channel.readInbound(), instanceOf(OFHello.class));
+        assertThat(channel.inboundMessages().isEmpty(), is(true));
+    }
+
 }
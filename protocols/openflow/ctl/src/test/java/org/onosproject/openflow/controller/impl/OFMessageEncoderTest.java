@@ -18,10 +18,11 @@ package org.onosproject.openflow.controller.impl;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.junit.Test;
 import org.onosproject.openflow.OfMessageAdapter;
-import org.projectfloodlight.openflow.protocol.OFMessage;
 import org.projectfloodlight.openflow.protocol.OFType;
 
 import com.google.common.collect.ImmutableList;
@@ -51,18 +52,27 @@ public class OFMessageEncoderTest {
         }
     }
 
+    private String readOutbound(EmbeddedChannel channel) {
+        ByteBuf buffer = channel.readOutbound();
+        assertThat(buffer, notNullValue());
+        try {
+            return buffer.toString(StandardCharsets.UTF_8);
+        } finally {
+            buffer.release();
+        }
+    }
+
     /**
-     * Tests that encoding a non-list returns the object specified.
+     * Tests that encoding a single message returns its encoded payload.
      *
      * @throws Exception on exception in the encoder
      */
     @Test
     public void testNoList() throws Exception {
-        OFMessageEncoder encoder = new OFMessageEncoder();
+        EmbeddedChannel channel = new EmbeddedChannel(new OFMessageEncoder());
         MockOfMessage message = new MockOfMessage();
-        OFMessage returnedMessage =
-                (OFMessage) encoder.encode(null, null, message);
-        assertThat(message, is(returnedMessage));
+        channel.writeOutbound(message);
+        assertThat(readOutbound(channel), is("message" + message.id + " "));
     }
 
     /**
@@ -72,19 +82,27 @@ public class OFMessageEncoderTest {
      */
     @Test
     public void testList() throws Exception {
-        OFMessageEncoder encoder = new OFMessageEncoder();
+        EmbeddedChannel channel = new EmbeddedChannel(new OFMessageEncoder());
         MockOfMessage message1 = new MockOfMessage();
         MockOfMessage message2 = new MockOfMessage();
         MockOfMessage message3 = new MockOfMessage();
         List<MockOfMessage> messages = ImmutableList.of(message1, message2, message3);
-        ChannelBuffer returnedChannel =
-                (ChannelBuffer) encoder.encode(null, null, messages);
-        assertThat(returnedChannel, notNullValue());
-        byte[] channelBytes = returnedChannel.array();
-        String expectedListMessage = "message1 message2 message3 ";
-        String listMessage =
-                (new String(channelBytes, StandardCharsets.UTF_8))
-                        .substring(0, expectedListMessage.length());
-        assertThat(listMessage, is(expectedListMessage));
+        channel.writeOutbound(messages);
+        String expectedListMessage = "message" + message1.id + " message" + message2.id
+                + " message" + message3.id + " ";
+        assertThat(readOutbound(channel), is(expectedListMessage));
+    }
+
+    /**
+     * Tests that objects other than OpenFlow messages pass through unchanged.
+     *
+     * @throws Exception on exception in the encoder
+     */
+    @Test
+    public void testPassThrough() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new OFMessageEncoder());
+        Object other = "other";
+        channel.writeOutbound(other);
+        assertThat(channel.readOutbound(), is(other));
     }
 }
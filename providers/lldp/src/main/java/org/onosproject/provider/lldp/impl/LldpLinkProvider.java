@@ -107,6 +107,11 @@ public class LldpLinkProvider extends AbstractProvider implements ProbedLinkProv
     private static final int MAX_RETRIES = 5;
     private static final int RETRY_DELAY = 1_000; // millis
 
+    // Link discovery packets offered to the packet processor
+    private static final Set<TrafficSelector> DISCOVERY_PACKETS = ImmutableSet.of(
+            DefaultTrafficSelector.builder().matchEthType(TYPE_LLDP).build(),
+            DefaultTrafficSelector.builder().matchEthType(TYPE_BSN).build());
+
     private final Logger log = getLogger(getClass());
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -340,7 +345,7 @@ public class LldpLinkProvider extends AbstractProvider implements ProbedLinkProv
         providerService = providerRegistry.register(this);
         masterService.addListener(roleListener);
         deviceService.addListener(deviceListener);
-        packetService.addProcessor(packetProcessor, PacketProcessor.advisor(0));
+        packetService.addProcessor(packetProcessor, PacketProcessor.advisor(0), DISCOVERY_PACKETS);
 
         loadDevices();
 
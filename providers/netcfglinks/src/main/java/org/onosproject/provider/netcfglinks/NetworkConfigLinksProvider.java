@@ -21,6 +21,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.google.common.collect.ImmutableSet;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -114,6 +115,11 @@ public class NetworkConfigLinksProvider
 
     private LinkProviderService providerService;
 
+    // Link discovery packets offered to the packet processor
+    private static final Set<TrafficSelector> DISCOVERY_PACKETS = ImmutableSet.of(
+            DefaultTrafficSelector.builder().matchEthType(TYPE_LLDP).build(),
+            DefaultTrafficSelector.builder().matchEthType(TYPE_BSN).build());
+
     private static final String PROVIDER_NAME =
             "org.onosproject.provider.netcfglinks";
     private final Logger log = LoggerFactory.getLogger(getClass());
@@ -149,7 +155,7 @@ public class NetworkConfigLinksProvider
     protected void activate() {
         log.info("Activated");
         appId = coreService.registerApplication(PROVIDER_NAME);
-        packetService.addProcessor(packetProcessor, PacketProcessor.advisor(0));
+        packetService.addProcessor(packetProcessor, PacketProcessor.advisor(0), DISCOVERY_PACKETS);
         providerService = providerRegistry.register(this);
         deviceService.addListener(deviceListener);
         netCfgService.addListener(cfgListener);
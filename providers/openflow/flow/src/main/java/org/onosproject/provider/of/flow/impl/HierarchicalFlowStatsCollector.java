@@ -0,0 +1,242 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.of.flow.impl;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onosproject.openflow.controller.OpenFlowSwitch;
+import org.onosproject.openflow.controller.RoleState;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
+import org.projectfloodlight.openflow.protocol.OFTableStatsEntry;
+import org.projectfloodlight.openflow.protocol.OFTableStatsReply;
+import org.projectfloodlight.openflow.protocol.OFTableStatsRequest;
+import org.projectfloodlight.openflow.types.OFPort;
+import org.projectfloodlight.openflow.types.TableId;
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Collects flow statistics for the specified switch hierarchically: table
+ * statistics are polled first, and flow statistics are only requested for
+ * the tables whose active or matched counts changed since the last poll.
+ * <p>
+ * Every few poll intervals the statistics of all flows are requested
+ * instead, so the flows missing from the switch are still detected. The poll
+ * interval of a switch backs off while none of its tables change, and drops
+ * back to the configured interval as soon as one does; it never backs off
+ * past the next request for the statistics of all flows.
+ */
+class HierarchicalFlowStatsCollector implements SwitchDataCollector {
+
+    private final Logger log = getLogger(getClass());
+
+    public static final int SECONDS = 1000;
+    public static final long NO_FULL_SYNC_XID = -1;
+
+    // Number of poll intervals between requests for the statistics of all flows
+    static final int FULL_SYNC_INTERVALS = 6;
+    // Maximum multiple of the poll interval a quiet switch backs off to
+    static final int MAX_BACKOFF = 4;
+
+    private final OpenFlowSwitch sw;
+    private final Timer timer;
+    private TimerTask task;
+
+    private int pollInterval;
+    private int backoff = 1;
+
+    private final Map<TableId, TableCounters> lastCounters = Maps.newHashMap();
+    private final Set<TableId> changedTables = Sets.newHashSet();
+    private int intervalsUntilFullSync = 0;
+    private boolean fullSyncDue;
+    private volatile long fullSyncXid = NO_FULL_SYNC_XID;
+
+    /**
+     * Creates a new hierarchical collector for the given switch and poll
+     * frequency.
+     *
+     * @param timer        timer to use for scheduling
+     * @param sw           switch to pull
+     * @param pollInterval poll frequency in seconds
+     */
+    HierarchicalFlowStatsCollector(Timer timer, OpenFlowSwitch sw, int pollInterval) {
+        this.timer = timer;
+        this.sw = checkNotNull(sw, "Null switch");
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Adjusts poll frequency.
+     *
+     * @param pollInterval poll frequency in seconds
+     */
+    synchronized void adjustPollInterval(int pollInterval) {
+        this.pollInterval = pollInterval;
+        this.backoff = 1;
+        if (task != null) {
+            task.cancel();
+            schedule(pollInterval * SECONDS);
+        }
+    }
+
+    /**
+     * Handles a table statistics reply from the switch, requesting the flow
+     * statistics of the tables which changed since the previous reply.
+     *
+     * @param reply table statistics reply
+     */
+    synchronized void tableStatsReceived(OFTableStatsReply reply) {
+        for (OFTableStatsEntry entry : reply.getEntries()) {
+            TableCounters counters = new TableCounters(entry.getActiveCount(),
+                                                       entry.getMatchedCount().getValue());
+            if (!counters.equals(lastCounters.put(entry.getTableId(), counters))) {
+                changedTables.add(entry.getTableId());
+            }
+        }
+        if (reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
+            return;
+        }
+
+        backoff = changedTables.isEmpty() ? Math.min(backoff * 2, MAX_BACKOFF) : 1;
+        if (fullSyncDue) {
+            fullSyncDue = false;
+            OFFlowStatsRequest request = flowStatsRequest(TableId.ALL);
+            // The reply to this request is pushed with flow missing detection
+            fullSyncXid = request.getXid();
+            sw.sendMsg(request);
+        } else {
+            log.trace("Collecting stats of tables {} for {}", changedTables, sw.getStringId());
+            changedTables.forEach(tableId -> sw.sendMsg(flowStatsRequest(tableId)));
+        }
+        changedTables.clear();
+    }
+
+    /**
+     * Returns the transaction id of the pending request for the statistics
+     * of all flows.
+     *
+     * @return transaction id, or NO_FULL_SYNC_XID if none is pending
+     */
+    long getFullSyncXid() {
+        return fullSyncXid;
+    }
+
+    /**
+     * Sets the transaction id of the pending request for the statistics of
+     * all flows, typically to NO_FULL_SYNC_XID once it has been answered.
+     *
+     * @param fullSyncXid transaction id
+     */
+    void setFullSyncXid(long fullSyncXid) {
+        this.fullSyncXid = fullSyncXid;
+    }
+
+    private OFFlowStatsRequest flowStatsRequest(TableId tableId) {
+        return sw.factory().buildFlowStatsRequest()
+                .setMatch(sw.factory().matchWildcardAll())
+                .setTableId(tableId)
+                .setOutPort(OFPort.NO_MASK)
+                .build();
+    }
+
+    private void schedule(long delay) {
+        task = new InternalTimerTask();
+        timer.schedule(task, delay);
+    }
+
+    private class InternalTimerTask extends TimerTask {
+        @Override
+        public void run() {
+            synchronized (HierarchicalFlowStatsCollector.this) {
+                if (task != this) {
+                    return;
+                }
+                if (sw.getRole() == RoleState.MASTER) {
+                    if (intervalsUntilFullSync <= 0) {
+                        // the reply to this poll requests the statistics of all flows
+                        fullSyncDue = true;
+                        intervalsUntilFullSync = FULL_SYNC_INTERVALS;
+                    }
+                    log.trace("Collecting table stats for {}", sw.getStringId());
+                    OFTableStatsRequest request = sw.factory().buildTableStatsRequest()
+                            .build();
+                    sw.sendMsg(request);
+                }
+                // Back off no further than the next full sync, so that missing
+                // flows are detected every FULL_SYNC_INTERVALS poll intervals
+                int intervals = Math.max(1, Math.min(backoff, intervalsUntilFullSync));
+                intervalsUntilFullSync -= intervals;
+                schedule(pollInterval * intervals * SECONDS);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        // Initially start polling quickly. Then drop down to configured value
+        log.debug("Starting hierarchical stats collection for {}", sw.getStringId());
+        schedule(1 * SECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        log.debug("Stopping hierarchical stats collection for {}", sw.getStringId());
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Counters of a flow table which change whenever its flows do.
+     */
+    private static final class TableCounters {
+        private final long activeCount;
+        private final long matchedCount;
+
+        private TableCounters(long activeCount, long matchedCount) {
+            this.activeCount = activeCount;
+            this.matchedCount = matchedCount;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(activeCount, matchedCount);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TableCounters)) {
+                return false;
+            }
+            TableCounters other = (TableCounters) obj;
+            return activeCount == other.activeCount
+                    && matchedCount == other.matchedCount;
+        }
+    }
+}
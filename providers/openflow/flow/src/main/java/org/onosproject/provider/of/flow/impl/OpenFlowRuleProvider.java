@@ -69,6 +69,7 @@ import org.projectfloodlight.openflow.protocol.OFFlowStatsReply;
 import org.projectfloodlight.openflow.protocol.OFMessage;
 import org.projectfloodlight.openflow.protocol.OFPortStatus;
 import org.projectfloodlight.openflow.protocol.OFStatsReply;
+import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
 import org.projectfloodlight.openflow.protocol.OFStatsType;
 import org.projectfloodlight.openflow.protocol.OFTableStatsEntry;
 import org.projectfloodlight.openflow.protocol.OFTableStatsReply;
@@ -125,6 +126,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
     private static final int MIN_EXPECTED_BYTE_LEN = 56;
     private static final int SKIP_BYTES = 4;
     private static final boolean DEFAULT_ADAPTIVE_FLOW_SAMPLING = false;
+    private static final boolean DEFAULT_HIERARCHICAL_FLOW_SAMPLING = false;
 
     @Property(name = "flowPollFrequency", intValue = DEFAULT_POLL_FREQUENCY,
             label = "Frequency (in seconds) for polling flow statistics")
@@ -134,6 +136,12 @@ public class OpenFlowRuleProvider extends AbstractProvider
             label = "Adaptive Flow Sampling is on or off")
     private boolean adaptiveFlowSampling = DEFAULT_ADAPTIVE_FLOW_SAMPLING;
 
+    @Property(name = "hierarchicalFlowSampling", boolValue = DEFAULT_HIERARCHICAL_FLOW_SAMPLING,
+            label = "Hierarchical Flow Sampling, polling flow statistics only for the " +
+                    "tables whose table statistics changed, is on or off; " +
+                    "ignored when Adaptive Flow Sampling is on")
+    private boolean hierarchicalFlowSampling = DEFAULT_HIERARCHICAL_FLOW_SAMPLING;
+
     private FlowRuleProviderService providerService;
 
     private final InternalFlowProvider listener = new InternalFlowProvider();
@@ -149,6 +157,12 @@ public class OpenFlowRuleProvider extends AbstractProvider
     private final Map<Dpid, NewAdaptiveFlowStatsCollector> afsCollectors = Maps.newConcurrentMap();
     private final Map<Dpid, TableStatisticsCollector> tableStatsCollectors = Maps.newConcurrentMap();
 
+    // Hierarchical collectors, also collecting the table statistics
+    private final Map<Dpid, HierarchicalFlowStatsCollector> hfsCollectors = Maps.newConcurrentMap();
+
+    // Transaction ids of the flow stats replies being received in parts
+    private final Map<Dpid, Long> pendingFlowStatsXids = Maps.newConcurrentMap();
+
     /**
      * Creates an OpenFlow host provider.
      */
@@ -169,8 +183,9 @@ public class OpenFlowRuleProvider extends AbstractProvider
 
         createCollectors();
 
-        log.info("Started with flowPollFrequency = {}, adaptiveFlowSampling = {}",
-                flowPollFrequency, adaptiveFlowSampling);
+        log.info("Started with flowPollFrequency = {}, adaptiveFlowSampling = {}, " +
+                         "hierarchicalFlowSampling = {}",
+                 flowPollFrequency, adaptiveFlowSampling, hierarchicalFlowSampling);
     }
 
     @Deactivate
@@ -206,15 +221,23 @@ public class OpenFlowRuleProvider extends AbstractProvider
         String s = get(properties, "adaptiveFlowSampling");
         newAdaptiveFlowSampling = isNullOrEmpty(s) ? adaptiveFlowSampling : Boolean.parseBoolean(s.trim());
 
-        if (newAdaptiveFlowSampling != adaptiveFlowSampling) {
+        boolean newHierarchicalFlowSampling;
+        s = get(properties, "hierarchicalFlowSampling");
+        newHierarchicalFlowSampling = isNullOrEmpty(s) ?
+                hierarchicalFlowSampling : Boolean.parseBoolean(s.trim());
+
+        if (newAdaptiveFlowSampling != adaptiveFlowSampling ||
+                newHierarchicalFlowSampling != hierarchicalFlowSampling) {
             // stop previous collector
             stopCollectors();
             adaptiveFlowSampling = newAdaptiveFlowSampling;
+            hierarchicalFlowSampling = newHierarchicalFlowSampling;
             // create new collectors
             createCollectors();
         }
 
-        log.info("Settings: adaptiveFlowSampling={}", adaptiveFlowSampling);
+        log.info("Settings: adaptiveFlowSampling={}, hierarchicalFlowSampling={}",
+                 adaptiveFlowSampling, hierarchicalFlowSampling);
     }
 
     private Cache<Long, InternalCacheEntry> createBatchCache() {
@@ -242,6 +265,13 @@ public class OpenFlowRuleProvider extends AbstractProvider
                     new NewAdaptiveFlowStatsCollector(driverService, sw, flowPollFrequency);
             fsc.start();
             stopCollectorIfNeeded(afsCollectors.put(new Dpid(sw.getId()), fsc));
+        } else if (hierarchicalFlowSampling) {
+            // Table statistics are collected by the hierarchical collector
+            HierarchicalFlowStatsCollector fsc =
+                    new HierarchicalFlowStatsCollector(timer, sw, flowPollFrequency);
+            fsc.start();
+            stopCollectorIfNeeded(hfsCollectors.put(new Dpid(sw.getId()), fsc));
+            return;
         } else {
             FlowStatsCollector fsc = new FlowStatsCollector(timer, sw, flowPollFrequency);
             fsc.start();
@@ -263,6 +293,9 @@ public class OpenFlowRuleProvider extends AbstractProvider
             // NewAdaptiveFlowStatsCollector Destructor
             afsCollectors.values().forEach(NewAdaptiveFlowStatsCollector::stop);
             afsCollectors.clear();
+        } else if (hierarchicalFlowSampling) {
+            hfsCollectors.values().forEach(HierarchicalFlowStatsCollector::stop);
+            hfsCollectors.clear();
         } else {
             simpleCollectors.values().forEach(FlowStatsCollector::stop);
             simpleCollectors.clear();
@@ -276,6 +309,8 @@ public class OpenFlowRuleProvider extends AbstractProvider
         if (adaptiveFlowSampling) {
             // NewAdaptiveFlowStatsCollector calAndPollInterval
             afsCollectors.values().forEach(fsc -> fsc.adjustCalAndPollInterval(flowPollFrequency));
+        } else if (hierarchicalFlowSampling) {
+            hfsCollectors.values().forEach(fsc -> fsc.adjustPollInterval(flowPollFrequency));
         } else {
             simpleCollectors.values().forEach(fsc -> fsc.adjustPollInterval(flowPollFrequency));
         }
@@ -353,6 +388,9 @@ public class OpenFlowRuleProvider extends AbstractProvider
             return;
         }
         pendingBatches.put(batch.id(), new InternalCacheEntry(batch));
+        // messages go out one at a time, so drivers overriding
+        // sendMsg(OFMessage) see each of them; the switch still coalesces
+        // them into a few writes, in order
         OFFlowMod mod;
         for (FlowRuleBatchEntry fbe : batch.getOperations()) {
             // flow is the third party privacy flow
@@ -407,10 +445,13 @@ public class OpenFlowRuleProvider extends AbstractProvider
         public void switchRemoved(Dpid dpid) {
             if (adaptiveFlowSampling) {
                 stopCollectorIfNeeded(afsCollectors.remove(dpid));
+            } else if (hierarchicalFlowSampling) {
+                stopCollectorIfNeeded(hfsCollectors.remove(dpid));
             } else {
                 stopCollectorIfNeeded(simpleCollectors.remove(dpid));
             }
             stopCollectorIfNeeded(tableStatsCollectors.remove(dpid));
+            pendingFlowStatsXids.remove(dpid);
         }
 
         @Override
@@ -441,6 +482,10 @@ public class OpenFlowRuleProvider extends AbstractProvider
                         pushFlowMetrics(dpid, (OFFlowStatsReply) msg);
                     } else if (((OFStatsReply) msg).getStatsType() == OFStatsType.TABLE) {
                         pushTableStatistics(dpid, (OFTableStatsReply) msg);
+                        HierarchicalFlowStatsCollector hfsc = hfsCollectors.get(dpid);
+                        if (hierarchicalFlowSampling && hfsc != null) {
+                            hfsc.tableStatsReceived((OFTableStatsReply) msg);
+                        }
                     }
                     break;
                 case BARRIER_REPLY:
@@ -612,6 +657,13 @@ public class OpenFlowRuleProvider extends AbstractProvider
 
             DeviceId did = DeviceId.deviceId(Dpid.uri(dpid));
             NewAdaptiveFlowStatsCollector afsc = afsCollectors.get(dpid);
+            HierarchicalFlowStatsCollector hfsc = hfsCollectors.get(dpid);
+
+            // Replies are received one multipart part at a time
+            boolean last = !replies.getFlags().contains(OFStatsReplyFlags.REPLY_MORE);
+            Long pendingXid = last ? pendingFlowStatsXids.remove(dpid)
+                    : pendingFlowStatsXids.put(dpid, replies.getXid());
+            boolean first = pendingXid == null || pendingXid != replies.getXid();
 
             if (adaptiveFlowSampling && afsc != null)  {
                 List<FlowEntry> flowEntries = replies.getEntries().stream()
@@ -625,22 +677,38 @@ public class OpenFlowRuleProvider extends AbstractProvider
                                   afsc.getFlowMissingXid(), replies.getXid(), dpid);
                     if (afsc.getFlowMissingXid() == replies.getXid()) {
                         // call entire flow stats update with flowMissing synchronization.
-                        // used existing pushFlowMetrics
-                        providerService.pushFlowMetrics(did, flowEntries);
+                        providerService.pushFlowMetricsPart(did, flowEntries, first, last);
+                    }
+                    // reset flowMissingXid to NO_FLOW_MISSING_XID once the reply is complete
+                    if (last || afsc.getFlowMissingXid() != replies.getXid()) {
+                        afsc.setFlowMissingXid(NewAdaptiveFlowStatsCollector.NO_FLOW_MISSING_XID);
                     }
-                    // reset flowMissingXid to NO_FLOW_MISSING_XID
-                    afsc.setFlowMissingXid(NewAdaptiveFlowStatsCollector.NO_FLOW_MISSING_XID);
                 } else {
                     // call individual flow stats update
                     providerService.pushFlowMetricsWithoutFlowMissing(did, flowEntries);
                 }
+            } else if (hierarchicalFlowSampling && hfsc != null) {
+                List<FlowEntry> flowEntries = replies.getEntries().stream()
+                        .map(entry -> new FlowEntryBuilder(did, entry, driverService).build())
+                        .collect(Collectors.toList());
+
+                if (hfsc.getFullSyncXid() == replies.getXid()) {
+                    // reply covering all tables, flows absent from it are missing
+                    providerService.pushFlowMetricsPart(did, flowEntries, first, last);
+                    if (last) {
+                        hfsc.setFullSyncXid(HierarchicalFlowStatsCollector.NO_FULL_SYNC_XID);
+                    }
+                } else {
+                    // reply covering the changed tables only
+                    providerService.pushFlowMetricsWithoutFlowMissing(did, flowEntries);
+                }
             } else {
                 List<FlowEntry> flowEntries = replies.getEntries().stream()
                         .map(entry -> new FlowEntryBuilder(did, entry, driverService).build())
                         .collect(Collectors.toList());
 
-                // call existing entire flow stats update with flowMissing synchronization
-                providerService.pushFlowMetrics(did, flowEntries);
+                // call entire flow stats update with flowMissing synchronization
+                providerService.pushFlowMetricsPart(did, flowEntries, first, last);
             }
         }
 
@@ -175,10 +175,11 @@ public class FlowEntryBuilder {
         try {
             switch (this.type) {
                 case STAT:
+                    // selector and treatment are decoded on demand by the entry
                     builder = DefaultFlowRule.builder()
                             .forDevice(deviceId)
-                            .withSelector(buildSelector())
-                            .withTreatment(buildTreatment())
+                            .withSelector(DefaultTrafficSelector.emptySelector())
+                            .withTreatment(DefaultTrafficTreatment.emptyTreatment())
                             .withPriority(stat.getPriority())
                             .withIdleTimeout(stat.getIdleTimeout())
                             .withCookie(stat.getCookie().getValue());
@@ -188,17 +189,20 @@ public class FlowEntryBuilder {
 
                     if (afsc != null) {
                         FlowEntry.FlowLiveType liveType = afsc.calFlowLiveType(stat.getDurationSec());
-                        return new DefaultFlowEntry(builder.build(), FlowEntryState.ADDED,
-                                                    SECONDS.toNanos(stat.getDurationSec())
-                                                            + stat.getDurationNsec(), NANOSECONDS,
-                                                    liveType,
-                                                    stat.getPacketCount().getValue(),
-                                                    stat.getByteCount().getValue());
+                        return new LazyFlowEntry(builder.build(), FlowEntryState.ADDED,
+                                                 SECONDS.toNanos(stat.getDurationSec())
+                                                         + stat.getDurationNsec(), NANOSECONDS,
+                                                 liveType,
+                                                 stat.getPacketCount().getValue(),
+                                                 stat.getByteCount().getValue(),
+                                                 this::buildSelector, this::buildTreatment);
                     } else {
-                        return new DefaultFlowEntry(builder.build(), FlowEntryState.ADDED,
-                                                    stat.getDurationSec(),
-                                                    stat.getPacketCount().getValue(),
-                                                    stat.getByteCount().getValue());
+                        return new LazyFlowEntry(builder.build(), FlowEntryState.ADDED,
+                                                 stat.getDurationSec(), SECONDS,
+                                                 FlowEntry.FlowLiveType.UNKNOWN,
+                                                 stat.getPacketCount().getValue(),
+                                                 stat.getByteCount().getValue(),
+                                                 this::buildSelector, this::buildTreatment);
                     }
 
                 case REMOVED:
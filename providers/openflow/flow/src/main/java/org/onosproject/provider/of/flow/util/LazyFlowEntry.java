@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.of.flow.util;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.TrafficTreatment;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Flow entry whose selector and treatment are decoded from the OpenFlow
+ * message on first access, rather than when the entry is built.
+ * <p>
+ * Entries are decoded off the channel thread, once the flow rule service
+ * compares them with the stored rules, which then only stores and publishes
+ * plain copies. The entry compares, hashes and prints itself through the
+ * decoded selector and treatment.
+ */
+final class LazyFlowEntry extends DefaultFlowEntry {
+
+    private final Supplier<TrafficSelector> selector;
+    private final Supplier<TrafficTreatment> treatment;
+
+    /**
+     * Creates a lazily decoded flow entry.
+     *
+     * @param rule      flow rule carrying everything but the selector and
+     *                  treatment
+     * @param state     flow entry state
+     * @param life      duration of the flow
+     * @param unit      time unit of the duration
+     * @param liveType  flow live type
+     * @param packets   number of packets of the flow
+     * @param bytes     number of bytes of the flow
+     * @param selector  decodes the selector of the flow
+     * @param treatment decodes the treatment of the flow
+     */
+    LazyFlowEntry(FlowRule rule, FlowEntryState state, long life, TimeUnit unit,
+                  FlowLiveType liveType, long packets, long bytes,
+                  Supplier<TrafficSelector> selector,
+                  Supplier<TrafficTreatment> treatment) {
+        super(rule, state, life, unit, liveType, packets, bytes);
+        this.selector = Suppliers.memoize(selector);
+        this.treatment = Suppliers.memoize(treatment);
+    }
+
+    @Override
+    public TrafficSelector selector() {
+        return selector.get();
+    }
+
+    @Override
+    public TrafficTreatment treatment() {
+        return treatment.get();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(deviceId(), selector(), tableId(), payLoad());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof FlowRule) {
+            FlowRule that = (FlowRule) obj;
+            return Objects.equals(deviceId(), that.deviceId()) &&
+                    priority() == that.priority() &&
+                    tableId() == that.tableId() &&
+                    Objects.equals(payLoad(), that.payLoad()) &&
+                    Objects.equals(selector(), that.selector());
+        }
+        return false;
+    }
+
+    @Override
+    public boolean exactMatch(FlowRule rule) {
+        return equals(rule) &&
+                Objects.equals(id(), rule.id()) &&
+                Objects.equals(treatment(), rule.treatment());
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("id", Long.toHexString(id().value()))
+                .add("deviceId", deviceId())
+                .add("priority", priority())
+                .add("selector", selector().criteria())
+                .add("treatment", treatment())
+                .add("tableId", tableId())
+                .add("state", state())
+                .add("packets", packets())
+                .add("bytes", bytes())
+                .toString();
+    }
+}
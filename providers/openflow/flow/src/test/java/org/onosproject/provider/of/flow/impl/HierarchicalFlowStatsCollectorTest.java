@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.of.flow.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.openflow.controller.OpenFlowSwitchAdapter;
+import org.onosproject.openflow.controller.RoleState;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFTableStatsEntry;
+import org.projectfloodlight.openflow.protocol.OFTableStatsReply;
+import org.projectfloodlight.openflow.protocol.OFTableStatsRequest;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.types.TableId;
+import org.projectfloodlight.openflow.types.U64;
+
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.onosproject.provider.of.flow.impl.HierarchicalFlowStatsCollector.SECONDS;
+
+/**
+ * Unit tests for the scheduling of the hierarchical flow stats collector.
+ */
+public class HierarchicalFlowStatsCollectorTest {
+
+    private static final OFFactory FACTORY = OFFactories.getFactory(OFVersion.OF_13);
+    private static final int POLL_INTERVAL = 10;
+    private static final TableId TABLE_0 = TableId.of(0);
+    private static final TableId TABLE_1 = TableId.of(1);
+
+    private TestTimer timer;
+    private TestSwitch sw;
+    private HierarchicalFlowStatsCollector collector;
+
+    @Before
+    public void setUp() {
+        timer = new TestTimer();
+        sw = new TestSwitch();
+        collector = new HierarchicalFlowStatsCollector(timer, sw, POLL_INTERVAL);
+        collector.start();
+        assertThat(timer.delay, is((long) SECONDS));
+    }
+
+    @After
+    public void tearDown() {
+        collector.stop();
+        timer.cancel();
+    }
+
+    /**
+     * Runs the scheduled poll and answers it with the given table counters.
+     *
+     * @param matched matched counts of tables 0 and 1
+     * @return poll intervals until the next poll
+     */
+    private long poll(long... matched) {
+        timer.task.run();
+        long intervals = timer.delay / (POLL_INTERVAL * SECONDS);
+        assertThat(sw.sent.remove(sw.sent.size() - 1) instanceof OFTableStatsRequest, is(true));
+
+        List<OFTableStatsEntry> entries = Lists.newArrayList();
+        for (int i = 0; i < matched.length; i++) {
+            entries.add(FACTORY.buildTableStatsEntry()
+                                .setTableId(TableId.of(i))
+                                .setActiveCount(1)
+                                .setLookupCount(U64.of(matched[i]))
+                                .setMatchedCount(U64.of(matched[i]))
+                                .build());
+        }
+        OFTableStatsReply reply = FACTORY.buildTableStatsReply()
+                .setEntries(entries)
+                .setFlags(ImmutableSet.of())
+                .build();
+        collector.tableStatsReceived(reply);
+        return intervals;
+    }
+
+    private List<TableId> flowStatsRequests() {
+        List<TableId> tables = sw.sent.stream()
+                .map(m -> ((OFFlowStatsRequest) m).getTableId())
+                .collect(Collectors.toList());
+        sw.sent.clear();
+        return tables;
+    }
+
+    /**
+     * Tests that a quiet switch backs off, but never past the next request
+     * for the statistics of all flows.
+     */
+    @Test
+    public void testBackoffAndFullSyncSchedule() {
+        // first poll requests all flows, every table being new
+        assertThat(poll(1, 1), is(1L));
+        assertThat(flowStatsRequests(), is(ImmutableList.of(TableId.ALL)));
+
+        // quiet polls back off, capped by the next full sync
+        assertThat(poll(1, 1), is(1L));
+        assertThat(flowStatsRequests(), is(ImmutableList.of()));
+        assertThat(poll(1, 1), is(2L));
+        assertThat(flowStatsRequests(), is(ImmutableList.of()));
+        assertThat(poll(1, 1), is(2L));
+        assertThat(flowStatsRequests(), is(ImmutableList.of()));
+
+        // full sync 1 + 1 + 2 + 2 = FULL_SYNC_INTERVALS poll intervals
+        // after the first one
+        assertThat(poll(1, 1), is((long) HierarchicalFlowStatsCollector.MAX_BACKOFF));
+        assertThat(flowStatsRequests(), is(ImmutableList.of(TableId.ALL)));
+
+        // a change resets the backoff once the next poll is made
+        assertThat(poll(1, 2), is(2L));
+        assertThat(flowStatsRequests(), is(ImmutableList.of(TABLE_1)));
+        assertThat(poll(1, 2), is(1L));
+        assertThat(flowStatsRequests(), is(ImmutableList.of(TableId.ALL)));
+    }
+
+    /**
+     * Tests that flow statistics are only requested for the tables whose
+     * counters changed between full syncs.
+     */
+    @Test
+    public void testChangedTablesPolled() {
+        poll(1, 1);
+        flowStatsRequests();
+
+        poll(2, 1);
+        assertThat(flowStatsRequests(), is(ImmutableList.of(TABLE_0)));
+        poll(2, 3);
+        assertThat(flowStatsRequests(), is(ImmutableList.of(TABLE_1)));
+        poll(2, 3);
+        assertThat(flowStatsRequests(), is(ImmutableList.of()));
+    }
+
+    /**
+     * Tests that adjusting the poll interval resets the backoff.
+     */
+    @Test
+    public void testAdjustPollIntervalResetsBackoff() {
+        poll(1, 1);
+        poll(1, 1);
+        poll(1, 1);
+        assertThat(timer.delay, is(2L * POLL_INTERVAL * SECONDS));
+
+        collector.adjustPollInterval(POLL_INTERVAL * 2);
+        assertThat(timer.delay, is(2L * POLL_INTERVAL * SECONDS));
+        poll(1, 1);
+        assertThat(timer.delay, is(2L * POLL_INTERVAL * SECONDS));
+    }
+
+    /**
+     * Timer recording the last scheduled task instead of running it.
+     */
+    private static class TestTimer extends Timer {
+        private TimerTask task;
+        private long delay;
+
+        @Override
+        public void schedule(TimerTask task, long delay) {
+            this.task = task;
+            this.delay = delay;
+        }
+    }
+
+    /**
+     * Master switch recording the messages sent to it.
+     */
+    private static class TestSwitch extends OpenFlowSwitchAdapter {
+        private final List<OFMessage> sent = Lists.newArrayList();
+
+        @Override
+        public void sendMsg(OFMessage msg) {
+            sent.add(msg);
+        }
+
+        @Override
+        public RoleState getRole() {
+            return RoleState.MASTER;
+        }
+
+        @Override
+        public OFFactory factory() {
+            return FACTORY;
+        }
+    }
+}
@@ -39,6 +39,9 @@ public class AdjacencyListsGraph<V extends Vertex, E extends Edge<V>>
     private final ImmutableSetMultimap<V, E> sources;
     private final ImmutableSetMultimap<V, E> destinations;
 
+    // Compact view for the graph searches, built on first use
+    private transient volatile CompactGraph<V, E> compact;
+
     /**
      * Creates a graph comprising of the specified vertexes and edges.
      *
@@ -93,6 +96,20 @@ public class AdjacencyListsGraph<V extends Vertex, E extends Edge<V>>
         return destinations.get(dst);
     }
 
+    /**
+     * Returns the compact, array-backed view of this graph.
+     *
+     * @return compact graph
+     */
+    CompactGraph<V, E> compact() {
+        CompactGraph<V, E> result = compact;
+        if (result == null) {
+            result = new CompactGraph<>(this);
+            compact = result;
+        }
+        return result;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -28,6 +28,12 @@ public class BreadthFirstSearch<V extends Vertex, E extends Edge<V>>
     protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
                                EdgeWeigher<V, E> weigher, int maxPaths) {
 
+        // Immutable graphs are searched using their compact form.
+        if (graph instanceof AdjacencyListsGraph) {
+            return compactSearch(((AdjacencyListsGraph<V, E>) graph).compact(),
+                                 src, dst, weigher, maxPaths);
+        }
+
         // Prepare the graph result.
         DefaultResult result = new DefaultResult(src, dst, maxPaths);
 
@@ -75,4 +81,62 @@ public class BreadthFirstSearch<V extends Vertex, E extends Edge<V>>
         return result;
     }
 
+    // Searches the compact graph, keeping the costs and parent edges in arrays
+    // indexed by vertex number, and the frontiers in arrays of vertex numbers.
+    private Result<V, E> compactSearch(CompactGraph<V, E> graph, V src, V dst,
+                                       EdgeWeigher<V, E> weigher, int maxPaths) {
+        int target = dst == null ? -1 : graph.index(dst);
+
+        Weight[] costs = new Weight[graph.vertexCount()];
+        Object[] parents = new Object[graph.vertexCount()];
+        int[] frontier = new int[graph.vertexCount()];
+        int[] next = new int[graph.vertexCount()];
+
+        // Setup the starting frontier with the source as the sole vertex.
+        frontier[0] = graph.index(src);
+        int frontierSize = 1;
+        costs[frontier[0]] = weigher.getInitialWeight();
+
+        boolean reachedEnd = false;
+        while (!reachedEnd && frontierSize > 0) {
+            int nextSize = 0;
+
+            // Visit all egress edges of the vertexes in the current frontier.
+            for (int i = 0; i < frontierSize && !reachedEnd; i++) {
+                int vertex = frontier[i];
+                for (int slot = graph.firstEdge(vertex); slot < graph.lastEdge(vertex); slot++) {
+                    int nextVertex = graph.target(slot);
+                    if (costs[nextVertex] == null) {
+                        E edge = graph.edge(slot);
+                        costs[nextVertex] = costs[vertex].merge(weigher.weight(edge));
+                        parents[nextVertex] = edge;
+                        // If we have reached our intended destination, bail.
+                        if (nextVertex == target) {
+                            reachedEnd = true;
+                            break;
+                        }
+                        next[nextSize++] = nextVertex;
+                    }
+                }
+            }
+
+            // Promote the next frontier.
+            int[] visited = frontier;
+            frontier = next;
+            next = visited;
+            frontierSize = nextSize;
+        }
+
+        DefaultResult result = new DefaultResult(src, dst, maxPaths);
+        for (int i = 0; i < costs.length; i++) {
+            if (costs[i] != null) {
+                @SuppressWarnings("unchecked")
+                E parent = (E) parents[i];
+                result.updateVertex(graph.vertex(i), parent, costs[i], true);
+            }
+        }
+        result.buildPaths();
+        return result;
+    }
+
 }
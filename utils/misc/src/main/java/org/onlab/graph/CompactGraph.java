@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact, array-backed view of the egress edges of an immutable graph, in
+ * compressed sparse row form.
+ * <p>
+ * Vertexes are numbered from 0; the egress edges of vertex {@code i} occupy
+ * the slots {@code firstEdge(i)} to {@code lastEdge(i) - 1}, each slot
+ * holding the edge and the number of its destination vertex. Searches can
+ * then keep their state in arrays indexed by vertex number rather than in
+ * maps keyed by vertex.
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ */
+final class CompactGraph<V extends Vertex, E extends Edge<V>> {
+
+    private final Object[] vertexes;
+    private final Map<V, Integer> indexes;
+    private final int[] offsets;
+    private final int[] targets;
+    private final Object[] edges;
+
+    /**
+     * Creates a compact view of the specified graph.
+     *
+     * @param graph graph whose vertexes include all edge end-points
+     */
+    CompactGraph(Graph<V, E> graph) {
+        int vertexCount = graph.getVertexes().size();
+        this.vertexes = graph.getVertexes().toArray();
+        this.indexes = new HashMap<>(vertexCount * 2);
+        for (int i = 0; i < vertexCount; i++) {
+            indexes.put(vertex(i), i);
+        }
+
+        this.offsets = new int[vertexCount + 1];
+        this.targets = new int[graph.getEdges().size()];
+        this.edges = new Object[graph.getEdges().size()];
+        int slot = 0;
+        for (int i = 0; i < vertexCount; i++) {
+            offsets[i] = slot;
+            for (E edge : graph.getEdgesFrom(vertex(i))) {
+                targets[slot] = indexes.get(edge.dst());
+                edges[slot] = edge;
+                slot++;
+            }
+        }
+        offsets[vertexCount] = slot;
+    }
+
+    /**
+     * Returns the number of vertexes.
+     *
+     * @return vertex count
+     */
+    int vertexCount() {
+        return vertexes.length;
+    }
+
+    /**
+     * Returns the number of the specified vertex.
+     *
+     * @param vertex vertex
+     * @return vertex number; -1 if the vertex is not in the graph
+     */
+    int index(V vertex) {
+        Integer index = indexes.get(vertex);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the vertex with the specified number.
+     *
+     * @param index vertex number
+     * @return vertex
+     */
+    @SuppressWarnings("unchecked")
+    V vertex(int index) {
+        return (V) vertexes[index];
+    }
+
+    /**
+     * Returns the first egress edge slot of the specified vertex.
+     *
+     * @param index vertex number
+     * @return first edge slot
+     */
+    int firstEdge(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * Returns the slot following the last egress edge slot of the specified
+     * vertex.
+     *
+     * @param index vertex number
+     * @return end edge slot, exclusive
+     */
+    int lastEdge(int index) {
+        return offsets[index + 1];
+    }
+
+    /**
+     * Returns the edge in the specified slot.
+     *
+     * @param slot edge slot
+     * @return edge
+     */
+    @SuppressWarnings("unchecked")
+    E edge(int slot) {
+        return (E) edges[slot];
+    }
+
+    /**
+     * Returns the number of the destination vertex of the edge in the
+     * specified slot.
+     *
+     * @param slot edge slot
+     * @return destination vertex number
+     */
+    int target(int slot) {
+        return targets[slot];
+    }
+}
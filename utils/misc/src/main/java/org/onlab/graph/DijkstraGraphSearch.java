@@ -16,7 +16,9 @@
 package org.onlab.graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -30,6 +32,12 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
     protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
                                EdgeWeigher<V, E> weigher, int maxPaths) {
 
+        // Immutable graphs are searched using their compact form.
+        if (graph instanceof AdjacencyListsGraph) {
+            return compactSearch(((AdjacencyListsGraph<V, E>) graph).compact(),
+                                 src, dst, weigher, maxPaths);
+        }
+
         // Use the default result to remember cumulative costs and parent
         // edges to each each respective vertex.
         DefaultResult result = new DefaultResult(src, dst, maxPaths);
@@ -73,6 +81,148 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
         return result;
     }
 
+    // Searches the compact graph, keeping the costs and parent edges in arrays
+    // indexed by vertex number, and the vertexes to visit in an indexed heap.
+    private Result<V, E> compactSearch(CompactGraph<V, E> graph, V src, V dst,
+                                       EdgeWeigher<V, E> weigher, int maxPaths) {
+        int source = graph.index(src);
+        int target = dst == null ? -1 : graph.index(dst);
+
+        Weight[] costs = new Weight[graph.vertexCount()];
+        @SuppressWarnings("unchecked")
+        Set<E>[] parents = new Set[graph.vertexCount()];
+        costs[source] = weigher.getInitialWeight();
+
+        CostQueue minQueue = new CostQueue(costs);
+        minQueue.push(source);
+        while (!minQueue.isEmpty()) {
+            // Get the nearest vertex
+            int nearest = minQueue.pop();
+            if (nearest == target) {
+                break;
+            }
+
+            // Relax all its egress edges.
+            Weight cost = costs[nearest];
+            for (int slot = graph.firstEdge(nearest); slot < graph.lastEdge(nearest); slot++) {
+                E edge = graph.edge(slot);
+                Weight hopCost = weigher.weight(edge);
+                if (!hopCost.isViable() || hopCost.isNegative()) {
+                    continue;
+                }
+                Weight newCost = cost.merge(hopCost);
+
+                int v = graph.target(slot);
+                int compareResult = costs[v] == null ? -1 : newCost.compareTo(costs[v]);
+                if (compareResult <= 0) {
+                    costs[v] = newCost;
+                    if (parents[v] == null) {
+                        parents[v] = new HashSet<>();
+                    } else if (compareResult < 0) {
+                        parents[v].clear();
+                    }
+                    if (maxPaths == ALL_PATHS || parents[v].size() < maxPaths) {
+                        parents[v].add(edge);
+                    }
+                    if (compareResult < 0) {
+                        minQueue.push(v);
+                    }
+                }
+            }
+        }
+
+        // Now construct a set of paths from the results.
+        DefaultResult result = new DefaultResult(src, dst, maxPaths);
+        for (int i = 0; i < costs.length; i++) {
+            if (costs[i] != null) {
+                result.costs.put(graph.vertex(i), costs[i]);
+                if (parents[i] != null) {
+                    result.parents.put(graph.vertex(i), parents[i]);
+                }
+            }
+        }
+        result.buildPaths();
+        return result;
+    }
+
+    // Min priority queue of vertex numbers, ordered by their current cost,
+    // supporting in place decrease of the cost of queued vertexes.
+    private static final class CostQueue {
+        private final Weight[] costs;
+        private final int[] heap;
+        private final int[] positions;
+        private int size;
+
+        private CostQueue(Weight[] costs) {
+            this.costs = costs;
+            this.heap = new int[costs.length];
+            this.positions = new int[costs.length];
+            Arrays.fill(positions, -1);
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        // Queues the vertex, or moves it up after its cost decreased
+        private void push(int vertex) {
+            int position = positions[vertex];
+            if (position < 0) {
+                position = size++;
+                place(vertex, position);
+            }
+            siftUp(position);
+        }
+
+        private int pop() {
+            int nearest = heap[0];
+            positions[nearest] = -1;
+            if (--size > 0) {
+                place(heap[size], 0);
+                siftDown(0);
+            }
+            return nearest;
+        }
+
+        private void siftUp(int position) {
+            int vertex = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (costs[heap[parent]].compareTo(costs[vertex]) <= 0) {
+                    break;
+                }
+                place(heap[parent], position);
+                position = parent;
+            }
+            place(vertex, position);
+        }
+
+        private void siftDown(int position) {
+            int vertex = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size &&
+                        costs[heap[child + 1]].compareTo(costs[heap[child]]) < 0) {
+                    child++;
+                }
+                if (costs[vertex].compareTo(costs[heap[child]]) <= 0) {
+                    break;
+                }
+                place(heap[child], position);
+                position = child;
+            }
+            place(vertex, position);
+        }
+
+        private void place(int vertex, int position) {
+            heap[position] = vertex;
+            positions[vertex] = position;
+        }
+    }
+
     // Compares path weights using their accrued costs; used for sorting the
     // min priority queue.
     private final class PathCostComparator implements Comparator<V> {
@@ -23,6 +23,7 @@ import java.util.Set;
 
 import static com.google.common.collect.ImmutableSet.of;
 import static org.junit.Assert.assertEquals;
+import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
 
 /**
  * Test of the Dijkstra algorithm.
@@ -47,6 +48,22 @@ public class DijkstraGraphSearchTest extends BreadthFirstSearchTest {
         executeDefaultTest(10, 3, new ScalarWeight(3.0));
     }
 
+    @Test
+    public void compactGraph() {
+        // Immutable graphs are searched in compact form, others are not
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        Graph<TestVertex, TestEdge> mutable = new MutableAdjacencyListsGraph<>(vertexes(), edges());
+        GraphPathSearch<TestVertex, TestEdge> gs = graphSearch();
+        for (TestVertex dst : vertexes()) {
+            assertEquals("incorrect paths", gs.search(mutable, A, dst, weigher, ALL_PATHS).paths(),
+                         gs.search(graph, A, dst, weigher, ALL_PATHS).paths());
+            assertEquals("incorrect paths", gs.search(mutable, A, dst, hopWeigher, ALL_PATHS).paths(),
+                         gs.search(graph, A, dst, hopWeigher, ALL_PATHS).paths());
+        }
+        assertEquals("incorrect costs", gs.search(mutable, A, null, weigher, ALL_PATHS).costs(),
+                     gs.search(graph, A, null, weigher, ALL_PATHS).costs());
+    }
+
     @Test
     public void noPath() {
         graph = new AdjacencyListsGraph<>(of(A, B, C, D),
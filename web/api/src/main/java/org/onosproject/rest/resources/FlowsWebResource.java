@@ -15,6 +15,8 @@
  */
 package org.onosproject.rest.resources;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -22,17 +24,21 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
 import org.onlab.util.ItemNotFoundException;
 import org.onosproject.app.ApplicationService;
+import org.onosproject.codec.JsonCodec;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleOperations;
+import org.onosproject.net.flow.FlowRuleOperationsContext;
 import org.onosproject.net.flow.FlowRuleService;
 import org.onosproject.rest.AbstractWebResource;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -48,6 +54,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.StreamSupport;
 
 import static org.onlab.util.Tools.nullIsIllegal;
@@ -70,6 +80,13 @@ public class FlowsWebResource extends AbstractWebResource {
     private static final String FLOWS = "flows";
     private static final String DEVICE_ID = "deviceId";
     private static final String FLOW_ID = "flowId";
+    private static final String CHUNKS = "chunks";
+    private static final String CHUNK = "chunk";
+    private static final String STATUS = "status";
+    private static final String INVALID_CHUNK_SIZE = "Chunk size must be positive";
+
+    // Time given to the flow rule operations of a bulk request to complete
+    private static final long BULK_TIMEOUT_MILLIS = 30000;
 
     private final FlowRuleService service = get(FlowRuleService.class);
     private final ObjectNode root = mapper().createObjectNode();
@@ -136,6 +153,131 @@ public class FlowsWebResource extends AbstractWebResource {
         return Response.ok(root).build();
     }
 
+    /**
+     * Creates new flow rules in bulk. Parses the flow rules one at a time and
+     * installs them in chunks of the given size, each chunk as a separate
+     * batch of flow rule operations, so that large numbers of flow rules can
+     * be created without holding them all in memory.<br>
+     * Chunks parsed before an invalid flow rule are still installed.
+     *
+     * @param appId     application id
+     * @param chunkSize number of flow rules installed per chunk
+     * @param stream    flow rules JSON
+     * @return 200 OK with the number of flow rules and status of every chunk,
+     * BAD_REQUEST if the JSON is invalid
+     * @onos.rsModel FlowsBatchPost
+     */
+    @POST
+    @Path("bulk")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response createFlowsInBulk(@QueryParam("appId") String appId,
+                                      @DefaultValue("1000") @QueryParam("chunkSize") int chunkSize,
+                                      InputStream stream) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException(INVALID_CHUNK_SIZE);
+        }
+
+        JsonCodec<FlowRule> flowRuleCodec = codec(FlowRule.class);
+        List<BulkChunk> chunks = new ArrayList<>();
+        boolean flowsFound = false;
+        try (JsonParser parser = mapper().getFactory().createParser(stream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException(FLOW_ARRAY_REQUIRED);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                if (parser.nextToken() != JsonToken.START_ARRAY || !FLOWS.equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                flowsFound = true;
+
+                List<FlowRule> rules = new ArrayList<>(chunkSize);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    ObjectNode flowJson = mapper().readTree(parser);
+                    if (appId != null) {
+                        flowJson.put("appId", appId);
+                    }
+                    rules.add(flowRuleCodec.decode(flowJson, this));
+                    if (rules.size() == chunkSize) {
+                        chunks.add(applyChunk(rules));
+                        rules = new ArrayList<>(chunkSize);
+                    }
+                }
+                if (parser.getCurrentToken() != JsonToken.END_ARRAY) {
+                    throw new IllegalArgumentException(FLOW_ARRAY_REQUIRED);
+                }
+                if (!rules.isEmpty()) {
+                    chunks.add(applyChunk(rules));
+                }
+            }
+        } catch (IOException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+        if (!flowsFound) {
+            throw new IllegalArgumentException(FLOW_ARRAY_REQUIRED);
+        }
+
+        ObjectNode result = mapper().createObjectNode();
+        ArrayNode chunksNode = result.putArray(CHUNKS);
+        long deadline = System.currentTimeMillis() + BULK_TIMEOUT_MILLIS;
+        for (int i = 0; i < chunks.size(); i++) {
+            BulkChunk chunk = chunks.get(i);
+            chunksNode.addObject()
+                    .put(CHUNK, i)
+                    .put(FLOWS, chunk.size)
+                    .put(STATUS, chunk.status(deadline));
+        }
+        return Response.ok(result).build();
+    }
+
+    // Submits the given flow rules as a single batch of flow rule operations
+    private BulkChunk applyChunk(List<FlowRule> rules) {
+        FlowRuleOperations.Builder builder = FlowRuleOperations.builder();
+        rules.forEach(builder::add);
+        BulkChunk chunk = new BulkChunk(rules.size());
+        service.apply(builder.build(chunk));
+        return chunk;
+    }
+
+    /**
+     * Outcome of the flow rule operations of a chunk of a bulk request.
+     */
+    private static final class BulkChunk implements FlowRuleOperationsContext {
+        private final int size;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private BulkChunk(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public void onSuccess(FlowRuleOperations ops) {
+            result.complete(true);
+        }
+
+        @Override
+        public void onError(FlowRuleOperations ops) {
+            result.complete(false);
+        }
+
+        // Waits until the given deadline for the operations to complete
+        private String status(long deadline) {
+            try {
+                long timeout = Math.max(0, deadline - System.currentTimeMillis());
+                return result.get(timeout, TimeUnit.MILLISECONDS) ? "SUCCEEDED" : "FAILED";
+            } catch (TimeoutException e) {
+                return "PENDING";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "PENDING";
+            } catch (ExecutionException e) {
+                return "FAILED";
+            }
+        }
+    }
+
     /**
      * Gets flow entries of a device. Returns array of all flow rules for the
      * specified device.
@@ -41,6 +41,8 @@ import org.onosproject.net.device.PortStatistics;
 import org.onosproject.net.flow.FlowRuleService;
 import org.onosproject.net.flow.TableStatisticsEntry;
 import org.onosproject.net.link.LinkService;
+import org.onosproject.net.packet.PacketInStatistics;
+import org.onosproject.net.packet.PacketService;
 import org.onosproject.net.statistic.Load;
 import org.onosproject.net.statistic.StatisticService;
 import org.onosproject.rest.AbstractWebResource;
@@ -331,4 +333,32 @@ public class StatisticsWebResource  extends AbstractWebResource {
         return ok(root).build();
     }
 
+    /**
+     * Gets the inbound packets admitted and dropped per connect point.
+     * @onos.rsModel StatisticsPacketIn
+     * @param deviceId (optional) device ID to report on
+     * @return 200 OK with JSON encoded array of inbound packet statistics
+     */
+    @GET
+    @Path("packetin")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getPacketInStatistics(@QueryParam("device") String deviceId) {
+        final PacketService service = get(PacketService.class);
+        final ObjectNode root = mapper().createObjectNode();
+        final ArrayNode rootArrayNode = root.putArray("statistics");
+        for (final PacketInStatistics entry : service.getPacketInStatistics()) {
+            final ConnectPoint cp = entry.connectPoint();
+            if (deviceId != null && !cp.deviceId().equals(deviceId(deviceId))) {
+                continue;
+            }
+            rootArrayNode.addObject()
+                    .put("device", cp.deviceId().toString())
+                    .put("port", cp.port().toString())
+                    .put("admitted", entry.admitted())
+                    .put("dropped", entry.dropped());
+        }
+
+        return ok(root).build();
+    }
+
 }
@@ -55,6 +55,7 @@ import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowEntryAdapter;
 import org.onosproject.net.flow.FlowId;
 import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleOperations;
 import org.onosproject.net.flow.FlowRuleService;
 import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
@@ -73,6 +74,7 @@ import static org.easymock.EasyMock.anyString;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.hamcrest.Matchers.containsString;
@@ -775,6 +777,51 @@ public class FlowsResourceTest extends ResourceTest {
         assertThat(location, Matchers.startsWith("/flows/of:0000000000000001/"));
     }
 
+    /**
+     * Tests creating flows in bulk with POST.
+     */
+    @Test
+    public void testPostBulk() {
+        mockFlowService.apply(anyObject());
+        expectLastCall().andAnswer(() -> {
+            FlowRuleOperations ops = (FlowRuleOperations) getCurrentArguments()[0];
+            assertThat(ops.stages().get(0).size(), Matchers.lessThanOrEqualTo(2));
+            ops.callback().onSuccess(ops);
+            return null;
+        }).times(2);
+        replay(mockFlowService);
+
+        WebTarget wt = target();
+        InputStream jsonStream = FlowsResourceTest.class
+                .getResourceAsStream("post-flows-bulk.json");
+
+        String response = wt.path("flows/bulk")
+                .queryParam("chunkSize", 2)
+                .request(MediaType.APPLICATION_JSON_TYPE)
+                .post(Entity.json(jsonStream), String.class);
+
+        final JsonObject result = Json.parse(response).asObject();
+        final JsonArray chunks = result.get("chunks").asArray();
+        assertThat(chunks.size(), is(2));
+        assertThat(chunks.get(0).asObject().get("flows").asInt(), is(2));
+        assertThat(chunks.get(1).asObject().get("flows").asInt(), is(1));
+        assertThat(chunks.get(1).asObject().get("status").asString(), is("SUCCEEDED"));
+    }
+
+    /**
+     * Tests that a bulk POST without flows array is rejected.
+     */
+    @Test
+    public void testPostBulkWithoutFlows() {
+        replay(mockFlowService);
+
+        WebTarget wt = target();
+        Response response = wt.path("flows/bulk")
+                .request(MediaType.APPLICATION_JSON_TYPE)
+                .post(Entity.json("{\"devices\": []}"));
+        assertThat(response.getStatus(), is(HttpURLConnection.HTTP_BAD_REQUEST));
+    }
+
     /**
      * Tests deleting a flow.
      */
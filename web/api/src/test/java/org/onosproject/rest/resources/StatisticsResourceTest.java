@@ -29,6 +29,8 @@ import org.onosproject.codec.CodecService;
 import org.onosproject.codec.impl.CodecManager;
 import org.onosproject.net.Link;
 import org.onosproject.net.link.LinkService;
+import org.onosproject.net.packet.PacketInStatistics;
+import org.onosproject.net.packet.PacketService;
 import org.onosproject.net.statistic.DefaultLoad;
 import org.onosproject.net.statistic.StatisticService;
 
@@ -61,6 +63,7 @@ public class StatisticsResourceTest extends ResourceTest {
 
     LinkService mockLinkService;
     StatisticService mockStatisticService;
+    PacketService mockPacketService;
 
     /**
      * Initializes test mocks and environment.
@@ -81,7 +84,14 @@ public class StatisticsResourceTest extends ResourceTest {
         expect(mockStatisticService.load(link3))
                 .andReturn(new DefaultLoad(222, 111, 1));
 
-        replay(mockLinkService, mockStatisticService);
+        mockPacketService = createMock(PacketService.class);
+        expect(mockPacketService.getPacketInStatistics())
+                .andReturn(ImmutableList.of(
+                        new PacketInStatistics(connectPoint("0000000000000001", 1), 10, 2),
+                        new PacketInStatistics(connectPoint("0000000000000002", 1), 20, 0)))
+                .anyTimes();
+
+        replay(mockLinkService, mockStatisticService, mockPacketService);
 
         // Register the services needed for the test
         CodecManager codecService = new CodecManager();
@@ -90,6 +100,7 @@ public class StatisticsResourceTest extends ResourceTest {
                 new TestServiceDirectory()
                         .add(LinkService.class, mockLinkService)
                         .add(StatisticService.class, mockStatisticService)
+                        .add(PacketService.class, mockPacketService)
                         .add(CodecService.class, codecService);
 
         BaseResource.setServiceDirectory(testDirectory);
@@ -179,4 +190,28 @@ public class StatisticsResourceTest extends ResourceTest {
         checkValues(load3, 111, 222, true, "src3");
 
     }
+
+    /**
+     * Tests GET of the inbound packet statistics of a device.
+     */
+    @Test
+    public void testPacketInStatisticsGet() {
+        final WebTarget wt = target();
+        final String response = wt.path("statistics/packetin")
+                .queryParam("device", "of:0000000000000001")
+                .request()
+                .get(String.class);
+
+        final JsonObject result = Json.parse(response).asObject();
+        assertThat(result, notNullValue());
+
+        final JsonArray stats = result.get("statistics").asArray();
+        assertThat(stats.size(), is(1));
+
+        final JsonObject stat = stats.get(0).asObject();
+        assertThat(stat.get("device").asString(), is("of:0000000000000001"));
+        assertThat(stat.get("port").asString(), is("1"));
+        assertThat(stat.get("admitted").asLong(), is(10L));
+        assertThat(stat.get("dropped").asLong(), is(2L));
+    }
 }